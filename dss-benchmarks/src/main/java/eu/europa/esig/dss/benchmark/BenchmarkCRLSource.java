@@ -0,0 +1,73 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * <p/>
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * <p/>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p/>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.benchmark;
+
+import java.security.cert.X509CRL;
+import java.util.Date;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.X509CRLHolder;
+import org.bouncycastle.cert.X509v2CRLBuilder;
+import org.bouncycastle.cert.jcajce.JcaX509CRLConverter;
+
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.x509.CertificateToken;
+import eu.europa.esig.dss.x509.crl.CRLSource;
+import eu.europa.esig.dss.x509.crl.CRLToken;
+import eu.europa.esig.dss.x509.crl.CRLUtils;
+import eu.europa.esig.dss.x509.crl.CRLValidity;
+
+/**
+ * This {@code CRLSource} returns, for each certificate issued by the root CA of the {@code BenchmarkPki}, the (empty) CRL of the root CA. The CRL is
+ * created in-process once.
+ */
+public class BenchmarkCRLSource implements CRLSource {
+
+	private static final long NEXT_UPDATE_DELAY = 7L * 24 * 60 * 60 * 1000;
+
+	private final BenchmarkPki pki;
+
+	private final X509CRL x509CRL;
+
+	BenchmarkCRLSource(final BenchmarkPki pki) throws Exception {
+
+		this.pki = pki;
+		final Date thisUpdate = new Date();
+		final X500Name issuer = pki.getRootCertificateHolder().getSubject();
+		final X509v2CRLBuilder builder = new X509v2CRLBuilder(issuer, thisUpdate);
+		builder.setNextUpdate(new Date(thisUpdate.getTime() + NEXT_UPDATE_DELAY));
+		final X509CRLHolder crlHolder = builder.build(BenchmarkPki.newContentSigner(pki.getRootPrivateKey()));
+		x509CRL = new JcaX509CRLConverter().getCRL(crlHolder);
+	}
+
+	@Override
+	public CRLToken findCrl(final CertificateToken certificateToken) throws DSSException {
+
+		final CertificateToken issuerToken = certificateToken == null ? null : certificateToken.getIssuerToken();
+		if (issuerToken == null || !pki.isRootCertificate(issuerToken)) {
+			return null;
+		}
+		final CRLValidity crlValidity = CRLUtils.isValidCRL(x509CRL, issuerToken);
+		final CRLToken crlToken = new CRLToken(certificateToken, crlValidity);
+		crlToken.setSourceURL("benchmark://crl");
+		return crlToken;
+	}
+}
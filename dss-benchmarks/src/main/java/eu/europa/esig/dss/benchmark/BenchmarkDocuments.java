@@ -0,0 +1,241 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * <p/>
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * <p/>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p/>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.benchmark;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.io.RandomAccessFile;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDStream;
+import org.apache.pdfbox.pdmodel.edit.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+
+import eu.europa.esig.dss.DSSDocument;
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.DSSUtils;
+import eu.europa.esig.dss.FileDocument;
+import eu.europa.esig.dss.InMemoryDocument;
+import eu.europa.esig.dss.MimeType;
+
+/**
+ * This class creates the synthetic documents to be signed. The documents are written once in the directory {@code dss-benchmarks} of the temporary
+ * directory and reused by the following runs. The content is pseudo-random but deterministic: a document only depends on its size.
+ * <p/>
+ * A document is written in a temporary file which is renamed when it is complete, and its size is checked before it is reused: a run interrupted
+ * while writing a document does not leave a truncated document for the next runs.
+ */
+public final class BenchmarkDocuments {
+
+	/**
+	 * The documents up to this size are kept in memory, the bigger ones are read from the file system.
+	 */
+	public static final long IN_MEMORY_MAX_SIZE = 16L * 1024 * 1024;
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private static final byte[] PDF_EOF = "%%EOF".getBytes();
+
+	private static final File DIRECTORY = new File(System.getProperty("java.io.tmpdir"), "dss-benchmarks");
+
+	private BenchmarkDocuments() {
+	}
+
+	/**
+	 * This method returns a binary document of the given size.
+	 *
+	 * @param size the size of the document in bytes
+	 * @return the {@code DSSDocument}
+	 */
+	public static DSSDocument getBinaryDocument(final long size) {
+
+		final File file = new File(DIRECTORY, "document-" + size + ".bin");
+		if (!file.exists() || file.length() != size) {
+
+			final File temporaryFile = createTemporaryFile(file);
+			OutputStream outputStream = null;
+			try {
+
+				outputStream = new BufferedOutputStream(new FileOutputStream(temporaryFile), BUFFER_SIZE);
+				writeContent(outputStream, size);
+				outputStream.close();
+				rename(temporaryFile, file);
+			} catch (IOException e) {
+				throw new DSSException(e);
+			} finally {
+				IOUtils.closeQuietly(outputStream);
+				FileUtils.deleteQuietly(temporaryFile);
+			}
+		}
+		return toDocument(file, MimeType.BINARY);
+	}
+
+	/**
+	 * This method returns a PDF document of approximately the given size: the document contains one page of text and a (not compressed) stream of
+	 * pseudo-random bytes of the given size. The stream is written in a scratch file, not in memory.
+	 *
+	 * @param size the size of the padding stream in bytes
+	 * @return the {@code DSSDocument}
+	 */
+	public static DSSDocument getPdfDocument(final long size) {
+
+		final File file = new File(DIRECTORY, "document-" + size + ".pdf");
+		if (!isCompletePdf(file, size)) {
+
+			final File temporaryFile = createTemporaryFile(file);
+			final File scratchFile = new File(temporaryFile.getPath() + ".scratch");
+			RandomAccessFile scratch = null;
+			PDDocument pdDocument = null;
+			try {
+
+				pdDocument = new PDDocument();
+				final PDPage page = new PDPage();
+				pdDocument.addPage(page);
+
+				final PDPageContentStream contentStream = new PDPageContentStream(pdDocument, page);
+				contentStream.beginText();
+				contentStream.setFont(PDType1Font.HELVETICA, 12);
+				contentStream.moveTextPositionByAmount(100, 700);
+				contentStream.drawString("DSS benchmark document: " + size + " bytes");
+				contentStream.endText();
+				contentStream.close();
+
+				scratch = new RandomAccessFile(scratchFile, "rw");
+				final PDStream padding = new PDStream(new COSStream(scratch));
+				final OutputStream outputStream = padding.createOutputStream();
+				try {
+					writeContent(outputStream, size);
+				} finally {
+					outputStream.close();
+				}
+				// The stream must be referenced to be written in the file
+				page.getCOSDictionary().setItem(COSName.getPDFName("DSSBenchmarkPadding"), padding);
+
+				pdDocument.save(temporaryFile);
+				pdDocument.close();
+				pdDocument = null;
+				rename(temporaryFile, file);
+			} catch (Exception e) {
+				throw new DSSException(e);
+			} finally {
+				if (pdDocument != null) {
+					try {
+						pdDocument.close();
+					} catch (IOException e) {
+						// ignore
+					}
+				}
+				IOUtils.closeQuietly(scratch);
+				FileUtils.deleteQuietly(scratchFile);
+				FileUtils.deleteQuietly(temporaryFile);
+			}
+		}
+		return toDocument(file, MimeType.PDF);
+	}
+
+	/**
+	 * @return true if the file contains at least the padding stream and ends with the {@code %%EOF} marker
+	 */
+	private static boolean isCompletePdf(final File file, final long size) {
+
+		if (!file.exists() || file.length() <= size) {
+			return false;
+		}
+		final int tailLength = 32;
+		final byte[] tail = new byte[(int) Math.min(tailLength, file.length())];
+		InputStream inputStream = null;
+		try {
+
+			inputStream = new FileInputStream(file);
+			IOUtils.skipFully(inputStream, file.length() - tail.length);
+			IOUtils.readFully(inputStream, tail);
+		} catch (IOException e) {
+			return false;
+		} finally {
+			IOUtils.closeQuietly(inputStream);
+		}
+		return new String(tail).contains(new String(PDF_EOF));
+	}
+
+	/**
+	 * @return a new temporary file in the directory of the given file
+	 */
+	private static File createTemporaryFile(final File file) {
+
+		try {
+			return File.createTempFile(file.getName() + "-", ".tmp", createDirectory(file).getParentFile());
+		} catch (IOException e) {
+			throw new DSSException(e);
+		}
+	}
+
+	private static void rename(final File temporaryFile, final File file) {
+
+		if (file.exists() && !file.delete()) {
+			throw new DSSException("Unable to replace the file: " + file.getAbsolutePath());
+		}
+		if (!temporaryFile.renameTo(file)) {
+			throw new DSSException("Unable to rename " + temporaryFile.getAbsolutePath() + " to " + file.getAbsolutePath());
+		}
+	}
+
+	private static DSSDocument toDocument(final File file, final MimeType mimeType) {
+
+		if (file.length() > IN_MEMORY_MAX_SIZE) {
+			return new FileDocument(file);
+		}
+		return new InMemoryDocument(DSSUtils.toByteArray(file), file.getName(), mimeType);
+	}
+
+	private static File createDirectory(final File file) {
+
+		final File directory = file.getParentFile();
+		if (!directory.exists() && !directory.mkdirs()) {
+			throw new DSSException("Unable to create the directory: " + directory.getAbsolutePath());
+		}
+		return file;
+	}
+
+	private static void writeContent(final OutputStream outputStream, final long size) throws IOException {
+
+		final Random random = new Random(size);
+		final byte[] buffer = new byte[BUFFER_SIZE];
+		long remaining = size;
+		while (remaining > 0) {
+
+			random.nextBytes(buffer);
+			final int length = (int) Math.min(buffer.length, remaining);
+			outputStream.write(buffer, 0, length);
+			remaining -= length;
+		}
+	}
+}
@@ -0,0 +1,175 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * <p/>
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * <p/>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p/>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.benchmark;
+
+import java.util.Collections;
+
+import eu.europa.esig.dss.AbstractSignatureParameters;
+import eu.europa.esig.dss.DSSDocument;
+import eu.europa.esig.dss.DigestAlgorithm;
+import eu.europa.esig.dss.SignatureLevel;
+import eu.europa.esig.dss.signature.SignaturePackaging;
+import eu.europa.esig.dss.cades.CAdESSignatureParameters;
+import eu.europa.esig.dss.cades.signature.CAdESService;
+import eu.europa.esig.dss.pades.PAdESSignatureParameters;
+import eu.europa.esig.dss.pades.signature.PAdESService;
+import eu.europa.esig.dss.signature.DocumentSignatureService;
+import eu.europa.esig.dss.validation.CertificateVerifier;
+import eu.europa.esig.dss.validation.SignedDocumentValidator;
+import eu.europa.esig.dss.xades.XAdESSignatureParameters;
+import eu.europa.esig.dss.xades.signature.XAdESService;
+
+/**
+ * The signature formats covered by the benchmarks. XAdES and CAdES signatures are detached, PAdES signatures are enveloped.
+ */
+public enum BenchmarkFormat {
+
+	XAdES(SignaturePackaging.DETACHED) {
+		@Override
+		DocumentSignatureService<?> newService(final CertificateVerifier certificateVerifier) {
+			return new XAdESService(certificateVerifier);
+		}
+
+		@Override
+		AbstractSignatureParameters newParameters() {
+			return new XAdESSignatureParameters();
+		}
+
+		@Override
+		public DSSDocument getDocument(final long size) {
+			return BenchmarkDocuments.getBinaryDocument(size);
+		}
+	},
+
+	CAdES(SignaturePackaging.DETACHED) {
+		@Override
+		DocumentSignatureService<?> newService(final CertificateVerifier certificateVerifier) {
+			return new CAdESService(certificateVerifier);
+		}
+
+		@Override
+		AbstractSignatureParameters newParameters() {
+			return new CAdESSignatureParameters();
+		}
+
+		@Override
+		public DSSDocument getDocument(final long size) {
+			return BenchmarkDocuments.getBinaryDocument(size);
+		}
+	},
+
+	PAdES(SignaturePackaging.ENVELOPED) {
+		@Override
+		DocumentSignatureService<?> newService(final CertificateVerifier certificateVerifier) {
+			return new PAdESService(certificateVerifier);
+		}
+
+		@Override
+		AbstractSignatureParameters newParameters() {
+			return new PAdESSignatureParameters();
+		}
+
+		@Override
+		public DSSDocument getDocument(final long size) {
+			return BenchmarkDocuments.getPdfDocument(size);
+		}
+	};
+
+	private final SignaturePackaging signaturePackaging;
+
+	BenchmarkFormat(final SignaturePackaging signaturePackaging) {
+		this.signaturePackaging = signaturePackaging;
+	}
+
+	abstract DocumentSignatureService<?> newService(final CertificateVerifier certificateVerifier);
+
+	abstract AbstractSignatureParameters newParameters();
+
+	/**
+	 * @param size the size of the document in bytes
+	 * @return the synthetic document to be signed in this format
+	 */
+	public abstract DSSDocument getDocument(final long size);
+
+	/**
+	 * @param level the baseline level: B, T, LT or LTA
+	 * @return the corresponding {@code SignatureLevel}
+	 */
+	public SignatureLevel getSignatureLevel(final String level) {
+		return SignatureLevel.valueOf(name() + "_BASELINE_" + level);
+	}
+
+	/**
+	 * This method creates the signature service of this format. The time-stamps are requested to the TSA of the given PKI.
+	 *
+	 * @param certificateVerifier the {@code CertificateVerifier} to use
+	 * @param pki                 the {@code BenchmarkPki}
+	 * @return the new signature service
+	 */
+	@SuppressWarnings("unchecked")
+	public DocumentSignatureService<AbstractSignatureParameters> createService(final CertificateVerifier certificateVerifier, final BenchmarkPki pki) {
+
+		// The parameters used with the service are always created by newParameters()
+		final DocumentSignatureService<AbstractSignatureParameters> service = (DocumentSignatureService<AbstractSignatureParameters>) newService(certificateVerifier);
+		service.setTspSource(pki.getTSPSource());
+		return service;
+	}
+
+	/**
+	 * This method creates the signature parameters for the given level.
+	 *
+	 * @param level    the baseline level: B, T, LT or LTA
+	 * @param pki      the {@code BenchmarkPki} providing the signing certificate
+	 * @param document the document to be signed, used as detached content
+	 * @return the new signature parameters
+	 */
+	public AbstractSignatureParameters createParameters(final String level, final BenchmarkPki pki, final DSSDocument document) {
+
+		final AbstractSignatureParameters parameters = newParameters();
+		parameters.setSignatureLevel(getSignatureLevel(level));
+		parameters.setSignaturePackaging(signaturePackaging);
+		parameters.setDigestAlgorithm(DigestAlgorithm.SHA256);
+		parameters.setSigningCertificate(pki.getSigningCertificate());
+		parameters.setCertificateChain(pki.getCertificateChain());
+		if (signaturePackaging == SignaturePackaging.DETACHED) {
+			parameters.setDetachedContent(document);
+		}
+		return parameters;
+	}
+
+	/**
+	 * This method creates the validator of the given signed document.
+	 *
+	 * @param signedDocument      the signed document
+	 * @param document            the signed content (used for the detached signatures)
+	 * @param certificateVerifier the {@code CertificateVerifier} to use
+	 * @return the new {@code SignedDocumentValidator}
+	 */
+	public SignedDocumentValidator createValidator(final DSSDocument signedDocument, final DSSDocument document, final CertificateVerifier certificateVerifier) {
+
+		final SignedDocumentValidator validator = SignedDocumentValidator.fromDocument(signedDocument);
+		validator.setCertificateVerifier(certificateVerifier);
+		if (signaturePackaging == SignaturePackaging.DETACHED) {
+			validator.setDetachedContents(Collections.singletonList(document));
+		}
+		return validator;
+	}
+}
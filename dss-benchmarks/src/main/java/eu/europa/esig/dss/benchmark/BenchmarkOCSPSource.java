@@ -0,0 +1,77 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * <p/>
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * <p/>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p/>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.benchmark;
+
+import java.util.Date;
+
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.ocsp.BasicOCSPResp;
+import org.bouncycastle.cert.ocsp.BasicOCSPRespBuilder;
+import org.bouncycastle.cert.ocsp.CertificateID;
+import org.bouncycastle.cert.ocsp.CertificateStatus;
+import org.bouncycastle.cert.ocsp.jcajce.JcaBasicOCSPRespBuilder;
+import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
+
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.DSSRevocationUtils;
+import eu.europa.esig.dss.x509.CertificateToken;
+import eu.europa.esig.dss.x509.OCSPToken;
+import eu.europa.esig.dss.x509.ocsp.OCSPSource;
+
+/**
+ * This {@code OCSPSource} produces, in-process, a "good" OCSP response for each certificate issued by the root CA of the {@code BenchmarkPki}. The
+ * responses are signed by the root CA.
+ */
+public class BenchmarkOCSPSource implements OCSPSource {
+
+	private static final long NEXT_UPDATE_DELAY = 24L * 60 * 60 * 1000;
+
+	private final transient BenchmarkPki pki;
+
+	BenchmarkOCSPSource(final BenchmarkPki pki) {
+		this.pki = pki;
+	}
+
+	@Override
+	public OCSPToken getOCSPToken(final CertificateToken certificateToken, final CertificateToken issuerCertificateToken) {
+
+		if (issuerCertificateToken == null || !pki.isRootCertificate(issuerCertificateToken)) {
+			return null;
+		}
+		try {
+
+			final CertificateID certificateId = DSSRevocationUtils.getOCSPCertificateID(certificateToken.getCertificate(), issuerCertificateToken.getCertificate());
+			final BasicOCSPRespBuilder builder = new JcaBasicOCSPRespBuilder(issuerCertificateToken.getPublicKey(),
+				  new JcaDigestCalculatorProviderBuilder().build().get(CertificateID.HASH_SHA1));
+			final Date thisUpdate = new Date();
+			builder.addResponse(certificateId, CertificateStatus.GOOD, thisUpdate, new Date(thisUpdate.getTime() + NEXT_UPDATE_DELAY), null);
+			final X509CertificateHolder[] chain = {pki.getRootCertificateHolder()};
+			final BasicOCSPResp basicOCSPResp = builder.build(BenchmarkPki.newContentSigner(pki.getRootPrivateKey()), chain, thisUpdate);
+
+			final OCSPToken ocspToken = new OCSPToken(basicOCSPResp, basicOCSPResp.getResponses()[0]);
+			ocspToken.setSourceURI("benchmark://ocsp");
+			certificateToken.setRevocationToken(ocspToken);
+			return ocspToken;
+		} catch (Exception e) {
+			throw new DSSException(e);
+		}
+	}
+}
@@ -0,0 +1,227 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * <p/>
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * <p/>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p/>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.BasicConstraints;
+import org.bouncycastle.asn1.x509.ExtendedKeyUsage;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.KeyPurposeId;
+import org.bouncycastle.asn1.x509.KeyUsage;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.X509v3CertificateBuilder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.DigestAlgorithm;
+import eu.europa.esig.dss.SignatureValue;
+import eu.europa.esig.dss.ToBeSigned;
+import eu.europa.esig.dss.token.DSSPrivateKeyEntry;
+import eu.europa.esig.dss.token.Pkcs12SignatureToken;
+import eu.europa.esig.dss.validation.CommonCertificateVerifier;
+import eu.europa.esig.dss.x509.CertificateToken;
+import eu.europa.esig.dss.x509.CommonTrustedCertificateSource;
+
+/**
+ * This class creates, in memory, the local PKI used by the benchmarks: a self-signed root CA, the signer's certificate and the TSA's certificate both
+ * issued by the root CA. The root CA also signs the OCSP responses and the CRL. No network access is needed: the time-stamps and the revocation data are
+ * produced in-process by {@code BenchmarkTSPSource}, {@code BenchmarkOCSPSource} and {@code BenchmarkCRLSource}.
+ */
+public class BenchmarkPki {
+
+	static final String SIGNATURE_ALGORITHM = "SHA256withRSA";
+
+	private static final String PASSWORD = "password";
+
+	private static final int KEY_SIZE = 2048;
+
+	private static final long DAY = 24L * 60 * 60 * 1000;
+
+	private final AtomicLong serialNumber = new AtomicLong(1);
+
+	private final KeyPair rootKeyPair;
+
+	private final CertificateToken rootCertificate;
+
+	private final X509CertificateHolder rootCertificateHolder;
+
+	private final CertificateToken signingCertificate;
+
+	private final Pkcs12SignatureToken signatureToken;
+
+	private final DSSPrivateKeyEntry privateKeyEntry;
+
+	private final BenchmarkTSPSource tspSource;
+
+	private final BenchmarkOCSPSource ocspSource;
+
+	private final BenchmarkCRLSource crlSource;
+
+	public BenchmarkPki() {
+
+		try {
+
+			final Date notBefore = new Date(System.currentTimeMillis() - DAY);
+			final Date notAfter = new Date(System.currentTimeMillis() + 3650 * DAY);
+
+			rootKeyPair = generateKeyPair();
+			final X500Name rootName = new X500Name("CN=DSS Benchmark Root CA,O=DSS,C=EU");
+			final X509v3CertificateBuilder rootBuilder = newCertificateBuilder(rootName, rootName, notBefore, notAfter, rootKeyPair.getPublic());
+			rootBuilder.addExtension(Extension.basicConstraints, true, new BasicConstraints(true));
+			rootBuilder.addExtension(Extension.keyUsage, true, new KeyUsage(KeyUsage.keyCertSign | KeyUsage.cRLSign));
+			rootCertificateHolder = rootBuilder.build(newContentSigner(rootKeyPair.getPrivate()));
+			final X509Certificate rootX509Certificate = toX509Certificate(rootCertificateHolder);
+			rootCertificate = new CertificateToken(rootX509Certificate);
+
+			final KeyPair signerKeyPair = generateKeyPair();
+			final X509v3CertificateBuilder signerBuilder = newCertificateBuilder(rootName, new X500Name("CN=DSS Benchmark Signer,O=DSS,C=EU"), notBefore, notAfter,
+				  signerKeyPair.getPublic());
+			signerBuilder.addExtension(Extension.keyUsage, true, new KeyUsage(KeyUsage.nonRepudiation));
+			final X509Certificate signerX509Certificate = toX509Certificate(signerBuilder.build(newContentSigner(rootKeyPair.getPrivate())));
+			signingCertificate = new CertificateToken(signerX509Certificate);
+
+			final KeyPair tsaKeyPair = generateKeyPair();
+			final X509v3CertificateBuilder tsaBuilder = newCertificateBuilder(rootName, new X500Name("CN=DSS Benchmark TSA,O=DSS,C=EU"), notBefore, notAfter,
+				  tsaKeyPair.getPublic());
+			tsaBuilder.addExtension(Extension.extendedKeyUsage, true, new ExtendedKeyUsage(KeyPurposeId.id_kp_timeStamping));
+			final X509CertificateHolder tsaCertificateHolder = tsaBuilder.build(newContentSigner(rootKeyPair.getPrivate()));
+
+			signatureToken = createSignatureToken(signerKeyPair.getPrivate(), signerX509Certificate, rootX509Certificate);
+			privateKeyEntry = signatureToken.getKeys().get(0);
+
+			tspSource = new BenchmarkTSPSource(tsaKeyPair.getPrivate(), tsaCertificateHolder, rootCertificateHolder);
+			ocspSource = new BenchmarkOCSPSource(this);
+			crlSource = new BenchmarkCRLSource(this);
+		} catch (Exception e) {
+			throw new DSSException("Unable to create the benchmark PKI", e);
+		}
+	}
+
+	/**
+	 * This method signs the given data with the private key of the signer.
+	 *
+	 * @param toBeSigned      the data to be signed
+	 * @param digestAlgorithm the digest algorithm to use
+	 * @return the {@code SignatureValue}
+	 */
+	public SignatureValue sign(final ToBeSigned toBeSigned, final DigestAlgorithm digestAlgorithm) {
+		return signatureToken.sign(toBeSigned, digestAlgorithm, privateKeyEntry);
+	}
+
+	public CertificateToken getSigningCertificate() {
+		return signingCertificate;
+	}
+
+	public CertificateToken[] getCertificateChain() {
+		return privateKeyEntry.getCertificateChain();
+	}
+
+	public CertificateToken getRootCertificate() {
+		return rootCertificate;
+	}
+
+	/**
+	 * @param certificateToken the certificate to check
+	 * @return true if the given certificate is the certificate of the root CA
+	 */
+	boolean isRootCertificate(final CertificateToken certificateToken) {
+		return rootCertificate.getCertificate().equals(certificateToken.getCertificate());
+	}
+
+	X509CertificateHolder getRootCertificateHolder() {
+		return rootCertificateHolder;
+	}
+
+	PrivateKey getRootPrivateKey() {
+		return rootKeyPair.getPrivate();
+	}
+
+	BigInteger nextSerialNumber() {
+		return BigInteger.valueOf(serialNumber.getAndIncrement());
+	}
+
+	public BenchmarkTSPSource getTSPSource() {
+		return tspSource;
+	}
+
+	/**
+	 * This method creates a new {@code CommonCertificateVerifier} which trusts the root CA and uses the in-process revocation sources. No
+	 * {@code DataLoader} is set: the benchmarks never access the network.
+	 *
+	 * @return the new {@code CommonCertificateVerifier}
+	 */
+	public CommonCertificateVerifier createCertificateVerifier() {
+
+		final CommonTrustedCertificateSource trustedCertificateSource = new CommonTrustedCertificateSource();
+		trustedCertificateSource.addCertificate(rootCertificate);
+
+		final CommonCertificateVerifier certificateVerifier = new CommonCertificateVerifier(true);
+		certificateVerifier.setTrustedCertSource(trustedCertificateSource);
+		certificateVerifier.setOcspSource(ocspSource);
+		certificateVerifier.setCrlSource(crlSource);
+		return certificateVerifier;
+	}
+
+	private X509v3CertificateBuilder newCertificateBuilder(final X500Name issuer, final X500Name subject, final Date notBefore, final Date notAfter,
+	                                                      final PublicKey publicKey) {
+		return new JcaX509v3CertificateBuilder(issuer, nextSerialNumber(), notBefore, notAfter, subject, publicKey);
+	}
+
+	static ContentSigner newContentSigner(final PrivateKey privateKey) throws Exception {
+		return new JcaContentSignerBuilder(SIGNATURE_ALGORITHM).build(privateKey);
+	}
+
+	static X509Certificate toX509Certificate(final X509CertificateHolder certificateHolder) throws Exception {
+		return new JcaX509CertificateConverter().getCertificate(certificateHolder);
+	}
+
+	private static KeyPair generateKeyPair() throws Exception {
+
+		final KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+		keyPairGenerator.initialize(KEY_SIZE);
+		return keyPairGenerator.generateKeyPair();
+	}
+
+	private static Pkcs12SignatureToken createSignatureToken(final PrivateKey privateKey, final X509Certificate... certificateChain) throws Exception {
+
+		final KeyStore keyStore = KeyStore.getInstance("PKCS12");
+		keyStore.load(null, null);
+		keyStore.setKeyEntry("signer", privateKey, PASSWORD.toCharArray(), (Certificate[]) certificateChain);
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		keyStore.store(outputStream, PASSWORD.toCharArray());
+		return new Pkcs12SignatureToken(PASSWORD.toCharArray(), outputStream.toByteArray());
+	}
+}
@@ -0,0 +1,86 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * <p/>
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * <p/>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p/>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.benchmark;
+
+import java.math.BigInteger;
+import java.security.PrivateKey;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaCertStore;
+import org.bouncycastle.cms.SignerInfoGenerator;
+import org.bouncycastle.cms.jcajce.JcaSignerInfoGeneratorBuilder;
+import org.bouncycastle.operator.DigestCalculator;
+import org.bouncycastle.operator.DigestCalculatorProvider;
+import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
+import org.bouncycastle.tsp.TSPAlgorithms;
+import org.bouncycastle.tsp.TimeStampRequest;
+import org.bouncycastle.tsp.TimeStampRequestGenerator;
+import org.bouncycastle.tsp.TimeStampToken;
+import org.bouncycastle.tsp.TimeStampTokenGenerator;
+
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.DigestAlgorithm;
+import eu.europa.esig.dss.x509.tsp.TSPSource;
+
+/**
+ * This {@code TSPSource} produces the time-stamp tokens in-process, they are signed by the TSA of the {@code BenchmarkPki}.
+ */
+public class BenchmarkTSPSource implements TSPSource {
+
+	private static final ASN1ObjectIdentifier POLICY_OID = new ASN1ObjectIdentifier("1.2.3.4.5");
+
+	private final transient TimeStampTokenGenerator generator;
+
+	private final AtomicLong serialNumber = new AtomicLong(1);
+
+	BenchmarkTSPSource(final PrivateKey tsaPrivateKey, final X509CertificateHolder tsaCertificate, final X509CertificateHolder rootCertificate) throws Exception {
+
+		final DigestCalculatorProvider digestCalculatorProvider = new JcaDigestCalculatorProviderBuilder().build();
+		final SignerInfoGenerator signerInfoGenerator = new JcaSignerInfoGeneratorBuilder(digestCalculatorProvider)
+			  .build(BenchmarkPki.newContentSigner(tsaPrivateKey), tsaCertificate);
+		// The digest calculator is used to compute the ESSCertID of the TSA certificate
+		final DigestCalculator digestCalculator = digestCalculatorProvider.get(new AlgorithmIdentifier(TSPAlgorithms.SHA1));
+		generator = new TimeStampTokenGenerator(signerInfoGenerator, digestCalculator, POLICY_OID);
+		generator.addCertificates(new JcaCertStore(Arrays.asList(tsaCertificate, rootCertificate)));
+	}
+
+	@Override
+	public TimeStampToken getTimeStampResponse(final DigestAlgorithm digestAlgorithm, final byte[] digest) throws DSSException {
+
+		try {
+
+			final TimeStampRequestGenerator requestGenerator = new TimeStampRequestGenerator();
+			requestGenerator.setCertReq(true);
+			final TimeStampRequest request = requestGenerator.generate(digestAlgorithm.getOid(), digest);
+			// The generator is not thread-safe
+			synchronized (generator) {
+				return generator.generate(request, BigInteger.valueOf(serialNumber.getAndIncrement()), new Date());
+			}
+		} catch (Exception e) {
+			throw new DSSException(e);
+		}
+	}
+}
@@ -0,0 +1,95 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * <p/>
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * <p/>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p/>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import eu.europa.esig.dss.AbstractSignatureParameters;
+import eu.europa.esig.dss.DSSDocument;
+import eu.europa.esig.dss.SignatureValue;
+import eu.europa.esig.dss.ToBeSigned;
+import eu.europa.esig.dss.signature.DocumentSignatureService;
+
+/**
+ * This benchmark measures the extension of a baseline B signature to the levels T, LT and LTA. The signature to extend is created once, during the
+ * set-up of the trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class ExtensionBenchmark {
+
+	@Param({"XAdES", "CAdES", "PAdES"})
+	public BenchmarkFormat format;
+
+	/**
+	 * The target level of the extension.
+	 */
+	@Param({"T", "LT", "LTA"})
+	public String level;
+
+	/**
+	 * The size of the signed document in bytes: 1 KB, 1 MB, 100 MB and 1 GB.
+	 */
+	@Param({"1024", "1048576", "104857600", "1073741824"})
+	public long documentSize;
+
+	private DocumentSignatureService<AbstractSignatureParameters> service;
+
+	private AbstractSignatureParameters parameters;
+
+	private DSSDocument signedDocument;
+
+	@Setup
+	public void setUp() {
+
+		final BenchmarkPki pki = new BenchmarkPki();
+		service = format.createService(pki.createCertificateVerifier(), pki);
+		final DSSDocument document = format.getDocument(documentSize);
+
+		final AbstractSignatureParameters signatureParameters = format.createParameters("B", pki, document);
+		final ToBeSigned toBeSigned = service.getDataToSign(document, signatureParameters);
+		final SignatureValue signatureValue = pki.sign(toBeSigned, signatureParameters.getDigestAlgorithm());
+		signedDocument = service.signDocument(document, signatureParameters, signatureValue);
+
+		parameters = format.createParameters(level, pki, document);
+	}
+
+	@Benchmark
+	public DSSDocument extend() {
+		return service.extendDocument(signedDocument, parameters);
+	}
+}
@@ -22,7 +22,9 @@ package eu.europa.esig.dss.cades.signature;
 
 import java.io.InputStream;
 
+import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.io.IOUtils;
+import org.bouncycastle.cms.CMSAbsentContent;
 import org.bouncycastle.cms.CMSException;
 import org.bouncycastle.cms.CMSProcessableByteArray;
 import org.bouncycastle.cms.CMSSignedData;
@@ -82,16 +84,16 @@ public class CAdESService extends AbstractSignatureService<CAdESSignatureParamet
 
 		final SignatureAlgorithm signatureAlgorithm = parameters.getSignatureAlgorithm();
 		final CustomContentSigner customContentSigner = new CustomContentSigner(signatureAlgorithm.getJCEId());
-		final SignerInfoGeneratorBuilder signerInfoGeneratorBuilder = cmsSignedDataBuilder.getSignerInfoGeneratorBuilder(parameters, false);
 		final CMSSignedData originalCmsSignedData = getCmsSignedData(toSignDocument, parameters);
+		final DSSDocument toSignData = getToSignData(toSignDocument, parameters, originalCmsSignedData);
+		final boolean encapsulate = !SignaturePackaging.DETACHED.equals(packaging);
+		final byte[] messageDigest = encapsulate ? null : getMessageDigest(toSignData, parameters);
+		final SignerInfoGeneratorBuilder signerInfoGeneratorBuilder = cmsSignedDataBuilder.getSignerInfoGeneratorBuilder(parameters, false, messageDigest);
 
 		final CMSSignedDataGenerator cmsSignedDataGenerator = cmsSignedDataBuilder.createCMSSignedDataGenerator(parameters, customContentSigner,
 				signerInfoGeneratorBuilder, originalCmsSignedData);
 
-		final DSSDocument toSignData = getToSignData(toSignDocument, parameters, originalCmsSignedData);
-
-		final CMSProcessableByteArray content = new CMSProcessableByteArray(toSignData.getBytes());
-		final boolean encapsulate = !SignaturePackaging.DETACHED.equals(packaging);
+		final CMSTypedData content = getContent(toSignData, messageDigest);
 		DSSASN1Utils.generateCMSSignedData(cmsSignedDataGenerator, content, encapsulate);
 		final byte[] bytes = customContentSigner.getOutputStream().toByteArray();
 		return new ToBeSigned(bytes);
@@ -107,19 +109,20 @@ public class CAdESService extends AbstractSignatureService<CAdESSignatureParamet
 
 		final SignatureAlgorithm signatureAlgorithm = parameters.getSignatureAlgorithm();
 		final CustomContentSigner customContentSigner = new CustomContentSigner(signatureAlgorithm.getJCEId(), signatureValue.getValue());
-		final SignerInfoGeneratorBuilder signerInfoGeneratorBuilder = cmsSignedDataBuilder.getSignerInfoGeneratorBuilder(parameters, true);
 		final CMSSignedData originalCmsSignedData = getCmsSignedData(toSignDocument, parameters);
 		if ((originalCmsSignedData == null) && SignaturePackaging.DETACHED.equals(packaging) && (parameters.getDetachedContent() == null)) {
 
 			parameters.setDetachedContent(toSignDocument);
 		}
+		final DSSDocument toSignData = getToSignData(toSignDocument, parameters, originalCmsSignedData);
+		final boolean encapsulate = !SignaturePackaging.DETACHED.equals(packaging);
+		final byte[] messageDigest = encapsulate ? null : getMessageDigest(toSignData, parameters);
+		final SignerInfoGeneratorBuilder signerInfoGeneratorBuilder = cmsSignedDataBuilder.getSignerInfoGeneratorBuilder(parameters, true, messageDigest);
 
 		final CMSSignedDataGenerator cmsSignedDataGenerator = cmsSignedDataBuilder.createCMSSignedDataGenerator(parameters, customContentSigner,
 				signerInfoGeneratorBuilder, originalCmsSignedData);
 
-		final DSSDocument toSignData = getToSignData(toSignDocument, parameters, originalCmsSignedData);
-		final CMSProcessableByteArray content = new CMSProcessableByteArray(toSignData.getBytes());
-		final boolean encapsulate = !SignaturePackaging.DETACHED.equals(packaging);
+		final CMSTypedData content = getContent(toSignData, messageDigest);
 		final CMSSignedData cmsSignedData = DSSASN1Utils.generateCMSSignedData(cmsSignedDataGenerator, content, encapsulate);
 		final CMSSignedDocument signature = new CMSSignedDocument(cmsSignedData);
 
@@ -227,6 +230,38 @@ public class CAdESService extends AbstractSignatureService<CAdESSignatureParamet
 		}
 	}
 
+	/**
+	 * This method computes the digest of the detached content. The content is read as a stream (or the digest given by a {@code DigestDocument} is used): it is
+	 * never loaded in memory.
+	 *
+	 * @param toSignData
+	 *            the detached content
+	 * @param parameters
+	 *            set of the driving signing parameters
+	 * @return the digest of the content, used as message-digest signed attribute
+	 */
+	private byte[] getMessageDigest(final DSSDocument toSignData, final CAdESSignatureParameters parameters) {
+
+		final String base64Digest = toSignData.getDigest(parameters.getDigestAlgorithm());
+		return Base64.decodeBase64(base64Digest);
+	}
+
+	/**
+	 * @param toSignData
+	 *            the content to sign
+	 * @param messageDigest
+	 *            the digest of the detached content or null
+	 * @return the content given to the CMS generator: in the detached case it is not encapsulated and its digest is already given to the
+	 *         {@code SignerInfoGenerator}, so the content is absent to avoid reading it again.
+	 */
+	private CMSTypedData getContent(final DSSDocument toSignData, final byte[] messageDigest) {
+
+		if (messageDigest != null) {
+			return new CMSAbsentContent();
+		}
+		return new CMSProcessableByteArray(toSignData.getBytes());
+	}
+
 	/**
 	 * This method returns the signed content of CMSSignedData.
 	 *
@@ -282,6 +317,9 @@ public class CAdESService extends AbstractSignatureService<CAdESSignatureParamet
 		CMSSignedData cmsSignedData = null;
 		try {
 			// check if input dssDocument is already signed
+			if (!DSSASN1Utils.isCMSSignedDataHeader(dssDocument)) {
+				return null;
+			}
 			cmsSignedData = new CMSSignedData(dssDocument.getBytes());
 			final SignaturePackaging signaturePackaging = parameters.getSignaturePackaging();
 			if (signaturePackaging == SignaturePackaging.ENVELOPING) {
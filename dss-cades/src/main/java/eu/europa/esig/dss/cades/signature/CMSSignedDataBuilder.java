@@ -153,6 +153,20 @@ public class CMSSignedDataBuilder {
 	 */
 	SignerInfoGeneratorBuilder getSignerInfoGeneratorBuilder(final CAdESSignatureParameters parameters, final boolean includeUnsignedAttributes) {
 
+		return getSignerInfoGeneratorBuilder(parameters, includeUnsignedAttributes, null);
+	}
+
+	/**
+	 * @param parameters                the parameters of the signature containing values for the attributes
+	 * @param includeUnsignedAttributes true if the unsigned attributes must be included
+	 * @param messageDigest             the digest of the signed content computed with the digest algorithm of the parameters, it is used as
+	 *                                  message-digest attribute and the content given to the generator must be absent. {@code null} to digest the
+	 *                                  content given to the generator.
+	 * @return a SignerInfoGeneratorBuilder that generate the signed and unsigned attributes according to the CAdESLevelBaselineB
+	 */
+	SignerInfoGeneratorBuilder getSignerInfoGeneratorBuilder(final CAdESSignatureParameters parameters, final boolean includeUnsignedAttributes,
+			final byte[] messageDigest) {
+
 		final CAdESLevelBaselineB cadesProfile = new CAdESLevelBaselineB();
 		final AttributeTable signedAttributes = cadesProfile.getSignedAttributes(parameters);
 
@@ -160,15 +174,25 @@ public class CMSSignedDataBuilder {
 		if (includeUnsignedAttributes) {
 			unsignedAttributes = cadesProfile.getUnsignedAttributes();
 		}
-		return getSignerInfoGeneratorBuilder(signedAttributes, unsignedAttributes);
+		final DigestCalculatorProvider digestCalculatorProvider;
+		if (messageDigest == null) {
+			digestCalculatorProvider = new BcDigestCalculatorProvider();
+		} else {
+			// The message-digest attribute is the digest returned by the DigestCalculator of the SignerInfoGenerator: with the pre-computed digest
+			// and no content, the signed attributes are the same as if the detached content was digested by BouncyCastle.
+			digestCalculatorProvider = new PreComputedDigestCalculatorProvider(parameters.getDigestAlgorithm(), messageDigest);
+		}
+		return getSignerInfoGeneratorBuilder(signedAttributes, unsignedAttributes, digestCalculatorProvider);
 	}
 
 	/**
-	 * @param signedAttributes   the signedAttributes
-	 * @param unsignedAttributes the unsignedAttributes
+	 * @param signedAttributes         the signedAttributes
+	 * @param unsignedAttributes       the unsignedAttributes
+	 * @param digestCalculatorProvider the provider of the {@code DigestCalculator} which computes the message-digest attribute
 	 * @return a SignerInfoGeneratorBuilder that generate the signed and unsigned attributes according to the parameters
 	 */
-	private SignerInfoGeneratorBuilder getSignerInfoGeneratorBuilder(AttributeTable signedAttributes, AttributeTable unsignedAttributes) {
+	private SignerInfoGeneratorBuilder getSignerInfoGeneratorBuilder(AttributeTable signedAttributes, AttributeTable unsignedAttributes,
+			final DigestCalculatorProvider digestCalculatorProvider) {
 
 		if ((signedAttributes != null) && (signedAttributes.size() == 0)) {
 			signedAttributes = null;
@@ -179,18 +203,18 @@ public class CMSSignedDataBuilder {
 		}
 		final SimpleAttributeTableGenerator unsignedAttributeGenerator = new SimpleAttributeTableGenerator(unsignedAttributes);
 
-		return getSignerInfoGeneratorBuilder(signedAttributeGenerator, unsignedAttributeGenerator);
+		return getSignerInfoGeneratorBuilder(signedAttributeGenerator, unsignedAttributeGenerator, digestCalculatorProvider);
 	}
 
 	/**
 	 * @param signedAttributeGenerator   the signedAttribute generator
 	 * @param unsignedAttributeGenerator the unsignedAttribute generator
+	 * @param digestCalculatorProvider   the provider of the {@code DigestCalculator} which computes the message-digest attribute
 	 * @return a SignerInfoGeneratorBuilder that generate the signed and unsigned attributes according to the parameters
 	 */
 	private SignerInfoGeneratorBuilder getSignerInfoGeneratorBuilder(DefaultSignedAttributeTableGenerator signedAttributeGenerator,
-			SimpleAttributeTableGenerator unsignedAttributeGenerator) {
+			SimpleAttributeTableGenerator unsignedAttributeGenerator, final DigestCalculatorProvider digestCalculatorProvider) {
 
-		final DigestCalculatorProvider digestCalculatorProvider = new BcDigestCalculatorProvider();
 		SignerInfoGeneratorBuilder sigInfoGeneratorBuilder = new SignerInfoGeneratorBuilder(digestCalculatorProvider);
 		sigInfoGeneratorBuilder.setSignedAttributeGenerator(signedAttributeGenerator);
 		sigInfoGeneratorBuilder.setUnsignedAttributeGenerator(unsignedAttributeGenerator);
@@ -21,19 +21,20 @@
 package eu.europa.esig.dss.cades.signature;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.codec.binary.Base64;
-import org.bouncycastle.asn1.ASN1Primitive;
+import org.bouncycastle.asn1.ASN1Encoding;
 import org.bouncycastle.asn1.DEROutputStream;
 import org.bouncycastle.cms.CMSSignedData;
 
 import eu.europa.esig.dss.CommonDocument;
-import eu.europa.esig.dss.DSSASN1Utils;
 import eu.europa.esig.dss.DSSException;
 import eu.europa.esig.dss.DSSUtils;
 import eu.europa.esig.dss.DigestAlgorithm;
@@ -84,32 +85,51 @@ public class CMSSignedDocument extends CommonDocument {
 		return "CMSSignedDocument";
 	}
 
+	/**
+	 * This method returns the DER encoded signed data. The encoding is built directly from the ASN.1 structure of the signed data, without encoding and
+	 * parsing it again.
+	 */
 	@Override
 	public byte[] getBytes() throws DSSException {
 
 		try {
-
-			final ByteArrayOutputStream output = new ByteArrayOutputStream();
-			final DEROutputStream derOutputStream = new DEROutputStream(output);
-			final byte[] encoded = signedData.getEncoded();
-			final ASN1Primitive asn1Primitive = DSSASN1Utils.toASN1Primitive(encoded);
-			derOutputStream.writeObject(asn1Primitive);
-			derOutputStream.close();
-			return output.toByteArray();
+			return signedData.toASN1Structure().getEncoded(ASN1Encoding.DER);
 		} catch (IOException e) {
 
 			throw new DSSException(e);
 		}
 	}
 
+	/**
+	 * This method writes the DER encoded signed data to the given stream, without building its encoding in memory first.
+	 *
+	 * @param outputStream
+	 *            the {@code OutputStream} to write to, it is not closed
+	 * @throws DSSException
+	 */
+	public void writeTo(final OutputStream outputStream) throws DSSException {
+
+		try {
+
+			final DEROutputStream derOutputStream = new DEROutputStream(outputStream);
+			derOutputStream.writeObject(signedData.toASN1Structure());
+			derOutputStream.flush();
+		} catch (IOException e) {
+			throw new DSSException(e);
+		}
+	}
+
 	@Override
 	public void save(final String filePath) {
 
 		try {
 
 			final FileOutputStream fos = new FileOutputStream(filePath);
-			DSSUtils.write(getBytes(), fos);
-			fos.close();
+			try {
+				writeTo(fos);
+			} finally {
+				fos.close();
+			}
 		} catch (FileNotFoundException e) {
 			throw new DSSException(e);
 		} catch (IOException e) {
@@ -118,11 +138,9 @@ public class CMSSignedDocument extends CommonDocument {
 	}
 
 	@Override
-	public String getDigest(final DigestAlgorithm digestAlgorithm) {
+	protected Map<DigestAlgorithm, byte[]> computeDigests(final Set<DigestAlgorithm> digestAlgorithms) throws DSSException {
 
-		final byte[] digestBytes = DSSUtils.digest(digestAlgorithm, getBytes());
-		final String base64Encode = Base64.encodeBase64String(digestBytes);
-		return base64Encode;
+		return DSSUtils.digest(digestAlgorithms, getBytes());
 	}
 
 	@Override
@@ -21,6 +21,8 @@
 package eu.europa.esig.dss.cades.signature;
 
 import java.io.ByteArrayOutputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
 import org.bouncycastle.operator.ContentSigner;
@@ -36,6 +38,11 @@ import eu.europa.esig.dss.DSSUtils;
 
 public class CustomContentSigner implements ContentSigner {
 
+	/**
+	 * The {@code AlgorithmIdentifier}s already found, for each JCE algorithm identifier
+	 */
+	private static final ConcurrentMap<String, AlgorithmIdentifier> algorithmIdentifiers = new ConcurrentHashMap<String, AlgorithmIdentifier>();
+
     private byte[] preComputedSignature;
     private final AlgorithmIdentifier algorithmIdentifier;
 
@@ -58,10 +65,21 @@ public class CustomContentSigner implements ContentSigner {
 	 */
     public CustomContentSigner(final String algorithmIdentifier, final byte[] preComputedSignature) {
 
-	    this.algorithmIdentifier = new DefaultSignatureAlgorithmIdentifierFinder().find(algorithmIdentifier);
+	    this.algorithmIdentifier = findAlgorithmIdentifier(algorithmIdentifier);
         this.preComputedSignature = preComputedSignature;
     }
 
+	private static AlgorithmIdentifier findAlgorithmIdentifier(final String algorithmIdentifier) {
+
+		AlgorithmIdentifier found = algorithmIdentifiers.get(algorithmIdentifier);
+		if (found == null) {
+
+			found = new DefaultSignatureAlgorithmIdentifierFinder().find(algorithmIdentifier);
+			algorithmIdentifiers.putIfAbsent(algorithmIdentifier, found);
+		}
+		return found;
+	}
+
     @Override
     public AlgorithmIdentifier getAlgorithmIdentifier() {
         return algorithmIdentifier;
@@ -0,0 +1,80 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.cades.signature;
+
+import java.io.OutputStream;
+
+import org.apache.commons.io.output.NullOutputStream;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.operator.DigestCalculator;
+import org.bouncycastle.operator.DigestCalculatorProvider;
+import org.bouncycastle.operator.OperatorCreationException;
+
+import eu.europa.esig.dss.DigestAlgorithm;
+
+/**
+ * DigestCalculatorProvider using a provided pre-computed digest of the signed content. It allows to sign detached content from its digest: the
+ * {@code SignerInfoGenerator} takes the value of the message-digest signed attribute from its {@code DigestCalculator}, the content given to the
+ * generator must then be absent ({@code CMSAbsentContent}).
+ */
+class PreComputedDigestCalculatorProvider implements DigestCalculatorProvider {
+
+	private final DigestAlgorithm digestAlgorithm;
+
+	private final byte[] preComputedDigest;
+
+	/**
+	 * @param digestAlgorithm   the algorithm used to compute the digest
+	 * @param preComputedDigest the digest of the signed content
+	 */
+	PreComputedDigestCalculatorProvider(final DigestAlgorithm digestAlgorithm, final byte[] preComputedDigest) {
+
+		this.digestAlgorithm = digestAlgorithm;
+		this.preComputedDigest = preComputedDigest;
+	}
+
+	@Override
+	public DigestCalculator get(final AlgorithmIdentifier digestAlgorithmIdentifier) throws OperatorCreationException {
+
+		// The digest algorithm is derived by BouncyCastle from the signature algorithm: it must be the one of the pre-computed digest.
+		if (!digestAlgorithm.getOid().equals(digestAlgorithmIdentifier.getAlgorithm())) {
+			throw new OperatorCreationException(
+					"The digest was computed with " + digestAlgorithm + " but " + digestAlgorithmIdentifier.getAlgorithm() + " is required by the signature algorithm!");
+		}
+		return new DigestCalculator() {
+
+			@Override
+			public AlgorithmIdentifier getAlgorithmIdentifier() {
+				return digestAlgorithmIdentifier;
+			}
+
+			@Override
+			public OutputStream getOutputStream() {
+				return NullOutputStream.NULL_OUTPUT_STREAM;
+			}
+
+			@Override
+			public byte[] getDigest() {
+				return preComputedDigest.clone();
+			}
+		};
+	}
+}
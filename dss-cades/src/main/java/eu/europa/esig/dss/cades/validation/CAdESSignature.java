@@ -47,6 +47,7 @@ import java.security.PublicKey;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.Hashtable;
@@ -62,6 +63,7 @@ import javax.naming.ldap.Rdn;
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.io.IOUtils;
 import org.bouncycastle.asn1.ASN1Encodable;
 import org.bouncycastle.asn1.ASN1EncodableVector;
 import org.bouncycastle.asn1.ASN1GeneralizedTime;
@@ -206,6 +208,12 @@ public class CAdESSignature extends DefaultAdvancedSignature {
 	 */
 	private Date padesSigningTime = null;
 
+	/**
+	 * The CMS document when the signature is validated in the streaming mode: the encapsulated content is not kept in memory, its digest was computed
+	 * while the document was parsed (see {@link CMSDocumentValidator#CMSDocumentValidator(DSSDocument, boolean)}).
+	 */
+	private DSSDocument streamedDocument;
+
 	/**
 	 * Cached list of the Signing Certificate Timestamp References.
 	 */
@@ -1263,8 +1271,8 @@ public class CAdESSignature extends DefaultAdvancedSignature {
 	}
 
 	/**
-	 * This method recreates a {@code SignerInformation} with the content using
-	 * a {@code CMSSignedDataParser}.
+	 * This method recreates a {@code SignerInformation} with the digest of the detached content. The digest is memorised by the {@code DSSDocument}:
+	 * the content is read only once, whatever the number of signatures.
 	 *
 	 * @return
 	 * @throws CMSException
@@ -1276,6 +1284,33 @@ public class CAdESSignature extends DefaultAdvancedSignature {
 		// element
 		// for CAdES
 		// Signature
+		final DigestAlgorithm digestAlgorithm;
+		try {
+			digestAlgorithm = getDigestAlgorithm();
+		} catch (DSSException e) {
+			LOG.debug("Unknown digest algorithm: " + e.getMessage());
+			return recreateSignerInformation(dssDocument);
+		}
+		final byte[] digest = Base64.decodeBase64(dssDocument.getDigest(digestAlgorithm));
+		final Map<String, byte[]> hashes = Collections.singletonMap(signerInformation.getDigestAlgOID(), digest);
+		final CMSSignedData cmsSignedDataWithDigest = new CMSSignedData(hashes, cmsSignedData.toASN1Structure());
+		final SignerId signerId = signerInformation.getSID();
+		final SignerInformation signerInformationToCheck = cmsSignedDataWithDigest.getSignerInfos().get(signerId);
+		return signerInformationToCheck;
+	}
+
+	/**
+	 * This method recreates a {@code SignerInformation} with the content using
+	 * a {@code CMSSignedDataParser}.
+	 *
+	 * @param dssDocument
+	 *            the detached content
+	 * @return
+	 * @throws CMSException
+	 * @throws IOException
+	 */
+	private SignerInformation recreateSignerInformation(final DSSDocument dssDocument) throws CMSException, IOException {
+
 		final InputStream inputStream = dssDocument.openStream();
 		final CMSTypedStream signedContent = new CMSTypedStream(inputStream);
 		final CMSSignedDataParser cmsSignedDataParser = new CMSSignedDataParser(new BcDigestCalculatorProvider(), signedContent, cmsSignedData.getEncoded());
@@ -1286,6 +1321,10 @@ public class CAdESSignature extends DefaultAdvancedSignature {
 	}
 
 	private boolean isDetachedSignature() {
+		if (streamedDocument != null) {
+			// the content was digested while the document was parsed
+			return false;
+		}
 		return (cmsSignedData.getSignedContent() == null) || (cmsSignedData.getSignedContent().getContent() == null) ? true : false;
 	}
 
@@ -1365,6 +1404,16 @@ public class CAdESSignature extends DefaultAdvancedSignature {
 		return contentHint;
 	}
 
+	/**
+	 * This method is used by the streaming mode of {@code CMSDocumentValidator}: the encapsulated content was not kept in memory.
+	 *
+	 * @param streamedDocument
+	 *            the CMS document
+	 */
+	void setStreamedDocument(final DSSDocument streamedDocument) {
+		this.streamedDocument = streamedDocument;
+	}
+
 	/**
 	 * @return the signerInformation
 	 */
@@ -1379,6 +1428,7 @@ public class CAdESSignature extends DefaultAdvancedSignature {
 			final SignerInformation signerInformation = (SignerInformation) signer;
 			final CAdESSignature countersignature = new CAdESSignature(cmsSignedData, signerInformation, certPool);
 			countersignature.setMasterSignature(this);
+			countersignature.setStreamedDocument(streamedDocument);
 			countersignatures.add(countersignature);
 		}
 		return countersignatures;
@@ -1608,6 +1658,8 @@ public class CAdESSignature extends DefaultAdvancedSignature {
 		final CMSTypedData signedContent = cmsSignedData.getSignedContent();
 		if (signedContent != null) {
 			return CAdESSignature.getSignedContent(signedContent);
+		} else if (streamedDocument != null) {
+			return getStreamedContent();
 		} else {
 			if ((detachedContents != null) && (detachedContents.size() > 0)) {
 
@@ -1617,6 +1669,30 @@ public class CAdESSignature extends DefaultAdvancedSignature {
 		}
 	}
 
+	/**
+	 * This method reads again the encapsulated content of the streamed document.
+	 *
+	 * @return the encapsulated content
+	 * @throws DSSException
+	 */
+	private byte[] getStreamedContent() throws DSSException {
+
+		final InputStream inputStream = streamedDocument.openStream();
+		try {
+
+			final CMSSignedDataParser cmsSignedDataParser = new CMSSignedDataParser(new BcDigestCalculatorProvider(), inputStream);
+			final CMSTypedStream signedContent = cmsSignedDataParser.getSignedContent();
+			if (signedContent == null) {
+				return DSSUtils.EMPTY_BYTE_ARRAY;
+			}
+			return DSSUtils.toByteArray(signedContent.getContentStream());
+		} catch (CMSException e) {
+			throw new DSSException(e);
+		} finally {
+			IOUtils.closeQuietly(inputStream);
+		}
+	}
+
 	/**
 	 * @param cmsTypedData
 	 *            {@code CMSTypedData} cannot be null
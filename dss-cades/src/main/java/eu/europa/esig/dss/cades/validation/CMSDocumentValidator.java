@@ -20,19 +20,39 @@
  */
 package eu.europa.esig.dss.cades.validation;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.security.MessageDigest;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.io.IOUtils;
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.ASN1OctetStringParser;
+import org.bouncycastle.asn1.ASN1SequenceParser;
+import org.bouncycastle.asn1.ASN1Set;
+import org.bouncycastle.asn1.ASN1SetParser;
+import org.bouncycastle.asn1.ASN1StreamParser;
+import org.bouncycastle.asn1.BERTags;
+import org.bouncycastle.asn1.cms.CMSObjectIdentifiers;
+import org.bouncycastle.asn1.cms.ContentInfo;
+import org.bouncycastle.asn1.cms.ContentInfoParser;
+import org.bouncycastle.asn1.cms.SignedData;
+import org.bouncycastle.asn1.cms.SignedDataParser;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
 import org.bouncycastle.cms.CMSException;
 import org.bouncycastle.cms.CMSSignedData;
 import org.bouncycastle.cms.SignerInformation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import eu.europa.esig.dss.DSSDocument;
 import eu.europa.esig.dss.DSSException;
 import eu.europa.esig.dss.DSSUnsupportedOperationException;
 import eu.europa.esig.dss.DSSUtils;
+import eu.europa.esig.dss.DigestAlgorithm;
 import eu.europa.esig.dss.validation.AdvancedSignature;
 import eu.europa.esig.dss.validation.SignedDocumentValidator;
 
@@ -42,7 +62,14 @@ import eu.europa.esig.dss.validation.SignedDocumentValidator;
  */
 public class CMSDocumentValidator extends SignedDocumentValidator {
 
+	private static final Logger LOG = LoggerFactory.getLogger(CMSDocumentValidator.class);
+
 	protected CMSSignedData cmsSignedData;
+
+	/**
+	 * {@code true} if the encapsulated content was not kept in memory: its digests were computed while the document was parsed.
+	 */
+	private boolean streamedContent;
 	
 	/**
 	 * This constructor is used with {@code TimeStampToken}.
@@ -72,6 +99,22 @@ public class CMSDocumentValidator extends SignedDocumentValidator {
 	 */
 	public CMSDocumentValidator(final DSSDocument document) throws DSSException {
 
+		this(document, false);
+	}
+
+	/**
+	 * This constructor allows to validate huge enveloping signatures. In the streaming mode, the encapsulated content is read only once: it is digested
+	 * on the fly with each digest algorithm of the {@code SignedData} and only the SignerInfos, the certificates and the CRLs are kept in memory. The
+	 * content is read again only if it is needed by the validation of an archive timestamp.
+	 *
+	 * @param document
+	 *            document to validate (with the signature(s))
+	 * @param streaming
+	 *            {@code true} to use the streaming mode
+	 * @throws DSSException
+	 */
+	public CMSDocumentValidator(final DSSDocument document, final boolean streaming) throws DSSException {
+
 		this();
 		this.document = document;
 		InputStream inputStream = null;
@@ -79,15 +122,86 @@ public class CMSDocumentValidator extends SignedDocumentValidator {
 
 			inputStream = document.openStream();
 			if (DSSUtils.available(inputStream) > 0) {
-				this.cmsSignedData = new CMSSignedData(inputStream);
+				this.cmsSignedData = streaming ? parseDigestingContent(inputStream) : new CMSSignedData(inputStream);
 			}
 		} catch (CMSException e) {
 			throw new DSSException("Not a valid CAdES file", e);
+		} catch (IOException e) {
+			throw new DSSException("Not a valid CAdES file", e);
+		} catch (ClassCastException e) {
+			throw new DSSException("Not a valid CAdES file", e);
 		} finally {
 			IOUtils.closeQuietly(inputStream);
 		}
 	}
 
+	/**
+	 * This method parses the {@code SignedData} without keeping the encapsulated content: the content is digested with each digest algorithm of the
+	 * {@code SignedData}. The returned {@code CMSSignedData} has no content, its {@code SignerInformation}s use the computed digests. In the case of a
+	 * detached signature, the {@code CMSSignedData} is returned as it is.
+	 *
+	 * @param inputStream
+	 *            the CMS document
+	 * @return the {@code CMSSignedData} without the encapsulated content
+	 * @throws IOException
+	 * @throws CMSException
+	 */
+	private CMSSignedData parseDigestingContent(final InputStream inputStream) throws IOException, CMSException {
+
+		final ContentInfoParser contentInfoParser = new ContentInfoParser((ASN1SequenceParser) new ASN1StreamParser(inputStream).readObject());
+		if (!CMSObjectIdentifiers.signedData.equals(contentInfoParser.getContentType())) {
+			throw new CMSException("The content type is not SignedData: " + contentInfoParser.getContentType());
+		}
+		final SignedDataParser signedDataParser = SignedDataParser.getInstance(contentInfoParser.getContent(BERTags.SEQUENCE));
+		signedDataParser.getVersion();
+		final ASN1Set digestAlgorithms = (ASN1Set) signedDataParser.getDigestAlgorithms().toASN1Primitive();
+
+		final Map<ASN1ObjectIdentifier, MessageDigest> messageDigests = new HashMap<ASN1ObjectIdentifier, MessageDigest>();
+		for (int ii = 0; ii < digestAlgorithms.size(); ii++) {
+
+			final ASN1ObjectIdentifier digestAlgorithmOid = AlgorithmIdentifier.getInstance(digestAlgorithms.getObjectAt(ii)).getAlgorithm();
+			try {
+				messageDigests.put(digestAlgorithmOid, DSSUtils.getMessageDigest(DigestAlgorithm.forOID(digestAlgorithmOid.getId())));
+			} catch (DSSException e) {
+				LOG.warn("The content cannot be digested with the algorithm " + digestAlgorithmOid + ": " + e.getMessage());
+			}
+		}
+
+		final ContentInfoParser encapContentInfoParser = signedDataParser.getEncapContentInfo();
+		final ASN1OctetStringParser content = (ASN1OctetStringParser) encapContentInfoParser.getContent(BERTags.OCTET_STRING);
+		if (content != null) {
+
+			final InputStream contentStream = content.getOctetStream();
+			final byte[] buffer = new byte[8192];
+			int count;
+			while ((count = contentStream.read(buffer)) != -1) {
+				for (final MessageDigest messageDigest : messageDigests.values()) {
+					messageDigest.update(buffer, 0, count);
+				}
+			}
+		}
+		final ContentInfo encapContentInfo = new ContentInfo(encapContentInfoParser.getContentType(), null);
+
+		final ASN1SetParser certificatesParser = signedDataParser.getCertificates();
+		final ASN1Set certificates = (certificatesParser == null) ? null : (ASN1Set) certificatesParser.toASN1Primitive();
+		final ASN1SetParser crlsParser = signedDataParser.getCrls();
+		final ASN1Set crls = (crlsParser == null) ? null : (ASN1Set) crlsParser.toASN1Primitive();
+		final ASN1Set signerInfos = (ASN1Set) signedDataParser.getSignerInfos().toASN1Primitive();
+
+		final SignedData signedData = new SignedData(digestAlgorithms, encapContentInfo, certificates, crls, signerInfos);
+		final ContentInfo contentInfo = new ContentInfo(CMSObjectIdentifiers.signedData, signedData);
+		if (content == null) {
+			// detached signature
+			return new CMSSignedData(contentInfo);
+		}
+		final Map<ASN1ObjectIdentifier, byte[]> hashes = new HashMap<ASN1ObjectIdentifier, byte[]>();
+		for (final Map.Entry<ASN1ObjectIdentifier, MessageDigest> entry : messageDigests.entrySet()) {
+			hashes.put(entry.getKey(), entry.getValue().digest());
+		}
+		streamedContent = true;
+		return new CMSSignedData(hashes, contentInfo);
+	}
+
 	@Override
 	public boolean isSupported(DSSDocument dssDocument) {
 		int headerLength = 500;
@@ -114,6 +228,9 @@ public class CMSDocumentValidator extends SignedDocumentValidator {
 				final SignerInformation signerInformation = (SignerInformation) signerInformationObject;
 				final CAdESSignature cadesSignature = new CAdESSignature(cmsSignedData, signerInformation, validationCertPool);
 				cadesSignature.setDetachedContents(detachedContents);
+				if (streamedContent) {
+					cadesSignature.setStreamedDocument(document);
+				}
 				cadesSignature.setProvidedSigningCertificateToken(providedSigningCertificateToken);
 				signatures.add(cadesSignature);
 			}
@@ -0,0 +1,355 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * <p/>
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * <p/>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p/>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.signature;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.commons.codec.binary.Base64;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.AbstractSignatureParameters;
+import eu.europa.esig.dss.DSSDocument;
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.DigestAlgorithm;
+import eu.europa.esig.dss.InMemoryDocument;
+import eu.europa.esig.dss.SignatureValue;
+import eu.europa.esig.dss.ToBeSigned;
+import eu.europa.esig.dss.token.BatchSignatureTokenConnection;
+import eu.europa.esig.dss.token.DSSPrivateKeyEntry;
+import eu.europa.esig.dss.token.SignatureTokenConnection;
+
+/**
+ * This class signs a batch of documents with any {@code DocumentSignatureService} (XAdES, CAdES, PAdES...). The data to be signed and the signed
+ * documents are computed concurrently and all the signature values are created in a single session of the token.
+ * <p/>
+ * Each document needs its own signature parameters: the same parameters object cannot be used for several documents of a batch (it keeps the state of
+ * the signature between {@code getDataToSign} and {@code signDocument}).
+ * <p/>
+ * In the Merkle tree mode ({@link #signMerkleTree}), a single signature (with a single timestamp for the T-level) covers the root of a Merkle tree
+ * built on the digests of the documents, and each document gets its own {@code MerkleProof}.
+ */
+public class BatchSignatureService<SP extends AbstractSignatureParameters> {
+
+	private static final Logger LOG = LoggerFactory.getLogger(BatchSignatureService.class);
+
+	/**
+	 * The name of the document containing the root of the Merkle tree
+	 */
+	public static final String MERKLE_ROOT_DOCUMENT_NAME = "merkle-root";
+
+	private final DocumentSignatureService<SP> service;
+
+	/**
+	 * The number of documents processed at the same time. {@code 1} (default) means that the documents are processed sequentially within the calling
+	 * thread.
+	 */
+	private int concurrentThreadNumber = 1;
+
+	/**
+	 * The pool of threads shared by all the batches. The number of documents processed at the same time by a batch is bounded by its
+	 * {@code concurrentThreadNumber}.
+	 */
+	private static ExecutorService sharedExecutorService;
+
+	/**
+	 * @param service the signature service used to sign each document
+	 */
+	public BatchSignatureService(final DocumentSignatureService<SP> service) {
+
+		if (service == null) {
+			throw new NullPointerException("DocumentSignatureService cannot be null !");
+		}
+		this.service = service;
+	}
+
+	/**
+	 * @return the number of concurrent threads used to process the documents
+	 */
+	public int getConcurrentThreadNumber() {
+		return concurrentThreadNumber;
+	}
+
+	/**
+	 * This method sets the number of concurrent threads used to process the documents. {@code 1} (default) means that the documents are
+	 * processed sequentially, {@code 0} means that the number of available processors is used.
+	 *
+	 * @param concurrentThreadNumber the number of concurrent threads
+	 */
+	public void setConcurrentThreadNumber(final int concurrentThreadNumber) {
+		this.concurrentThreadNumber = concurrentThreadNumber;
+	}
+
+	/**
+	 * This method computes concurrently the data to be signed of each document.
+	 *
+	 * @param toSignDocuments the documents to sign
+	 * @param parameters      the signature parameters of each document
+	 * @return the data to be signed, in the order of the documents
+	 * @throws DSSException if the data to be signed of a document cannot be computed
+	 */
+	public List<ToBeSigned> getDataToSign(final List<DSSDocument> toSignDocuments, final List<SP> parameters) throws DSSException {
+
+		assertBatch(toSignDocuments, parameters, null);
+		final List<Callable<ToBeSigned>> tasks = new ArrayList<Callable<ToBeSigned>>(toSignDocuments.size());
+		for (int ii = 0; ii < toSignDocuments.size(); ii++) {
+
+			final DSSDocument toSignDocument = toSignDocuments.get(ii);
+			final SP documentParameters = parameters.get(ii);
+			tasks.add(new Callable<ToBeSigned>() {
+
+				@Override
+				public ToBeSigned call() throws Exception {
+					return service.getDataToSign(toSignDocument, documentParameters);
+				}
+			});
+		}
+		return execute(tasks);
+	}
+
+	/**
+	 * This method creates concurrently the signed documents with the given signature values.
+	 *
+	 * @param toSignDocuments the documents to sign
+	 * @param parameters      the signature parameters of each document
+	 * @param signatureValues the signature value of each document
+	 * @return the signed documents, in the order of the documents
+	 * @throws DSSException if a document cannot be signed
+	 */
+	public List<DSSDocument> signDocuments(final List<DSSDocument> toSignDocuments, final List<SP> parameters, final List<SignatureValue> signatureValues)
+			throws DSSException {
+
+		assertBatch(toSignDocuments, parameters, signatureValues);
+		final List<Callable<DSSDocument>> tasks = new ArrayList<Callable<DSSDocument>>(toSignDocuments.size());
+		for (int ii = 0; ii < toSignDocuments.size(); ii++) {
+
+			final DSSDocument toSignDocument = toSignDocuments.get(ii);
+			final SP documentParameters = parameters.get(ii);
+			final SignatureValue signatureValue = signatureValues.get(ii);
+			tasks.add(new Callable<DSSDocument>() {
+
+				@Override
+				public DSSDocument call() throws Exception {
+					return service.signDocument(toSignDocument, documentParameters, signatureValue);
+				}
+			});
+		}
+		return execute(tasks);
+	}
+
+	/**
+	 * This method signs all the documents: the data to be signed are computed concurrently, then all the signature values are created in one call to
+	 * the token (if it is a {@code BatchSignatureTokenConnection}, otherwise the values are created one by one) and finally the signed documents are created concurrently. All the parameters must use the same digest algorithm.
+	 *
+	 * @param toSignDocuments the documents to sign
+	 * @param parameters      the signature parameters of each document
+	 * @param token           the token
+	 * @param keyEntry        the private key to be used
+	 * @return the signed documents, in the order of the documents
+	 * @throws DSSException if a document cannot be signed
+	 */
+	public List<DSSDocument> signDocuments(final List<DSSDocument> toSignDocuments, final List<SP> parameters, final SignatureTokenConnection token,
+			final DSSPrivateKeyEntry keyEntry) throws DSSException {
+
+		assertBatch(toSignDocuments, parameters, null);
+		if (toSignDocuments.isEmpty()) {
+			return new ArrayList<DSSDocument>();
+		}
+		final DigestAlgorithm digestAlgorithm = parameters.get(0).getDigestAlgorithm();
+		for (final SP documentParameters : parameters) {
+			if (documentParameters.getDigestAlgorithm() != digestAlgorithm) {
+				throw new DSSException("All the documents of a batch must be signed with the same digest algorithm.");
+			}
+		}
+		final List<ToBeSigned> toBeSigned = getDataToSign(toSignDocuments, parameters);
+		final List<SignatureValue> signatureValues = sign(token, toBeSigned, digestAlgorithm, keyEntry);
+		return signDocuments(toSignDocuments, parameters, signatureValues);
+	}
+
+	/**
+	 * This method signs the root of a Merkle tree built on the digests of the documents: one signature value (and one timestamp for the T-level) covers
+	 * all the documents. The content signed by the wrapped service is the root of the tree ({@link #MERKLE_ROOT_DOCUMENT_NAME}). The digests of the
+	 * documents are computed concurrently with the digest algorithm of the parameters.
+	 *
+	 * @param documents  the documents of the batch
+	 * @param parameters the signature parameters of the root
+	 * @param token      the token
+	 * @param keyEntry   the private key to be used
+	 * @return the signature of the root and the proof of each document
+	 * @throws DSSException if a document cannot be read or if the root cannot be signed
+	 */
+	public MerkleTreeSignature signMerkleTree(final List<DSSDocument> documents, final SP parameters, final SignatureTokenConnection token,
+			final DSSPrivateKeyEntry keyEntry) throws DSSException {
+
+		if (documents == null || documents.isEmpty()) {
+			throw new DSSException("The batch must contain at least one document.");
+		}
+		final DigestAlgorithm digestAlgorithm = parameters.getDigestAlgorithm();
+		final List<Callable<byte[]>> tasks = new ArrayList<Callable<byte[]>>(documents.size());
+		for (final DSSDocument document : documents) {
+			tasks.add(new Callable<byte[]>() {
+
+				@Override
+				public byte[] call() throws Exception {
+
+					return Base64.decodeBase64(document.getDigest(digestAlgorithm));
+				}
+			});
+		}
+		final List<byte[]> documentDigests = execute(tasks);
+
+		final List<MerkleProof> proofs = MerkleProof.getProofs(digestAlgorithm, documentDigests);
+		final byte[] root = proofs.get(0).computeRootFromDigest(documentDigests.get(0));
+
+		final DSSDocument rootDocument = new InMemoryDocument(root, MERKLE_ROOT_DOCUMENT_NAME);
+		final ToBeSigned toBeSigned = service.getDataToSign(rootDocument, parameters);
+		final SignatureValue signatureValue = token.sign(toBeSigned, digestAlgorithm, keyEntry);
+		final DSSDocument signature = service.signDocument(rootDocument, parameters, signatureValue);
+		LOG.debug("Merkle tree of {} document(s) signed", documents.size());
+		return new MerkleTreeSignature(signature, root, proofs);
+	}
+
+	private static List<SignatureValue> sign(final SignatureTokenConnection token, final List<ToBeSigned> toBeSigned, final DigestAlgorithm digestAlgorithm,
+			final DSSPrivateKeyEntry keyEntry) throws DSSException {
+
+		if (token instanceof BatchSignatureTokenConnection) {
+
+			final List<SignatureValue> signatureValues = ((BatchSignatureTokenConnection) token).sign(toBeSigned, digestAlgorithm, keyEntry);
+			LOG.debug("{} signature value(s) created in one token session", signatureValues.size());
+			return signatureValues;
+		}
+		final List<SignatureValue> signatureValues = new ArrayList<SignatureValue>(toBeSigned.size());
+		for (final ToBeSigned data : toBeSigned) {
+			signatureValues.add(token.sign(data, digestAlgorithm, keyEntry));
+		}
+		return signatureValues;
+	}
+
+	private void assertBatch(final List<DSSDocument> toSignDocuments, final List<SP> parameters, final List<SignatureValue> signatureValues) throws DSSException {
+
+		if (toSignDocuments == null || parameters == null) {
+			throw new NullPointerException();
+		}
+		if (toSignDocuments.size() != parameters.size() || (signatureValues != null && signatureValues.size() != toSignDocuments.size())) {
+			throw new DSSException("Each document of the batch needs its own parameters and signature value.");
+		}
+		final Map<SP, Boolean> distinctParameters = new IdentityHashMap<SP, Boolean>();
+		for (final SP documentParameters : parameters) {
+			if (distinctParameters.put(documentParameters, Boolean.TRUE) != null) {
+				throw new DSSException("The same parameters cannot be used for several documents of a batch.");
+			}
+		}
+	}
+
+	/**
+	 * This method executes the tasks on the shared pool of threads, with at most {@code concurrentThreadNumber} tasks executed at the same time, and
+	 * returns their results in the order of the tasks.
+	 */
+	private <T> List<T> execute(final List<Callable<T>> tasks) throws DSSException {
+
+		final int threadNumber = Math.min(tasks.size(), (concurrentThreadNumber > 0) ? concurrentThreadNumber : Runtime.getRuntime().availableProcessors());
+		final List<T> results = new ArrayList<T>(tasks.size());
+		if (threadNumber <= 1) {
+
+			for (final Callable<T> task : tasks) {
+				results.add(call(task));
+			}
+			return results;
+		}
+		final ExecutorService executorService = getExecutorService();
+		final List<Future<T>> futures = new ArrayList<Future<T>>(tasks.size());
+		try {
+
+			for (final Callable<T> task : tasks) {
+
+				if (futures.size() - results.size() == threadNumber) {
+					results.add(getResult(futures.get(results.size())));
+				}
+				futures.add(executorService.submit(task));
+			}
+			while (results.size() < futures.size()) {
+				results.add(getResult(futures.get(results.size())));
+			}
+			return results;
+		} finally {
+
+			for (final Future<T> future : futures) {
+				future.cancel(true);
+			}
+		}
+	}
+
+	private static synchronized ExecutorService getExecutorService() {
+
+		if (sharedExecutorService == null) {
+
+			sharedExecutorService = Executors.newCachedThreadPool(new ThreadFactory() {
+
+				@Override
+				public Thread newThread(final Runnable runnable) {
+
+					final Thread thread = new Thread(runnable, "BatchSignatureService");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		return sharedExecutorService;
+	}
+
+	private static <T> T call(final Callable<T> task) throws DSSException {
+
+		try {
+			return task.call();
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new DSSException(e);
+		}
+	}
+
+	private static <T> T getResult(final Future<T> future) throws DSSException {
+
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+
+			Thread.currentThread().interrupt();
+			throw new DSSException(e);
+		} catch (ExecutionException e) {
+
+			final Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new DSSException(cause);
+		}
+	}
+}
@@ -0,0 +1,222 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * <p/>
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * <p/>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p/>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.signature;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.codec.binary.Base64;
+
+import eu.europa.esig.dss.DSSDocument;
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.DSSUtils;
+import eu.europa.esig.dss.DigestAlgorithm;
+
+/**
+ * This class is the proof that a document (or a digest) is covered by the root of a Merkle tree (see {@link BatchSignatureService#signMerkleTree}). It contains the
+ * digests of the siblings on the path from the leaf of the document to the root.
+ * <p/>
+ * The leaf is the digest of {@code 0x00 || digest(document)} and each node is the digest of {@code 0x01 || left || right}. When a level has an odd
+ * number of nodes, the last one is moved up unchanged.
+ */
+public class MerkleProof implements Serializable {
+
+	private static final long serialVersionUID = -1783517216846346785L;
+
+	static final byte LEAF_PREFIX = 0x00;
+
+	static final byte NODE_PREFIX = 0x01;
+
+	private final DigestAlgorithm digestAlgorithm;
+
+	private final int leafIndex;
+
+	private final List<byte[]> siblings;
+
+	private final boolean[] leftSiblings;
+
+	/**
+	 * @param digestAlgorithm the digest algorithm of the tree
+	 * @param leafIndex       the index of the document in the batch
+	 * @param siblings        the digests of the siblings, from the leaf to the root
+	 * @param leftSiblings    for each sibling, {@code true} if it is the left node
+	 */
+	MerkleProof(final DigestAlgorithm digestAlgorithm, final int leafIndex, final List<byte[]> siblings, final boolean[] leftSiblings) {
+
+		this.digestAlgorithm = digestAlgorithm;
+		this.leafIndex = leafIndex;
+		this.siblings = new ArrayList<byte[]>(siblings);
+		this.leftSiblings = leftSiblings.clone();
+	}
+
+	public DigestAlgorithm getDigestAlgorithm() {
+		return digestAlgorithm;
+	}
+
+	/**
+	 * @return the index of the document in the batch
+	 */
+	public int getLeafIndex() {
+		return leafIndex;
+	}
+
+	/**
+	 * @return the digests of the siblings, from the leaf to the root
+	 */
+	public List<byte[]> getSiblings() {
+		return Collections.unmodifiableList(siblings);
+	}
+
+	/**
+	 * @param level the level of the sibling, 0 for the sibling of the leaf
+	 * @return {@code true} if the sibling is the left node
+	 */
+	public boolean isLeftSibling(final int level) {
+		return leftSiblings[level];
+	}
+
+	/**
+	 * This method computes the root of the tree from the given document and the siblings.
+	 *
+	 * @param document the document
+	 * @return the root of the Merkle tree
+	 * @throws DSSException if the document cannot be read
+	 */
+	public byte[] computeRoot(final DSSDocument document) throws DSSException {
+
+		final byte[] documentDigest = Base64.decodeBase64(document.getDigest(digestAlgorithm));
+		return computeRootFromDigest(documentDigest);
+	}
+
+	/**
+	 * This method computes the root of the tree from the digest of the document and the siblings.
+	 *
+	 * @param documentDigest the digest of the document
+	 * @return the root of the Merkle tree
+	 */
+	public byte[] computeRootFromDigest(final byte[] documentDigest) {
+
+		byte[] node = getLeaf(digestAlgorithm, documentDigest);
+		for (int level = 0; level < siblings.size(); level++) {
+
+			final byte[] sibling = siblings.get(level);
+			node = leftSiblings[level] ? getNode(digestAlgorithm, sibling, node) : getNode(digestAlgorithm, node, sibling);
+		}
+		return node;
+	}
+
+	/**
+	 * @param document the document
+	 * @param root     the signed root of the Merkle tree
+	 * @return {@code true} if the document is covered by the root
+	 */
+	public boolean verify(final DSSDocument document, final byte[] root) {
+		return Arrays.equals(computeRoot(document), root);
+	}
+
+	/**
+	 * This method builds the Merkle tree of the given digests and returns the proof of each of them.
+	 *
+	 * @param digestAlgorithm the digest algorithm of the tree
+	 * @param documentDigests the digests of the documents (the leaves), computed with {@code digestAlgorithm}
+	 * @return the proofs, in the order of the digests
+	 * @throws DSSException if there is no digest
+	 */
+	public static List<MerkleProof> getProofs(final DigestAlgorithm digestAlgorithm, final List<byte[]> documentDigests) throws DSSException {
+
+		if (documentDigests.isEmpty()) {
+			throw new DSSException("The Merkle tree must contain at least one leaf.");
+		}
+		final int size = documentDigests.size();
+		final List<byte[]> leaves = new ArrayList<byte[]>(size);
+		for (final byte[] documentDigest : documentDigests) {
+			leaves.add(getLeaf(digestAlgorithm, documentDigest));
+		}
+		final List<List<byte[]>> siblings = new ArrayList<List<byte[]>>(size);
+		final List<List<Boolean>> leftSiblings = new ArrayList<List<Boolean>>(size);
+		for (int ii = 0; ii < size; ii++) {
+
+			siblings.add(new ArrayList<byte[]>());
+			leftSiblings.add(new ArrayList<Boolean>());
+		}
+		// The first leaf covered by each node of the current level, the node covers all leaves up to the first leaf of the next node
+		List<byte[]> level = leaves;
+		List<Integer> firstLeaves = new ArrayList<Integer>(size);
+		for (int ii = 0; ii < size; ii++) {
+			firstLeaves.add(ii);
+		}
+		while (level.size() > 1) {
+
+			final List<byte[]> nextLevel = new ArrayList<byte[]>((level.size() + 1) / 2);
+			final List<Integer> nextFirstLeaves = new ArrayList<Integer>((level.size() + 1) / 2);
+			for (int ii = 0; ii < level.size(); ii += 2) {
+
+				if (ii + 1 == level.size()) {
+					// the last node of an odd level is moved up
+					nextLevel.add(level.get(ii));
+					nextFirstLeaves.add(firstLeaves.get(ii));
+					continue;
+				}
+				final byte[] left = level.get(ii);
+				final byte[] right = level.get(ii + 1);
+				final int leftStart = firstLeaves.get(ii);
+				final int rightStart = firstLeaves.get(ii + 1);
+				final int rightEnd = (ii + 2 < level.size()) ? firstLeaves.get(ii + 2) : size;
+				for (int leaf = leftStart; leaf < rightStart; leaf++) {
+
+					siblings.get(leaf).add(right);
+					leftSiblings.get(leaf).add(Boolean.FALSE);
+				}
+				for (int leaf = rightStart; leaf < rightEnd; leaf++) {
+
+					siblings.get(leaf).add(left);
+					leftSiblings.get(leaf).add(Boolean.TRUE);
+				}
+				nextLevel.add(getNode(digestAlgorithm, left, right));
+				nextFirstLeaves.add(leftStart);
+			}
+			level = nextLevel;
+			firstLeaves = nextFirstLeaves;
+		}
+		final List<MerkleProof> proofs = new ArrayList<MerkleProof>(size);
+		for (int ii = 0; ii < size; ii++) {
+
+			final List<Boolean> left = leftSiblings.get(ii);
+			final boolean[] leftArray = new boolean[left.size()];
+			for (int jj = 0; jj < leftArray.length; jj++) {
+				leftArray[jj] = left.get(jj);
+			}
+			proofs.add(new MerkleProof(digestAlgorithm, ii, siblings.get(ii), leftArray));
+		}
+		return proofs;
+	}
+
+	static byte[] getLeaf(final DigestAlgorithm digestAlgorithm, final byte[] documentDigest) {
+		return DSSUtils.digest(digestAlgorithm, new byte[]{LEAF_PREFIX}, documentDigest);
+	}
+
+	static byte[] getNode(final DigestAlgorithm digestAlgorithm, final byte[] left, final byte[] right) {
+		return DSSUtils.digest(digestAlgorithm, new byte[]{NODE_PREFIX}, left, right);
+	}
+}
@@ -0,0 +1,76 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * <p/>
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * <p/>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p/>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.signature;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import eu.europa.esig.dss.DSSDocument;
+
+/**
+ * The result of {@link BatchSignatureService#signMerkleTree}: a single signature of the root of the Merkle tree and, for each document of the batch, the
+ * proof that it is covered by this root.
+ */
+public class MerkleTreeSignature {
+
+	private final DSSDocument signature;
+
+	private final byte[] root;
+
+	private final List<MerkleProof> proofs;
+
+	MerkleTreeSignature(final DSSDocument signature, final byte[] root, final List<MerkleProof> proofs) {
+
+		this.signature = signature;
+		this.root = root;
+		this.proofs = new ArrayList<MerkleProof>(proofs);
+	}
+
+	/**
+	 * @return the signature of the root, created by the wrapped signature service (the signed content is the root)
+	 */
+	public DSSDocument getSignature() {
+		return signature;
+	}
+
+	/**
+	 * @return the root of the Merkle tree
+	 */
+	public byte[] getRoot() {
+		return root.clone();
+	}
+
+	/**
+	 * @return the proofs of the documents, in the order of the batch
+	 */
+	public List<MerkleProof> getProofs() {
+		return Collections.unmodifiableList(proofs);
+	}
+
+	/**
+	 * @param index the index of the document in the batch
+	 * @return the proof of the document
+	 */
+	public MerkleProof getProof(final int index) {
+		return proofs.get(index);
+	}
+}
@@ -0,0 +1,307 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * <p/>
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * <p/>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p/>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.validation;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.x509.CertificatePool;
+import eu.europa.esig.dss.x509.CertificateToken;
+import eu.europa.esig.dss.x509.RevocationToken;
+import eu.europa.esig.dss.x509.crl.CRLSource;
+import eu.europa.esig.dss.x509.crl.CRLToken;
+import eu.europa.esig.dss.x509.ocsp.OCSPSource;
+
+/**
+ * This verifier sends the OCSP and the CRL requests of a certificate at the same time on the given {@code ExecutorService}, with a deadline applied to
+ * each of them. The preference of {@code OCSPAndCRLCertificateVerifier} is kept: a good OCSP response is used and the CRL request is cancelled, the
+ * CRL is used only when the OCSP request fails, gives no status or exceeds its deadline. As the CRL is downloaded during the OCSP request, the fallback
+ * costs the longest of both requests instead of their sum.
+ * <p/>
+ * A request not answered in time is cancelled and considered as failed. When neither the OCSP nor the CRL source gives a status, the fallback verifier
+ * (ex.: the revocation data contained in the signature) is used.
+ */
+public class AsyncOCSPAndCRLCertificateVerifier implements CertificateStatusVerifier {
+
+	private static final Logger LOG = LoggerFactory.getLogger(AsyncOCSPAndCRLCertificateVerifier.class);
+
+	private final OCSPSource ocspSource;
+
+	private final CRLSource crlSource;
+
+	private final CertificatePool validationCertPool;
+
+	private final ExecutorService executorService;
+
+	private final long timeout;
+
+	private CertificateStatusVerifier fallbackVerifier;
+
+	/**
+	 * The default constructor.
+	 *
+	 * @param crlSource          the CRL source to query, can be null
+	 * @param ocspSource         the OCSP source to query, can be null
+	 * @param validationCertPool the pool of certificates used during the validation process
+	 * @param executorService    the {@code ExecutorService} executing the requests
+	 * @param timeout            the deadline of each request in milliseconds, {@code 0} means that there is no deadline
+	 */
+	public AsyncOCSPAndCRLCertificateVerifier(final CRLSource crlSource, final OCSPSource ocspSource, final CertificatePool validationCertPool,
+	                                          final ExecutorService executorService, final long timeout) {
+
+		if (executorService == null) {
+			throw new NullPointerException();
+		}
+		this.crlSource = crlSource;
+		this.ocspSource = ocspSource;
+		this.validationCertPool = validationCertPool;
+		this.executorService = executorService;
+		this.timeout = timeout;
+	}
+
+	/**
+	 * @param fallbackVerifier the {@code CertificateStatusVerifier} used when neither the OCSP nor the CRL source gives a status
+	 */
+	public void setFallbackVerifier(final CertificateStatusVerifier fallbackVerifier) {
+		this.fallbackVerifier = fallbackVerifier;
+	}
+
+	@Override
+	public RevocationToken check(final CertificateToken certificateToken) {
+
+		final String dssIdAsString = certificateToken.getDSSIdAsString();
+		final Decision decision = new Decision(certificateToken);
+		Future<RevocationToken> ocspFuture = null;
+		Future<CRLToken> crlFuture = null;
+		RevocationToken revocationToken = null;
+		try {
+
+			final long deadline = getDeadline();
+			if (ocspSource != null) {
+				ocspFuture = executorService.submit(new OCSPRequest(certificateToken, decision));
+			}
+			if (crlSource != null) {
+				crlFuture = executorService.submit(new CRLRequest(certificateToken));
+			}
+			if (ocspFuture != null) {
+
+				revocationToken = getOCSPResponse(certificateToken, ocspFuture, deadline, decision);
+				if (revocationToken != null && revocationToken.getStatus() != null) {
+
+					LOG.debug("OCSP response for {} retrieved: {}", dssIdAsString, revocationToken.getAbbreviation());
+					return revocationToken;
+				}
+			}
+			if (crlFuture != null) {
+
+				revocationToken = getCRL(certificateToken, crlFuture, deadline);
+				if (revocationToken != null && revocationToken.getStatus() != null) {
+
+					LOG.debug("CRL for {} retrieved: {}", dssIdAsString, revocationToken.getAbbreviation());
+					return revocationToken;
+				}
+			}
+			LOG.debug("There is no response for {} neither from OCSP nor from CRL!", dssIdAsString);
+			revocationToken = fallbackVerifier == null ? null : fallbackVerifier.check(certificateToken);
+			return revocationToken;
+		} finally {
+
+			cancel(crlFuture);
+			cancel(ocspFuture);
+			decision.complete(revocationToken);
+		}
+	}
+
+	private RevocationToken getOCSPResponse(final CertificateToken certificateToken, final Future<RevocationToken> ocspFuture, final long deadline,
+	                                        final Decision decision) {
+
+		try {
+			return get(ocspFuture, deadline);
+		} catch (TimeoutException e) {
+
+			decision.abandonOCSPRequest();
+			LOG.warn("OCSP request for {} cancelled: the deadline of {} ms is exceeded.", certificateToken.getDSSIdAsString(), timeout);
+			certificateToken.extraInfo().infoOCSPException(new DSSException("The deadline of " + timeout + " ms is exceeded."));
+			return null;
+		} catch (ExecutionException e) {
+
+			// OCSPCertificateVerifier deals with the DSSException, any other exception is propagated as in the sequential verification.
+			throw toRuntimeException(e.getCause());
+		}
+	}
+
+	private RevocationToken getCRL(final CertificateToken certificateToken, final Future<CRLToken> crlFuture, final long deadline) {
+
+		final CRLCertificateVerifier crlVerifier = new CRLCertificateVerifier(crlSource);
+		try {
+			return crlVerifier.check(certificateToken, get(crlFuture, deadline));
+		} catch (TimeoutException e) {
+
+			return crlVerifier.check(certificateToken, new DSSException("The deadline of " + timeout + " ms is exceeded."));
+		} catch (ExecutionException e) {
+
+			final Throwable cause = e.getCause();
+			if (cause instanceof Exception) {
+				return crlVerifier.check(certificateToken, (Exception) cause);
+			}
+			throw toRuntimeException(cause);
+		}
+	}
+
+	private long getDeadline() {
+		return timeout > 0 ? System.currentTimeMillis() + timeout : 0;
+	}
+
+	private static <T> T get(final Future<T> future, final long deadline) throws ExecutionException, TimeoutException {
+
+		try {
+
+			if (deadline == 0) {
+				return future.get();
+			}
+			return future.get(Math.max(deadline - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+
+			Thread.currentThread().interrupt();
+			throw new DSSException(e);
+		} catch (CancellationException e) {
+			throw new TimeoutException();
+		}
+	}
+
+	private static void cancel(final Future<?> future) {
+
+		if (future != null) {
+			future.cancel(true);
+		}
+	}
+
+	private static RuntimeException toRuntimeException(final Throwable throwable) {
+
+		if (throwable instanceof RuntimeException) {
+			return (RuntimeException) throwable;
+		}
+		if (throwable instanceof Error) {
+			throw (Error) throwable;
+		}
+		return new DSSException(throwable);
+	}
+
+	/**
+	 * The result of the verification of one certificate. The OCSP sources set the revocation token of the certificate: a response received after its
+	 * deadline must not replace the token retained by the verifier, whatever the order in which they are known.
+	 */
+	private static class Decision {
+
+		private final CertificateToken certificateToken;
+
+		private boolean abandoned;
+
+		private boolean completed;
+
+		private RevocationToken revocationToken;
+
+		private RevocationToken ocspRevocationToken;
+
+		Decision(final CertificateToken certificateToken) {
+			this.certificateToken = certificateToken;
+		}
+
+		synchronized void abandonOCSPRequest() {
+
+			abandoned = true;
+			restoreRevocationToken();
+		}
+
+		synchronized void setOCSPResponse(final RevocationToken ocspRevocationToken) {
+
+			this.ocspRevocationToken = ocspRevocationToken;
+			restoreRevocationToken();
+		}
+
+		synchronized void complete(final RevocationToken revocationToken) {
+
+			this.completed = true;
+			this.revocationToken = revocationToken;
+			restoreRevocationToken();
+		}
+
+		private void restoreRevocationToken() {
+
+			if (abandoned && completed && ocspRevocationToken != null && certificateToken.getRevocationToken() == ocspRevocationToken) {
+
+				LOG.debug("The OCSP response for {} is received after the deadline and ignored.", certificateToken.getDSSIdAsString());
+				certificateToken.setRevocationToken(revocationToken);
+			}
+		}
+	}
+
+	/**
+	 * The OCSP request, the response is checked by {@code OCSPCertificateVerifier}.
+	 */
+	private class OCSPRequest implements Callable<RevocationToken> {
+
+		private final CertificateToken certificateToken;
+
+		private final Decision decision;
+
+		OCSPRequest(final CertificateToken certificateToken, final Decision decision) {
+
+			this.certificateToken = certificateToken;
+			this.decision = decision;
+		}
+
+		@Override
+		public RevocationToken call() throws Exception {
+
+			final OCSPCertificateVerifier ocspVerifier = new OCSPCertificateVerifier(ocspSource, validationCertPool);
+			final RevocationToken revocationToken = ocspVerifier.check(certificateToken);
+			decision.setOCSPResponse(revocationToken);
+			return revocationToken;
+		}
+	}
+
+	/**
+	 * The CRL request: the CRL is only retrieved, it is checked by {@code CRLCertificateVerifier} if it is used.
+	 */
+	private class CRLRequest implements Callable<CRLToken> {
+
+		private final CertificateToken certificateToken;
+
+		CRLRequest(final CertificateToken certificateToken) {
+			this.certificateToken = certificateToken;
+		}
+
+		@Override
+		public CRLToken call() throws Exception {
+			return crlSource.findCrl(certificateToken);
+		}
+	}
+}
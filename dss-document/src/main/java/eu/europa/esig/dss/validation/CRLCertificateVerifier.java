@@ -61,26 +61,51 @@ public class CRLCertificateVerifier implements CertificateStatusVerifier {
                 return null;
             }
             final CRLToken crlToken = crlSource.findCrl(certificateToken);
-            if (crlToken == null) {
+            return check(certificateToken, crlToken);
+        } catch (final Exception e) {
 
-                if (LOG.isInfoEnabled()) {
-                    LOG.info("No CRL found for: " + certificateToken.getDSSIdAsString());
-                }
-                return null;
-            }
-            if (!crlToken.isValid()) {
+            return check(certificateToken, e);
+        }
+    }
 
-                LOG.warn("The CRL is not valid !");
-                certificateToken.extraInfo().infoCRLIsNotValid();
-                return null;
+    /**
+     * This method checks the {@code CRLToken} already retrieved from the CRL source for the given certificate. When the CRL is valid it becomes the
+     * revocation token of the certificate.
+     *
+     * @param certificateToken the certificate to be verified
+     * @param crlToken         the {@code CRLToken} found by the CRL source or null
+     * @return the {@code CRLToken} or null if no valid CRL was found
+     */
+    RevocationToken check(final CertificateToken certificateToken, final CRLToken crlToken) {
+
+        if (crlToken == null) {
+
+            if (LOG.isInfoEnabled()) {
+                LOG.info("No CRL found for: " + certificateToken.getDSSIdAsString());
             }
-            certificateToken.setRevocationToken(crlToken);
-            return crlToken;
-        } catch (final Exception e) {
+            return null;
+        }
+        if (!crlToken.isValid()) {
 
-            LOG.error("Exception when accessing CRL for " + certificateToken.getDSSIdAsString(), e);
-            certificateToken.extraInfo().infoCRLException(e);
+            LOG.warn("The CRL is not valid !");
+            certificateToken.extraInfo().infoCRLIsNotValid();
             return null;
         }
+        certificateToken.setRevocationToken(crlToken);
+        return crlToken;
+    }
+
+    /**
+     * This method records the failure of the access to the CRL source for the given certificate.
+     *
+     * @param certificateToken the certificate to be verified
+     * @param e                the exception thrown by the CRL source
+     * @return always null
+     */
+    RevocationToken check(final CertificateToken certificateToken, final Exception e) {
+
+        LOG.error("Exception when accessing CRL for " + certificateToken.getDSSIdAsString(), e);
+        certificateToken.extraInfo().infoCRLException(e);
+        return null;
     }
 }
@@ -21,7 +21,6 @@
 package eu.europa.esig.dss.validation;
 
 import java.math.BigInteger;
-import java.security.MessageDigest;
 import java.security.cert.CRLException;
 import java.security.cert.X509CRL;
 import java.text.ParseException;
@@ -87,8 +86,7 @@ public final class CRLRef {
      */
     public boolean match(X509CRL crl) {
         try {
-            MessageDigest digest = DSSUtils.getMessageDigest(digestAlgorithm);
-            byte[] computedValue = digest.digest(crl.getEncoded());
+            byte[] computedValue = DSSUtils.digest(digestAlgorithm, crl.getEncoded());
             return Arrays.equals(digestValue, computedValue);
         } catch (CRLException ex) {
             throw new DSSException(ex);
@@ -140,7 +140,8 @@ public interface CertificateVerifier {
 
 	/**
 	 * This method creates the validation pool of certificates which is used
-	 * during the validation process.
+	 * during the validation process. The certificates added during the
+	 * validation must not be added to the pool of the trusted source.
 	 */
 	CertificatePool createValidationPool();
 
@@ -80,6 +80,18 @@ public class CommonCertificateVerifier implements CertificateVerifier {
 	 */
 	private ListOCSPSource signatureOCSPSource;
 
+	/**
+	 * The number of concurrent threads used to process the tokens of a validation, see
+	 * {@link SignatureValidationContext#setConcurrentThreadNumber(int)}. {@code 1} (default) means that the tokens are processed sequentially.
+	 */
+	private int concurrentThreadNumber = 1;
+
+	/**
+	 * The deadline, in milliseconds, of each OCSP or CRL request, see {@link SignatureValidationContext#setRevocationTimeout(long)}. {@code 0}
+	 * (default) means that there is no deadline.
+	 */
+	private long revocationTimeout = 0;
+
 	/**
 	 * The default constructor. The {@code DataLoader} is created to allow the retrieval of certificates through AIA.
 	 */
@@ -232,15 +244,47 @@ public class CommonCertificateVerifier implements CertificateVerifier {
 	@Override
 	public CertificatePool createValidationPool() {
 
-		final CertificatePool validationPool = new CertificatePool();
-		if (trustedCertSource != null) {
-
-			validationPool.merge(trustedCertSource.getCertificatePool());
-		}
+		// The trusted certificates are not copied: the validation pool is created on top of the pool of the trusted source.
+		final CertificatePool trustedCertPool = trustedCertSource == null ? null : trustedCertSource.getCertificatePool();
+		final CertificatePool validationPool = new CertificatePool(trustedCertPool);
 		if (adjunctCertSource != null) {
 
 			validationPool.merge(adjunctCertSource.getCertificatePool());
 		}
 		return validationPool;
 	}
+
+	/**
+	 * @return the number of concurrent threads used to process the tokens of a validation
+	 */
+	public int getConcurrentThreadNumber() {
+		return concurrentThreadNumber;
+	}
+
+	/**
+	 * This method sets the number of concurrent threads used to process the tokens (certificates, revocation data, timestamps) of a validation.
+	 * {@code 1} (default) means that the tokens are processed sequentially, {@code 0} means that the number of available processors is used.
+	 *
+	 * @param concurrentThreadNumber the number of concurrent threads
+	 */
+	public void setConcurrentThreadNumber(final int concurrentThreadNumber) {
+		this.concurrentThreadNumber = concurrentThreadNumber;
+	}
+
+	/**
+	 * @return the deadline of each OCSP or CRL request in milliseconds
+	 */
+	public long getRevocationTimeout() {
+		return revocationTimeout;
+	}
+
+	/**
+	 * This method sets the deadline of each OCSP or CRL request. A request which is not answered in time is considered as failed: the CRL is then
+	 * requested when the OCSP request is late. {@code 0} (default) means that there is no deadline.
+	 *
+	 * @param revocationTimeout the deadline in milliseconds
+	 */
+	public void setRevocationTimeout(final long revocationTimeout) {
+		this.revocationTimeout = revocationTimeout;
+	}
 }
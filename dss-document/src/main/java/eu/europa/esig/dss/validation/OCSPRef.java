@@ -21,7 +21,6 @@
 package eu.europa.esig.dss.validation;
 
 import java.io.IOException;
-import java.security.MessageDigest;
 import java.util.Arrays;
 
 import org.apache.commons.codec.binary.Hex;
@@ -85,13 +84,13 @@ public class OCSPRef {
 		}
 		try {
 
-			MessageDigest digest = DSSUtils.getMessageDigest(digestAlgorithm);
+			final byte[] encoded;
 			if (matchOnlyBasicOCSPResponse) {
-				digest.update(ocspResp.getEncoded());
+				encoded = ocspResp.getEncoded();
 			} else {
-				digest.update(DSSRevocationUtils.fromBasicToResp(ocspResp).getEncoded());
+				encoded = DSSRevocationUtils.fromBasicToResp(ocspResp).getEncoded();
 			}
-			byte[] computedValue = digest.digest();
+			byte[] computedValue = DSSUtils.digest(digestAlgorithm, encoded);
 			if (LOG.isInfoEnabled()) {
 				LOG.info("Compare " + Hex.encodeHexString(digestValue) + " to computed value " + Hex.encodeHexString(computedValue) + " of " +
 					  "BasicOCSPResp produced at " + ocspResp.getProducedAt());
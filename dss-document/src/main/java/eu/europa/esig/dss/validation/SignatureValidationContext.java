@@ -20,16 +20,22 @@
  */
 package eu.europa.esig.dss.validation;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Queue;
 import java.util.Set;
-
-import javax.security.auth.x500.X500Principal;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -49,6 +55,10 @@ import eu.europa.esig.dss.x509.ocsp.OCSPSource;
 /**
  * During the validation of a signature, the software retrieves different X509 artifacts like Certificate, CRL and OCSP Response. The SignatureValidationContext is a "cache" for
  * one validation request that contains every object retrieved so far.
+ * <p/>
+ * The tokens to verify are kept in a work queue: each newly discovered token (issuer certificate, revocation data) is enqueued once and the queue is
+ * processed until it is empty. Depending on the concurrent thread number, the tokens are processed concurrently: the issuer lookups, the AIA requests
+ * and the revocation requests of different tokens overlap.
  *
  */
 public class SignatureValidationContext implements ValidationContext {
@@ -69,7 +79,33 @@ public class SignatureValidationContext implements ValidationContext {
 	 */
 	protected CertificatePool validationCertificatePool;
 
-	private final Map<Token, Boolean> tokensToProcess = new HashMap<Token, Boolean>();
+	/**
+	 * All tokens added for verification so far: a token is verified only once. This set is also the lock of the work queue and of the processed
+	 * tokens.
+	 */
+	private final Set<Token> tokensToProcess = new HashSet<Token>();
+
+	/**
+	 * The tokens added for verification and not yet taken for processing.
+	 */
+	private final Queue<Token> tokenQueue = new LinkedList<Token>();
+
+	/**
+	 * This variable indicates the number of concurrent threads to use to process the tokens. {@code 1} (default) processes the tokens sequentially
+	 * within the calling thread. {@code 0} means that there is no limit: the number of available processors is then used.
+	 */
+	private int concurrentThreadNumber = 1;
+
+	/**
+	 * The deadline, in milliseconds, of each OCSP or CRL request. {@code 0} means that there is no deadline.
+	 */
+	private long revocationTimeout = 0;
+
+	/**
+	 * The pool of threads shared by all the validations: it executes the processing of the tokens and the OCSP and CRL requests. The number of tokens
+	 * processed at the same time by a validation is bounded by its {@code concurrentThreadNumber}.
+	 */
+	private static ExecutorService sharedExecutorService;
 
 	// External OCSP source.
 	private OCSPSource ocspSource;
@@ -126,6 +162,12 @@ public class SignatureValidationContext implements ValidationContext {
 		this.dataLoader = certificateVerifier.getDataLoader();
 		this.signatureCRLSource = certificateVerifier.getSignatureCRLSource();
 		this.signatureOCSPSource = certificateVerifier.getSignatureOCSPSource();
+		if (certificateVerifier instanceof CommonCertificateVerifier) {
+
+			final CommonCertificateVerifier commonCertificateVerifier = (CommonCertificateVerifier) certificateVerifier;
+			this.concurrentThreadNumber = commonCertificateVerifier.getConcurrentThreadNumber();
+			this.revocationTimeout = commonCertificateVerifier.getRevocationTimeout();
+		}
 	}
 
 	@Override
@@ -141,6 +183,41 @@ public class SignatureValidationContext implements ValidationContext {
 		this.currentTime = currentTime;
 	}
 
+	/**
+	 * @return the number of concurrent threads used to process the tokens
+	 */
+	public int getConcurrentThreadNumber() {
+		return concurrentThreadNumber;
+	}
+
+	/**
+	 * This method sets the number of concurrent threads used to process the tokens. {@code 1} (default) means that the tokens are processed
+	 * sequentially, {@code 0} means that the number of available processors is used. The value is also set by {@link #initialize(CertificateVerifier)}
+	 * from a {@code CommonCertificateVerifier}.
+	 *
+	 * @param concurrentThreadNumber the number of concurrent threads
+	 */
+	public void setConcurrentThreadNumber(final int concurrentThreadNumber) {
+		this.concurrentThreadNumber = concurrentThreadNumber;
+	}
+
+	/**
+	 * @return the deadline of each OCSP or CRL request in milliseconds
+	 */
+	public long getRevocationTimeout() {
+		return revocationTimeout;
+	}
+
+	/**
+	 * This method sets the deadline of each OCSP or CRL request. A request which is not answered in time is considered as failed. {@code 0} (default)
+	 * means that there is no deadline. The value is also set by {@link #initialize(CertificateVerifier)} from a {@code CommonCertificateVerifier}.
+	 *
+	 * @param revocationTimeout the deadline in milliseconds
+	 */
+	public void setRevocationTimeout(final long revocationTimeout) {
+		this.revocationTimeout = revocationTimeout;
+	}
+
 	/**
 	 * This method returns a token to verify. If there is no more tokens to verify null is returned.
 	 *
@@ -148,15 +225,7 @@ public class SignatureValidationContext implements ValidationContext {
 	 */
 	private Token getNotYetVerifiedToken() {
 		synchronized (tokensToProcess) {
-			for (final Entry<Token, Boolean> entry : tokensToProcess.entrySet()) {
-
-				if (entry.getValue() == null) {
-
-					entry.setValue(true);
-					return entry.getKey();
-				}
-			}
-			return null;
+			return tokenQueue.poll();
 		}
 	}
 
@@ -169,22 +238,37 @@ public class SignatureValidationContext implements ValidationContext {
 	 */
 	private CertificateToken getIssuerCertificate(final Token token) throws DSSException {
 
-		if (token.isTrusted()) {
+		final CertificateToken issuerCertificateToken;
+		// The token is modified by the search of its issuer: the concurrent searches of the same issuer (ex.: the chain of two certificates) are serialized.
+		synchronized (token) {
 
-			// When the token is trusted the check of the issuer token is not needed so null is returned. Only a certificate token can be trusted.
-			return null;
+			if (token.isTrusted()) {
+
+				// When the token is trusted the check of the issuer token is not needed so null is returned. Only a certificate token can be trusted.
+				return null;
+			}
+			if (token.getIssuerToken() != null) {
+
+				/**
+				 * The signer's certificate have been found already. This can happen in the case of:<br>
+				 * - multiple signatures that use the same certificate,<br>
+				 * - OCSPRespTokens (the issuer certificate is known from the beginning)
+				 */
+				return token.getIssuerToken();
+			}
+			issuerCertificateToken = findIssuerCertificate(token);
 		}
-		if (token.getIssuerToken() != null) {
+		if ((issuerCertificateToken != null) && !issuerCertificateToken.isTrusted() && !issuerCertificateToken.isSelfSigned()) {
 
-			/**
-			 * The signer's certificate have been found already. This can happen in the case of:<br>
-			 * - multiple signatures that use the same certificate,<br>
-			 * - OCSPRespTokens (the issuer certificate is known from the beginning)
-			 */
-			return token.getIssuerToken();
+			// The full chain is retrieved for each certificate. The lock of the token is released to avoid any deadlock with a cross-certificate.
+			getIssuerCertificate(issuerCertificateToken);
 		}
-		final X500Principal issuerX500Principal = token.getIssuerX500Principal();
-		CertificateToken issuerCertificateToken = getIssuerFromPool(token, issuerX500Principal);
+		return issuerCertificateToken;
+	}
+
+	private CertificateToken findIssuerCertificate(final Token token) {
+
+		CertificateToken issuerCertificateToken = getIssuerFromPool(token);
 
 		if ((issuerCertificateToken == null) && (token instanceof CertificateToken)) {
 
@@ -194,11 +278,6 @@ public class SignatureValidationContext implements ValidationContext {
 
 			token.extraInfo().infoTheSigningCertNotFound();
 		}
-		if ((issuerCertificateToken != null) && !issuerCertificateToken.isTrusted() && !issuerCertificateToken.isSelfSigned()) {
-
-			// The full chain is retrieved for each certificate
-			getIssuerCertificate(issuerCertificateToken);
-		}
 		return issuerCertificateToken;
 	}
 
@@ -218,7 +297,7 @@ public class SignatureValidationContext implements ValidationContext {
 			if (issuerCert != null) {
 
 				final CertificateToken issuerCertToken = validationCertificatePool.getInstance(issuerCert, CertificateSourceType.AIA);
-				if (token.isSignedBy(issuerCertToken)) {
+				if (validationCertificatePool.isSignedBy(token, issuerCertToken)) {
 
 					return issuerCertToken;
 				}
@@ -236,19 +315,18 @@ public class SignatureValidationContext implements ValidationContext {
 
 	/**
 	 * This function retrieves the issuer certificate from the validation pool (this pool should contain trusted certificates). The check is made if the token is well signed by
-	 * the retrieved certificate.
+	 * the retrieved certificate. The candidates are pre-filtered by the pool (authority key identifier, validity period) and each signature is checked only once per pool.
 	 *
 	 * @param token               token for which the issuer have to be found
-	 * @param issuerX500Principal issuer's subject distinguished name
 	 * @return the corresponding {@code CertificateToken} or null if not found
 	 */
-	private CertificateToken getIssuerFromPool(final Token token, final X500Principal issuerX500Principal) {
+	private CertificateToken getIssuerFromPool(final Token token) {
 
-		final List<CertificateToken> issuerCertList = validationCertificatePool.get(issuerX500Principal);
+		final List<CertificateToken> issuerCertList = validationCertificatePool.getIssuerCandidates(token);
 		for (final CertificateToken issuerCertToken : issuerCertList) {
 
 			// We keep the first issuer that signs the certificate
-			if (token.isSignedBy(issuerCertToken)) {
+			if (validationCertificatePool.isSignedBy(token, issuerCertToken)) {
 
 				return issuerCertToken;
 			}
@@ -275,14 +353,15 @@ public class SignatureValidationContext implements ValidationContext {
 				if (token == null) {
 					return false;
 				}
-				if (tokensToProcess.containsKey(token)) {
+				if (tokensToProcess.contains(token)) {
 
 					if (traceEnabled) {
 						logger.trace("Token was already in the list {}:{}", new Object[]{token.getClass().getSimpleName(), token.getAbbreviation()});
 					}
 					return false;
 				}
-				tokensToProcess.put(token, null);
+				tokensToProcess.add(token);
+				tokenQueue.add(token);
 				if (traceEnabled) {
 					logger.trace("+ New {} to check: {}", new Object[]{token.getClass().getSimpleName(), token.getAbbreviation()});
 				}
@@ -300,7 +379,10 @@ public class SignatureValidationContext implements ValidationContext {
 
 		if (addTokenForVerification(revocationToken)) {
 
-			final boolean added = processedRevocations.add(revocationToken);
+			final boolean added;
+			synchronized (tokensToProcess) {
+				added = processedRevocations.add(revocationToken);
+			}
 			if (logger.isTraceEnabled()) {
 				if (added) {
 					logger.trace("RevocationToken added to processedRevocations: {} ", revocationToken);
@@ -316,7 +398,10 @@ public class SignatureValidationContext implements ValidationContext {
 
 		if (addTokenForVerification(certificateToken)) {
 
-			final boolean added = processedCertificates.add(certificateToken);
+			final boolean added;
+			synchronized (tokensToProcess) {
+				added = processedCertificates.add(certificateToken);
+			}
 			if (logger.isTraceEnabled()) {
 				if (added) {
 					logger.trace("CertificateToken added to processedRevocations: {} ", certificateToken);
@@ -332,7 +417,10 @@ public class SignatureValidationContext implements ValidationContext {
 
 		if (addTokenForVerification(timestampToken)) {
 
-			final boolean added = processedTimestamps.add(timestampToken);
+			final boolean added;
+			synchronized (tokensToProcess) {
+				added = processedTimestamps.add(timestampToken);
+			}
 			if (logger.isTraceEnabled()) {
 				if (added) {
 					logger.trace("TimestampToken added to processedRevocations: {} ", processedTimestamps);
@@ -345,26 +433,130 @@ public class SignatureValidationContext implements ValidationContext {
 
 	@Override
 	public void validate() throws DSSException {
+
+		final int threadNumber = concurrentThreadNumber <= 0 ? Runtime.getRuntime().availableProcessors() : concurrentThreadNumber;
+		if (threadNumber > 1) {
+
+			validateConcurrently(threadNumber);
+			return;
+		}
 		Token token = null;
 		do {
 			token = getNotYetVerifiedToken();
 			if (token != null) {
+				process(token);
+			}
+		} while (token != null);
+	}
 
-				/**
-				 * Gets the issuer certificate of the Token and checks its signature
-				 */
-				final CertificateToken issuerCertToken = getIssuerCertificate(token);
-				if (issuerCertToken != null) {
-					addCertificateTokenForVerification(issuerCertToken);
+	/**
+	 * This method processes the work queue on the shared pool of threads, with at most {@code threadNumber} tokens processed at the same time. The tokens
+	 * discovered during the processing of a token are enqueued by the worker thread and submitted by the calling thread as soon as a processing is
+	 * completed. The validation ends when the queue is empty and no more token is being processed.
+	 *
+	 * @param threadNumber the maximum number of tokens processed at the same time
+	 */
+	private void validateConcurrently(final int threadNumber) {
+
+		final CompletionService<Token> completionService = new ExecutorCompletionService<Token>(getExecutorService());
+		final List<Future<Token>> futures = new ArrayList<Future<Token>>();
+		try {
+
+			int pending = 0;
+			while (true) {
+
+				Token token;
+				while (pending < threadNumber && (token = getNotYetVerifiedToken()) != null) {
+
+					futures.add(completionService.submit(new TokenProcessingTask(token)));
+					pending++;
+				}
+				if (pending == 0) {
+					break;
 				}
+				getResult(completionService);
+				pending--;
+			}
+		} finally {
+
+			for (final Future<Token> future : futures) {
+				future.cancel(true);
+			}
+		}
+	}
+
+	private static synchronized ExecutorService getExecutorService() {
+
+		if (sharedExecutorService == null) {
 
-				if (token instanceof CertificateToken) {
-					final RevocationToken revocationToken = getRevocationData((CertificateToken) token);
-					addRevocationTokenForVerification(revocationToken);
+			sharedExecutorService = Executors.newCachedThreadPool(new ThreadFactory() {
+
+				@Override
+				public Thread newThread(final Runnable runnable) {
+
+					final Thread thread = new Thread(runnable, "SignatureValidationContext");
+					thread.setDaemon(true);
+					return thread;
 				}
+			});
+		}
+		return sharedExecutorService;
+	}
+
+	private static Token getResult(final CompletionService<Token> completionService) {
+
+		try {
+			return completionService.take().get();
+		} catch (InterruptedException e) {
 
+			Thread.currentThread().interrupt();
+			throw new DSSException(e);
+		} catch (ExecutionException e) {
+
+			final Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
 			}
-		} while (token != null);
+			throw new DSSException(cause);
+		}
+	}
+
+	/**
+	 * Gets the issuer certificate of the token, checks its signature and, for a certificate, retrieves its revocation data. The found tokens are added for
+	 * verification.
+	 *
+	 * @param token the token to process
+	 */
+	private void process(final Token token) {
+
+		final CertificateToken issuerCertToken = getIssuerCertificate(token);
+		if (issuerCertToken != null) {
+			addCertificateTokenForVerification(issuerCertToken);
+		}
+
+		if (token instanceof CertificateToken) {
+			final RevocationToken revocationToken = getRevocationData((CertificateToken) token);
+			addRevocationTokenForVerification(revocationToken);
+		}
+	}
+
+	/**
+	 * This class processes one token of the work queue.
+	 */
+	private class TokenProcessingTask implements Callable<Token> {
+
+		private final Token token;
+
+		TokenProcessingTask(final Token token) {
+			this.token = token;
+		}
+
+		@Override
+		public Token call() throws Exception {
+
+			process(token);
+			return token;
+		}
 	}
 
 	/**
@@ -393,6 +585,14 @@ public class SignatureValidationContext implements ValidationContext {
 		}
 
 		boolean checkOnLine = shouldCheckOnLine(certToken);
+		if (checkOnLine && (revocationTimeout > 0)) {
+
+			// The requests are executed by the shared pool to apply the deadline.
+			final AsyncOCSPAndCRLCertificateVerifier onlineVerifier = new AsyncOCSPAndCRLCertificateVerifier(crlSource, ocspSource, validationCertificatePool,
+				getExecutorService(), revocationTimeout);
+			onlineVerifier.setFallbackVerifier(new OCSPAndCRLCertificateVerifier(signatureCRLSource, signatureOCSPSource, validationCertificatePool));
+			return onlineVerifier.check(certToken);
+		}
 		if (checkOnLine) {
 
 			final OCSPAndCRLCertificateVerifier onlineVerifier = new OCSPAndCRLCertificateVerifier(crlSource, ocspSource, validationCertificatePool);
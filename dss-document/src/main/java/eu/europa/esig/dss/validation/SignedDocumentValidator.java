@@ -97,6 +97,7 @@ import eu.europa.esig.dss.tsl.QcStatementCondition;
 import eu.europa.esig.dss.tsl.ServiceInfo;
 import eu.europa.esig.dss.validation.policy.CustomProcessExecutor;
 import eu.europa.esig.dss.validation.policy.EtsiValidationPolicy;
+import eu.europa.esig.dss.validation.policy.JaxbProcessExecutor;
 import eu.europa.esig.dss.validation.policy.ProcessExecutor;
 import eu.europa.esig.dss.validation.policy.ValidationPolicy;
 import eu.europa.esig.dss.validation.policy.rules.AttributeValue;
@@ -408,8 +409,12 @@ public abstract class SignedDocumentValidator implements DocumentValidator {
 
 		final DiagnosticData jaxbDiagnosticData = generateDiagnosticData();
 
+		// The DOM is needed by every executor: the JaxbProcessExecutor reads only the signing time and the timestamp data from the JAXB model.
 		final Document diagnosticDataDom = ValidationResourceManager.convert(jaxbDiagnosticData);
 		executor.setDiagnosticDataDom(diagnosticDataDom);
+		if (executor instanceof JaxbProcessExecutor) {
+			((JaxbProcessExecutor) executor).setJaxbDiagnosticData(jaxbDiagnosticData);
+		}
 		Date date2 = null;
 		if (LOG.isTraceEnabled()) {
 
@@ -46,6 +46,7 @@ import org.bouncycastle.tsp.TimeStampTokenInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import eu.europa.esig.dss.DSSDocument;
 import eu.europa.esig.dss.DSSException;
 import eu.europa.esig.dss.DSSUtils;
 import eu.europa.esig.dss.DigestAlgorithm;
@@ -249,6 +250,44 @@ public class TimestampToken extends Token {
 		return messageImprintIntact;
 	}
 
+	/**
+	 * Checks if the {@code TimeStampToken} matches the signed data. The digest of the document is used: its content is not loaded in memory if the
+	 * document can compute the digest otherwise.
+	 *
+	 * @param document the {@code DSSDocument} representing the timestamped data
+	 * @return true if the data is verified by the TimeStampToken
+	 */
+	public boolean matchData(final DSSDocument document) {
+
+		try {
+
+			messageImprintData = document != null;
+			if (document == null) {
+
+				messageImprintIntact = false;
+				return messageImprintIntact;
+			}
+			final TimeStampTokenInfo timeStampInfo = timeStamp.getTimeStampInfo();
+			final ASN1ObjectIdentifier hashAlgorithm = timeStampInfo.getHashAlgorithm().getAlgorithm();
+			final DigestAlgorithm digestAlgorithm = DigestAlgorithm.forOID(hashAlgorithm);
+
+			final byte[] computedDigest = Base64.decodeBase64(document.getDigest(digestAlgorithm));
+			final byte[] timestampDigest = timeStampInfo.getMessageImprintDigest();
+			messageImprintIntact = Arrays.equals(computedDigest, timestampDigest);
+			if (!messageImprintIntact) {
+
+				logger.error("Computed digest ({}) on the extracted data from the document : {}", digestAlgorithm, Hex.encodeHexString(computedDigest));
+				logger.error("Digest present in TimestampToken: {}", Hex.encodeHexString(timestampDigest));
+				logger.error("Digest in TimestampToken matches digest of extracted data from document: {}", messageImprintIntact);
+			}
+		} catch (DSSException e) {
+
+			messageImprintIntact = false;
+			signedDataMessage = "Timestamp digest problem: " + e.getMessage();
+		}
+		return messageImprintIntact;
+	}
+
 	/**
 	 * Retrieves the type of the timestamp token.
 	 *
@@ -21,7 +21,14 @@
 package eu.europa.esig.dss.pades.signature;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.InputStream;
+import java.security.GeneralSecurityException;
+import java.security.Signature;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
@@ -35,6 +42,8 @@ import org.slf4j.LoggerFactory;
 import eu.europa.esig.dss.DSSASN1Utils;
 import eu.europa.esig.dss.DSSDocument;
 import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.DSSUtils;
+import eu.europa.esig.dss.DigestAlgorithm;
 import eu.europa.esig.dss.InMemoryDocument;
 import eu.europa.esig.dss.MimeType;
 import eu.europa.esig.dss.SignatureAlgorithm;
@@ -44,8 +53,11 @@ import eu.europa.esig.dss.ToBeSigned;
 import eu.europa.esig.dss.cades.signature.CAdESLevelBaselineT;
 import eu.europa.esig.dss.cades.signature.CustomContentSigner;
 import eu.europa.esig.dss.pades.PAdESSignatureParameters;
+import eu.europa.esig.dss.pades.SignatureImageParameters;
+import eu.europa.esig.dss.pades.SignatureImageTextParameters;
 import eu.europa.esig.dss.pdf.PDFSignatureService;
 import eu.europa.esig.dss.pdf.PdfObjFactory;
+import eu.europa.esig.dss.pdf.PreparedPdfSignature;
 import eu.europa.esig.dss.signature.AbstractSignatureService;
 import eu.europa.esig.dss.signature.SignatureExtension;
 import eu.europa.esig.dss.validation.CertificateVerifier;
@@ -57,8 +69,25 @@ public class PAdESService extends AbstractSignatureService<PAdESSignatureParamet
 
 	private static final Logger LOG = LoggerFactory.getLogger(PAdESService.class);
 
+	/**
+	 * The maximum number of signatures prepared by {@code getDataToSign} and kept for {@code signDocument}.
+	 */
+	private static final int MAX_PREPARED_SESSIONS = 16;
+
+	/**
+	 * The default maximum age of a prepared signature in milliseconds (5 minutes).
+	 */
+	public static final long DEFAULT_PREPARED_SESSION_TIMEOUT = 5L * 60 * 1000;
+
 	private final PadesCMSSignedDataBuilder padesCMSSignedDataBuilder;
 
+	/**
+	 * The signatures prepared by {@code getDataToSign}, the oldest first. It avoids to write the new revision of the PDF again in {@code signDocument}.
+	 */
+	private final LinkedList<PreparedSession> preparedSessions = new LinkedList<PreparedSession>();
+
+	private volatile long preparedSessionTimeout = DEFAULT_PREPARED_SESSION_TIMEOUT;
+
 	/**
 	 * This is the constructor to create an instance of the {@code PAdESService}. A certificate verifier must be provided.
 	 *
@@ -71,6 +100,32 @@ public class PAdESService extends AbstractSignatureService<PAdESSignatureParamet
 		LOG.debug("+ PAdESService created");
 	}
 
+	/**
+	 * This method sets the maximum age of a signature prepared by {@code getDataToSign}: when {@code signDocument} is not called in time, the temporary
+	 * file of the prepared signature is deleted and {@code signDocument} prepares the signature again. The default value is
+	 * {@link #DEFAULT_PREPARED_SESSION_TIMEOUT}.
+	 *
+	 * @param preparedSessionTimeout the maximum age in milliseconds
+	 */
+	public void setPreparedSessionTimeout(final long preparedSessionTimeout) {
+		this.preparedSessionTimeout = preparedSessionTimeout;
+	}
+
+	/**
+	 * This method deletes the temporary files of all the signatures prepared by {@code getDataToSign} and not yet used by {@code signDocument}. It should
+	 * be called when the service is not used anymore.
+	 */
+	public void releasePreparedSignatures() {
+
+		final List<PreparedSession> releasedSessions;
+		synchronized (preparedSessions) {
+
+			releasedSessions = new ArrayList<PreparedSession>(preparedSessions);
+			preparedSessions.clear();
+		}
+		release(releasedSessions);
+	}
+
 	private SignatureExtension<PAdESSignatureParameters> getExtensionProfile(SignatureLevel signatureLevel) {
 		switch (signatureLevel) {
 			case PAdES_BASELINE_B:
@@ -91,13 +146,23 @@ public class PAdESService extends AbstractSignatureService<PAdESSignatureParamet
 
 		assertSigningDateInCertificateValidityRange(parameters);
 
-		final SignatureAlgorithm signatureAlgorithm = parameters.getSignatureAlgorithm();
-		final CustomContentSigner customContentSigner = new CustomContentSigner(signatureAlgorithm.getJCEId());
-
 		final PDFSignatureService pdfSignatureService = PdfObjFactory.getInstance().newPAdESSignatureService();
 		final InputStream inputStream = toSignDocument.openStream();
-		final byte[] messageDigest = pdfSignatureService.digest(inputStream, parameters, parameters.getDigestAlgorithm());
+		final PreparedPdfSignature preparedSignature = pdfSignatureService.prepare(inputStream, parameters, parameters.getDigestAlgorithm());
 		IOUtils.closeQuietly(inputStream);
+		final byte[] messageDigest = preparedSignature.getDigest();
+		keepPreparedSignature(getSessionKey(toSignDocument, parameters), preparedSignature);
+
+		return new ToBeSigned(getDataToSign(parameters, messageDigest));
+	}
+
+	/**
+	 * @return the signed attributes to be signed for the new revision with the given digest
+	 */
+	private byte[] getDataToSign(final PAdESSignatureParameters parameters, final byte[] messageDigest) throws DSSException {
+
+		final SignatureAlgorithm signatureAlgorithm = parameters.getSignatureAlgorithm();
+		final CustomContentSigner customContentSigner = new CustomContentSigner(signatureAlgorithm.getJCEId());
 
 		SignerInfoGeneratorBuilder signerInfoGeneratorBuilder = padesCMSSignedDataBuilder.getSignerInfoGeneratorBuilder(parameters, messageDigest);
 
@@ -107,8 +172,7 @@ public class PAdESService extends AbstractSignatureService<PAdESSignatureParamet
 
 		DSSASN1Utils.generateDetachedCMSSignedData(generator, content);
 
-		final byte[] dataToSign = customContentSigner.getOutputStream().toByteArray();
-		return new ToBeSigned(dataToSign);
+		return customContentSigner.getOutputStream().toByteArray();
 	}
 
 	@Override
@@ -120,29 +184,43 @@ public class PAdESService extends AbstractSignatureService<PAdESSignatureParamet
 		final CustomContentSigner customContentSigner = new CustomContentSigner(signatureAlgorithm.getJCEId(), signatureValue.getValue());
 
 		final PDFSignatureService pdfSignatureService = PdfObjFactory.getInstance().newPAdESSignatureService();
-		InputStream inputStream = toSignDocument.openStream();
-		final byte[] messageDigest = pdfSignatureService.digest(inputStream, parameters, parameters.getDigestAlgorithm());
-		IOUtils.closeQuietly(inputStream);
+		PreparedPdfSignature preparedSignature = takePreparedSignature(getSessionKey(toSignDocument, parameters));
+		if (preparedSignature != null && !isSignatureValueOf(preparedSignature, parameters, signatureValue)) {
 
-		final SignerInfoGeneratorBuilder signerInfoGeneratorBuilder = padesCMSSignedDataBuilder.getSignerInfoGeneratorBuilder(parameters, messageDigest);
+			LOG.debug("The signature value does not sign the prepared revision: the signature is prepared again");
+			preparedSignature.release();
+			preparedSignature = null;
+		}
+		if (preparedSignature == null) {
 
-		final CMSSignedDataGenerator generator = padesCMSSignedDataBuilder.createCMSSignedDataGenerator(parameters, customContentSigner, signerInfoGeneratorBuilder, null);
+			final InputStream inputStream = toSignDocument.openStream();
+			preparedSignature = pdfSignatureService.prepare(inputStream, parameters, parameters.getDigestAlgorithm());
+			IOUtils.closeQuietly(inputStream);
+		}
+		final SignatureLevel signatureLevel = parameters.getSignatureLevel();
+		final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+		try {
 
-		final CMSProcessableByteArray content = new CMSProcessableByteArray(messageDigest);
-		CMSSignedData data = DSSASN1Utils.generateDetachedCMSSignedData(generator, content);
+			final byte[] messageDigest = preparedSignature.getDigest();
+			final SignerInfoGeneratorBuilder signerInfoGeneratorBuilder = padesCMSSignedDataBuilder.getSignerInfoGeneratorBuilder(parameters, messageDigest);
 
-		final SignatureLevel signatureLevel = parameters.getSignatureLevel();
-		if (signatureLevel != SignatureLevel.PAdES_BASELINE_B) {
-			// use an embedded timestamp
-			CAdESLevelBaselineT cadesLevelBaselineT = new CAdESLevelBaselineT(tspSource, false);
-			data = cadesLevelBaselineT.extendCMSSignatures(data, parameters);
+			final CMSSignedDataGenerator generator = padesCMSSignedDataBuilder.createCMSSignedDataGenerator(parameters, customContentSigner, signerInfoGeneratorBuilder, null);
+
+			final CMSProcessableByteArray content = new CMSProcessableByteArray(messageDigest);
+			CMSSignedData data = DSSASN1Utils.generateDetachedCMSSignedData(generator, content);
+
+			if (signatureLevel != SignatureLevel.PAdES_BASELINE_B) {
+				// use an embedded timestamp
+				CAdESLevelBaselineT cadesLevelBaselineT = new CAdESLevelBaselineT(tspSource, false);
+				data = cadesLevelBaselineT.extendCMSSignatures(data, parameters);
+			}
+
+			final byte[] encodedData = DSSASN1Utils.getEncoded(data);
+			pdfSignatureService.sign(preparedSignature, encodedData, byteArrayOutputStream);
+		} finally {
+			preparedSignature.release();
 		}
 
-		final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-		final byte[] encodedData = DSSASN1Utils.getEncoded(data);
-		inputStream = toSignDocument.openStream();
-		pdfSignatureService.sign(inputStream, encodedData, byteArrayOutputStream, parameters, parameters.getDigestAlgorithm());
-		IOUtils.closeQuietly(inputStream);
 		final DSSDocument signature;
 		if (StringUtils.isEmpty(toSignDocument.getName())) {
 			signature = new InMemoryDocument(byteArrayOutputStream.toByteArray(), null, MimeType.PDF);
@@ -161,6 +239,134 @@ public class PAdESService extends AbstractSignatureService<PAdESSignatureParamet
 		}
 	}
 
+	/**
+	 * This method checks that the signature value was computed over the prepared revision: a prepared signature is only used if the signature value can
+	 * be verified with the signing certificate against the data to be signed of this revision.
+	 */
+	private boolean isSignatureValueOf(final PreparedPdfSignature preparedSignature, final PAdESSignatureParameters parameters,
+	                                   final SignatureValue signatureValue) {
+
+		try {
+
+			final byte[] dataToSign = getDataToSign(parameters, preparedSignature.getDigest());
+			final Signature signature = Signature.getInstance(parameters.getSignatureAlgorithm().getJCEId());
+			signature.initVerify(parameters.getSigningCertificate().getCertificate().getPublicKey());
+			signature.update(dataToSign);
+			return signature.verify(signatureValue.getValue());
+		} catch (GeneralSecurityException e) {
+
+			LOG.debug("The signature value cannot be verified: " + e.getMessage());
+			return false;
+		}
+	}
+
+	/**
+	 * The key of a prepared signature does not depend on the identity of the objects: the document and the parameters can be other instances (ex.:
+	 * deserialized) in {@code signDocument}. It is made of the digest of the document, the deterministic id (signing date and certificate), the
+	 * digest algorithm and the digest of the parameters of the signature dictionary and of the visible signature.
+	 *
+	 * @return the key of the signature prepared for the given document and parameters
+	 */
+	private static String getSessionKey(final DSSDocument toSignDocument, final PAdESSignatureParameters parameters) {
+
+		final DigestAlgorithm digestAlgorithm = parameters.getDigestAlgorithm();
+		final StringBuilder revisionParameters = new StringBuilder();
+		revisionParameters.append(parameters.getReason()).append('|').append(parameters.getContactInfo()).append('|').append(parameters.getLocation());
+		revisionParameters.append('|').append(parameters.getSignatureSize());
+		final SignatureImageParameters imageParameters = parameters.getImageParameters();
+		if (imageParameters != null) {
+
+			final File image = imageParameters.getImage();
+			if (image != null) {
+				revisionParameters.append('|').append(image.getAbsolutePath()).append('|').append(image.length()).append('|').append(image.lastModified());
+			}
+			revisionParameters.append('|').append(imageParameters.getPage()).append('|').append(imageParameters.getxAxis()).append('|')
+					.append(imageParameters.getyAxis());
+			final SignatureImageTextParameters textParameters = imageParameters.getTextParameters();
+			if (textParameters != null) {
+
+				revisionParameters.append('|').append(textParameters.getText()).append('|').append(textParameters.getSignerNamePosition()).append('|')
+						.append(textParameters.getFont()).append('|').append(textParameters.getTextColor()).append('|')
+						.append(textParameters.getBackgroundColor());
+			}
+		}
+		final String revisionParametersDigest = DSSUtils.getSHA1Digest(revisionParameters.toString());
+		return toSignDocument.getDigest(digestAlgorithm) + "|" + parameters.getDeterministicId() + "|" + digestAlgorithm.name() + "|" + revisionParametersDigest;
+	}
+
+	/**
+	 * This method keeps the signature prepared by {@code getDataToSign} for the next call of {@code signDocument} with the same document and parameters.
+	 * The expired prepared signatures, the one replaced and the oldest ones when there are too many are released.
+	 */
+	private void keepPreparedSignature(final String key, final PreparedPdfSignature preparedSignature) {
+
+		final PreparedSession preparedSession = new PreparedSession(key, preparedSignature);
+		final List<PreparedSession> releasedSessions = new ArrayList<PreparedSession>();
+		synchronized (preparedSessions) {
+
+			removeExpiredSessions(releasedSessions);
+			for (final Iterator<PreparedSession> iterator = preparedSessions.iterator(); iterator.hasNext(); ) {
+
+				final PreparedSession session = iterator.next();
+				if (session.key.equals(key)) {
+
+					releasedSessions.add(session);
+					iterator.remove();
+				}
+			}
+			preparedSessions.addLast(preparedSession);
+			while (preparedSessions.size() > MAX_PREPARED_SESSIONS) {
+				releasedSessions.add(preparedSessions.removeFirst());
+			}
+		}
+		release(releasedSessions);
+	}
+
+	/**
+	 * @return the signature prepared by {@code getDataToSign} with the given key, or null. The caller must release it.
+	 */
+	private PreparedPdfSignature takePreparedSignature(final String key) {
+
+		PreparedSession preparedSession = null;
+		final List<PreparedSession> releasedSessions = new ArrayList<PreparedSession>();
+		synchronized (preparedSessions) {
+
+			removeExpiredSessions(releasedSessions);
+			for (final Iterator<PreparedSession> iterator = preparedSessions.iterator(); iterator.hasNext(); ) {
+
+				final PreparedSession session = iterator.next();
+				if (session.key.equals(key)) {
+
+					iterator.remove();
+					preparedSession = session;
+					break;
+				}
+			}
+		}
+		release(releasedSessions);
+		return preparedSession == null ? null : preparedSession.preparedSignature;
+	}
+
+	/**
+	 * This method moves the expired sessions to the given list. The caller must hold the lock of {@code preparedSessions}.
+	 */
+	private void removeExpiredSessions(final List<PreparedSession> releasedSessions) {
+
+		final long now = System.currentTimeMillis();
+		while (!preparedSessions.isEmpty() && (now - preparedSessions.getFirst().creationTime > preparedSessionTimeout)) {
+
+			LOG.debug("The prepared signature expired: it is discarded");
+			releasedSessions.add(preparedSessions.removeFirst());
+		}
+	}
+
+	private static void release(final List<PreparedSession> releasedSessions) {
+
+		for (final PreparedSession releasedSession : releasedSessions) {
+			releasedSession.preparedSignature.release();
+		}
+	}
+
 	@Override
 	public DSSDocument extendDocument(DSSDocument toExtendDocument, PAdESSignatureParameters parameters) throws DSSException {
 		final SignatureExtension<PAdESSignatureParameters> extension = getExtensionProfile(parameters.getSignatureLevel());
@@ -170,4 +376,22 @@ public class PAdESService extends AbstractSignatureService<PAdESSignatureParamet
 		return toExtendDocument;
 	}
 
-}
\ No newline at end of file
+	/**
+	 * A signature prepared by {@code getDataToSign}: the new revision of the PDF with its digest. It can be used by {@code signDocument} if the same
+	 * document is signed with the same parameters.
+	 */
+	private static class PreparedSession {
+
+		private final String key;
+
+		private final PreparedPdfSignature preparedSignature;
+
+		private final long creationTime = System.currentTimeMillis();
+
+		PreparedSession(final String key, final PreparedPdfSignature preparedSignature) {
+
+			this.key = key;
+			this.preparedSignature = preparedSignature;
+		}
+	}
+}
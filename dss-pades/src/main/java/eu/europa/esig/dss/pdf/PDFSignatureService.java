@@ -63,6 +63,29 @@ public interface PDFSignatureService {
 	 */
 	void sign(final InputStream pdfData, final byte[] signatureValue, final OutputStream signedStream, final PAdESSignatureParameters parameters, final DigestAlgorithm digestAlgorithm) throws DSSException;
 
+	/**
+	 * Prepares the signature of a PDF document: the new revision is written with an empty signature value and the digest of its signed byte ranges is
+	 * computed. The returned object allows to sign the document without writing the revision again.
+	 *
+	 * @param toSignDocument
+	 * @param parameters
+	 * @param digestAlgorithm
+	 * @return the prepared signature, it must be released
+	 * @throws DSSException
+	 */
+	PreparedPdfSignature prepare(final InputStream toSignDocument, final PAdESSignatureParameters parameters, final DigestAlgorithm digestAlgorithm) throws DSSException;
+
+	/**
+	 * Signs a prepared PDF document: the signature value is written into the {@code /Contents} placeholder of the prepared revision, which is then copied to
+	 * the given stream. The prepared signature is not released.
+	 *
+	 * @param preparedSignature
+	 * @param signatureValue
+	 * @param signedStream
+	 * @throws DSSException
+	 */
+	void sign(final PreparedPdfSignature preparedSignature, final byte[] signatureValue, final OutputStream signedStream) throws DSSException;
+
 	/**
 	 * Retrieves and triggers validation of the signatures from a PDF document
 	 *
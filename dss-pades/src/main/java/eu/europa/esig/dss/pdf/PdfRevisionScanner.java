@@ -0,0 +1,668 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * <p/>
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * <p/>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p/>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.pdf;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.io.IOUtils;
+
+import eu.europa.esig.dss.CommonDocument;
+import eu.europa.esig.dss.DSSDocument;
+import eu.europa.esig.dss.DSSException;
+
+/**
+ * This class is a lightweight scanner of the incremental updates of a PDF document. In a single pass over the bytes of the document, it locates the end of each revision ({@code %%EOF}), the {@code /Root} of each trailer and the offsets of the indirect objects. The streams, the literal
+ * and hexadecimal strings and the comments are skipped: their content is never taken for a keyword.
+ * <p/>
+ * It allows to know if the catalog of a previous revision contains a DSS dictionary and to extract the {@code /Contents} and the signed content of a
+ * signature directly from the bytes of the document, without parsing again each revision. The bytes are read only once: the document can be parsed
+ * from {@link #openStream()} and the signed content of each signature is read from these bytes ({@link #getSignedContentDocument(int[])}).
+ */
+public class PdfRevisionScanner {
+
+	private static final byte[] EOF = "%%EOF".getBytes();
+
+	private static final byte[] ROOT = "/Root".getBytes();
+
+	private static final byte[] OBJ = "obj".getBytes();
+
+	private static final byte[] STREAM = "stream".getBytes();
+
+	private static final byte[] END_STREAM = "endstream".getBytes();
+
+	private static final String DSS = "DSS";
+
+	private final ByteBuffer buffer;
+
+	private final List<Revision> revisions = new ArrayList<Revision>();
+
+	/**
+	 * The offsets of the definitions of each indirect object (the key is built with the object number and the generation number), in the order of the
+	 * document.
+	 */
+	private final Map<Long, List<Integer>> objectOffsets = new HashMap<Long, List<Integer>>();
+
+	/**
+	 * Indicates if the scan reached the end of the document outside of a string or a stream. Otherwise the structure found is not reliable.
+	 */
+	private boolean complete = true;
+
+	/**
+	 * This method creates the scanner of the given document. The bytes of the document are read in memory: the document is not kept open (nor
+	 * memory-mapped, which would lock the file until the garbage collection).
+	 *
+	 * @param document the PDF document
+	 * @return the scanner of the document
+	 * @throws DSSException if the document cannot be read
+	 */
+	public static PdfRevisionScanner scan(final DSSDocument document) throws DSSException {
+		return new PdfRevisionScanner(ByteBuffer.wrap(document.getBytes()));
+	}
+
+	/**
+	 * @param buffer the bytes of the PDF document, from position 0 to the limit
+	 */
+	public PdfRevisionScanner(final ByteBuffer buffer) {
+
+		this.buffer = buffer.duplicate();
+		scan();
+	}
+
+	private void scan() {
+
+		final int limit = buffer.limit();
+		int revisionStart = 0;
+		long root = -1;
+		int ii = 0;
+		while (ii < limit) {
+
+			final byte b = buffer.get(ii);
+			if (b == '%' && matches(ii, EOF)) {
+
+				final int revisionEnd = skipEndOfLine(ii + EOF.length);
+				revisions.add(new Revision(revisionEnd, root));
+				revisionStart = revisionEnd;
+				ii = revisionEnd;
+				continue;
+			} else if (b == '/' && matches(ii, ROOT) && isDelimiter(ii + ROOT.length)) {
+
+				final long reference = parseReference(ii + ROOT.length);
+				if (reference != -1) {
+					root = reference;
+				}
+			} else if (b == 'o' && matches(ii, OBJ) && isDelimiter(ii + OBJ.length)) {
+
+				recordObject(ii);
+			} else if (b == '%') {
+
+				// comment
+				ii = skipToEndOfLine(ii);
+				continue;
+			} else if (b == '(') {
+
+				ii = skipLiteralString(ii);
+				complete &= ii < limit || buffer.get(limit - 1) == ')';
+				continue;
+			} else if (b == '<') {
+
+				if (ii + 1 < limit && buffer.get(ii + 1) == '<') {
+					ii += 2;
+				} else {
+
+					// hexadecimal string (ex.: the /Contents of a signature)
+					ii = skipTo('>', ii + 1) + 1;
+					complete &= ii <= limit;
+				}
+				continue;
+			} else if (b == 's' && matches(ii, STREAM) && (ii == 0 || isDelimiter(ii - 1)) && isEndOfLine(ii + STREAM.length)) {
+
+				final int endStream = indexOf(END_STREAM, ii + STREAM.length);
+				complete &= endStream != -1;
+				ii = (endStream == -1) ? limit : endStream + END_STREAM.length;
+				continue;
+			}
+			ii++;
+		}
+		if (revisionStart < limit && root != -1) {
+			// the last revision has no %%EOF marker
+			revisions.add(new Revision(limit, root));
+		}
+	}
+
+	/**
+	 * @return the number of revisions found in the document
+	 */
+	public int getRevisionCount() {
+		return revisions.size();
+	}
+
+	/**
+	 * This method checks if the catalog of the last revision which ends before the given offset contains a DSS dictionary. Typically the offset is the
+	 * beginning of the {@code /Contents} of a document timestamp: the result tells if the timestamp covers a DSS dictionary.
+	 *
+	 * @param offset the offset in the document
+	 * @return {@code true} if the DSS dictionary is present, {@code false} if not, or {@code null} if it cannot be determined by this scanner (ex.: the
+	 * catalog is in an object stream, no revision ends before the offset, the document is truncated)
+	 */
+	public Boolean isDssDictionaryPresent(final int offset) {
+
+		if (!complete) {
+			return null;
+		}
+		Revision revision = null;
+		for (final Revision current : revisions) {
+			if (current.end <= offset) {
+				revision = current;
+			}
+		}
+		if (revision == null) {
+			return null;
+		}
+		if (revision.root == -1) {
+			return null;
+		}
+		final List<Integer> offsets = objectOffsets.get(revision.root);
+		if (offsets == null) {
+			return null;
+		}
+		int catalogOffset = -1;
+		for (final Integer objectOffset : offsets) {
+			if (objectOffset < revision.end) {
+				catalogOffset = objectOffset;
+			}
+		}
+		if (catalogOffset == -1) {
+			return null;
+		}
+		return hasKey(catalogOffset, DSS);
+	}
+
+	/**
+	 * This method returns the decoded value of the {@code /Contents} of a signature: the hexadecimal string between the two signed byte ranges.
+	 *
+	 * @param byteRange the {@code /ByteRange} of the signature
+	 * @return the binary of the signature
+	 * @throws DSSException if the byte range is not valid
+	 */
+	public byte[] getContents(final int[] byteRange) throws DSSException {
+
+		assertByteRange(byteRange);
+		final int begin = byteRange[0] + byteRange[1];
+		final int end = byteRange[2];
+		final byte[] contents = new byte[(end - begin) / 2];
+		int length = 0;
+		int high = -1;
+		for (int ii = begin; ii < end; ii++) {
+
+			final int digit = Character.digit(buffer.get(ii), 16);
+			if (digit == -1) {
+				// '<', '>' and white spaces
+				continue;
+			}
+			if (high == -1) {
+				high = digit;
+			} else {
+
+				contents[length++] = (byte) ((high << 4) + digit);
+				high = -1;
+			}
+		}
+		if (high != -1) {
+			// a missing final digit is assumed to be 0
+			contents[length++] = (byte) (high << 4);
+		}
+		if (length == contents.length) {
+			return contents;
+		}
+		final byte[] result = new byte[length];
+		System.arraycopy(contents, 0, result, 0, length);
+		return result;
+	}
+
+	/**
+	 * @return a stream of the whole document, read from the bytes of the scanner
+	 */
+	public InputStream openStream() {
+		return openStream(0, buffer.limit());
+	}
+
+	/**
+	 * This method returns the part of the document which precedes the {@code /Contents} of a signature: the first range of the {@code /ByteRange}.
+	 *
+	 * @param byteRange the {@code /ByteRange} of the signature
+	 * @return a stream of the document as it was before the signature
+	 * @throws DSSException if the byte range is not valid
+	 */
+	public InputStream openOriginalStream(final int[] byteRange) throws DSSException {
+
+		assertByteRange(byteRange);
+		return openStream(byteRange[0], byteRange[1]);
+	}
+
+	/**
+	 * This method returns the content covered by the signature (the two ranges of the {@code /ByteRange}) as a {@code DSSDocument}. The content is not
+	 * copied: its digest is computed from the bytes of the scanner, it is only copied when {@code getBytes} is called.
+	 *
+	 * @param byteRange the {@code /ByteRange} of the signature
+	 * @return the signed content
+	 * @throws DSSException if the byte range is not valid
+	 */
+	public DSSDocument getSignedContentDocument(final int[] byteRange) throws DSSException {
+
+		assertByteRange(byteRange);
+		return new SignedContentDocument(byteRange.clone());
+	}
+
+	private InputStream openStream(final int offset, final int length) {
+
+		if (buffer.hasArray()) {
+			return new ByteArrayInputStream(buffer.array(), buffer.arrayOffset() + offset, length);
+		}
+		final byte[] bytes = new byte[length];
+		final ByteBuffer view = buffer.duplicate();
+		view.position(offset);
+		view.get(bytes);
+		return new ByteArrayInputStream(bytes);
+	}
+
+	/**
+	 * This method returns the bytes covered by the signature: the two ranges of the {@code /ByteRange}.
+	 *
+	 * @param byteRange the {@code /ByteRange} of the signature
+	 * @return the signed content
+	 * @throws DSSException if the byte range is not valid
+	 */
+	public byte[] getSignedContent(final int[] byteRange) throws DSSException {
+
+		assertByteRange(byteRange);
+		final byte[] signedContent = new byte[byteRange[1] + byteRange[3]];
+		final ByteBuffer view = buffer.duplicate();
+		view.position(byteRange[0]);
+		view.get(signedContent, 0, byteRange[1]);
+		view.position(byteRange[2]);
+		view.get(signedContent, byteRange[1], byteRange[3]);
+		return signedContent;
+	}
+
+	private void assertByteRange(final int[] byteRange) throws DSSException {
+
+		if (byteRange == null || byteRange.length != 4) {
+			throw new DSSException("The /ByteRange must contain 4 values");
+		}
+		final boolean valid = byteRange[0] >= 0 && byteRange[1] >= 0 && byteRange[3] >= 0 && byteRange[0] + byteRange[1] <= byteRange[2]
+				&& (long) byteRange[2] + byteRange[3] <= buffer.limit();
+		if (!valid) {
+			throw new DSSException("The /ByteRange is not valid: [" + byteRange[0] + " " + byteRange[1] + " " + byteRange[2] + " " + byteRange[3] + "]");
+		}
+	}
+
+	/**
+	 * This method records the offset of an indirect object: {@code obj} must be preceded by the object number and the generation number.
+	 *
+	 * @param objOffset the offset of the {@code obj} keyword
+	 */
+	private void recordObject(final int objOffset) {
+
+		int ii = skipWhiteSpacesBackward(objOffset - 1);
+		final int generationEnd = ii + 1;
+		ii = skipDigitsBackward(ii);
+		final int generationStart = ii + 1;
+		if (generationStart == generationEnd) {
+			return;
+		}
+		final int numberEnd = skipWhiteSpacesBackward(ii) + 1;
+		if (numberEnd == generationStart) {
+			return;
+		}
+		final int numberStart = skipDigitsBackward(numberEnd - 1) + 1;
+		if (numberStart == numberEnd || (numberStart > 0 && !isDelimiter(numberStart - 1))) {
+			return;
+		}
+		final long key = getKey(parseNumber(numberStart, numberEnd), parseNumber(generationStart, generationEnd));
+		List<Integer> offsets = objectOffsets.get(key);
+		if (offsets == null) {
+
+			offsets = new ArrayList<Integer>(1);
+			objectOffsets.put(key, offsets);
+		}
+		offsets.add(numberStart);
+	}
+
+	/**
+	 * This method parses an indirect reference: {@code <number> <generation> R}.
+	 *
+	 * @param offset the offset after the key
+	 * @return the key of the referenced object or -1 if there is no indirect reference at this offset
+	 */
+	private long parseReference(final int offset) {
+
+		final int numberStart = skipWhiteSpaces(offset);
+		final int numberEnd = skipDigits(numberStart);
+		final int generationStart = skipWhiteSpaces(numberEnd);
+		final int generationEnd = skipDigits(generationStart);
+		final int r = skipWhiteSpaces(generationEnd);
+		if (numberStart == numberEnd || numberEnd == generationStart || generationStart == generationEnd || generationEnd == r || r >= buffer.limit()
+				|| buffer.get(r) != 'R') {
+			return -1;
+		}
+		return getKey(parseNumber(numberStart, numberEnd), parseNumber(generationStart, generationEnd));
+	}
+
+	/**
+	 * This method checks if the first dictionary of the indirect object at the given offset contains the given key.
+	 *
+	 * @param objectOffset the offset of the indirect object
+	 * @param key          the name of the key, without '/'
+	 * @return {@code true} if the key is present, or {@code null} if the dictionary cannot be read
+	 */
+	private Boolean hasKey(final int objectOffset, final String key) {
+
+		final int limit = buffer.limit();
+		int ii = indexOf(OBJ, objectOffset) + OBJ.length;
+		int depth = 0;
+		while (ii < limit) {
+
+			final byte b = buffer.get(ii);
+			if (b == '<' && ii + 1 < limit && buffer.get(ii + 1) == '<') {
+
+				depth++;
+				ii += 2;
+			} else if (b == '>' && ii + 1 < limit && buffer.get(ii + 1) == '>') {
+
+				depth--;
+				ii += 2;
+				if (depth == 0) {
+					return Boolean.FALSE;
+				}
+			} else if (b == '<') {
+				// hexadecimal string
+				ii = skipTo('>', ii + 1) + 1;
+			} else if (b == '(') {
+				ii = skipLiteralString(ii);
+			} else if (b == '/') {
+
+				final int nameEnd = skipRegular(ii + 1);
+				if (depth == 1 && key.equals(getString(ii + 1, nameEnd))) {
+					return Boolean.TRUE;
+				}
+				ii = nameEnd;
+			} else if (depth == 0 && !isWhiteSpace(b)) {
+				// not a dictionary
+				return null;
+			} else {
+				ii++;
+			}
+		}
+		return null;
+	}
+
+	private int skipLiteralString(final int offset) {
+
+		final int limit = buffer.limit();
+		int nesting = 0;
+		int ii = offset;
+		while (ii < limit) {
+
+			final byte b = buffer.get(ii);
+			if (b == '\\') {
+				ii++;
+			} else if (b == '(') {
+				nesting++;
+			} else if (b == ')') {
+
+				nesting--;
+				if (nesting == 0) {
+					return ii + 1;
+				}
+			}
+			ii++;
+		}
+		return limit;
+	}
+
+	private static long getKey(final long number, final long generation) {
+		return (number << 16) | (generation & 0xFFFF);
+	}
+
+	private long parseNumber(final int start, final int end) {
+
+		long number = 0;
+		for (int ii = start; ii < end && ii < start + 10; ii++) {
+			number = number * 10 + (buffer.get(ii) - '0');
+		}
+		return number;
+	}
+
+	private String getString(final int start, final int end) {
+
+		final StringBuilder builder = new StringBuilder(end - start);
+		for (int ii = start; ii < end; ii++) {
+			builder.append((char) (buffer.get(ii) & 0xFF));
+		}
+		return builder.toString();
+	}
+
+	private boolean matches(final int offset, final byte[] token) {
+
+		if (offset + token.length > buffer.limit()) {
+			return false;
+		}
+		for (int ii = 0; ii < token.length; ii++) {
+			if (buffer.get(offset + ii) != token[ii]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private int indexOf(final byte[] token, final int offset) {
+
+		final int last = buffer.limit() - token.length;
+		for (int ii = offset; ii <= last; ii++) {
+			if (buffer.get(ii) == token[0] && matches(ii, token)) {
+				return ii;
+			}
+		}
+		return -1;
+	}
+
+	private int skipTo(final char c, final int offset) {
+
+		final int limit = buffer.limit();
+		int ii = offset;
+		while (ii < limit && buffer.get(ii) != c) {
+			ii++;
+		}
+		return ii;
+	}
+
+	private int skipToEndOfLine(final int offset) {
+
+		final int limit = buffer.limit();
+		int ii = offset;
+		while (ii < limit && !isEndOfLine(ii)) {
+			ii++;
+		}
+		return ii;
+	}
+
+	private int skipEndOfLine(final int offset) {
+
+		int ii = offset;
+		if (ii < buffer.limit() && buffer.get(ii) == '\r') {
+			ii++;
+		}
+		if (ii < buffer.limit() && buffer.get(ii) == '\n') {
+			ii++;
+		}
+		return ii;
+	}
+
+	private int skipWhiteSpaces(final int offset) {
+
+		int ii = offset;
+		while (ii < buffer.limit() && isWhiteSpace(buffer.get(ii))) {
+			ii++;
+		}
+		return ii;
+	}
+
+	private int skipDigits(final int offset) {
+
+		int ii = offset;
+		while (ii < buffer.limit() && isDigit(buffer.get(ii))) {
+			ii++;
+		}
+		return ii;
+	}
+
+	private int skipRegular(final int offset) {
+
+		int ii = offset;
+		while (!isDelimiter(ii)) {
+			ii++;
+		}
+		return ii;
+	}
+
+	private int skipWhiteSpacesBackward(final int offset) {
+
+		int ii = offset;
+		while (ii >= 0 && isWhiteSpace(buffer.get(ii))) {
+			ii--;
+		}
+		return ii;
+	}
+
+	private int skipDigitsBackward(final int offset) {
+
+		int ii = offset;
+		while (ii >= 0 && isDigit(buffer.get(ii))) {
+			ii--;
+		}
+		return ii;
+	}
+
+	private boolean isEndOfLine(final int offset) {
+
+		if (offset >= buffer.limit()) {
+			return false;
+		}
+		final byte b = buffer.get(offset);
+		return b == '\r' || b == '\n';
+	}
+
+	/**
+	 * @return {@code true} if the byte at the given offset is a white space or a delimiter, or if the offset is the end of the document
+	 */
+	private boolean isDelimiter(final int offset) {
+
+		if (offset >= buffer.limit()) {
+			return true;
+		}
+		final byte b = buffer.get(offset);
+		return isWhiteSpace(b) || b == '(' || b == ')' || b == '<' || b == '>' || b == '[' || b == ']' || b == '{' || b == '}' || b == '/' || b == '%';
+	}
+
+	private static boolean isWhiteSpace(final byte b) {
+		return b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == '\f' || b == 0;
+	}
+
+	private static boolean isDigit(final byte b) {
+		return b >= '0' && b <= '9';
+	}
+
+	/**
+	 * A revision of the document: its end offset and the reference of its catalog.
+	 */
+	/**
+	 * The content covered by a signature, read from the bytes of the scanner.
+	 */
+	private class SignedContentDocument extends CommonDocument {
+
+		private final int[] byteRange;
+
+		private SignedContentDocument(final int[] byteRange) {
+			this.byteRange = byteRange;
+		}
+
+		@Override
+		public InputStream openStream() throws DSSException {
+			return new SequenceInputStream(PdfRevisionScanner.this.openStream(byteRange[0], byteRange[1]),
+					PdfRevisionScanner.this.openStream(byteRange[2], byteRange[3]));
+		}
+
+		@Override
+		public byte[] getBytes() throws DSSException {
+			return getSignedContent(byteRange);
+		}
+
+		@Override
+		public String getName() {
+			return "SignedContentDocument";
+		}
+
+		@Override
+		public String getAbsolutePath() {
+			return getName();
+		}
+
+		@Override
+		public void save(final String filePath) throws IOException {
+
+			final InputStream inputStream = openStream();
+			final FileOutputStream fileOutputStream = new FileOutputStream(filePath);
+			try {
+				IOUtils.copy(inputStream, fileOutputStream);
+			} finally {
+				fileOutputStream.close();
+			}
+		}
+
+		@Override
+		public String getBase64Encoded() {
+			return Base64.encodeBase64String(getBytes());
+		}
+	}
+
+	private static class Revision {
+
+		private final int end;
+
+		private final long root;
+
+		Revision(final int end, final long root) {
+
+			this.end = end;
+			this.root = root;
+		}
+	}
+}
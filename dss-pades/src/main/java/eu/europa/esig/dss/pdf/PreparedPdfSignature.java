@@ -0,0 +1,87 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * <p/>
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * <p/>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p/>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.pdf;
+
+import java.io.File;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A PDF signature prepared by {@link PDFSignatureService#prepare}: the new revision of the document is written in a temporary file with an empty
+ * {@code /Contents} placeholder and its final {@code /ByteRange}. The digest of the signed byte ranges is known; the signature value only needs to be
+ * written into the placeholder (see {@link PDFSignatureService#sign(PreparedPdfSignature, byte[], java.io.OutputStream)}).
+ * <p/>
+ * The temporary file must be deleted with {@link #release()} when the prepared signature is not used anymore.
+ */
+public class PreparedPdfSignature {
+
+	private static final Logger LOG = LoggerFactory.getLogger(PreparedPdfSignature.class);
+
+	private final File file;
+
+	private final byte[] digest;
+
+	private final int[] byteRange;
+
+	/**
+	 * @param file      the temporary file containing the prepared revision
+	 * @param digest    the digest of the signed byte ranges
+	 * @param byteRange the {@code /ByteRange} of the signature: the {@code /Contents} placeholder starts at {@code byteRange[1]} and ends before
+	 *                  {@code byteRange[2]}
+	 */
+	public PreparedPdfSignature(final File file, final byte[] digest, final int[] byteRange) {
+
+		this.file = file;
+		this.digest = digest;
+		this.byteRange = byteRange;
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * @return the digest of the signed byte ranges
+	 */
+	public byte[] getDigest() {
+		return digest.clone();
+	}
+
+	/**
+	 * @return the {@code /ByteRange} of the signature
+	 */
+	public int[] getByteRange() {
+		return byteRange.clone();
+	}
+
+	/**
+	 * This method deletes the temporary file. If it cannot be deleted at once, it is deleted when the virtual machine terminates.
+	 */
+	public void release() {
+
+		if (file.exists() && !file.delete()) {
+
+			LOG.warn("The temporary file '{}' cannot be deleted, it will be deleted on exit", file.getAbsolutePath());
+			file.deleteOnExit();
+		}
+	}
+}
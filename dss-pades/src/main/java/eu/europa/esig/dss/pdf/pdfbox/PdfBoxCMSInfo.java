@@ -20,6 +20,8 @@
  */
 package eu.europa.esig.dss.pdf.pdfbox;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
@@ -27,10 +29,13 @@ import java.util.HashSet;
 import java.util.Set;
 
 import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.io.IOUtils;
 import org.apache.pdfbox.pdmodel.interactive.digitalsignature.PDSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import eu.europa.esig.dss.DSSDocument;
+import eu.europa.esig.dss.DSSException;
 import eu.europa.esig.dss.DSSUtils;
 import eu.europa.esig.dss.DigestAlgorithm;
 import eu.europa.esig.dss.pdf.PdfDssDict;
@@ -51,9 +56,9 @@ abstract class PdfBoxCMSInfo implements PdfSignatureOrDocTimestampInfo {
 	private final byte[] cms;
 
 	/**
-	 * The original signed pdf document
+	 * The original signed pdf document: the content covered by the {@code /ByteRange}. It is not copied in memory until its bytes are requested.
 	 */
-	private	final byte[] signedBytes;
+	private	final DSSDocument signedContent;
 
 	private boolean verified;
 	private SignatureCryptographicVerification verifyResult;
@@ -69,7 +74,7 @@ abstract class PdfBoxCMSInfo implements PdfSignatureOrDocTimestampInfo {
 	 * @param cms the signature binary
 	 * @param signedContent the signed content
 	 */
-	PdfBoxCMSInfo(PDSignature signature, PdfDssDict dssDictionary, byte[] cms,	byte[] signedContent) {
+	PdfBoxCMSInfo(PDSignature signature, PdfDssDict dssDictionary, byte[] cms,	DSSDocument signedContent) {
 		this.cms = cms;
 		this.location = signature.getLocation();
 		this.reason = signature.getReason();
@@ -78,14 +83,14 @@ abstract class PdfBoxCMSInfo implements PdfSignatureOrDocTimestampInfo {
 		this.signingDate = signature.getSignDate() != null ? signature.getSignDate().getTime() : null;
 		this.signatureByteRange = signature.getByteRange();
 		this.dssDictionary = dssDictionary;
-		this.signedBytes = signedContent;
+		this.signedContent = signedContent;
 	}
 
 	@Override
 	public SignatureCryptographicVerification checkIntegrity() {
 		if (!verified) {
 			verifyResult = checkIntegrityOnce();
-			LOG.debug("Verify embedded CAdES Signature on signedBytes size {}. Signature intact: {}", signedBytes.length, verifyResult);
+			LOG.debug("Verify embedded CAdES Signature on signedBytes size {}. Signature intact: {}", signatureByteRange[1] + signatureByteRange[3], verifyResult);
 			verified = true;
 		}
 		return verifyResult;
@@ -98,15 +103,29 @@ abstract class PdfBoxCMSInfo implements PdfSignatureOrDocTimestampInfo {
 	 */
 	@Override
 	public byte[] getSignedDocumentBytes() {
-		return signedBytes;
+		return signedContent.getBytes();
+	}
+
+	/**
+	 * @return the content covered by the {@code /ByteRange}, its digests are computed without copying it
+	 */
+	DSSDocument getSignedContent() {
+		return signedContent;
 	}
 
 	@Override
 	public byte[] getOriginalBytes() {
-		final int length = signatureByteRange[1];
-		final byte[] result = new byte[length];
-		System.arraycopy(signedBytes, 0, result, 0, length);
-		return result;
+
+		final InputStream inputStream = signedContent.openStream();
+		try {
+			final byte[] result = new byte[signatureByteRange[1]];
+			IOUtils.readFully(inputStream, result);
+			return result;
+		} catch (IOException e) {
+			throw new DSSException(e);
+		} finally {
+			IOUtils.closeQuietly(inputStream);
+		}
 	}
 
 	@Override
@@ -34,6 +34,7 @@ import eu.europa.esig.dss.DigestAlgorithm;
 import eu.europa.esig.dss.pades.PAdESSignatureParameters;
 import eu.europa.esig.dss.pdf.PDFSignatureService;
 import eu.europa.esig.dss.pdf.PDFTimestampService;
+import eu.europa.esig.dss.pdf.PreparedPdfSignature;
 import eu.europa.esig.dss.x509.tsp.TSPSource;
 
 class PdfBoxDocTimeStampService extends PdfBoxSignatureService implements PDFSignatureService, PDFTimestampService {
@@ -57,14 +58,17 @@ class PdfBoxDocTimeStampService extends PdfBoxSignatureService implements PDFSig
 	public void timestamp(final DSSDocument document, final OutputStream signedStream, final PAdESSignatureParameters parameters, final TSPSource tspSource) throws DSSException {
 
 		final DigestAlgorithm timestampDigestAlgorithm = parameters.getSignatureTimestampParameters().getDigestAlgorithm();
-		InputStream inputStream = document.openStream();
-		final byte[] digest = digest(inputStream, parameters, timestampDigestAlgorithm);
-		IOUtils.closeQuietly(inputStream);
-		final TimeStampToken timeStampToken = tspSource.getTimeStampResponse(timestampDigestAlgorithm, digest);
-		final byte[] encoded = DSSASN1Utils.getEncoded(timeStampToken);
-		inputStream = document.openStream();
-		sign(inputStream, encoded, signedStream, parameters, timestampDigestAlgorithm);
+		final InputStream inputStream = document.openStream();
+		final PreparedPdfSignature preparedSignature = prepare(inputStream, parameters, timestampDigestAlgorithm);
 		IOUtils.closeQuietly(inputStream);
+		try {
+
+			final TimeStampToken timeStampToken = tspSource.getTimeStampResponse(timestampDigestAlgorithm, preparedSignature.getDigest());
+			final byte[] encoded = DSSASN1Utils.getEncoded(timeStampToken);
+			sign(preparedSignature, encoded, signedStream);
+		} finally {
+			preparedSignature.release();
+		}
 	}
 
 }
\ No newline at end of file
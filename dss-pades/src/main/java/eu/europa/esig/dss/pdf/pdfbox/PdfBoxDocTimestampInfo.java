@@ -28,6 +28,7 @@ import org.bouncycastle.tsp.TimeStampToken;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import eu.europa.esig.dss.DSSDocument;
 import eu.europa.esig.dss.DSSException;
 import eu.europa.esig.dss.pdf.PdfDocTimestampInfo;
 import eu.europa.esig.dss.pdf.PdfDssDict;
@@ -53,12 +54,12 @@ class PdfBoxDocTimestampInfo extends PdfBoxCMSInfo implements PdfDocTimestampInf
 	 *            the DSS dictionary
 	 * @param cms
 	 *            the CMS (CAdES) bytes
+	 * @param signedContent
+	 *            the content covered by the timestamp
 	 * @param isArchiveTimestamp
-	 * @param inputStream
-	 *            the stream of the whole signed document
 	 * @throws DSSException
 	 */
-	PdfBoxDocTimestampInfo(CertificatePool validationCertPool, PDSignature signature, PdfDssDict dssDictionary, byte[] cms, byte[] signedContent, boolean isArchiveTimestamp) throws DSSException {
+	PdfBoxDocTimestampInfo(CertificatePool validationCertPool, PDSignature signature, PdfDssDict dssDictionary, byte[] cms, DSSDocument signedContent, boolean isArchiveTimestamp) throws DSSException {
 		super(signature, dssDictionary, cms, signedContent);
 		try {
 			TimeStampToken timeStampToken = new TimeStampToken(new CMSSignedData(cms));
@@ -80,10 +81,10 @@ class PdfBoxDocTimestampInfo extends PdfBoxCMSInfo implements PdfDocTimestampInf
 		signatureCryptographicVerification.setReferenceDataFound(false);
 		signatureCryptographicVerification.setReferenceDataIntact(false);
 		signatureCryptographicVerification.setSignatureIntact(false);
-		if (getSignedDocumentBytes() != null) {
+		if (getSignedContent() != null) {
 			signatureCryptographicVerification.setReferenceDataFound(true);
 		}
-		signatureCryptographicVerification.setReferenceDataIntact(timestampToken.matchData(getSignedDocumentBytes()));
+		signatureCryptographicVerification.setReferenceDataIntact(timestampToken.matchData(getSignedContent()));
 		signatureCryptographicVerification.setSignatureIntact(timestampToken.isSignatureValid());
 		return signatureCryptographicVerification;
 	}
@@ -26,7 +26,7 @@ import java.security.cert.X509Certificate;
 import org.apache.pdfbox.pdmodel.interactive.digitalsignature.PDSignature;
 import org.bouncycastle.cms.CMSException;
 
-import eu.europa.esig.dss.InMemoryDocument;
+import eu.europa.esig.dss.DSSDocument;
 import eu.europa.esig.dss.cades.validation.CAdESSignature;
 import eu.europa.esig.dss.pdf.PdfDssDict;
 import eu.europa.esig.dss.pdf.PdfSignatureInfo;
@@ -42,16 +42,15 @@ class PdfBoxSignatureInfo extends PdfBoxCMSInfo implements PdfSignatureInfo {
 	 * @param validationCertPool
 	 * @param dssDictionary		the DSS dictionary
 	 * @param cms                the CMS (CAdES) bytes
-	 * @param originalBytes        the original bytes of the whole signed document
+	 * @param signedContent        the content covered by the signature, its digest is used to verify the signature
 	 * @throws IOException
 	 */
 	PdfBoxSignatureInfo(CertificatePool validationCertPool, PDSignature signature, PdfDssDict dssDictionary, byte[] cms,
-			byte[] originalBytes) throws IOException {
-		super(signature, dssDictionary, cms, originalBytes);
+			DSSDocument signedContent) throws IOException {
+		super(signature, dssDictionary, cms, signedContent);
 		try {
 			cades = new CAdESSignature(cms, validationCertPool);
-			final InMemoryDocument detachedContent = new InMemoryDocument(getSignedDocumentBytes());
-			cades.setDetachedContents(detachedContent);
+			cades.setDetachedContents(signedContent);
 			cades.setPadesSigningTime(getSigningDate());
 		} catch (CMSException e) {
 			throw new IOException(e);
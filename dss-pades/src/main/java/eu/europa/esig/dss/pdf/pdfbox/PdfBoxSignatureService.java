@@ -21,13 +21,13 @@
 package eu.europa.esig.dss.pdf.pdfbox;
 
 import java.awt.Dimension;
-import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.RandomAccessFile;
 import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -43,6 +43,7 @@ import org.apache.commons.lang.ArrayUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.pdfbox.cos.COSDictionary;
 import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSString;
 import org.apache.pdfbox.exceptions.COSVisitorException;
 import org.apache.pdfbox.exceptions.SignatureException;
 import org.apache.pdfbox.pdmodel.PDDocument;
@@ -58,6 +59,7 @@ import eu.europa.esig.dss.DSSDocument;
 import eu.europa.esig.dss.DSSException;
 import eu.europa.esig.dss.DSSUtils;
 import eu.europa.esig.dss.DigestAlgorithm;
+import eu.europa.esig.dss.MessageDigestPool;
 import eu.europa.esig.dss.pades.PAdESSignatureParameters;
 import eu.europa.esig.dss.pades.SignatureImageParameters;
 import eu.europa.esig.dss.pades.signature.visible.ImageFactory;
@@ -65,8 +67,10 @@ import eu.europa.esig.dss.pdf.DSSPDFUtils;
 import eu.europa.esig.dss.pdf.PDFSignatureService;
 import eu.europa.esig.dss.pdf.PdfDict;
 import eu.europa.esig.dss.pdf.PdfDssDict;
+import eu.europa.esig.dss.pdf.PdfRevisionScanner;
 import eu.europa.esig.dss.pdf.PdfSignatureOrDocTimestampInfo;
 import eu.europa.esig.dss.pdf.PdfSignatureOrDocTimestampInfoComparator;
+import eu.europa.esig.dss.pdf.PreparedPdfSignature;
 import eu.europa.esig.dss.pdf.SignatureValidationCallback;
 import eu.europa.esig.dss.pdf.model.ModelPdfDict;
 import eu.europa.esig.dss.x509.CertificatePool;
@@ -78,71 +82,167 @@ class PdfBoxSignatureService implements PDFSignatureService {
 	@Override
 	public byte[] digest(final InputStream toSignDocument, final PAdESSignatureParameters parameters, final DigestAlgorithm digestAlgorithm) throws DSSException {
 
-		final byte[] signatureValue = DSSUtils.EMPTY_BYTE_ARRAY;
+		final PreparedPdfSignature preparedSignature = prepare(toSignDocument, parameters, digestAlgorithm);
+		try {
+			return preparedSignature.getDigest();
+		} finally {
+			preparedSignature.release();
+		}
+	}
+
+	@Override
+	public void sign(final InputStream pdfData, final byte[] signatureValue, final OutputStream signedStream, final PAdESSignatureParameters parameters,
+			final DigestAlgorithm digestAlgorithm) throws DSSException {
+
+		final PreparedPdfSignature preparedSignature = prepare(pdfData, parameters, digestAlgorithm);
+		try {
+			sign(preparedSignature, signatureValue, signedStream);
+		} finally {
+			preparedSignature.release();
+		}
+	}
+
+	@Override
+	public PreparedPdfSignature prepare(final InputStream toSignDocument, final PAdESSignatureParameters parameters, final DigestAlgorithm digestAlgorithm)
+			throws DSSException {
+
 		File toSignFile = null;
 		File signedFile = null;
 		PDDocument pdDocument = null;
+		FileOutputStream fileOutputStream = null;
+		boolean prepared = false;
 		try {
 
 			toSignFile = DSSPDFUtils.getFileFromPdfData(toSignDocument);
 
 			pdDocument = PDDocument.load(toSignFile);
-			PDSignature pdSignature = createSignatureDictionary(parameters);
+			final PDSignature pdSignature = createSignatureDictionary(parameters);
 
 			signedFile = File.createTempFile("sd-dss-", "-signed.pdf");
-			final FileOutputStream fileOutputStream = DSSPDFUtils.getFileOutputStream(toSignFile, signedFile);
-
-			final byte[] digestValue = signDocumentAndReturnDigest(parameters, signatureValue, signedFile, fileOutputStream, pdDocument, pdSignature, digestAlgorithm);
-			return digestValue;
+			fileOutputStream = DSSPDFUtils.getFileOutputStream(toSignFile, signedFile);
+
+			// The placeholder is filled with zeros: the signature value is written later into it.
+			final byte[] digestValue = signDocumentAndReturnDigest(parameters, DSSUtils.EMPTY_BYTE_ARRAY, signedFile, fileOutputStream, pdDocument, pdSignature,
+					digestAlgorithm);
+			final int[] byteRange = getWrittenByteRange(signedFile, toSignFile.length());
+			final PreparedPdfSignature preparedSignature = new PreparedPdfSignature(signedFile, digestValue, byteRange);
+			prepared = true;
+			return preparedSignature;
 		} catch (IOException e) {
 			throw new DSSException(e);
 		} finally {
+			// The stream is open if the preparation failed: the file could not be deleted.
+			IOUtils.closeQuietly(fileOutputStream);
 			DSSUtils.delete(toSignFile);
-			DSSUtils.delete(signedFile);
+			if (!prepared) {
+				DSSUtils.delete(signedFile);
+			}
 			IOUtils.closeQuietly(pdDocument);
 		}
 	}
 
 	@Override
-	public void sign(final InputStream pdfData, final byte[] signatureValue, final OutputStream signedStream, final PAdESSignatureParameters parameters,
-			final DigestAlgorithm digestAlgorithm) throws DSSException {
+	public void sign(final PreparedPdfSignature preparedSignature, final byte[] signatureValue, final OutputStream signedStream) throws DSSException {
+
+		final int[] byteRange = preparedSignature.getByteRange();
+		// The placeholder is delimited by '<' and '>'
+		final int contentsOffset = byteRange[1] + 1;
+		final int contentsLength = byteRange[2] - byteRange[1] - 2;
+		final byte[] hexSignatureValue = new COSString(signatureValue).getHexString().getBytes();
+		if (hexSignatureValue.length > contentsLength) {
+			throw new DSSException("Can't write signature, not enough space: " + signatureValue.length + " bytes for " + (contentsLength / 2));
+		}
+		final byte[] contents = new byte[contentsLength];
+		Arrays.fill(contents, (byte) '0');
+		System.arraycopy(hexSignatureValue, 0, contents, 0, hexSignatureValue.length);
 
-		File toSignFile = null;
-		File signedFile = null;
-		FileInputStream fileInputStream = null;
-		FileInputStream finalFileInputStream = null;
-		PDDocument pdDocument = null;
+		RandomAccessFile randomAccessFile = null;
+		FileInputStream signedFileInputStream = null;
 		try {
 
-			toSignFile = DSSPDFUtils.getFileFromPdfData(pdfData);
+			randomAccessFile = new RandomAccessFile(preparedSignature.getFile(), "rw");
+			randomAccessFile.seek(contentsOffset);
+			randomAccessFile.write(contents);
+			randomAccessFile.close();
+			randomAccessFile = null;
 
-			pdDocument = PDDocument.load(toSignFile);
-			final PDSignature pdSignature = createSignatureDictionary(parameters);
+			signedFileInputStream = new FileInputStream(preparedSignature.getFile());
+			IOUtils.copy(signedFileInputStream, signedStream);
+		} catch (IOException e) {
+			throw new DSSException(e);
+		} finally {
+			IOUtils.closeQuietly(randomAccessFile);
+			IOUtils.closeQuietly(signedFileInputStream);
+		}
+	}
 
-			signedFile = File.createTempFile("sd-dss-", "-signed.pdf");
-			final FileOutputStream fileOutputStream = DSSPDFUtils.getFileOutputStream(toSignFile, signedFile);
+	/**
+	 * PDFBox writes the /ByteRange of the new signature only in the file: this method reads it back from the appended revision. The byte range of the new
+	 * signature starts at 0, ends at the end of the file and its gap is the hexadecimal placeholder of the /Contents.
+	 *
+	 * @param signedFile     the file with the new revision
+	 * @param revisionOffset the length of the original document, where the new revision starts
+	 * @return the /ByteRange of the new signature
+	 * @throws IOException
+	 */
+	private int[] getWrittenByteRange(final File signedFile, final long revisionOffset) throws IOException {
 
-			signDocumentAndReturnDigest(parameters, signatureValue, signedFile, fileOutputStream, pdDocument, pdSignature, digestAlgorithm);
+		final long fileLength = signedFile.length();
+		final byte[] revision = new byte[(int) (fileLength - revisionOffset)];
+		RandomAccessFile randomAccessFile = null;
+		try {
 
-			finalFileInputStream = new FileInputStream(signedFile);
-			IOUtils.copy(finalFileInputStream, signedStream);
-		} catch (IOException e) {
-			throw new DSSException(e);
+			randomAccessFile = new RandomAccessFile(signedFile, "r");
+			randomAccessFile.seek(revisionOffset);
+			randomAccessFile.readFully(revision);
+			final String revisionString = new String(revision, "ISO-8859-1");
+			final String byteRangeKey = "/ByteRange";
+			int index = revisionString.indexOf(byteRangeKey);
+			while (index != -1) {
+
+				final int start = revisionString.indexOf('[', index);
+				final int end = revisionString.indexOf(']', index);
+				if ((start != -1) && (end > start)) {
+
+					final String[] values = StringUtils.split(revisionString.substring(start + 1, end));
+					if ((values.length == 4) && StringUtils.isNumeric(values[0] + values[1] + values[2] + values[3])) {
+
+						final int[] byteRange = new int[4];
+						for (int ii = 0; ii < 4; ii++) {
+							byteRange[ii] = Integer.parseInt(values[ii]);
+						}
+						if ((byteRange[0] == 0) && ((byteRange[2] + byteRange[3]) == fileLength) && isContentsPlaceholder(randomAccessFile, byteRange)) {
+							return byteRange;
+						}
+					}
+				}
+				index = revisionString.indexOf(byteRangeKey, index + byteRangeKey.length());
+			}
+			throw new DSSException("The /ByteRange of the new signature cannot be found");
 		} finally {
-			IOUtils.closeQuietly(fileInputStream);
-			IOUtils.closeQuietly(finalFileInputStream);
-			DSSUtils.delete(toSignFile);
-			DSSUtils.delete(signedFile);
-			IOUtils.closeQuietly(pdDocument);
+			IOUtils.closeQuietly(randomAccessFile);
 		}
 	}
 
+	private boolean isContentsPlaceholder(final RandomAccessFile randomAccessFile, final int[] byteRange) throws IOException {
+
+		if ((byteRange[1] < 0) || (byteRange[2] - byteRange[1] < 2)) {
+			return false;
+		}
+		randomAccessFile.seek(byteRange[1]);
+		final int first = randomAccessFile.read();
+		randomAccessFile.seek(byteRange[2] - 1);
+		final int last = randomAccessFile.read();
+		return (first == '<') && (last == '>');
+	}
+
 	private byte[] signDocumentAndReturnDigest(final PAdESSignatureParameters parameters, final byte[] signatureBytes, final File signedFile,
 			final FileOutputStream fileOutputStream, final PDDocument pdDocument, final PDSignature pdSignature, final DigestAlgorithm digestAlgorithm) throws DSSException {
 
 		try {
 
-			final MessageDigest digest = DSSUtils.getMessageDigest(digestAlgorithm);
+			final MessageDigestPool messageDigestPool = DSSUtils.getMessageDigestPool();
+			final MessageDigest digest = messageDigestPool.borrow(digestAlgorithm);
 			// register signature dictionary and sign interface
 			SignatureInterface signatureInterface = new SignatureInterface() {
 
@@ -168,6 +268,7 @@ class PdfBoxSignatureService implements PDFSignatureService {
 
 			saveDocumentIncrementally(parameters, signedFile, fileOutputStream, pdDocument);
 			final byte[] digestValue = digest.digest();
+			messageDigestPool.release(digestAlgorithm, digest);
 			if (logger.isDebugEnabled()) {
 				logger.debug("Digest to be signed: " + Hex.encodeHexString(digestValue));
 			}
@@ -258,27 +359,33 @@ class PdfBoxSignatureService implements PDFSignatureService {
 	@Override
 	public void validateSignatures(CertificatePool validationCertPool, DSSDocument document, SignatureValidationCallback callback) throws DSSException {
 		// recursive search of signature
-		InputStream inputStream = document.openStream();
+		final PdfRevisionScanner revisionScanner;
 		try {
-			List<PdfSignatureOrDocTimestampInfo> signaturesFound = getSignatures(validationCertPool, IOUtils.toByteArray(inputStream));
-			for (PdfSignatureOrDocTimestampInfo pdfSignatureOrDocTimestampInfo : signaturesFound) {
-				callback.validate(pdfSignatureOrDocTimestampInfo);
-			}
-		} catch (IOException e) {
+			revisionScanner = PdfRevisionScanner.scan(document);
+		} catch (DSSException e) {
 			logger.error("Cannot validate signatures : " + e.getMessage(), e);
+			return;
+		}
+		List<PdfSignatureOrDocTimestampInfo> signaturesFound = getSignatures(validationCertPool, revisionScanner);
+		for (PdfSignatureOrDocTimestampInfo pdfSignatureOrDocTimestampInfo : signaturesFound) {
+			callback.validate(pdfSignatureOrDocTimestampInfo);
 		}
-
-		IOUtils.closeQuietly(inputStream);
 	}
 
-	private List<PdfSignatureOrDocTimestampInfo> getSignatures(CertificatePool validationCertPool, byte[] originalBytes) {
+	/**
+	 * The document is read only once, by the {@code PdfRevisionScanner}: PDFBox parses the bytes of the scanner, and the {@code /Contents} and the signed
+	 * content of each signature are read from these bytes (the signed content is digested without being copied). The previous revisions are not parsed
+	 * again when the scanner can find their DSS dictionary.
+	 * <p/>
+	 * PDFBox 1.8 still parses all the objects of the document to find the signature dictionaries: its non-sequential parser, which parses the objects on
+	 * demand, copies the document into a temporary file when it is given a stream.
+	 */
+	private List<PdfSignatureOrDocTimestampInfo> getSignatures(CertificatePool validationCertPool, PdfRevisionScanner revisionScanner) {
 		List<PdfSignatureOrDocTimestampInfo> signatures = new ArrayList<PdfSignatureOrDocTimestampInfo>();
-		ByteArrayInputStream bais = null;
 		PDDocument doc = null;
 		try {
 
-			bais = new ByteArrayInputStream(originalBytes);
-			doc = PDDocument.load(bais);
+			doc = PDDocument.load(revisionScanner.openStream());
 
 			List<PDSignature> pdSignatures = doc.getSignatureDictionaries();
 			if (CollectionUtils.isNotEmpty(pdSignatures)) {
@@ -289,15 +396,15 @@ class PdfBoxSignatureService implements PDFSignatureService {
 
 				for (PDSignature signature : pdSignatures) {
 					String subFilter = signature.getSubFilter();
-					byte[] cms = signature.getContents(originalBytes);
+					int[] byteRange = signature.getByteRange();
+					byte[] cms = revisionScanner.getContents(byteRange);
 
 					if (StringUtils.isEmpty(subFilter) || ArrayUtils.isEmpty(cms)) {
 						logger.warn("Wrong signature with empty subfilter or cms.");
 						continue;
 					}
 
-					byte[] signedContent = signature.getSignedContent(originalBytes);
-					int[] byteRange = signature.getByteRange();
+					DSSDocument signedContent = revisionScanner.getSignedContentDocument(byteRange);
 
 					PdfSignatureOrDocTimestampInfo signatureInfo = null;
 					if (PdfBoxDocTimeStampService.SUB_FILTER_ETSI_RFC3161.getName().equals(subFilter)) {
@@ -306,7 +413,11 @@ class PdfBoxSignatureService implements PDFSignatureService {
 						// LT or LTA
 						if (dssDictionary != null) {
 							// check is DSS dictionary already exist
-							if (isDSSDictionaryPresentInPreviousRevision(getOriginalBytes(byteRange, signedContent))) {
+							Boolean dssDictionaryPresent = revisionScanner.isDssDictionaryPresent(byteRange[1]);
+							if (dssDictionaryPresent == null) {
+								dssDictionaryPresent = isDSSDictionaryPresentInPreviousRevision(revisionScanner.openOriginalStream(byteRange));
+							}
+							if (dssDictionaryPresent) {
 								isArchiveTimestamp = true;
 							}
 						}
@@ -331,7 +442,6 @@ class PdfBoxSignatureService implements PDFSignatureService {
 		} catch (Exception e) {
 			logger.warn("Cannot analyze signatures : " + e.getMessage(), e);
 		} finally {
-			IOUtils.closeQuietly(bais);
 			IOUtils.closeQuietly(doc);
 		}
 
@@ -354,13 +464,11 @@ class PdfBoxSignatureService implements PDFSignatureService {
 	}
 
 
-	private boolean isDSSDictionaryPresentInPreviousRevision(byte[] originalBytes) {
-		ByteArrayInputStream bais = null;
+	private boolean isDSSDictionaryPresentInPreviousRevision(InputStream originalStream) {
 		PDDocument doc = null;
 		PdfDssDict dssDictionary = null;
 		try {
-			bais = new ByteArrayInputStream(originalBytes);
-			doc = PDDocument.load(bais);
+			doc = PDDocument.load(originalStream);
 			List<PDSignature> pdSignatures = doc.getSignatureDictionaries();
 			if (CollectionUtils.isNotEmpty(pdSignatures)) {
 				PdfDict catalog = new PdfBoxDict(doc.getDocumentCatalog().getCOSDictionary(), doc);
@@ -369,20 +477,13 @@ class PdfBoxSignatureService implements PDFSignatureService {
 		} catch (Exception e) {
 			logger.warn("Cannot check in previous revisions if DSS dictionary already exist : " + e.getMessage(), e);
 		} finally {
-			IOUtils.closeQuietly(bais);
+			IOUtils.closeQuietly(originalStream);
 			IOUtils.closeQuietly(doc);
 		}
 
 		return dssDictionary != null;
 	}
 
-	private byte[] getOriginalBytes(int[] byteRange, byte[] signedContent) {
-		final int length = byteRange[1];
-		final byte[] result = new byte[length];
-		System.arraycopy(signedContent, 0, result, 0, length);
-		return result;
-	}
-
 	@Override
 	public void addDssDictionary(InputStream inputStream, OutputStream outpuStream, ModelPdfDict dssDictionary) {
 		FileInputStream fis = null;
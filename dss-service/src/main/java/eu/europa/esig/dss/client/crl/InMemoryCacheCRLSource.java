@@ -0,0 +1,359 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * <p/>
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * <p/>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p/>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.client.crl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.collections.CollectionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.x509.CertificateToken;
+import eu.europa.esig.dss.x509.crl.CRLSource;
+import eu.europa.esig.dss.x509.crl.CRLToken;
+import eu.europa.esig.dss.x509.crl.CRLUtils;
+import eu.europa.esig.dss.x509.crl.CRLValidity;
+
+/**
+ * CRLSource that keeps in memory the CRLs retrieved by an {@code OnlineCRLSource}. The CRL is kept parsed and verified ({@code CRLValidity}), so the
+ * download, the parsing and the verification of the signature of the CRL are done only once per distribution point URL and issuer. The instance can be
+ * shared by concurrent validations: the concurrent requests for the same CRL wait for a single download.
+ * <p/>
+ * The kept CRLs are in their compact form ({@code CRLIndex}): the revoked serial numbers are indexed and the {@code X509CRL} is released.
+ * <p/>
+ * A CRL is removed from the cache when its nextUpdate date is reached. The CRLs without nextUpdate and the invalid CRLs are not kept. When the size of
+ * the kept CRLs exceeds the memory budget, the least recently used CRLs are removed.
+ */
+public class InMemoryCacheCRLSource implements CRLSource {
+
+	private static final Logger LOG = LoggerFactory.getLogger(InMemoryCacheCRLSource.class);
+
+	/**
+	 * The default memory budget: the maximum size of the kept CRLs in bytes (see {@code CRLIndex#getMemorySize()}).
+	 */
+	public static final long DEFAULT_MAX_MEMORY_SIZE = 128L * 1024 * 1024;
+
+	private OnlineCRLSource cachedSource;
+
+	private volatile long maxMemorySize = DEFAULT_MAX_MEMORY_SIZE;
+
+	private final ConcurrentMap<String, CachedEntry> cache = new ConcurrentHashMap<String, CachedEntry>();
+
+	private final AtomicLong memorySize = new AtomicLong();
+
+	private final Object evictionLock = new Object();
+
+	/**
+	 * The default constructor for InMemoryCacheCRLSource. The {@code OnlineCRLSource} must be set.
+	 */
+	public InMemoryCacheCRLSource() {
+	}
+
+	/**
+	 * @param cachedSource the {@code OnlineCRLSource} used to retrieve the CRLs which are not in the cache
+	 */
+	public InMemoryCacheCRLSource(final OnlineCRLSource cachedSource) {
+
+		this.cachedSource = cachedSource;
+	}
+
+	/**
+	 * @param cachedSource the {@code OnlineCRLSource} used to retrieve the CRLs which are not in the cache
+	 */
+	public void setCachedSource(final OnlineCRLSource cachedSource) {
+
+		this.cachedSource = cachedSource;
+	}
+
+	/**
+	 * @return the maximum size of the kept CRLs in bytes
+	 */
+	public long getMaxMemorySize() {
+		return maxMemorySize;
+	}
+
+	/**
+	 * This method sets the memory budget of the cache: the maximum size of the kept CRLs in bytes. The default value is
+	 * {@link #DEFAULT_MAX_MEMORY_SIZE}.
+	 *
+	 * @param maxMemorySize the maximum size of the kept CRLs in bytes
+	 */
+	public void setMaxMemorySize(final long maxMemorySize) {
+
+		this.maxMemorySize = maxMemorySize;
+		evictIfNeeded();
+	}
+
+	/**
+	 * @return the size of the kept CRLs in bytes
+	 */
+	public long getMemorySize() {
+		return memorySize.get();
+	}
+
+	/**
+	 * This method removes all CRLs from the cache.
+	 */
+	public void clear() {
+
+		for (final Map.Entry<String, CachedEntry> entry : cache.entrySet()) {
+			evict(entry.getKey(), entry.getValue());
+		}
+	}
+
+	@Override
+	public CRLToken findCrl(final CertificateToken certificateToken) throws DSSException {
+
+		if (certificateToken == null) {
+			return null;
+		}
+		final CertificateToken issuerToken = certificateToken.getIssuerToken();
+		if (issuerToken == null) {
+			return null;
+		}
+		final List<String> crlUrls = cachedSource.getCrlUrl(certificateToken);
+		if (CollectionUtils.isEmpty(crlUrls)) {
+			return null;
+		}
+		final String key = crlUrls.get(0) + "|" + issuerToken.getDSSIdAsString();
+		while (true) {
+
+			CachedEntry entry = cache.get(key);
+			boolean loaded = false;
+			if (entry == null) {
+
+				final CachedEntry newEntry = new CachedEntry(key, certificateToken);
+				entry = cache.putIfAbsent(key, newEntry);
+				if (entry == null) {
+
+					LOG.debug("CRL not in cache: {}", key);
+					entry = newEntry;
+					entry.load();
+					loaded = true;
+					evictIfNeeded();
+				}
+			}
+			final LoadedCRL loadedCRL = entry.get();
+			if (loadedCRL == null) {
+				return null;
+			}
+			if (loadedCRL.isExpired(new Date())) {
+
+				LOG.debug("CRL expired: {}", key);
+				evict(key, entry);
+				// Only a CRL kept by an earlier request is downloaded again: a CRL which has just been downloaded is returned even if it is not kept.
+				if (loaded || !loadedCRL.kept) {
+					return loadedCRL.createCRLToken(certificateToken);
+				}
+				continue;
+			}
+			entry.lastAccess = System.nanoTime();
+			return loadedCRL.createCRLToken(certificateToken);
+		}
+	}
+
+	private void evict(final String key, final CachedEntry entry) {
+
+		if (cache.remove(key, entry)) {
+			entry.release();
+		}
+	}
+
+	/**
+	 * This method removes the least recently used CRLs until the size of the kept CRLs fits the memory budget.
+	 */
+	private void evictIfNeeded() {
+
+		if (memorySize.get() <= maxMemorySize) {
+			return;
+		}
+		synchronized (evictionLock) {
+
+			final List<Map.Entry<String, CachedEntry>> entries = new ArrayList<Map.Entry<String, CachedEntry>>(cache.entrySet());
+			Collections.sort(entries, new Comparator<Map.Entry<String, CachedEntry>>() {
+
+				@Override
+				public int compare(final Map.Entry<String, CachedEntry> entry1, final Map.Entry<String, CachedEntry> entry2) {
+
+					final long lastAccess1 = entry1.getValue().lastAccess;
+					final long lastAccess2 = entry2.getValue().lastAccess;
+					return lastAccess1 < lastAccess2 ? -1 : (lastAccess1 == lastAccess2 ? 0 : 1);
+				}
+			});
+			for (final Map.Entry<String, CachedEntry> entry : entries) {
+
+				if (memorySize.get() <= maxMemorySize) {
+					break;
+				}
+				LOG.debug("CRL removed from the cache (memory budget): {}", entry.getKey());
+				evict(entry.getKey(), entry.getValue());
+			}
+		}
+	}
+
+	/**
+	 * The CRL kept for one distribution point URL and one issuer. The first request downloads the CRL, the concurrent requests wait for the result.
+	 */
+	private class CachedEntry implements Callable<LoadedCRL> {
+
+		private final String key;
+
+		private final CertificateToken certificateToken;
+
+		private final FutureTask<LoadedCRL> task = new FutureTask<LoadedCRL>(this);
+
+		/**
+		 * The size taken into account by the memory budget, it is set before the end of the loading.
+		 */
+		private long size;
+
+		private boolean released;
+
+		private volatile long lastAccess = System.nanoTime();
+
+		CachedEntry(final String key, final CertificateToken certificateToken) {
+
+			this.key = key;
+			this.certificateToken = certificateToken;
+		}
+
+		void load() {
+			task.run();
+		}
+
+		synchronized void account(final long size) {
+
+			// The entry can be removed from the cache (ex.: clear) during its loading.
+			if (!released) {
+
+				this.size = size;
+				memorySize.addAndGet(size);
+			}
+		}
+
+		synchronized void release() {
+
+			released = true;
+			memorySize.addAndGet(-size);
+			size = 0;
+		}
+
+		@Override
+		public LoadedCRL call() throws Exception {
+
+			final CRLToken crlToken = cachedSource.findCrl(certificateToken);
+			if (crlToken == null) {
+
+				cache.remove(key, this);
+				return null;
+			}
+			final Date nextUpdate = crlToken.getNextUpdate();
+			if (crlToken.isValid() && (nextUpdate != null) && nextUpdate.after(new Date())) {
+
+				// Only the compact form of the CRL is kept, the X509CRL is released.
+				final CRLValidity crlValidity = CRLUtils.toCompactCRLValidity(crlToken.getCrlValidity());
+				account(crlValidity.getCrlIndex().getMemorySize());
+				return new LoadedCRL(crlValidity, nextUpdate, crlToken.getSourceURL(), true);
+			}
+			LOG.debug("CRL not kept in the cache: {}", key);
+			cache.remove(key, this);
+			return new LoadedCRL(crlToken.getCrlValidity(), nextUpdate, crlToken.getSourceURL(), false);
+		}
+
+		LoadedCRL get() {
+
+			try {
+				return task.get();
+			} catch (InterruptedException e) {
+
+				Thread.currentThread().interrupt();
+				throw new DSSException(e);
+			} catch (ExecutionException e) {
+
+				// The failed download is not kept: the next request retries.
+				evict(key, this);
+				final Throwable cause = e.getCause();
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				throw new DSSException(cause);
+			}
+		}
+	}
+
+	/**
+	 * The parsed and verified CRL.
+	 */
+	private static class LoadedCRL {
+
+		private final CRLValidity crlValidity;
+
+		private final Date nextUpdate;
+
+		private final String sourceURL;
+
+		/**
+		 * false if the CRL is only returned to the requests waiting for its download (no nextUpdate, already expired or invalid CRL)
+		 */
+		private final boolean kept;
+
+		LoadedCRL(final CRLValidity crlValidity, final Date nextUpdate, final String sourceURL, final boolean kept) {
+
+			this.crlValidity = crlValidity;
+			this.nextUpdate = nextUpdate;
+			this.sourceURL = sourceURL;
+			this.kept = kept;
+		}
+
+		boolean isExpired(final Date date) {
+			return (nextUpdate == null) || nextUpdate.before(date);
+		}
+
+		/**
+		 * The {@code CRLValidity} is copied to refer to the issuer token of the current validation.
+		 *
+		 * @param certificateToken the {@code CertificateToken} which is managed by the CRL
+		 * @return the {@code CRLToken} for the given certificate
+		 */
+		CRLToken createCRLToken(final CertificateToken certificateToken) {
+
+			final CRLValidity copy = new CRLValidity(crlValidity);
+			if (crlValidity.getIssuerToken() != null) {
+				copy.setIssuerToken(certificateToken.getIssuerToken());
+			}
+			final CRLToken crlToken = new CRLToken(certificateToken, copy);
+			crlToken.setSourceURL(sourceURL);
+			return crlToken;
+		}
+	}
+}
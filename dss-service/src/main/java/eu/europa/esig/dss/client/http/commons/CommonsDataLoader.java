@@ -21,6 +21,7 @@
 package eu.europa.esig.dss.client.http.commons;
 
 import java.io.ByteArrayInputStream;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
@@ -32,6 +33,9 @@ import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import javax.naming.Context;
 import javax.naming.directory.Attribute;
@@ -84,7 +88,8 @@ import org.slf4j.LoggerFactory;
 
 import eu.europa.esig.dss.DSSException;
 import eu.europa.esig.dss.DSSUtils;
-import eu.europa.esig.dss.client.http.DataLoader;
+import eu.europa.esig.dss.client.http.AsyncDataLoader;
+import eu.europa.esig.dss.client.http.MultiUrlFetcher;
 import eu.europa.esig.dss.client.http.Protocol;
 import eu.europa.esig.dss.client.http.proxy.ProxyPreferenceManager;
 
@@ -92,8 +97,12 @@ import eu.europa.esig.dss.client.http.proxy.ProxyPreferenceManager;
  * Implementation of DataLoader for any protocol.
  * <p/>
  * HTTP & HTTPS: using HttpClient which is more flexible for HTTPS without having to add the certificate to the JVM TrustStore. It takes into account a proxy management through {@code ProxyPreferenceManager}. The authentication is also supported.
+ * <p/>
+ * The asynchronous operations share a pool of {@code connectionsMaxTotal} threads; at most {@code connectionsMaxPerRoute} requests of the same host are
+ * running, the next ones are queued. The pool is created at the first asynchronous operation. The callers request several resources at once only if
+ * it is enabled (see {@link #setConcurrentDownload(boolean)}): by default they are requested one after another.
  */
-public class CommonsDataLoader implements DataLoader, DSSNotifier {
+public class CommonsDataLoader implements AsyncDataLoader, DSSNotifier {
 
 	private static final Logger LOG = LoggerFactory.getLogger(CommonsDataLoader.class);
 
@@ -115,6 +124,8 @@ public class CommonsDataLoader implements DataLoader, DSSNotifier {
 
 	private ProxyPreferenceManager proxyPreferenceManager;
 
+	private final MultiUrlFetcher multiUrlFetcher = new MultiUrlFetcher();
+
 	private int timeoutConnection = TIMEOUT_CONNECTION;
 	private int timeoutSocket = TIMEOUT_SOCKET;
 	private int connectionsMaxTotal = CONNECTIONS_MAX_TOTAL;
@@ -122,9 +133,13 @@ public class CommonsDataLoader implements DataLoader, DSSNotifier {
 
 	private final Map<HttpHost, UsernamePasswordCredentials> authenticationMap = new HashMap<HttpHost, UsernamePasswordCredentials>();
 
-	private HttpClient httpClient;
+	private volatile HttpClient httpClient;
+
+	private boolean concurrentDownload = false;
 
-	private boolean updated;
+	private volatile boolean updated;
+
+	private transient HostLimitedExecutor asyncExecutor;
 
 	/**
 	 * The default constructor for CommonsDataLoader.
@@ -180,7 +195,16 @@ public class CommonsDataLoader implements DataLoader, DSSNotifier {
 		}
 	}
 
-	protected synchronized HttpClient getHttpClient(final String url) throws DSSException {
+	protected HttpClient getHttpClient(final String url) throws DSSException {
+
+		final HttpClient currentHttpClient = httpClient;
+		if ((currentHttpClient != null) && !updated) {
+			return currentHttpClient;
+		}
+		return createHttpClient(url);
+	}
+
+	private synchronized HttpClient createHttpClient(final String url) throws DSSException {
 
 		if ((httpClient != null) && !updated) {
 			return httpClient;
@@ -336,30 +360,98 @@ public class CommonsDataLoader implements DataLoader, DSSNotifier {
 	@Override
 	public DataAndUrl get(final List<String> urlStrings) {
 
+		return multiUrlFetcher.get(this, urlStrings);
+	}
+
+	@Override
+	public Future<byte[]> getAsync(final String url) {
+
+		return getAsyncExecutor().submit(url, new Callable<byte[]>() {
+
+			@Override
+			public byte[] call() throws Exception {
+				return get(url);
+			}
+		});
+	}
+
+	/**
+	 * The URLs are tried one after another, in the order of the {@code MultiUrlFetcher} (without its hedged mode): each URL is a request limited by its
+	 * own host, the task which tries them does not hold a thread of the host-limited pool.
+	 */
+	@Override
+	public Future<DataAndUrl> getAsync(final List<String> urlStrings) {
+
+		return getAsyncExecutor().submitUnlimited(new Callable<DataAndUrl>() {
+
+			@Override
+			public DataAndUrl call() throws Exception {
+				return getFirstAsync(multiUrlFetcher.prioritize(urlStrings));
+			}
+		});
+	}
+
+	private DataAndUrl getFirstAsync(final List<String> urlStrings) throws Exception {
+
 		final int numberOfUrls = urlStrings.size();
-		int ii = 0;
-		for (final String urlString : urlStrings) {
+		for (int ii = 0; ii < numberOfUrls; ii++) {
+
+			final String urlString = urlStrings.get(ii);
+			final Future<byte[]> future = getAsync(urlString);
 			try {
 
-				ii++;
-				final byte[] bytes = get(urlString);
-				if (bytes == null) {
-					continue;
+				final byte[] bytes = future.get();
+				if (bytes != null) {
+					return new DataAndUrl(bytes, urlString);
 				}
-				return new DataAndUrl(bytes, urlString);
-			} catch (Exception e) {
-				if (ii == numberOfUrls) {
-					if (e instanceof DSSException) {
-						throw (DSSException) e;
-					}
-					throw new DSSException(e);
+			} catch (InterruptedException e) {
+
+				future.cancel(true);
+				throw e;
+			} catch (ExecutionException e) {
+
+				final Throwable cause = e.getCause();
+				if (ii == numberOfUrls - 1) {
+					throw cause instanceof Exception ? (Exception) cause : new DSSException(cause);
 				}
-				LOG.warn("Impossible to obtain data using {}", urlString, e);
+				LOG.warn("Impossible to obtain data using {}", urlString, cause);
 			}
 		}
 		return null;
 	}
 
+	@Override
+	public Future<byte[]> postAsync(final String url, final byte[] content) {
+
+		return getAsyncExecutor().submit(url, new Callable<byte[]>() {
+
+			@Override
+			public byte[] call() throws Exception {
+				return post(url, content);
+			}
+		});
+	}
+
+	private synchronized HostLimitedExecutor getAsyncExecutor() {
+
+		if (asyncExecutor == null) {
+			asyncExecutor = new HostLimitedExecutor(connectionsMaxTotal, connectionsMaxPerRoute);
+		}
+		return asyncExecutor;
+	}
+
+	/**
+	 * This method stops the threads of the asynchronous operations. The pending operations are cancelled; a next asynchronous operation creates a new pool.
+	 */
+	public synchronized void shutdownAsync() {
+
+		if (asyncExecutor != null) {
+
+			asyncExecutor.shutdown();
+			asyncExecutor = null;
+		}
+	}
+
 	/**
 	 * This method is useful only with the cache handling implementation of the {@code DataLoader}.
 	 *
@@ -459,6 +551,15 @@ public class CommonsDataLoader implements DataLoader, DSSNotifier {
 			if (contentType != null) {
 				httpRequest.setHeader(CONTENT_TYPE, contentType);
 			}
+			// A cancelled hedged request is stopped by aborting the HTTP exchange.
+			final HttpGet abortableRequest = httpRequest;
+			MultiUrlFetcher.setCurrentConnection(new Closeable() {
+
+				@Override
+				public void close() {
+					abortableRequest.abort();
+				}
+			});
 
 			httpResponse = getHttpResponse(httpRequest, url);
 
@@ -470,6 +571,7 @@ public class CommonsDataLoader implements DataLoader, DSSNotifier {
 
 		} finally {
 
+			MultiUrlFetcher.setCurrentConnection(null);
 			if (httpRequest != null) {
 				httpRequest.releaseConnection();
 			}
@@ -681,6 +783,44 @@ public class CommonsDataLoader implements DataLoader, DSSNotifier {
 		this.contentType = contentType;
 	}
 
+	/**
+	 * @return the {@code MultiUrlFetcher} used by {@link #get(List)}, it gives access to the per-host statistics
+	 */
+	public MultiUrlFetcher getMultiUrlFetcher() {
+		return multiUrlFetcher;
+	}
+
+	@Override
+	public boolean isConcurrentDownloadEnabled() {
+		return concurrentDownload;
+	}
+
+	/**
+	 * This method allows the callers which need several resources (ex.: the AIA locations of a certificate) to request them at once with the
+	 * asynchronous operations. The default value is {@code false}: they are requested one after another.
+	 *
+	 * @param concurrentDownload {@code true} to allow several resources to be requested at once
+	 */
+	public void setConcurrentDownload(final boolean concurrentDownload) {
+		this.concurrentDownload = concurrentDownload;
+	}
+
+	/**
+	 * This method enables the hedged mode of {@link #get(List)}, see {@link MultiUrlFetcher#setHedgingDelay(long)}.
+	 *
+	 * @param hedgingDelay the delay in milliseconds after which the next URL is requested, {@code 0} to request all URLs at once
+	 */
+	public void setHedgingDelay(final long hedgingDelay) {
+		multiUrlFetcher.setHedgingDelay(hedgingDelay);
+	}
+
+	/**
+	 * @param prioritizeByStatistics {@code true} to try first the URLs of the most reliable and fastest hosts, see {@link MultiUrlFetcher}
+	 */
+	public void setPrioritizeByStatistics(final boolean prioritizeByStatistics) {
+		multiUrlFetcher.setPrioritizeByStatistics(prioritizeByStatistics);
+	}
+
 	/**
 	 * @return associated {@code ProxyPreferenceManager}
 	 */
@@ -21,16 +21,36 @@
 package eu.europa.esig.dss.client.http.commons;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
+import org.apache.http.Header;
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
 import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.utils.DateUtils;
 import org.apache.http.entity.BufferedHttpEntity;
 import org.apache.http.entity.InputStreamEntity;
 import org.apache.http.util.EntityUtils;
@@ -47,11 +67,31 @@ import eu.europa.esig.dss.client.http.Protocol;
 /**
  * This class provides some caching features to handle the resources. The default cache folder is set to {@code java.io.tmpdir}. The urls of the resources is transformed to the
  * file name by replacing the special characters by {@code _}
+ * <p/>
+ * The {@code ETag}, {@code Last-Modified} and {@code Expires} (or {@code Cache-Control: max-age}) headers of the HTTP responses are kept in a metadata file next
+ * to the cache file. An entry is used while it is not expired (an entry without expiry date is used until a refresh is requested); then it is revalidated with a
+ * conditional GET and the cached content is kept when the server answers {@code 304 Not Modified}.
+ * <p/>
+ * The files are written in a temporary file which is then renamed, so a reader never sees a partially written file. The concurrent requests for the same URL which
+ * is not in the cache wait for a single download. The most recently used contents are also kept in memory, within the limit of {@code maxMemoryCacheSize} bytes.
  */
 public class FileCacheDataLoader extends CommonsDataLoader {
 
 	private static final Logger LOG = LoggerFactory.getLogger(FileCacheDataLoader.class);
 
+	/**
+	 * The default maximum size (in bytes) of the contents kept in memory.
+	 */
+	public static final long DEFAULT_MAX_MEMORY_CACHE_SIZE = 16L * 1024 * 1024;
+
+	private static final String METADATA_EXTENSION = ".metadata";
+
+	private static final String ETAG = "etag";
+
+	private static final String LAST_MODIFIED = "lastModified";
+
+	private static final String EXPIRES = "expires";
+
 	private File fileCacheDirectory = new File(System.getProperty("java.io.tmpdir"));
 
 	private ResourceLoader resourceLoader = new ResourceLoader();
@@ -60,6 +100,30 @@ public class FileCacheDataLoader extends CommonsDataLoader {
 
 	private List<String> toIgnored;
 
+	/**
+	 * The downloads in progress, the key is the cache file name.
+	 */
+	private final ConcurrentMap<String, FutureTask<byte[]>> downloads = new ConcurrentHashMap<String, FutureTask<byte[]>>();
+
+	/**
+	 * The most recently used contents, the key is the cache file name. The access is synchronized on the map.
+	 */
+	private final LinkedHashMap<String, CachedContent> memoryCache = new LinkedHashMap<String, CachedContent>(16, 0.75f, true);
+
+	private long memoryCacheSize;
+
+	private long maxMemoryCacheSize = DEFAULT_MAX_MEMORY_CACHE_SIZE;
+
+	private final AtomicLong hitCount = new AtomicLong();
+
+	private final AtomicLong missCount = new AtomicLong();
+
+	private final AtomicLong notModifiedCount = new AtomicLong();
+
+	private final AtomicLong bytesFromCache = new AtomicLong();
+
+	private final AtomicLong bytesDownloaded = new AtomicLong();
+
 	/**
 	 * This method allows to set the file cache directory. If the cache folder does not exists then it's created.
 	 *
@@ -69,12 +133,87 @@ public class FileCacheDataLoader extends CommonsDataLoader {
 
 		this.fileCacheDirectory = fileCacheDirectory;
 		this.fileCacheDirectory.mkdirs();
+		clearMemoryCache();
 	}
 
 	public void setResourceLoader(final ResourceLoader resourceLoader) {
 		this.resourceLoader = resourceLoader;
 	}
 
+	/**
+	 * This method allows to set the maximum size of the contents kept in memory. The default value is {@link #DEFAULT_MAX_MEMORY_CACHE_SIZE}, {@code 0} disables
+	 * the memory cache.
+	 *
+	 * @param maxMemoryCacheSize the maximum size in bytes
+	 */
+	public void setMaxMemoryCacheSize(final long maxMemoryCacheSize) {
+
+		synchronized (memoryCache) {
+
+			this.maxMemoryCacheSize = maxMemoryCacheSize;
+			trimMemoryCache();
+		}
+	}
+
+	/**
+	 * This method removes all contents kept in memory. The cache files are not deleted.
+	 */
+	public void clearMemoryCache() {
+
+		synchronized (memoryCache) {
+
+			memoryCache.clear();
+			memoryCacheSize = 0;
+		}
+	}
+
+	/**
+	 * @return the number of requests served from the cache (memory or file) without network access
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * @return the number of downloads (and of conditional requests)
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * @return the number of conditional requests answered by {@code 304 Not Modified}
+	 */
+	public long getNotModifiedCount() {
+		return notModifiedCount.get();
+	}
+
+	/**
+	 * @return the number of bytes served from the cache
+	 */
+	public long getBytesFromCache() {
+		return bytesFromCache.get();
+	}
+
+	/**
+	 * @return the number of downloaded bytes
+	 */
+	public long getBytesDownloaded() {
+		return bytesDownloaded.get();
+	}
+
+	/**
+	 * This method resets the counters.
+	 */
+	public void resetCounters() {
+
+		hitCount.set(0);
+		missCount.set(0);
+		notModifiedCount.set(0);
+		bytesFromCache.set(0);
+		bytesDownloaded.set(0);
+	}
+
 	/**
 	 * This methods allows to indicate if the resource must be obtained. If this method has been invoked then only the provided URL will be processed.
 	 *
@@ -119,19 +258,93 @@ public class FileCacheDataLoader extends CommonsDataLoader {
 		}
 		final String fileName = ResourceLoader.getNormalizedFileName(url);
 		final File file = getCacheFile(fileName);
-		final boolean fileExists = file.exists();
-		if (fileExists && !refresh) {
+		if (!refresh) {
 
-			LOG.debug("Cached file was used");
-			final byte[] bytes = DSSUtils.toByteArray(file);
-			return bytes;
+			final byte[] bytes = getFreshContent(fileName, file);
+			if (bytes != null) {
+
+				LOG.debug("Cached file was used");
+				hitCount.incrementAndGet();
+				bytesFromCache.addAndGet(bytes.length);
+				return bytes;
+			}
+			LOG.debug("There is no cached file or it is expired!");
 		} else {
-			if(!fileExists) {
-				LOG.debug("There is no cached file!");
-			} else {
-				LOG.debug("The refresh is forced!");
+			LOG.debug("The refresh is forced!");
+		}
+		final FutureTask<byte[]> download = new FutureTask<byte[]>(new Callable<byte[]>() {
+
+			@Override
+			public byte[] call() throws Exception {
+				return download(url, fileName, file);
+			}
+		});
+		FutureTask<byte[]> currentDownload = downloads.putIfAbsent(fileName, download);
+		if (currentDownload == null) {
+
+			currentDownload = download;
+			try {
+				download.run();
+			} finally {
+				downloads.remove(fileName, download);
+			}
+		} else {
+			LOG.debug("The download of {} is in progress", url);
+		}
+		try {
+			return currentDownload.get();
+		} catch (InterruptedException e) {
+
+			Thread.currentThread().interrupt();
+			throw new DSSException(e);
+		} catch (ExecutionException e) {
+
+			final Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new DSSException(cause);
+		}
+	}
+
+	@Override
+	public byte[] get(final String url) throws DSSCannotFetchDataException {
+
+		return get(url, false);
+	}
+
+	/**
+	 * @return the cached content if it is not expired, {@code null} otherwise
+	 */
+	private byte[] getFreshContent(final String fileName, final File file) {
+
+		final long now = System.currentTimeMillis();
+		synchronized (memoryCache) {
+
+			final CachedContent cachedContent = memoryCache.get(fileName);
+			if (cachedContent != null && !cachedContent.isExpired(now)) {
+				return cachedContent.bytes;
 			}
 		}
+		if (!file.exists()) {
+			return null;
+		}
+		final Properties metadata = loadMetadata(fileName);
+		final long expires = getExpires(metadata);
+		if (expires != 0 && expires <= now) {
+			return null;
+		}
+		final byte[] bytes = DSSUtils.toByteArray(file);
+		putInMemoryCache(fileName, bytes, expires);
+		return bytes;
+	}
+
+	private byte[] download(final String url, final String fileName, final File file) {
+
+		missCount.incrementAndGet();
+		if (Protocol.isHttpUrl(url)) {
+			return conditionalHttpGet(url, fileName, file);
+		}
 		final byte[] bytes;
 		if (!isNetworkProtocol(url)) {
 
@@ -144,16 +357,267 @@ public class FileCacheDataLoader extends CommonsDataLoader {
 		}
 		if ((bytes != null) && (bytes.length != 0)) {
 
-			final File out = getCacheFile(fileName);
-			DSSUtils.saveToFile(bytes, out);
+			bytesDownloaded.addAndGet(bytes.length);
+			store(fileName, file, bytes, new Properties());
 		}
 		return bytes;
 	}
 
-	@Override
-	public byte[] get(final String url) throws DSSCannotFetchDataException {
+	/**
+	 * This method retrieves the content using HTTP or HTTPS protocol. If the content is in the cache, the request is conditional ({@code If-None-Match},
+	 * {@code If-Modified-Since}) and the cached content is returned when the server answers {@code 304 Not Modified}.
+	 */
+	private byte[] conditionalHttpGet(final String url, final String fileName, final File file) {
 
-		return get(url, false);
+		final Properties cachedMetadata = file.exists() ? loadMetadata(fileName) : null;
+		HttpGet httpRequest = null;
+		HttpResponse httpResponse = null;
+		try {
+
+			httpRequest = new HttpGet(new URI(url.trim()));
+			if (contentType != null) {
+				httpRequest.setHeader(CONTENT_TYPE, contentType);
+			}
+			if (cachedMetadata != null) {
+
+				final String etag = cachedMetadata.getProperty(ETAG);
+				if (etag != null) {
+					httpRequest.setHeader(HttpHeaders.IF_NONE_MATCH, etag);
+				}
+				final String lastModified = cachedMetadata.getProperty(LAST_MODIFIED);
+				if (lastModified != null) {
+					httpRequest.setHeader(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+				}
+			}
+			httpResponse = getHttpResponse(httpRequest, url);
+			final int statusCode = httpResponse.getStatusLine().getStatusCode();
+			if ((statusCode == HttpStatus.SC_NOT_MODIFIED) && (cachedMetadata != null)) {
+
+				LOG.debug("The cached file is not modified: {}", url);
+				notModifiedCount.incrementAndGet();
+				final Properties metadata = getMetadata(httpResponse, cachedMetadata);
+				final byte[] bytes = DSSUtils.toByteArray(file);
+				saveMetadata(fileName, metadata);
+				putInMemoryCache(fileName, bytes, getExpires(metadata));
+				bytesFromCache.addAndGet(bytes.length);
+				return bytes;
+			}
+			final byte[] bytes = readHttpResponse(url, httpResponse);
+			if ((bytes != null) && (bytes.length != 0)) {
+
+				bytesDownloaded.addAndGet(bytes.length);
+				store(fileName, file, bytes, getMetadata(httpResponse, null));
+			}
+			return bytes;
+		} catch (URISyntaxException e) {
+			throw new DSSException(e);
+		} finally {
+
+			if (httpRequest != null) {
+				httpRequest.releaseConnection();
+			}
+			if (httpResponse != null) {
+				EntityUtils.consumeQuietly(httpResponse.getEntity());
+			}
+		}
+	}
+
+	/**
+	 * @param httpResponse   the response
+	 * @param cachedMetadata the metadata of the cached content (revalidation), {@code null} for a new content
+	 * @return the metadata to keep with the content
+	 */
+	private Properties getMetadata(final HttpResponse httpResponse, final Properties cachedMetadata) {
+
+		final Properties metadata = new Properties();
+		if (cachedMetadata != null) {
+
+			// A 304 response may omit the validators: the cached ones are kept.
+			copyProperty(cachedMetadata, metadata, ETAG);
+			copyProperty(cachedMetadata, metadata, LAST_MODIFIED);
+		}
+		final Header etag = httpResponse.getFirstHeader(HttpHeaders.ETAG);
+		if (etag != null) {
+			metadata.setProperty(ETAG, etag.getValue());
+		}
+		final Header lastModified = httpResponse.getFirstHeader(HttpHeaders.LAST_MODIFIED);
+		if (lastModified != null) {
+			metadata.setProperty(LAST_MODIFIED, lastModified.getValue());
+		}
+		final long expires = getExpires(httpResponse);
+		if (expires != 0) {
+			metadata.setProperty(EXPIRES, String.valueOf(expires));
+		}
+		return metadata;
+	}
+
+	private static void copyProperty(final Properties from, final Properties to, final String key) {
+
+		final String value = from.getProperty(key);
+		if (value != null) {
+			to.setProperty(key, value);
+		}
+	}
+
+	/**
+	 * @return the expiry date (ms) given by {@code Cache-Control: max-age} or by {@code Expires}, {@code 0} if none
+	 */
+	private static long getExpires(final HttpResponse httpResponse) {
+
+		for (final Header cacheControl : httpResponse.getHeaders(HttpHeaders.CACHE_CONTROL)) {
+
+			for (final String directive : cacheControl.getValue().split(",")) {
+
+				final String trimmedDirective = directive.trim().toLowerCase();
+				if (trimmedDirective.startsWith("max-age=")) {
+
+					try {
+						return System.currentTimeMillis() + Long.parseLong(trimmedDirective.substring("max-age=".length())) * 1000;
+					} catch (NumberFormatException e) {
+						LOG.debug("Invalid max-age: {}", directive);
+					}
+				} else if (trimmedDirective.equals("no-cache") || trimmedDirective.equals("no-store")) {
+
+					// Expired at once: the content is revalidated at each request.
+					return 1;
+				}
+			}
+		}
+		final Header expires = httpResponse.getFirstHeader(HttpHeaders.EXPIRES);
+		if (expires != null) {
+
+			final Date expiresDate = DateUtils.parseDate(expires.getValue());
+			// An invalid date (ex.: "0") means that the content is already expired.
+			return expiresDate == null ? 1 : Math.max(1, expiresDate.getTime());
+		}
+		return 0;
+	}
+
+	private static long getExpires(final Properties metadata) {
+
+		final String expires = metadata.getProperty(EXPIRES);
+		if (expires == null) {
+			return 0;
+		}
+		try {
+			return Long.parseLong(expires);
+		} catch (NumberFormatException e) {
+			return 0;
+		}
+	}
+
+	private void store(final String fileName, final File file, final byte[] bytes, final Properties metadata) {
+
+		saveAtomically(bytes, file);
+		saveMetadata(fileName, metadata);
+		putInMemoryCache(fileName, bytes, getExpires(metadata));
+	}
+
+	private Properties loadMetadata(final String fileName) {
+
+		final Properties metadata = new Properties();
+		final File metadataFile = getCacheFile(fileName + METADATA_EXTENSION);
+		if (metadataFile.exists()) {
+
+			InputStream inputStream = null;
+			try {
+
+				inputStream = DSSUtils.toInputStream(metadataFile);
+				metadata.load(inputStream);
+			} catch (Exception e) {
+				LOG.warn("Impossible to load: '{}'", metadataFile.getAbsolutePath(), e);
+			} finally {
+				IOUtils.closeQuietly(inputStream);
+			}
+		}
+		return metadata;
+	}
+
+	private void saveMetadata(final String fileName, final Properties metadata) {
+
+		final File metadataFile = getCacheFile(fileName + METADATA_EXTENSION);
+		if (metadata.isEmpty()) {
+
+			metadataFile.delete();
+			return;
+		}
+		try {
+
+			final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+			metadata.store(outputStream, null);
+			saveAtomically(outputStream.toByteArray(), metadataFile);
+		} catch (IOException e) {
+			throw new DSSException(e);
+		}
+	}
+
+	/**
+	 * This method writes the content in a temporary file of the same folder which replaces then the given file.
+	 *
+	 * @param bytes the content to write
+	 * @param file  the file to create or to replace
+	 */
+	private static void saveAtomically(final byte[] bytes, final File file) throws DSSException {
+
+		final File folder = file.getAbsoluteFile().getParentFile();
+		folder.mkdirs();
+		File tmpFile = null;
+		FileOutputStream outputStream = null;
+		try {
+
+			tmpFile = File.createTempFile(file.getName(), ".tmp", folder);
+			outputStream = new FileOutputStream(tmpFile);
+			outputStream.write(bytes);
+			outputStream.close();
+			outputStream = null;
+			if (!tmpFile.renameTo(file)) {
+
+				// The rename does not replace an existing file on all platforms.
+				file.delete();
+				if (!tmpFile.renameTo(file)) {
+					throw new DSSException("Impossible to rename " + tmpFile.getAbsolutePath() + " to " + file.getAbsolutePath());
+				}
+			}
+		} catch (IOException e) {
+			throw new DSSException(e);
+		} finally {
+
+			IOUtils.closeQuietly(outputStream);
+			if ((tmpFile != null) && tmpFile.exists()) {
+				tmpFile.delete();
+			}
+		}
+	}
+
+	private void putInMemoryCache(final String fileName, final byte[] bytes, final long expires) {
+
+		synchronized (memoryCache) {
+
+			final CachedContent previous = memoryCache.remove(fileName);
+			if (previous != null) {
+				memoryCacheSize -= previous.bytes.length;
+			}
+			if (bytes.length > maxMemoryCacheSize) {
+				return;
+			}
+			memoryCache.put(fileName, new CachedContent(bytes, expires));
+			memoryCacheSize += bytes.length;
+			trimMemoryCache();
+		}
+	}
+
+	/**
+	 * This method removes the least recently used contents until the size of the memory cache fits its maximum size. It must be called under the lock of
+	 * {@code memoryCache}.
+	 */
+	private void trimMemoryCache() {
+
+		final Iterator<CachedContent> iterator = memoryCache.values().iterator();
+		while ((memoryCacheSize > maxMemoryCacheSize) && iterator.hasNext()) {
+
+			memoryCacheSize -= iterator.next().bytes.length;
+			iterator.remove();
+		}
 	}
 
 	protected boolean isNetworkProtocol(final String urlString) {
@@ -201,7 +665,7 @@ public class FileCacheDataLoader extends CommonsDataLoader {
 
 		final String fileName = ResourceLoader.getNormalizedFileName(urlString);
 		final File out = getCacheFile(fileName);
-		DSSUtils.saveToFile(bytes, out);
+		store(fileName, out, bytes, new Properties());
 	}
 
 	@Override
@@ -223,6 +687,8 @@ public class FileCacheDataLoader extends CommonsDataLoader {
 
 			LOG.debug("Cached file was used");
 			final byte[] byteArray = DSSUtils.toByteArray(file);
+			hitCount.incrementAndGet();
+			bytesFromCache.addAndGet(byteArray.length);
 			return byteArray;
 		} else {
 
@@ -254,13 +720,15 @@ public class FileCacheDataLoader extends CommonsDataLoader {
 				httpRequest.setHeader(CONTENT_TYPE, contentType);
 			}
 
+			missCount.incrementAndGet();
 			httpResponse = super.getHttpResponse(httpRequest, urlString);
 
 			returnedBytes = readHttpResponse(urlString, httpResponse);
 			if (returnedBytes.length != 0) {
 
+				bytesDownloaded.addAndGet(returnedBytes.length);
 				final File cacheFile = getCacheFile(cacheFileName);
-				DSSUtils.saveToFile(returnedBytes, cacheFile);
+				saveAtomically(returnedBytes, cacheFile);
 			}
 		} catch (IOException e) {
 			throw new DSSException(e);
@@ -274,4 +742,27 @@ public class FileCacheDataLoader extends CommonsDataLoader {
 		}
 		return returnedBytes;
 	}
+
+	/**
+	 * The content kept in memory.
+	 */
+	private static class CachedContent {
+
+		private final byte[] bytes;
+
+		/**
+		 * The expiry date (ms), {@code 0} if none.
+		 */
+		private final long expires;
+
+		CachedContent(final byte[] bytes, final long expires) {
+
+			this.bytes = bytes;
+			this.expires = expires;
+		}
+
+		boolean isExpired(final long now) {
+			return (expires != 0) && (expires <= now);
+		}
+	}
 }
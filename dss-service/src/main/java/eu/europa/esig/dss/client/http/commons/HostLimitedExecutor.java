@@ -0,0 +1,209 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * <p/>
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * <p/>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p/>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.client.http.commons;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * This executor runs the asynchronous requests of {@code CommonsDataLoader}. At most {@code maxPerHost} requests are running for the same host: the next
+ * ones wait in a queue of the host, without holding a thread. This keeps the number of running requests of a host within the size of its connection pool.
+ * A waiting request which is cancelled is removed from the queue.
+ */
+class HostLimitedExecutor {
+
+	private final ExecutorService executorService;
+
+	/**
+	 * The threads of the tasks which only wait for host-limited requests, see {@link #submitUnlimited(Callable)}.
+	 */
+	private final ExecutorService unlimitedExecutorService;
+
+	private final int maxPerHost;
+
+	/**
+	 * The hosts which have running requests. The access is synchronized on this object.
+	 */
+	private final Map<String, HostQueue> hostQueues = new HashMap<String, HostQueue>();
+
+	/**
+	 * @param threadNumber the number of threads
+	 * @param maxPerHost   the maximum number of running requests of the same host
+	 */
+	HostLimitedExecutor(final int threadNumber, final int maxPerHost) {
+
+		this.maxPerHost = Math.max(1, maxPerHost);
+		final ThreadFactory threadFactory = new ThreadFactory() {
+
+			@Override
+			public Thread newThread(final Runnable runnable) {
+
+				final Thread thread = new Thread(runnable, "AsyncDataLoader");
+				thread.setDaemon(true);
+				return thread;
+			}
+		};
+		executorService = Executors.newFixedThreadPool(Math.max(1, threadNumber), threadFactory);
+		unlimitedExecutorService = Executors.newCachedThreadPool(threadFactory);
+	}
+
+	/**
+	 * @param url  the URL of the request, it gives the host
+	 * @param task the request
+	 * @return the {@code Future} of the result
+	 */
+	<T> Future<T> submit(final String url, final Callable<T> task) {
+
+		final String host = getHost(url);
+		final HostTask<T> runnable = new HostTask<T>(host, task);
+		final boolean start;
+		synchronized (this) {
+
+			HostQueue hostQueue = hostQueues.get(host);
+			if (hostQueue == null) {
+
+				hostQueue = new HostQueue();
+				hostQueues.put(host, hostQueue);
+			}
+			start = hostQueue.running < maxPerHost;
+			if (start) {
+				hostQueue.running++;
+			} else {
+				hostQueue.waiting.add(runnable);
+			}
+		}
+		if (start) {
+			executorService.execute(runnable);
+		}
+		return runnable;
+	}
+
+	/**
+	 * @param task the task, it must not hold a thread of the host-limited pool while it waits for host-limited requests
+	 * @return the {@code Future} of the result
+	 */
+	<T> Future<T> submitUnlimited(final Callable<T> task) {
+		return unlimitedExecutorService.submit(task);
+	}
+
+	/**
+	 * This method removes the given request from the queue of its host, if it is still waiting.
+	 */
+	private synchronized void remove(final HostTask<?> hostTask) {
+
+		final HostQueue hostQueue = hostQueues.get(hostTask.host);
+		if (hostQueue != null) {
+			hostQueue.waiting.remove(hostTask);
+		}
+	}
+
+	/**
+	 * This method is called when a request of the given host ends: the next waiting request of the host (if any) takes its place.
+	 */
+	private void runNext(final String host) {
+
+		final Runnable next;
+		synchronized (this) {
+
+			final HostQueue hostQueue = hostQueues.get(host);
+			next = hostQueue.waiting.poll();
+			if (next == null) {
+
+				hostQueue.running--;
+				if (hostQueue.running == 0) {
+					hostQueues.remove(host);
+				}
+			}
+		}
+		if (next != null) {
+			executorService.execute(next);
+		}
+	}
+
+	void shutdown() {
+
+		executorService.shutdownNow();
+		unlimitedExecutorService.shutdownNow();
+	}
+
+	/**
+	 * @return the host (with the port) of the given URL, the URL itself if it cannot be parsed
+	 */
+	static String getHost(final String url) {
+
+		try {
+
+			final String authority = new URI(url.trim()).getAuthority();
+			return authority == null ? url : authority.toLowerCase();
+		} catch (Exception e) {
+			return url;
+		}
+	}
+
+	/**
+	 * A request of a host: when it ends, the next waiting request of the host takes its place.
+	 */
+	private class HostTask<T> extends FutureTask<T> {
+
+		private final String host;
+
+		HostTask(final String host, final Callable<T> task) {
+
+			super(task);
+			this.host = host;
+		}
+
+		@Override
+		public void run() {
+
+			try {
+				super.run();
+			} finally {
+				runNext(host);
+			}
+		}
+
+		@Override
+		public boolean cancel(final boolean mayInterruptIfRunning) {
+
+			final boolean cancelled = super.cancel(mayInterruptIfRunning);
+			if (cancelled) {
+				remove(this);
+			}
+			return cancelled;
+		}
+	}
+
+	private static class HostQueue {
+
+		private int running;
+
+		private final LinkedList<Runnable> waiting = new LinkedList<Runnable>();
+	}
+}
@@ -0,0 +1,441 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * <p/>
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * <p/>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p/>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.client.ocsp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bouncycastle.cert.ocsp.BasicOCSPResp;
+import org.bouncycastle.cert.ocsp.CertificateID;
+import org.bouncycastle.cert.ocsp.SingleResp;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.DSSRevocationUtils;
+import eu.europa.esig.dss.x509.CertificateToken;
+import eu.europa.esig.dss.x509.OCSPToken;
+import eu.europa.esig.dss.x509.ocsp.OCSPSource;
+
+/**
+ * OCSPSource that keeps in memory the OCSP responses retrieved by an {@code OnlineOCSPSource}. The responses are kept per {@code CertificateID} (see
+ * {@link DSSRevocationUtils#getOCSPCertificateID}), so the request for a certificate is sent only once while its response is fresh. The instance can be
+ * shared by concurrent validations: the concurrent requests for the same certificate wait for a single response.
+ * <p/>
+ * A response is removed from the cache when the nextUpdate date of its {@code SingleResp} is reached or when it has been received for longer than the
+ * maximum age: the age is counted from the reception, not from thisUpdate, because the responders often pre-produce their responses. When the
+ * {@code OnlineOCSPSource} uses a {@code NonceSource}, the responses are bound to the request and cannot be reused: the cache is emptied and each request
+ * is sent to the OCSP responder.
+ */
+public class InMemoryCacheOCSPSource implements OCSPSource {
+
+	private static final Logger LOG = LoggerFactory.getLogger(InMemoryCacheOCSPSource.class);
+
+	/**
+	 * The default maximum age of a kept response in milliseconds (5 minutes).
+	 */
+	public static final long DEFAULT_MAX_AGE = 5L * 60 * 1000;
+
+	/**
+	 * The default maximum number of kept responses.
+	 */
+	public static final int DEFAULT_MAX_SIZE = 10000;
+
+	private OnlineOCSPSource cachedSource;
+
+	private volatile long maxAge = DEFAULT_MAX_AGE;
+
+	private volatile int maxSize = DEFAULT_MAX_SIZE;
+
+	private final ConcurrentMap<CertificateID, CachedEntry> cache = new ConcurrentHashMap<CertificateID, CachedEntry>();
+
+	private final Object evictionLock = new Object();
+
+	private final AtomicLong hitCount = new AtomicLong();
+
+	private final AtomicLong missCount = new AtomicLong();
+
+	/**
+	 * The sum of the ages (in milliseconds) of the responses returned from the cache.
+	 */
+	private final AtomicLong servedAge = new AtomicLong();
+
+	/**
+	 * The default constructor for InMemoryCacheOCSPSource. The {@code OnlineOCSPSource} must be set.
+	 */
+	public InMemoryCacheOCSPSource() {
+	}
+
+	/**
+	 * @param cachedSource the {@code OnlineOCSPSource} used to retrieve the OCSP responses which are not in the cache
+	 */
+	public InMemoryCacheOCSPSource(final OnlineOCSPSource cachedSource) {
+
+		this.cachedSource = cachedSource;
+	}
+
+	/**
+	 * @param cachedSource the {@code OnlineOCSPSource} used to retrieve the OCSP responses which are not in the cache
+	 */
+	public void setCachedSource(final OnlineOCSPSource cachedSource) {
+
+		this.cachedSource = cachedSource;
+	}
+
+	/**
+	 * @return the maximum age of a kept response in milliseconds
+	 */
+	public long getMaxAge() {
+		return maxAge;
+	}
+
+	/**
+	 * This method sets the maximum age of a kept response: a response is not kept longer, even if its nextUpdate date is not reached. The age is counted
+	 * from the reception of the response. The default value is {@link #DEFAULT_MAX_AGE}.
+	 *
+	 * @param maxAge the maximum age of a kept response in milliseconds
+	 */
+	public void setMaxAge(final long maxAge) {
+		this.maxAge = maxAge;
+	}
+
+	/**
+	 * @return the maximum number of kept responses
+	 */
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * This method sets the maximum number of kept responses. When it is exceeded, the expired and then the least recently used responses are removed. The
+	 * default value is {@link #DEFAULT_MAX_SIZE}.
+	 *
+	 * @param maxSize the maximum number of kept responses
+	 */
+	public void setMaxSize(final int maxSize) {
+
+		this.maxSize = maxSize;
+		evictIfNeeded();
+	}
+
+	/**
+	 * @return the number of kept responses
+	 */
+	public int size() {
+		return cache.size();
+	}
+
+	/**
+	 * @return the number of requests served from the cache
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * @return the number of requests sent to the OCSP responder
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * @return the ratio of the requests served from the cache, {@code 0} if there was no request
+	 */
+	public double getHitRatio() {
+
+		final long hits = hitCount.get();
+		final long total = hits + missCount.get();
+		return total == 0 ? 0 : (double) hits / total;
+	}
+
+	/**
+	 * @return the average age in milliseconds (counted from the reception) of the responses served from the cache, {@code 0} if there was no hit
+	 */
+	public long getAverageServedAge() {
+
+		final long hits = hitCount.get();
+		return hits == 0 ? 0 : servedAge.get() / hits;
+	}
+
+	/**
+	 * @return the age in milliseconds (counted from the reception) of the oldest kept response, {@code 0} if the cache is empty
+	 */
+	public long getOldestEntryAge() {
+
+		final long now = System.currentTimeMillis();
+		long oldest = 0;
+		for (final CachedEntry entry : cache.values()) {
+
+			final LoadedResponse response = entry.getIfDone();
+			if (response != null) {
+				oldest = Math.max(oldest, response.getAge(now));
+			}
+		}
+		return oldest;
+	}
+
+	/**
+	 * This method resets the hit, miss and age counters.
+	 */
+	public void resetCounters() {
+
+		hitCount.set(0);
+		missCount.set(0);
+		servedAge.set(0);
+	}
+
+	/**
+	 * This method removes all responses from the cache.
+	 */
+	public void clear() {
+		cache.clear();
+	}
+
+	@Override
+	public OCSPToken getOCSPToken(final CertificateToken certificateToken, final CertificateToken issuerCertificateToken) {
+
+		if (cachedSource.getNonceSource() != null) {
+
+			// A response to a request with a nonce cannot be reused.
+			if (!cache.isEmpty()) {
+
+				LOG.debug("Nonce enabled: the OCSP cache is emptied");
+				clear();
+			}
+			missCount.incrementAndGet();
+			return cachedSource.getOCSPToken(certificateToken, issuerCertificateToken);
+		}
+		final CertificateID key = DSSRevocationUtils.getOCSPCertificateID(certificateToken.getCertificate(), issuerCertificateToken.getCertificate());
+		while (true) {
+
+			CachedEntry entry = cache.get(key);
+			boolean loaded = false;
+			if (entry == null) {
+
+				final CachedEntry newEntry = new CachedEntry(key, certificateToken, issuerCertificateToken);
+				entry = cache.putIfAbsent(key, newEntry);
+				if (entry == null) {
+
+					LOG.debug("OCSP response not in cache: {}", certificateToken.getDSSIdAsString());
+					missCount.incrementAndGet();
+					entry = newEntry;
+					entry.load();
+					loaded = true;
+					evictIfNeeded();
+				}
+			}
+			final LoadedResponse response = entry.get();
+			if (response == null) {
+				return null;
+			}
+			final long now = System.currentTimeMillis();
+			if (response.isExpired(now, maxAge)) {
+
+				LOG.debug("OCSP response expired: {}", certificateToken.getDSSIdAsString());
+				cache.remove(key, entry);
+				if (loaded) {
+					return response.createOCSPToken(certificateToken);
+				}
+				continue;
+			}
+			entry.lastAccess = System.nanoTime();
+			if (!loaded) {
+
+				hitCount.incrementAndGet();
+				servedAge.addAndGet(response.getAge(now));
+			}
+			return response.createOCSPToken(certificateToken);
+		}
+	}
+
+	/**
+	 * This method removes the expired responses, then the least recently used responses until the number of kept responses fits the maximum size.
+	 */
+	private void evictIfNeeded() {
+
+		if (cache.size() <= maxSize) {
+			return;
+		}
+		synchronized (evictionLock) {
+
+			final long now = System.currentTimeMillis();
+			final List<Map.Entry<CertificateID, CachedEntry>> entries = new ArrayList<Map.Entry<CertificateID, CachedEntry>>();
+			for (final Map.Entry<CertificateID, CachedEntry> entry : cache.entrySet()) {
+
+				final LoadedResponse response = entry.getValue().getIfDone();
+				if (response != null && response.isExpired(now, maxAge)) {
+					cache.remove(entry.getKey(), entry.getValue());
+				} else {
+					entries.add(entry);
+				}
+			}
+			Collections.sort(entries, new Comparator<Map.Entry<CertificateID, CachedEntry>>() {
+
+				@Override
+				public int compare(final Map.Entry<CertificateID, CachedEntry> entry1, final Map.Entry<CertificateID, CachedEntry> entry2) {
+
+					final long lastAccess1 = entry1.getValue().lastAccess;
+					final long lastAccess2 = entry2.getValue().lastAccess;
+					return lastAccess1 < lastAccess2 ? -1 : (lastAccess1 == lastAccess2 ? 0 : 1);
+				}
+			});
+			for (final Map.Entry<CertificateID, CachedEntry> entry : entries) {
+
+				if (cache.size() <= maxSize) {
+					break;
+				}
+				cache.remove(entry.getKey(), entry.getValue());
+			}
+		}
+	}
+
+	/**
+	 * The OCSP response kept for one {@code CertificateID}. The first request queries the OCSP responder, the concurrent requests wait for the result.
+	 */
+	private class CachedEntry implements Callable<LoadedResponse> {
+
+		private final CertificateID key;
+
+		private final CertificateToken certificateToken;
+
+		private final CertificateToken issuerCertificateToken;
+
+		private final FutureTask<LoadedResponse> task = new FutureTask<LoadedResponse>(this);
+
+		private volatile long lastAccess = System.nanoTime();
+
+		CachedEntry(final CertificateID key, final CertificateToken certificateToken, final CertificateToken issuerCertificateToken) {
+
+			this.key = key;
+			this.certificateToken = certificateToken;
+			this.issuerCertificateToken = issuerCertificateToken;
+		}
+
+		void load() {
+			task.run();
+		}
+
+		@Override
+		public LoadedResponse call() throws Exception {
+
+			final OCSPToken ocspToken = cachedSource.getOCSPToken(certificateToken, issuerCertificateToken);
+			if (ocspToken == null) {
+
+				cache.remove(key, this);
+				return null;
+			}
+			return new LoadedResponse(ocspToken.getBasicOCSPResp(), ocspToken.getSingleResp(), ocspToken.getSourceURL(), System.currentTimeMillis());
+		}
+
+		LoadedResponse get() {
+
+			try {
+				return task.get();
+			} catch (InterruptedException e) {
+
+				Thread.currentThread().interrupt();
+				throw new DSSException(e);
+			} catch (ExecutionException e) {
+
+				// The failed request is not kept: the next request retries.
+				cache.remove(key, this);
+				final Throwable cause = e.getCause();
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				throw new DSSException(cause);
+			}
+		}
+
+		/**
+		 * @return the loaded response or {@code null} if the loading is not finished or failed
+		 */
+		LoadedResponse getIfDone() {
+
+			if (!task.isDone()) {
+				return null;
+			}
+			try {
+				return task.get();
+			} catch (Exception e) {
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * The OCSP response received for one {@code CertificateID}. The {@code OCSPToken} is created for each request because it keeps the state of the
+	 * validation (issuer, signature validity...).
+	 */
+	private static class LoadedResponse {
+
+		private final BasicOCSPResp basicOCSPResp;
+
+		private final SingleResp singleResp;
+
+		private final String sourceURI;
+
+		/**
+		 * The time at which the response was received.
+		 */
+		private final long fetchTime;
+
+		LoadedResponse(final BasicOCSPResp basicOCSPResp, final SingleResp singleResp, final String sourceURI, final long fetchTime) {
+
+			this.basicOCSPResp = basicOCSPResp;
+			this.singleResp = singleResp;
+			this.sourceURI = sourceURI;
+			this.fetchTime = fetchTime;
+		}
+
+		long getAge(final long now) {
+			return Math.max(0, now - fetchTime);
+		}
+
+		boolean isExpired(final long now, final long maxAge) {
+
+			final Date nextUpdate = singleResp.getNextUpdate();
+			if (nextUpdate != null && nextUpdate.getTime() <= now) {
+				return true;
+			}
+			return getAge(now) > maxAge;
+		}
+
+		OCSPToken createOCSPToken(final CertificateToken certificateToken) {
+
+			final OCSPToken ocspToken = new OCSPToken(basicOCSPResp, singleResp);
+			ocspToken.setSourceURI(sourceURI);
+			certificateToken.setRevocationToken(ocspToken);
+			return ocspToken;
+		}
+	}
+}
@@ -108,6 +108,13 @@ public class OnlineOCSPSource implements OCSPSource {
 		this.nonceSource = nonceSource;
 	}
 
+	/**
+	 * @return the {@code NonceSource} used for querying the OCSP server, or {@code null} if the nonce is not used
+	 */
+	public NonceSource getNonceSource() {
+		return nonceSource;
+	}
+
 	@Override
 	public OCSPToken getOCSPToken(CertificateToken certificateToken, CertificateToken issuerCertificateToken) {
 		if (dataLoader == null) {
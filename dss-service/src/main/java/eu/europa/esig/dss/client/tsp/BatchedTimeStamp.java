@@ -0,0 +1,73 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * <p/>
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * <p/>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p/>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.client.tsp;
+
+import java.util.Arrays;
+
+import org.bouncycastle.tsp.TimeStampToken;
+
+import eu.europa.esig.dss.signature.MerkleProof;
+
+/**
+ * A timestamp shared by a batch of requests (see {@link BatchingTSPSource#getBatchedTimeStamp}): the {@code TimeStampToken} covers the root of the Merkle
+ * tree of the digests of the batch and the {@code MerkleProof} links the digest of the request to this root.
+ */
+public class BatchedTimeStamp {
+
+	private final TimeStampToken timeStampToken;
+
+	private final MerkleProof proof;
+
+	BatchedTimeStamp(final TimeStampToken timeStampToken, final MerkleProof proof) {
+
+		this.timeStampToken = timeStampToken;
+		this.proof = proof;
+	}
+
+	/**
+	 * @return the timestamp of the root of the Merkle tree
+	 */
+	public TimeStampToken getTimeStampToken() {
+		return timeStampToken;
+	}
+
+	/**
+	 * @return the proof linking the timestamped digest to the root of the Merkle tree
+	 */
+	public MerkleProof getProof() {
+		return proof;
+	}
+
+	/**
+	 * @return the root of the Merkle tree, i.e. the message imprint of the timestamp
+	 */
+	public byte[] getRoot() {
+		return timeStampToken.getTimeStampInfo().getMessageImprintDigest();
+	}
+
+	/**
+	 * @param digest the timestamped digest
+	 * @return {@code true} if the timestamp covers the digest
+	 */
+	public boolean verify(final byte[] digest) {
+		return Arrays.equals(proof.computeRootFromDigest(digest), getRoot());
+	}
+}
@@ -0,0 +1,317 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * <p/>
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * <p/>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p/>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.client.tsp;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bouncycastle.tsp.TimeStampToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.DigestAlgorithm;
+import eu.europa.esig.dss.signature.MerkleProof;
+import eu.europa.esig.dss.x509.tsp.TSPSource;
+
+/**
+ * This {@code TSPSource} decorator allows to share one request to the TSA between concurrent timestamp requests.
+ * <p/>
+ * {@link #getTimeStampResponse(DigestAlgorithm, byte[])} always sends one request per call to the wrapped {@code TSPSource}: the timestamps of the
+ * AdES signatures must cover their own digest.
+ * <p/>
+ * {@link #getBatchedTimeStamp(DigestAlgorithm, byte[])} gathers the requests received during a time window (and with the same digest algorithm), builds
+ * the Merkle tree of their digests and timestamps its root with one request to the TSA. Each caller receives the shared token and the proof of its
+ * digest. The window is 0 by default: each request is sent alone.
+ */
+public class BatchingTSPSource implements TSPSource {
+
+	private static final long serialVersionUID = 3207512735416358470L;
+
+	private static final Logger LOG = LoggerFactory.getLogger(BatchingTSPSource.class);
+
+	/**
+	 * The default maximum number of requests in a batch
+	 */
+	public static final int DEFAULT_MAX_BATCH_SIZE = 256;
+
+	private final TSPSource tspSource;
+
+	private volatile long window = 0;
+
+	private volatile int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+
+	/**
+	 * The batches which still accept requests, by digest algorithm
+	 */
+	private transient Map<DigestAlgorithm, Batch> openBatches;
+
+	private final AtomicLong requestCount = new AtomicLong();
+
+	private final AtomicLong batchedRequestCount = new AtomicLong();
+
+	private final AtomicLong tsaRequestCount = new AtomicLong();
+
+	private final AtomicLong largestBatchSize = new AtomicLong();
+
+	/**
+	 * @param tspSource the wrapped {@code TSPSource} which sends the requests to the TSA
+	 */
+	public BatchingTSPSource(final TSPSource tspSource) {
+
+		if (tspSource == null) {
+			throw new NullPointerException("TSPSource cannot be null !");
+		}
+		this.tspSource = tspSource;
+	}
+
+	/**
+	 * @return the time window in milliseconds
+	 */
+	public long getWindow() {
+		return window;
+	}
+
+	/**
+	 * This method sets how long the first request of a batch waits for other requests before the batch is sent to the TSA. {@code 0} (default) means that
+	 * each request is sent alone.
+	 *
+	 * @param window the time window in milliseconds
+	 */
+	public void setWindow(final long window) {
+		this.window = window;
+	}
+
+	/**
+	 * @return the maximum number of requests in a batch
+	 */
+	public int getMaxBatchSize() {
+		return maxBatchSize;
+	}
+
+	/**
+	 * This method sets the maximum number of requests in a batch: a full batch is sent without waiting for the end of the window.
+	 *
+	 * @param maxBatchSize the maximum number of requests in a batch
+	 */
+	public void setMaxBatchSize(final int maxBatchSize) {
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	@Override
+	public TimeStampToken getTimeStampResponse(final DigestAlgorithm digestAlgorithm, final byte[] digest) throws DSSException {
+
+		requestCount.incrementAndGet();
+		tsaRequestCount.incrementAndGet();
+		return tspSource.getTimeStampResponse(digestAlgorithm, digest);
+	}
+
+	/**
+	 * This method timestamps the given digest together with the other digests received during the time window.
+	 *
+	 * @param digestAlgorithm the digest algorithm of the digest
+	 * @param digest          the digest to timestamp
+	 * @return the timestamp of the root of the batch and the proof of the digest
+	 * @throws DSSException if the timestamp of the batch cannot be obtained
+	 */
+	public BatchedTimeStamp getBatchedTimeStamp(final DigestAlgorithm digestAlgorithm, final byte[] digest) throws DSSException {
+
+		requestCount.incrementAndGet();
+		batchedRequestCount.incrementAndGet();
+		final Batch batch;
+		final int index;
+		final boolean first;
+		synchronized (this) {
+
+			if (openBatches == null) {
+				openBatches = new HashMap<DigestAlgorithm, Batch>();
+			}
+			Batch openBatch = openBatches.get(digestAlgorithm);
+			first = openBatch == null;
+			if (first) {
+
+				openBatch = new Batch(digestAlgorithm);
+				openBatches.put(digestAlgorithm, openBatch);
+			}
+			batch = openBatch;
+			index = batch.digests.size();
+			batch.digests.add(digest);
+			if (batch.digests.size() >= maxBatchSize) {
+				close(batch);
+			}
+			if (first) {
+				waitForBatch(batch);
+			}
+		}
+		if (first) {
+			batch.timestamp();
+		}
+		return batch.getResult(index);
+	}
+
+	/**
+	 * The first request of a batch waits until the end of the window or until the batch is full. This method must be called by the owner of the lock.
+	 */
+	private void waitForBatch(final Batch batch) {
+
+		final long deadline = System.currentTimeMillis() + window;
+		long remaining = window;
+		try {
+			while (!batch.closed && remaining > 0) {
+
+				wait(remaining);
+				remaining = deadline - System.currentTimeMillis();
+			}
+		} catch (InterruptedException e) {
+			// The batch is sent immediately
+			Thread.currentThread().interrupt();
+		}
+		close(batch);
+	}
+
+	/**
+	 * This method must be called by the owner of the lock.
+	 */
+	private void close(final Batch batch) {
+
+		if (batch.closed) {
+			return;
+		}
+		batch.closed = true;
+		if (openBatches.get(batch.digestAlgorithm) == batch) {
+			openBatches.remove(batch.digestAlgorithm);
+		}
+		notifyAll();
+	}
+
+	private void updateLargestBatchSize(final long size) {
+
+		long largest;
+		while ((largest = largestBatchSize.get()) < size) {
+			if (largestBatchSize.compareAndSet(largest, size)) {
+				break;
+			}
+		}
+	}
+
+	/**
+	 * @return the number of timestamp requests (batched or not)
+	 */
+	public long getRequestCount() {
+		return requestCount.get();
+	}
+
+	/**
+	 * @return the number of requests received by {@link #getBatchedTimeStamp}
+	 */
+	public long getBatchedRequestCount() {
+		return batchedRequestCount.get();
+	}
+
+	/**
+	 * @return the number of requests sent to the TSA
+	 */
+	public long getTsaRequestCount() {
+		return tsaRequestCount.get();
+	}
+
+	/**
+	 * @return the largest number of requests timestamped with one request to the TSA
+	 */
+	public long getLargestBatchSize() {
+		return largestBatchSize.get();
+	}
+
+	/**
+	 * This method resets the counters.
+	 */
+	public void resetCounters() {
+
+		requestCount.set(0);
+		batchedRequestCount.set(0);
+		tsaRequestCount.set(0);
+		largestBatchSize.set(0);
+	}
+
+	/**
+	 * The requests timestamped with one request to the TSA. The digests are only modified while the batch is open (under the lock of the
+	 * {@code BatchingTSPSource}); the result is published by the latch.
+	 */
+	private class Batch {
+
+		private final DigestAlgorithm digestAlgorithm;
+
+		private final List<byte[]> digests = new ArrayList<byte[]>();
+
+		private final CountDownLatch done = new CountDownLatch(1);
+
+		private boolean closed;
+
+		private List<MerkleProof> proofs;
+
+		private TimeStampToken timeStampToken;
+
+		private RuntimeException exception;
+
+		Batch(final DigestAlgorithm digestAlgorithm) {
+			this.digestAlgorithm = digestAlgorithm;
+		}
+
+		private void timestamp() {
+
+			try {
+
+				proofs = MerkleProof.getProofs(digestAlgorithm, digests);
+				final byte[] root = proofs.get(0).computeRootFromDigest(digests.get(0));
+				tsaRequestCount.incrementAndGet();
+				timeStampToken = tspSource.getTimeStampResponse(digestAlgorithm, root);
+				updateLargestBatchSize(digests.size());
+				LOG.debug("{} request(s) timestamped with one TSA request", digests.size());
+			} catch (RuntimeException e) {
+				exception = e;
+			} finally {
+				done.countDown();
+			}
+		}
+
+		private BatchedTimeStamp getResult(final int index) throws DSSException {
+
+			try {
+				done.await();
+			} catch (InterruptedException e) {
+
+				Thread.currentThread().interrupt();
+				throw new DSSException(e);
+			}
+			if (exception != null) {
+				throw new DSSException("Unable to timestamp the batch: " + exception.getMessage(), exception);
+			}
+			if (timeStampToken == null) {
+				throw new DSSException("The TSA returned no timestamp for the batch");
+			}
+			return new BatchedTimeStamp(timeStampToken, proofs.get(index));
+		}
+	}
+}
@@ -20,13 +20,20 @@
  */
 package eu.europa.esig.dss.tsl;
 
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.security.auth.x500.X500Principal;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import eu.europa.esig.dss.DSSEncodingException;
+import eu.europa.esig.dss.DSSException;
 import eu.europa.esig.dss.x509.CertificatePool;
 import eu.europa.esig.dss.x509.CertificateToken;
 
@@ -34,15 +41,35 @@ import eu.europa.esig.dss.x509.CertificateToken;
  * This CertificateSource keep a list of trusted certificates extracted from the trusted list. To populate this list {@link
  * TrustedListsCertificateSource} class is used. This list is refreshed when the method refresh
  * is called.
- *
- *
+ * <p/>
+ * The trusted lists are loaded in a new {@code TrustedListsCertificateSource} (snapshot) which is published, by a single assignment, only when it is
+ * completely loaded: the validations never see a partially loaded pool and the validations in progress keep the pool they started with. If the
+ * loading fails (ex.: the LOTL cannot be loaded, no certificate is found) the last good snapshot is kept.
+ * <p/>
+ * The refresh can be scheduled with {@link #startScheduledRefresh(long)}: the trusted lists are checked periodically and at their nextUpdate date,
+ * and they are reloaded when {@link TrustedListsCertificateSource#isRefreshNeeded()} (.sha2 file, nextUpdate) requires it. The
+ * {@code TSLRefreshPolicy.WHEN_NECESSARY} policy should be used: with the default policy the trusted lists are reloaded at each check.
  */
 
 public class ReloadableTrustedListCertificateSource extends TrustedListsCertificateSource {
 
     private static final Logger LOG = LoggerFactory.getLogger(ReloadableTrustedListCertificateSource.class);
 
-    private TrustedListsCertificateSource currentSource = new TrustedListsCertificateSource();
+    private volatile TrustedListsCertificateSource currentSource = new TrustedListsCertificateSource();
+
+    /**
+     * Indicates if a snapshot was published.
+     */
+    private volatile boolean loaded;
+
+    /**
+     * Only one loading at a time.
+     */
+    private final Object reloadLock = new Object();
+
+    private transient ScheduledExecutorService scheduler;
+
+    private long checkInterval;
 
     public ReloadableTrustedListCertificateSource() {
 
@@ -51,9 +78,9 @@ public class ReloadableTrustedListCertificateSource extends TrustedListsCertific
 
     static class Reloader implements Runnable {
 
-        private TrustedListsCertificateSource underlyingSource;
+        private ReloadableTrustedListCertificateSource underlyingSource;
 
-        Reloader(final TrustedListsCertificateSource underlyingSource) {
+        Reloader(final ReloadableTrustedListCertificateSource underlyingSource) {
 
             this.underlyingSource = underlyingSource;
         }
@@ -61,33 +88,166 @@ public class ReloadableTrustedListCertificateSource extends TrustedListsCertific
         @Override
         public void run() {
 
+            LOG.info("--> run(): START LOADING");
+            underlyingSource.reload();
+            LOG.info("--> run(): END LOADING");
+        }
+    }
+
+    /**
+     * This method loads the trusted lists in the background. The current snapshot is used until the new one is completely loaded.
+     */
+    public void refresh() {
+
+        final Reloader target = new Reloader(this);
+        final Thread reloader = new Thread(target);
+        LOG.debug("--> refresh(): START");
+        reloader.start();
+        LOG.debug("--> refresh(): END");
+    }
+
+    /**
+     * This method loads synchronously the trusted lists.
+     *
+     * @throws DSSException if the trusted lists cannot be loaded, the last good snapshot is kept
+     */
+    @Override
+    public void init() {
+
+        if (!reload()) {
+            throw new DSSException("The trusted lists cannot be loaded, the last good snapshot is kept.");
+        }
+    }
+
+    /**
+     * This method loads the trusted lists in a new snapshot and publishes it if the loading succeeds. The first loading can restore the trust state
+     * from the snapshot file (see {@link #setSnapshotFile(java.io.File)}): in this case a full loading is started in the background to check it.
+     *
+     * @return {@code true} if the new snapshot is published
+     */
+    public boolean reload() {
+
+        synchronized (reloadLock) {
+
+            final TrustedListsCertificateSource newSource = new TrustedListsCertificateSource(this);
             try {
 
-                LOG.info("--> run(): START LOADING");
-                underlyingSource.init();
-                LOG.info("--> run(): END LOADING");
+                // The first loading can restore the snapshot file.
+                newSource.load(!loaded);
+            } catch (Exception e) {
+
+                LOG.error("The trusted lists cannot be loaded, the last good snapshot is kept: " + e.getMessage(), e);
+                return false;
+            }
+            final int numberOfCertificates = newSource.getCertificatePool().getNumberOfCertificates();
+            if (numberOfCertificates == 0) {
+
+                LOG.error("No trusted certificate loaded, the last good snapshot is kept.");
+                return false;
+            }
+            currentSource = newSource;
+            loaded = true;
+            // The new .sha2 hash values are saved only now: if the loading fails, the next check still sees the changed trusted lists.
+            newSource.saveTSLHashCodes();
+            LOG.info("New trusted lists snapshot published: {} certificates", numberOfCertificates);
+            if (newSource.isLoadedFromSnapshot()) {
+
+                LOG.info("The trust state was restored from the snapshot file, the trusted lists are loaded in the background to check it");
+                refresh();
+            }
+            return true;
+        }
+    }
+
+    /**
+     * This method schedules the refresh of the trusted lists: they are checked every {@code checkInterval} milliseconds and at the earliest nextUpdate
+     * date of the current snapshot. If no snapshot is published, the trusted lists are loaded immediately.
+     *
+     * @param checkInterval the maximum delay between two checks in milliseconds
+     */
+    public synchronized void startScheduledRefresh(final long checkInterval) {
+
+        stopScheduledRefresh();
+        this.checkInterval = checkInterval;
+        scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+            @Override
+            public Thread newThread(final Runnable runnable) {
+
+                final Thread thread = new Thread(runnable, "TSL-refresh");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        scheduler.execute(new Runnable() {
+
+            @Override
+            public void run() {
+                checkAndReload();
+            }
+        });
+    }
+
+    /**
+     * This method cancels the scheduled refresh. A loading in progress is interrupted, the current snapshot is kept.
+     */
+    public synchronized void stopScheduledRefresh() {
+
+        if (scheduler != null) {
+
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    private void checkAndReload() {
+
+        try {
 
-            } catch (DSSEncodingException e) {
-                makeATrace(e);
+            if (!loaded || currentSource.isRefreshNeeded()) {
+                reload();
             }
+        } catch (Exception e) {
+            LOG.error("The refresh of the trusted lists failed: " + e.getMessage(), e);
+        } finally {
+            scheduleNextCheck();
         }
+    }
+
+    private synchronized void scheduleNextCheck() {
 
-        private static void makeATrace(final Exception e) {
+        if (scheduler == null || scheduler.isShutdown()) {
+            return;
+        }
+        long delay = checkInterval;
+        final Date nextUpdate = currentSource.getNextUpdate();
+        if (nextUpdate != null) {
 
-            LOG.error(e.getMessage(), e);
+            final long untilNextUpdate = nextUpdate.getTime() - System.currentTimeMillis();
+            if (untilNextUpdate > 0 && untilNextUpdate < delay) {
+                delay = untilNextUpdate;
+            }
         }
+        LOG.debug("Next check of the trusted lists in {} ms", delay);
+        scheduler.schedule(new Runnable() {
+
+            @Override
+            public void run() {
+                checkAndReload();
+            }
+        }, delay, TimeUnit.MILLISECONDS);
     }
 
-    public synchronized void refresh() {
+    @Override
+    public boolean isRefreshNeeded() {
+
+        return currentSource.isRefreshNeeded();
+    }
 
-        final TrustedListsCertificateSource newSource = new TrustedListsCertificateSource(this);
-	    final Reloader target = new Reloader(newSource);
-	    final Thread reloader = new Thread(target);
-        LOG.debug("--> refresh(): START");
-        reloader.start();
-        LOG.debug("--> refresh(): END");
+    @Override
+    public Date getNextUpdate() {
 
-        currentSource = newSource;
+        return currentSource.getNextUpdate();
     }
 
     public Map<String, String> getDiagnosticInfo() {
@@ -111,4 +271,10 @@ public class ReloadableTrustedListCertificateSource extends TrustedListsCertific
 
         return currentSource.getCertificatePool().getCertificateTokens();
     }
+
+    @Override
+    public List<CertificateToken> get(final X500Principal x500Principal) {
+
+        return currentSource.getCertificatePool().get(x500Principal);
+    }
 }
@@ -0,0 +1,337 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * <p/>
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * <p/>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p/>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.tsl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+
+import eu.europa.esig.dss.x509.CertificateToken;
+
+/**
+ * This class is the binary snapshot of the trust state resolved by {@code TrustedListsCertificateSource}: the trusted certificates with their
+ * {@code ServiceInfo} (current and historical services, qualifiers and conditions) and, for each loaded trusted list, the hash value of its .sha2 file
+ * and its nextUpdate date. It allows to restore the certificate pool at startup without parsing and verifying the trusted lists again.
+ * <p/>
+ * The certificates are kept in their encoded form, the {@code ServiceInfo} objects are serialized. The content is authenticated with an HMAC-SHA256
+ * computed with a secret key which is not stored in the file: a snapshot is deserialized only if its HMAC is verified, and then only the classes of
+ * the trust state can be deserialized. The file is written in a temporary file which is then renamed.
+ */
+final class TSLSnapshot {
+
+	/**
+	 * The version of the format, the snapshots written with another version are ignored.
+	 */
+	private static final int FORMAT_VERSION = 2;
+
+	private static final int MAGIC = 0x54534c53;
+
+	private static final String MAC_ALGORITHM = "HmacSHA256";
+
+	/**
+	 * The classes which can be deserialized from a snapshot, the classes of the package of {@code ServiceInfo} are also accepted.
+	 */
+	private static final Set<String> SERIALIZABLE_CLASSES = new HashSet<String>(Arrays.asList(String.class.getName(), Date.class.getName(),
+			HashMap.class.getName(), ArrayList.class.getName(), Enum.class.getName(), Boolean.class.getName(), Number.class.getName(),
+			Integer.class.getName()));
+
+	private String lotlUrl;
+
+	private boolean checkSignature;
+
+	private Date creationDate;
+
+	/**
+	 * The hash value of the .sha2 file of each trusted list, the key is the URL.
+	 */
+	private final Map<String, String> tslHashes = new HashMap<String, String>();
+
+	/**
+	 * The nextUpdate date of each trusted list, the key is the URL.
+	 */
+	private final Map<String, Date> nextUpdates = new HashMap<String, Date>();
+
+	private final Map<String, String> diagnosticInfo = new HashMap<String, String>();
+
+	private final List<byte[]> certificates = new ArrayList<byte[]>();
+
+	private final List<List<ServiceInfo>> services = new ArrayList<List<ServiceInfo>>();
+
+	TSLSnapshot(final String lotlUrl, final boolean checkSignature) {
+
+		this.lotlUrl = lotlUrl;
+		this.checkSignature = checkSignature;
+		this.creationDate = new Date();
+	}
+
+	private TSLSnapshot() {
+	}
+
+	/**
+	 * @param url        of the trusted list
+	 * @param hash       the hash value of the .sha2 file of the trusted list, {@code null} if unknown
+	 * @param nextUpdate the nextUpdate date of the trusted list, {@code null} if unknown
+	 */
+	void addTrustedList(final String url, final String hash, final Date nextUpdate) {
+
+		tslHashes.put(url, hash);
+		nextUpdates.put(url, nextUpdate);
+	}
+
+	void addCertificate(final CertificateToken certificateToken, final List<ServiceInfo> serviceInfos) {
+
+		certificates.add(certificateToken.getEncoded());
+		services.add(new ArrayList<ServiceInfo>(serviceInfos));
+	}
+
+	void setDiagnosticInfo(final Map<String, String> diagnosticInfo) {
+
+		this.diagnosticInfo.clear();
+		this.diagnosticInfo.putAll(diagnosticInfo);
+	}
+
+	String getLotlUrl() {
+		return lotlUrl;
+	}
+
+	boolean isCheckSignature() {
+		return checkSignature;
+	}
+
+	Date getCreationDate() {
+		return creationDate;
+	}
+
+	Map<String, String> getTslHashes() {
+		return tslHashes;
+	}
+
+	Map<String, Date> getNextUpdates() {
+		return nextUpdates;
+	}
+
+	Map<String, String> getDiagnosticInfo() {
+		return diagnosticInfo;
+	}
+
+	int getNumberOfCertificates() {
+		return certificates.size();
+	}
+
+	byte[] getCertificate(final int index) {
+		return certificates.get(index);
+	}
+
+	List<ServiceInfo> getServiceInfos(final int index) {
+		return services.get(index);
+	}
+
+	/**
+	 * This method writes the snapshot. The content is written in a temporary file of the same folder which replaces then the given file, so a reader
+	 * never sees a partially written snapshot.
+	 *
+	 * @param file the snapshot file
+	 * @param key  the secret key of the HMAC of the snapshot
+	 * @throws IOException if the snapshot cannot be written
+	 */
+	void write(final File file, final byte[] key) throws IOException {
+
+		final ByteArrayOutputStream content = new ByteArrayOutputStream();
+		final ObjectOutputStream out = new ObjectOutputStream(content);
+		out.writeObject(lotlUrl);
+		out.writeBoolean(checkSignature);
+		out.writeLong(creationDate.getTime());
+		out.writeInt(tslHashes.size());
+		for (final Map.Entry<String, String> entry : tslHashes.entrySet()) {
+
+			final Date nextUpdate = nextUpdates.get(entry.getKey());
+			out.writeUTF(entry.getKey());
+			out.writeObject(entry.getValue());
+			out.writeLong(nextUpdate == null ? -1 : nextUpdate.getTime());
+		}
+		out.writeObject(new HashMap<String, String>(diagnosticInfo));
+		out.writeInt(certificates.size());
+		for (int ii = 0; ii < certificates.size(); ii++) {
+
+			final byte[] encoded = certificates.get(ii);
+			out.writeInt(encoded.length);
+			out.write(encoded);
+			final List<ServiceInfo> serviceInfos = services.get(ii);
+			out.writeInt(serviceInfos.size());
+			for (final ServiceInfo serviceInfo : serviceInfos) {
+				out.writeObject(serviceInfo);
+			}
+		}
+		out.close();
+		final byte[] contentBytes = content.toByteArray();
+
+		final File tmpFile = new File(file.getPath() + ".tmp");
+		DataOutputStream dataOutputStream = null;
+		try {
+
+			dataOutputStream = new DataOutputStream(new FileOutputStream(tmpFile));
+			dataOutputStream.writeInt(MAGIC);
+			dataOutputStream.writeInt(FORMAT_VERSION);
+			final byte[] mac = computeMac(key, contentBytes);
+			dataOutputStream.writeInt(mac.length);
+			dataOutputStream.write(mac);
+			dataOutputStream.write(contentBytes);
+			dataOutputStream.close();
+			dataOutputStream = null;
+			if (file.exists() && !file.delete()) {
+				throw new IOException("Impossible to replace: " + file.getAbsolutePath());
+			}
+			if (!tmpFile.renameTo(file)) {
+				throw new IOException("Impossible to rename " + tmpFile.getAbsolutePath() + " to " + file.getAbsolutePath());
+			}
+		} finally {
+
+			IOUtils.closeQuietly(dataOutputStream);
+			if (tmpFile.exists()) {
+				tmpFile.delete();
+			}
+		}
+	}
+
+	/**
+	 * This method reads a snapshot written by {@link #write(File, byte[])}. Nothing is deserialized before the HMAC of the content is verified.
+	 *
+	 * @param file the snapshot file
+	 * @param key  the secret key of the HMAC of the snapshot
+	 * @return the read snapshot
+	 * @throws IOException if the file cannot be read, was not written with the current format or with the given key
+	 */
+	@SuppressWarnings("unchecked")
+	static TSLSnapshot read(final File file, final byte[] key) throws IOException {
+
+		final byte[] bytes = FileUtils.readFileToByteArray(file);
+		final DataInputStream dataInputStream = new DataInputStream(new ByteArrayInputStream(bytes));
+		if (bytes.length < 12 || dataInputStream.readInt() != MAGIC || dataInputStream.readInt() != FORMAT_VERSION) {
+			throw new IOException("Unknown snapshot format: " + file.getAbsolutePath());
+		}
+		final int macLength = dataInputStream.readInt();
+		if (macLength < 0 || macLength > bytes.length - 12) {
+			throw new IOException("Unknown snapshot format: " + file.getAbsolutePath());
+		}
+		final byte[] mac = new byte[macLength];
+		dataInputStream.readFully(mac);
+		final int contentOffset = 12 + macLength;
+		final byte[] contentBytes = Arrays.copyOfRange(bytes, contentOffset, bytes.length);
+		if (!MessageDigest.isEqual(mac, computeMac(key, contentBytes))) {
+			throw new IOException("The snapshot is not authentic: " + file.getAbsolutePath());
+		}
+		final ObjectInputStream in = new SnapshotObjectInputStream(new ByteArrayInputStream(contentBytes));
+		try {
+
+			final TSLSnapshot snapshot = new TSLSnapshot();
+			snapshot.lotlUrl = (String) in.readObject();
+			snapshot.checkSignature = in.readBoolean();
+			snapshot.creationDate = new Date(in.readLong());
+			final int numberOfTrustedLists = in.readInt();
+			for (int ii = 0; ii < numberOfTrustedLists; ii++) {
+
+				final String url = in.readUTF();
+				final String hash = (String) in.readObject();
+				final long nextUpdate = in.readLong();
+				snapshot.addTrustedList(url, hash, nextUpdate == -1 ? null : new Date(nextUpdate));
+			}
+			snapshot.diagnosticInfo.putAll((Map<String, String>) in.readObject());
+			final int numberOfCertificates = in.readInt();
+			for (int ii = 0; ii < numberOfCertificates; ii++) {
+
+				final byte[] encoded = new byte[in.readInt()];
+				in.readFully(encoded);
+				final int numberOfServices = in.readInt();
+				final List<ServiceInfo> serviceInfos = new ArrayList<ServiceInfo>(numberOfServices);
+				for (int jj = 0; jj < numberOfServices; jj++) {
+					serviceInfos.add((ServiceInfo) in.readObject());
+				}
+				snapshot.certificates.add(encoded);
+				snapshot.services.add(serviceInfos);
+			}
+			return snapshot;
+		} catch (ClassNotFoundException e) {
+			throw new InvalidClassException(e.getMessage());
+		} finally {
+			IOUtils.closeQuietly(in);
+		}
+	}
+
+	private static byte[] computeMac(final byte[] key, final byte[] content) throws IOException {
+
+		try {
+
+			final Mac mac = Mac.getInstance(MAC_ALGORITHM);
+			mac.init(new SecretKeySpec(key, MAC_ALGORITHM));
+			return mac.doFinal(content);
+		} catch (GeneralSecurityException e) {
+			throw new IOException("The HMAC of the snapshot cannot be computed: " + e.getMessage());
+		} catch (IllegalArgumentException e) {
+			throw new IOException("The HMAC of the snapshot cannot be computed: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * {@code ObjectInputStream} which only accepts the classes of the trust state.
+	 */
+	private static class SnapshotObjectInputStream extends ObjectInputStream {
+
+		SnapshotObjectInputStream(final InputStream inputStream) throws IOException {
+			super(inputStream);
+		}
+
+		@Override
+		protected Class<?> resolveClass(final ObjectStreamClass objectStreamClass) throws IOException, ClassNotFoundException {
+
+			final String className = objectStreamClass.getName();
+			final String packageName = className.substring(0, Math.max(className.lastIndexOf('.'), 0));
+			if (!SERIALIZABLE_CLASSES.contains(className) && !packageName.equals(ServiceInfo.class.getPackage().getName())) {
+				throw new InvalidClassException(className, "Class not allowed in a TSL snapshot");
+			}
+			return super.resolveClass(objectStreamClass);
+		}
+	}
+}
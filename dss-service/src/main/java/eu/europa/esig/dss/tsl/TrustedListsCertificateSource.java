@@ -22,6 +22,7 @@ package eu.europa.esig.dss.tsl;
 
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.security.Security;
@@ -32,6 +33,13 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import javax.security.auth.x500.X500Principal;
 
@@ -78,6 +86,16 @@ public class TrustedListsCertificateSource extends CommonTrustedCertificateSourc
 	public static final String TSL_HASH_PROPERTIES = "tsl_hash.properties";
 	public static final String TSL_NEXT_UPDATE_PROPERTIES = "tsl_next_update.properties";
 
+	/**
+	 * The default number of trusted lists loaded concurrently.
+	 */
+	public static final int DEFAULT_TSL_LOADING_THREAD_NUMBER = 8;
+
+	/**
+	 * The default maximum duration of the loading of one trusted list in milliseconds.
+	 */
+	public static final long DEFAULT_TSL_LOADING_TIMEOUT = 60000;
+
 	private File tslPropertyCacheFolder = new File(System.getProperty("java.io.tmpdir"));
 	private Properties tslHashes = null;
 	private Properties tslNextUpdates = null;
@@ -90,7 +108,41 @@ public class TrustedListsCertificateSource extends CommonTrustedCertificateSourc
 
 	protected transient DataLoader dataLoader;
 
-	private Map<String, String> diagnosticInfo = new HashMap<String, String>();
+	private Map<String, String> diagnosticInfo = Collections.synchronizedMap(new HashMap<String, String>());
+
+	/**
+	 * The number of trusted lists loaded concurrently: 1 means that the trusted lists are loaded one after another.
+	 */
+	protected int tslLoadingThreadNumber = DEFAULT_TSL_LOADING_THREAD_NUMBER;
+
+	/**
+	 * The maximum duration of the loading (download, verification of the signature and retrieval of the certificates) of one trusted list in
+	 * milliseconds. It is taken into account when the trusted lists are loaded concurrently.
+	 */
+	protected long tslLoadingTimeout = DEFAULT_TSL_LOADING_TIMEOUT;
+
+	/**
+	 * The nextUpdate date of each loaded trusted list (LOTL included), the key is the URL.
+	 */
+	private final Map<String, Date> loadedNextUpdates = Collections.synchronizedMap(new HashMap<String, Date>());
+
+	/**
+	 * The .sha2 hash value of each trusted list downloaded by the current loading, the key is the URL. They are saved in the hash property file only
+	 * when the loaded trust state is published (see {@link #saveTSLHashCodes()}): a failed loading does not hide the changes of the trusted lists.
+	 */
+	private final Map<String, String> downloadedTslHashes = Collections.synchronizedMap(new HashMap<String, String>());
+
+	/**
+	 * The file of the binary snapshot of the loaded trust state, {@code null} if the snapshot is not used.
+	 */
+	protected File snapshotFile;
+
+	/**
+	 * The secret key of the HMAC which authenticates the snapshot, {@code null} if the snapshot is not used.
+	 */
+	protected byte[] snapshotKey;
+
+	private boolean loadedFromSnapshot;
 
 	/**
 	 * Defines if the TL signature must be checked. The default value is true.
@@ -124,6 +176,10 @@ public class TrustedListsCertificateSource extends CommonTrustedCertificateSourc
 		this.setLotlUrl(trustedListsCertificateSource.lotlUrl);
 		this.setTslPropertyCacheFolder(trustedListsCertificateSource.tslPropertyCacheFolder);
 		this.setTslRefreshPolicy(trustedListsCertificateSource.tslRefreshPolicy);
+		this.setTslLoadingThreadNumber(trustedListsCertificateSource.tslLoadingThreadNumber);
+		this.setTslLoadingTimeout(trustedListsCertificateSource.tslLoadingTimeout);
+		this.setSnapshotFile(trustedListsCertificateSource.snapshotFile);
+		this.setSnapshotKey(trustedListsCertificateSource.snapshotKey);
 	}
 
 	@Override
@@ -203,13 +259,15 @@ public class TrustedListsCertificateSource extends CommonTrustedCertificateSourc
 
 	/**
 	 * This method returns the diagnostic data concerning the certificates retrieval process from the trusted lists. It can be used for
-	 * debugging purposes.
+	 * debugging purposes. The loading time of each trusted list is reported.
 	 *
 	 * @return the diagnosticInfo
 	 */
 	public Map<String, String> getDiagnosticInfo() {
 
-		return Collections.unmodifiableMap(diagnosticInfo);
+		synchronized (diagnosticInfo) {
+			return Collections.unmodifiableMap(new HashMap<String, String>(diagnosticInfo));
+		}
 	}
 
 	/**
@@ -294,14 +352,14 @@ public class TrustedListsCertificateSource extends CommonTrustedCertificateSourc
 		return coreValidity;
 	}
 
-	protected void updateTSLHashCode(final String url, final String currentHashValue) {
+	protected synchronized void updateTSLHashCode(final String url, final String currentHashValue) {
 
 		ensureTSLHashCodePropertyFileLoaded();
 		tslHashes.setProperty(url, currentHashValue);
 		saveProperties(tslHashes, TSL_HASH_PROPERTIES);
 	}
 
-	protected String getTSLHashCode(final String url) {
+	protected synchronized String getTSLHashCode(final String url) {
 
 		ensureTSLHashCodePropertyFileLoaded();
 		return tslHashes.getProperty(url);
@@ -313,13 +371,13 @@ public class TrustedListsCertificateSource extends CommonTrustedCertificateSourc
 		}
 	}
 
-	protected String getTSLNextUpdateDate(final String url) {
+	protected synchronized String getTSLNextUpdateDate(final String url) {
 
 		ensureTSLNextUpdatePropertyFileLoaded();
 		return tslNextUpdates.getProperty(url);
 	}
 
-	protected void updateTslNextUpdateDate(final String url, final TrustStatusList tsl) {
+	protected synchronized void updateTslNextUpdateDate(final String url, final TrustStatusList tsl) {
 
 		ensureTSLNextUpdatePropertyFileLoaded();
 		final Date nextUpdate = tsl.getNextUpdate();
@@ -335,6 +393,19 @@ public class TrustedListsCertificateSource extends CommonTrustedCertificateSourc
 
 	private boolean shouldRefresh(final String url) {
 
+		return shouldRefresh(url, true);
+	}
+
+	/**
+	 * @param url
+	 *            of the TSL
+	 * @param updateHashCode
+	 *            indicates if the new hash code of the TSL is kept to be saved when the loaded trust state is published: only when the TSL is
+	 *            downloaded
+	 * @return {@code true} if the TSL must be downloaded again
+	 */
+	private boolean shouldRefresh(final String url, final boolean updateHashCode) {
+
 		if (tslRefreshPolicy == TSLRefreshPolicy.ALWAYS) {
 			return true;
 		}
@@ -353,9 +424,9 @@ public class TrustedListsCertificateSource extends CommonTrustedCertificateSourc
 			}
 			final String hashValue = getTSLHashCode(url);
 			refresh = (hashValue == null) || !currentHashValue.equals(hashValue);
-			if (refresh) {
+			if (refresh && updateHashCode) {
 
-				updateTSLHashCode(url, currentHashValue);
+				downloadedTslHashes.put(url, currentHashValue);
 			}
 		} catch (Exception e) {
 			if (tslRefreshPolicy == TSLRefreshPolicy.WHEN_NECESSARY_OR_INDETERMINATE) {
@@ -393,39 +464,208 @@ public class TrustedListsCertificateSource extends CommonTrustedCertificateSourc
 	}
 
 	/**
-	 * Load the certificates (trust anchors) contained in all the TSL referenced by the LOTL
+	 * Load the certificates (trust anchors) contained in all the TSL referenced by the LOTL. If a snapshot file is defined and its content corresponds to
+	 * the known .sha2 hash values of the trusted lists, the certificates are restored from the snapshot (see {@link #setSnapshotFile(File)}).
 	 */
 	public void init() {
 
+		load(true);
+		saveTSLHashCodes();
+	}
+
+	/**
+	 * Load the certificates (trust anchors) contained in all the TSL referenced by the LOTL. The trusted lists are always downloaded (according to the
+	 * {@code TSLRefreshPolicy}) and verified; the snapshot, if defined, is written.
+	 */
+	public void loadTrustedLists() {
+
+		load(false);
+		saveTSLHashCodes();
+	}
+
+	/**
+	 * This method loads the certificates without saving the .sha2 hash values of the downloaded trusted lists: the caller saves them with
+	 * {@link #saveTSLHashCodes()} once the loaded trust state is published.
+	 *
+	 * @param useSnapshot
+	 *            indicates if the certificates can be restored from the snapshot
+	 */
+	void load(final boolean useSnapshot) {
+
+		if (useSnapshot && isSnapshotUsed() && loadSnapshot()) {
+			return;
+		}
+		loadedFromSnapshot = false;
 		if (logger.isInfoEnabled()) {
 			logger.info("TSL refresh policy: ", tslRefreshPolicy.name());
 			logger.info("TSL property cache folder: ", tslPropertyCacheFolder.getAbsolutePath());
 		}
 
 		diagnosticInfo.clear();
+		loadedNextUpdates.clear();
+		downloadedTslHashes.clear();
 
 		final TrustStatusList lotl = loadLotl();
-		final int size = lotl.getOtherTSLPointers().size();
+		final List<PointerToOtherTSL> otherTSLPointers = lotl.getOtherTSLPointers();
+		final int size = otherTSLPointers.size();
 
-		for (final PointerToOtherTSL pointerToTSL : lotl.getOtherTSLPointers()) {
+		if (tslLoadingThreadNumber > 1 && size > 1) {
+			loadTSLsConcurrently(otherTSLPointers);
+		} else {
 
-			final String url = pointerToTSL.getTslLocation();
-			final String territory = pointerToTSL.getTerritory();
-			final List<CertificateToken> signingCertList = pointerToTSL.getDigitalIdentity();
-			try {
+			for (final PointerToOtherTSL pointerToTSL : otherTSLPointers) {
 
-				loadTSL(url, territory, signingCertList);
-			} catch (DSSException e) {
-				logger.error("Error loading trusted list for {} at {}", new Object[] {
-						territory, url, e
-				});
-			}
+				final String url = pointerToTSL.getTslLocation();
+				final String territory = pointerToTSL.getTerritory();
+				final List<CertificateToken> signingCertList = pointerToTSL.getDigitalIdentity();
+				try {
 
+					loadTSL(url, territory, signingCertList);
+				} catch (DSSException e) {
+					logger.error("Error loading trusted list for {} at {}", new Object[] {
+							territory, url, e
+					});
+				}
+			}
 		}
 
 		loadAdditionalLists();
 		logger.info("Loading completed: {} trusted lists", size);
 		logger.info("                 : {} certificates", certPool.getNumberOfCertificates());
+		if (isSnapshotUsed()) {
+			saveSnapshot();
+		}
+	}
+
+	/**
+	 * This method restores the certificates from the snapshot. The snapshot is used only if it was created for the same LOTL (with the signature check if
+	 * it is required), if its .sha2 hash values are the saved ones and if each trusted list is still fresh: its nextUpdate date is not reached and
+	 * the {@code TSLRefreshPolicy} does not require to download it again (the published .sha2 file is checked).
+	 *
+	 * @return {@code true} if the certificates are restored from the snapshot
+	 */
+	private boolean loadSnapshot() {
+
+		if (!snapshotFile.exists()) {
+			return false;
+		}
+		final long startTime = System.currentTimeMillis();
+		final TSLSnapshot snapshot;
+		try {
+			snapshot = TSLSnapshot.read(snapshotFile, snapshotKey);
+		} catch (Exception e) {
+
+			logger.warn("The TSL snapshot '{}' cannot be read: {}", snapshotFile.getAbsolutePath(), e.getMessage());
+			return false;
+		}
+		if (!StringUtils.equals(lotlUrl, snapshot.getLotlUrl()) || (checkSignature && !snapshot.isCheckSignature())) {
+
+			logger.info("The TSL snapshot '{}' does not correspond to the configuration", snapshotFile.getAbsolutePath());
+			return false;
+		}
+		for (final Map.Entry<String, String> entry : snapshot.getTslHashes().entrySet()) {
+
+			if (!StringUtils.equals(entry.getValue(), getTSLHashCode(entry.getKey()))) {
+
+				logger.info("The TSL snapshot '{}' is obsolete: {} changed", snapshotFile.getAbsolutePath(), entry.getKey());
+				return false;
+			}
+		}
+		final Date now = new Date();
+		for (final Map.Entry<String, Date> entry : snapshot.getNextUpdates().entrySet()) {
+
+			final Date nextUpdate = entry.getValue();
+			if ((nextUpdate != null) && nextUpdate.before(now)) {
+
+				logger.info("The TSL snapshot '{}' is obsolete: the nextUpdate date of {} is reached", snapshotFile.getAbsolutePath(), entry.getKey());
+				return false;
+			}
+			if (shouldRefresh(entry.getKey(), false)) {
+
+				logger.info("The TSL snapshot '{}' is obsolete: {} must be refreshed", snapshotFile.getAbsolutePath(), entry.getKey());
+				return false;
+			}
+		}
+		for (int ii = 0; ii < snapshot.getNumberOfCertificates(); ii++) {
+
+			final CertificateToken certificateToken = DSSUtils.loadCertificate(snapshot.getCertificate(ii));
+			final List<ServiceInfo> serviceInfos = snapshot.getServiceInfos(ii);
+			if (serviceInfos.isEmpty()) {
+				certPool.getInstance(certificateToken, getCertificateSourceType());
+			}
+			for (final ServiceInfo serviceInfo : serviceInfos) {
+				addCertificate(certificateToken, serviceInfo);
+			}
+		}
+		diagnosticInfo.clear();
+		diagnosticInfo.putAll(snapshot.getDiagnosticInfo());
+		loadedNextUpdates.clear();
+		loadedNextUpdates.putAll(snapshot.getNextUpdates());
+		loadedFromSnapshot = true;
+		logger.info("Trusted lists restored from the snapshot of {}: {} certificates in {} ms", new Object[] {
+				snapshot.getCreationDate(), certPool.getNumberOfCertificates(), System.currentTimeMillis() - startTime
+		});
+		return true;
+	}
+
+	/**
+	 * This method saves the .sha2 hash values of the trusted lists downloaded and successfully loaded by the last loading. It must be called once the
+	 * loaded trust state is published.
+	 */
+	void saveTSLHashCodes() {
+
+		synchronized (loadedNextUpdates) {
+
+			for (final String url : loadedNextUpdates.keySet()) {
+
+				final String hashValue = downloadedTslHashes.remove(url);
+				if (hashValue != null) {
+					updateTSLHashCode(url, hashValue);
+				}
+			}
+		}
+		downloadedTslHashes.clear();
+	}
+
+	/**
+	 * @param url
+	 *            of the TSL
+	 * @return the .sha2 hash value of the loaded TSL: the downloaded one if it is not saved yet
+	 */
+	private String getLoadedTSLHashCode(final String url) {
+
+		final String hashValue = downloadedTslHashes.get(url);
+		return hashValue == null ? getTSLHashCode(url) : hashValue;
+	}
+
+	private boolean isSnapshotUsed() {
+
+		if ((snapshotFile != null) && (snapshotKey == null)) {
+			logger.warn("The TSL snapshot '{}' is not used: no snapshot key is defined", snapshotFile.getAbsolutePath());
+		}
+		return (snapshotFile != null) && (snapshotKey != null);
+	}
+
+	private void saveSnapshot() {
+
+		final TSLSnapshot snapshot = new TSLSnapshot(lotlUrl, checkSignature);
+		synchronized (loadedNextUpdates) {
+
+			for (final Map.Entry<String, Date> entry : loadedNextUpdates.entrySet()) {
+				snapshot.addTrustedList(entry.getKey(), getLoadedTSLHashCode(entry.getKey()), entry.getValue());
+			}
+		}
+		snapshot.setDiagnosticInfo(getDiagnosticInfo());
+		for (final CertificateToken certificateToken : certPool.getCertificateTokens()) {
+
+			final List<ServiceInfo> serviceInfos = certificateToken.getAssociatedTSPS();
+			snapshot.addCertificate(certificateToken, serviceInfos == null ? Collections.<ServiceInfo>emptyList() : serviceInfos);
+		}
+		try {
+			snapshot.write(snapshotFile, snapshotKey);
+		} catch (IOException e) {
+			logger.error("Impossible to save: '{}'", snapshotFile.getAbsolutePath(), e);
+		}
 	}
 
 	private TrustStatusList loadLotl() {
@@ -436,6 +676,7 @@ public class TrustedListsCertificateSource extends CommonTrustedCertificateSourc
 			lotlCert = readLOTLCertificate();
 		}
 		TrustStatusList lotl;
+		final long startTime = System.currentTimeMillis();
 		try {
 
 			logger.info("Downloading LOTL from url= {}", lotlUrl);
@@ -447,7 +688,8 @@ public class TrustedListsCertificateSource extends CommonTrustedCertificateSourc
 			logger.error("The LOTL cannot be loaded: " + e.getMessage(), e);
 			throw e;
 		}
-		diagnosticInfo.put(lotlUrl, "Loaded " + new Date().toString());
+		diagnosticInfo.put(lotlUrl, getLoadedInfo(startTime));
+		loadedNextUpdates.put(lotlUrl, lotl.getNextUpdate());
 		return lotl;
 	}
 
@@ -475,6 +717,50 @@ public class TrustedListsCertificateSource extends CommonTrustedCertificateSourc
 		return lotlCert;
 	}
 
+	/**
+	 * This method checks, without downloading them, if one of the trusted lists loaded by {@code #init()} must be refreshed according to the
+	 * {@code TSLRefreshPolicy}: the .sha2 file of the trusted list and its nextUpdate date are checked.
+	 *
+	 * @return {@code true} if {@code #init()} should be called again
+	 */
+	public boolean isRefreshNeeded() {
+
+		final List<String> urls;
+		synchronized (loadedNextUpdates) {
+			urls = new ArrayList<String>(loadedNextUpdates.keySet());
+		}
+		if (urls.isEmpty()) {
+			return true;
+		}
+		for (final String url : urls) {
+
+			if (shouldRefresh(url, false)) {
+
+				logger.info("The trusted list {} must be refreshed", url);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return the earliest nextUpdate date of the loaded trusted lists (LOTL included), {@code null} if unknown
+	 */
+	public Date getNextUpdate() {
+
+		Date earliest = null;
+		synchronized (loadedNextUpdates) {
+
+			for (final Date nextUpdate : loadedNextUpdates.values()) {
+
+				if ((nextUpdate != null) && ((earliest == null) || nextUpdate.before(earliest))) {
+					earliest = nextUpdate;
+				}
+			}
+		}
+		return earliest;
+	}
+
 	/**
 	 * This method gives the possibility to extend this class and to add other trusted lists. It is invoked systematically from {@code #init()} method.
 	 *
@@ -499,28 +785,113 @@ public class TrustedListsCertificateSource extends CommonTrustedCertificateSourc
 			logger.error("The URL is blank!");
 			return;
 		}
-		final String trimmedUrl = url.trim();
+		final TSLLoader tslLoader = new TSLLoader(url.trim(), territory, signingCertList);
 		try {
 
-			diagnosticInfo.put(trimmedUrl, "Loading");
-			logger.info("Downloading TrustStatusList for '{}' from url='{}'", territory, trimmedUrl);
-			final TrustStatusList countryTSL = getTrustStatusList(trimmedUrl, signingCertList);
-			loadAllCertificatesFromOneTSL(countryTSL);
-			logger.info(".... done for '{}'", territory);
-			diagnosticInfo.put(trimmedUrl, "Loaded " + new Date().toString());
+			final TrustStatusList countryTSL = tslLoader.call();
+			mergeTSL(tslLoader, countryTSL);
 		} catch (final Exception e) {
 			logger.error("An error occured while loading url " + url + " : " + e.getMessage(), e);
 			diagnosticInfo.put(url, "Unable to load TSL : " + e.getMessage());
 		}
 	}
 
+	/**
+	 * This method loads the trusted lists concurrently: the download, the verification of the signature and the retrieval of the certificates of each
+	 * trusted list are done by a bounded pool of {@code tslLoadingThreadNumber} threads. The certificates are then added to the pool in the order of the
+	 * LOTL, so the result does not depend on the order of completion. A trusted list which is not loaded within {@code tslLoadingTimeout} is skipped.
+	 *
+	 * @param otherTSLPointers the pointers of the LOTL
+	 */
+	private void loadTSLsConcurrently(final List<PointerToOtherTSL> otherTSLPointers) {
+
+		final List<TSLLoader> tslLoaders = new ArrayList<TSLLoader>();
+		final List<Future<TrustStatusList>> futures = new ArrayList<Future<TrustStatusList>>();
+		final ExecutorService executorService = Executors.newFixedThreadPool(Math.min(tslLoadingThreadNumber, otherTSLPointers.size()));
+		try {
+
+			for (final PointerToOtherTSL pointerToTSL : otherTSLPointers) {
+
+				final String url = pointerToTSL.getTslLocation();
+				if (StringUtils.isBlank(url)) {
+
+					logger.error("The URL is blank!");
+					continue;
+				}
+				final TSLLoader tslLoader = new TSLLoader(url.trim(), pointerToTSL.getTerritory(), pointerToTSL.getDigitalIdentity());
+				tslLoaders.add(tslLoader);
+				futures.add(executorService.submit(tslLoader));
+			}
+			for (int ii = 0; ii < tslLoaders.size(); ii++) {
+
+				final TSLLoader tslLoader = tslLoaders.get(ii);
+				final TrustStatusList countryTSL = waitForTSL(tslLoader, futures.get(ii));
+				if (countryTSL == null) {
+					continue;
+				}
+				try {
+					mergeTSL(tslLoader, countryTSL);
+				} catch (final Exception e) {
+					logger.error("An error occured while loading url " + tslLoader.url + " : " + e.getMessage(), e);
+					diagnosticInfo.put(tslLoader.url, "Unable to load TSL : " + e.getMessage());
+				}
+			}
+		} finally {
+			executorService.shutdownNow();
+		}
+	}
+
+	private TrustStatusList waitForTSL(final TSLLoader tslLoader, final Future<TrustStatusList> future) {
+
+		while (true) {
+
+			try {
+				return future.get(tslLoader.getRemainingTime(), TimeUnit.MILLISECONDS);
+			} catch (TimeoutException e) {
+
+				// The timeout is counted from the beginning of the loading: the loader can wait for a free thread.
+				if (tslLoader.isStarted() && (tslLoader.getRemainingTime() <= 0)) {
+
+					future.cancel(true);
+					logger.error("The loading of url " + tslLoader.url + " exceeded " + tslLoadingTimeout + " ms");
+					diagnosticInfo.put(tslLoader.url, "Unable to load TSL : timeout after " + tslLoadingTimeout + " ms");
+					return null;
+				}
+			} catch (ExecutionException e) {
+
+				final Throwable cause = e.getCause();
+				logger.error("An error occured while loading url " + tslLoader.url + " : " + cause.getMessage(), cause);
+				diagnosticInfo.put(tslLoader.url, "Unable to load TSL : " + cause.getMessage());
+				return null;
+			} catch (InterruptedException e) {
+
+				Thread.currentThread().interrupt();
+				throw new DSSException(e);
+			}
+		}
+	}
+
+	private void mergeTSL(final TSLLoader tslLoader, final TrustStatusList countryTSL) {
+
+		loadAllCertificatesFromOneTSL(countryTSL, tslLoader.certificates);
+		logger.info(".... done for '{}'", tslLoader.territory);
+		diagnosticInfo.put(tslLoader.url, getLoadedInfo(tslLoader.startTime));
+		loadedNextUpdates.put(tslLoader.url, countryTSL.getNextUpdate());
+	}
+
+	private static String getLoadedInfo(final long startTime) {
+		return "Loaded " + new Date().toString() + " in " + (System.currentTimeMillis() - startTime) + " ms";
+	}
+
 	/**
 	 * Adds all the service entries (current and history) of all the providers of the trusted list to the list of
 	 * CertificateSource
 	 *
 	 * @param trustStatusList
+	 * @param certificates
+	 *            the content of the certificate URIs of the trusted list, retrieved by the {@code TSLLoader}
 	 */
-	private void loadAllCertificatesFromOneTSL(final TrustStatusList trustStatusList) {
+	private void loadAllCertificatesFromOneTSL(final TrustStatusList trustStatusList, final Map<String, byte[]> certificates) {
 
 		for (final TrustServiceProvider trustServiceProvider : trustStatusList.getTrustServicesProvider()) {
 
@@ -556,8 +927,7 @@ public class TrustedListsCertificateSource extends CommonTrustedCertificateSourc
 
 				for (String certificateUri : trustService.getCertificateUrls()) {
 					try {
-						logger.debug("Try to load certificate from URI : " + certificateUri);
-						byte[] certBytes = dataLoader.get(certificateUri);
+						byte[] certBytes = certificates.get(certificateUri);
 						if (ArrayUtils.isNotEmpty(certBytes)) {
 							CertificateToken certificateToken = DSSUtils.loadCertificate(certBytes);
 							if (certificateToken != null) {
@@ -583,6 +953,28 @@ public class TrustedListsCertificateSource extends CommonTrustedCertificateSourc
 		this.tslRefreshPolicy = tslRefreshPolicy;
 	}
 
+	/**
+	 * This method allows to set the number of trusted lists loaded concurrently. The default value is {@link #DEFAULT_TSL_LOADING_THREAD_NUMBER}, 1 means
+	 * that the trusted lists are loaded one after another.
+	 *
+	 * @param tslLoadingThreadNumber
+	 *            the number of threads used to load the trusted lists
+	 */
+	public void setTslLoadingThreadNumber(final int tslLoadingThreadNumber) {
+		this.tslLoadingThreadNumber = tslLoadingThreadNumber;
+	}
+
+	/**
+	 * This method allows to set the maximum duration of the loading of one trusted list when the trusted lists are loaded concurrently. The default value
+	 * is {@link #DEFAULT_TSL_LOADING_TIMEOUT}.
+	 *
+	 * @param tslLoadingTimeout
+	 *            the timeout in milliseconds
+	 */
+	public void setTslLoadingTimeout(final long tslLoadingTimeout) {
+		this.tslLoadingTimeout = tslLoadingTimeout;
+	}
+
 	/**
 	 * Defines if the TL signature must be checked.
 	 *
@@ -635,6 +1027,44 @@ public class TrustedListsCertificateSource extends CommonTrustedCertificateSourc
 		this.tslPropertyCacheFolder = tslPropertyCacheFolder;
 	}
 
+	/**
+	 * This method defines the file of the binary snapshot of the trust state. After a successful loading of the trusted lists, the trusted certificates
+	 * and their {@code ServiceInfo} are written in this file. The next call to {@link #init()} restores them from the snapshot if no trusted list must be
+	 * refreshed (.sha2 file and nextUpdate date, according to the {@code TSLRefreshPolicy}): the trusted lists are neither parsed nor verified.
+	 * Otherwise the trusted lists are fully loaded. With the default {@code TSLRefreshPolicy.ALWAYS} the snapshot is never restored.
+	 * <p/>
+	 * The snapshot is used only if a snapshot key is defined (see {@link #setSnapshotKey(byte[])}): its content is authenticated with this key before
+	 * it is deserialized. The signatures of the trusted lists are not verified again when the snapshot is restored: the restored certificates are
+	 * trusted until the next loading of the trusted lists ({@code ReloadableTrustedListCertificateSource} starts it in the background, a plain
+	 * {@code TrustedListsCertificateSource} keeps them until {@link #init()} is called again). The snapshot key must therefore be kept secret and
+	 * separately from the snapshot file.
+	 *
+	 * @param snapshotFile
+	 *            the snapshot file, {@code null} to not use a snapshot
+	 */
+	public void setSnapshotFile(final File snapshotFile) {
+		this.snapshotFile = snapshotFile;
+	}
+
+	/**
+	 * This method defines the secret key of the HMAC-SHA256 which authenticates the snapshot file (see {@link #setSnapshotFile(File)}). The key is not
+	 * stored in the snapshot: it should come from the configuration of the application or from a keystore. A snapshot written with another key is
+	 * ignored.
+	 *
+	 * @param snapshotKey
+	 *            the secret key (32 bytes are recommended), {@code null} to not use a snapshot
+	 */
+	public void setSnapshotKey(final byte[] snapshotKey) {
+		this.snapshotKey = snapshotKey == null ? null : snapshotKey.clone();
+	}
+
+	/**
+	 * @return {@code true} if the certificates were restored from the snapshot by the last call to {@link #init()}
+	 */
+	public boolean isLoadedFromSnapshot() {
+		return loadedFromSnapshot;
+	}
+
 	/**
 	 * @param propertiesFileName
 	 * @return
@@ -670,4 +1100,77 @@ public class TrustedListsCertificateSource extends CommonTrustedCertificateSourc
 		}
 	}
 
+	/**
+	 * This class downloads a trusted list, checks its signature and retrieves the content of its certificate URIs. The certificates are not added to the
+	 * pool: this is done by {@code #mergeTSL} in the order of the LOTL.
+	 */
+	private class TSLLoader implements Callable<TrustStatusList> {
+
+		private final String url;
+
+		private final String territory;
+
+		private final List<CertificateToken> signingCertList;
+
+		/**
+		 * The content of the certificate URIs of the trusted list.
+		 */
+		private final Map<String, byte[]> certificates = new HashMap<String, byte[]>();
+
+		private volatile long startTime;
+
+		TSLLoader(final String url, final String territory, final List<CertificateToken> signingCertList) {
+
+			this.url = url;
+			this.territory = territory;
+			this.signingCertList = signingCertList;
+		}
+
+		@Override
+		public TrustStatusList call() {
+
+			startTime = System.currentTimeMillis();
+			diagnosticInfo.put(url, "Loading");
+			logger.info("Downloading TrustStatusList for '{}' from url='{}'", territory, url);
+			final TrustStatusList trustStatusList = getTrustStatusList(url, signingCertList);
+			for (final TrustServiceProvider trustServiceProvider : trustStatusList.getTrustServicesProvider()) {
+
+				for (final AbstractTrustService trustService : trustServiceProvider.getTrustServiceList()) {
+
+					for (final String certificateUri : trustService.getCertificateUrls()) {
+
+						if (Thread.currentThread().isInterrupted()) {
+							throw new DSSException("The loading of " + url + " was interrupted.");
+						}
+						try {
+
+							logger.debug("Try to load certificate from URI : " + certificateUri);
+							final byte[] certBytes = dataLoader.get(certificateUri);
+							if (ArrayUtils.isNotEmpty(certBytes)) {
+								certificates.put(certificateUri, certBytes);
+							}
+						} catch (DSSException e) {
+							logger.warn("Unable to add certificate '" + certificateUri + "' : " + e.getMessage());
+						}
+					}
+				}
+			}
+			return trustStatusList;
+		}
+
+		boolean isStarted() {
+			return startTime != 0;
+		}
+
+		/**
+		 * @return the remaining time of the loading in milliseconds, the whole timeout if the loading is not started
+		 */
+		long getRemainingTime() {
+
+			if (!isStarted()) {
+				return tslLoadingTimeout;
+			}
+			return startTime + tslLoadingTimeout - System.currentTimeMillis();
+		}
+	}
 }
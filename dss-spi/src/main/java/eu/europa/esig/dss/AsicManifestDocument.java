@@ -25,6 +25,8 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.lang.StringUtils;
@@ -113,10 +115,8 @@ public class AsicManifestDocument extends CommonDocument {
 	}
 
 	@Override
-	public String getDigest(final DigestAlgorithm digestAlgorithm) {
-		final byte[] digestBytes = DSSUtils.digest(digestAlgorithm, bytes);
-		final String base64Encode = Base64.encodeBase64String(digestBytes);
-		return base64Encode;
+	protected Map<DigestAlgorithm, byte[]> computeDigests(final Set<DigestAlgorithm> digestAlgorithms) throws DSSException {
+		return DSSUtils.digest(digestAlgorithms, bytes);
 	}
 
 	@Override
@@ -20,7 +20,15 @@
  */
 package eu.europa.esig.dss;
 
+import java.io.InputStream;
 import java.io.StringWriter;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.io.IOUtils;
 
 /**
  * This class implements the default methods.
@@ -36,6 +44,11 @@ public abstract class CommonDocument implements DSSDocument {
 
 	protected MimeType mimeType;
 
+	/**
+	 * The already computed base64 encoded digest values: the document is read at most once for a given algorithm.
+	 */
+	private final Map<DigestAlgorithm, String> digests = new EnumMap<DigestAlgorithm, String>(DigestAlgorithm.class);
+
 	@Override
 	public MimeType getMimeType() {
 		return mimeType;
@@ -56,6 +69,73 @@ public abstract class CommonDocument implements DSSDocument {
 		this.nextDocument = nextDocument;
 	}
 
+	@Override
+	public String getDigest(final DigestAlgorithm digestAlgorithm) {
+
+		final Map<DigestAlgorithm, String> digestValues = getDigests(digestAlgorithm);
+		return digestValues.get(digestAlgorithm);
+	}
+
+	/**
+	 * This method returns the base64 encoded digest values of the current {@code DSSDocument} for all given algorithms. The document is read only once
+	 * for all the algorithms which were not yet computed.
+	 *
+	 * @param digestAlgorithms the list of {@code DigestAlgorithm}
+	 * @return the map between each {@code DigestAlgorithm} and the base64 encoded digest value
+	 */
+	public Map<DigestAlgorithm, String> getDigests(final DigestAlgorithm... digestAlgorithms) {
+
+		final Map<DigestAlgorithm, String> digestValues = new EnumMap<DigestAlgorithm, String>(DigestAlgorithm.class);
+		synchronized (digests) {
+
+			final Set<DigestAlgorithm> missingDigestAlgorithms = EnumSet.noneOf(DigestAlgorithm.class);
+			for (final DigestAlgorithm digestAlgorithm : digestAlgorithms) {
+				if (!digests.containsKey(digestAlgorithm)) {
+					missingDigestAlgorithms.add(digestAlgorithm);
+				}
+			}
+			if (!missingDigestAlgorithms.isEmpty()) {
+
+				final Map<DigestAlgorithm, byte[]> computedDigests = computeDigests(missingDigestAlgorithms);
+				for (final Map.Entry<DigestAlgorithm, byte[]> entry : computedDigests.entrySet()) {
+					digests.put(entry.getKey(), Base64.encodeBase64String(entry.getValue()));
+				}
+			}
+			for (final DigestAlgorithm digestAlgorithm : digestAlgorithms) {
+				digestValues.put(digestAlgorithm, digests.get(digestAlgorithm));
+			}
+		}
+		return digestValues;
+	}
+
+	/**
+	 * This method forgets the already computed digest values. It must be called when the content of the document changes.
+	 */
+	protected void clearDigests() {
+
+		synchronized (digests) {
+			digests.clear();
+		}
+	}
+
+	/**
+	 * This method computes the digest values of the document in one pass. By default the document is read through {@link #openStream()}.
+	 *
+	 * @param digestAlgorithms
+	 *            the algorithms to use
+	 * @return the digest value of each algorithm
+	 * @throws DSSException
+	 */
+	protected Map<DigestAlgorithm, byte[]> computeDigests(final Set<DigestAlgorithm> digestAlgorithms) throws DSSException {
+
+		final InputStream inputStream = openStream();
+		try {
+			return DSSUtils.digest(digestAlgorithms, inputStream);
+		} finally {
+			IOUtils.closeQuietly(inputStream);
+		}
+	}
+
 	@Override
 	public String toString() {
 
@@ -21,6 +21,7 @@
 package eu.europa.esig.dss;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.security.cert.CertificateParsingException;
 import java.security.cert.X509Certificate;
 import java.text.ParseException;
@@ -52,6 +53,7 @@ import org.bouncycastle.cms.CMSException;
 import org.bouncycastle.cms.CMSProcessableByteArray;
 import org.bouncycastle.cms.CMSSignedData;
 import org.bouncycastle.cms.CMSSignedDataGenerator;
+import org.bouncycastle.cms.CMSTypedData;
 import org.bouncycastle.cms.SignerInformation;
 import org.bouncycastle.jce.provider.X509CertificateObject;
 import org.bouncycastle.tsp.TimeStampToken;
@@ -66,6 +68,11 @@ public final class DSSASN1Utils {
 
 	private static final Logger LOG = LoggerFactory.getLogger(DSSASN1Utils.class);
 
+	/**
+	 * The DER encoding of the OID of the CMS signed-data content type (1.2.840.113549.1.7.2).
+	 */
+	private static final byte[] SIGNED_DATA_OID = new byte[] { 0x06, 0x09, 0x2A, (byte) 0x86, 0x48, (byte) 0x86, (byte) 0xF7, 0x0D, 0x01, 0x07, 0x02 };
+
 	/**
 	 * This class is an utility class and cannot be instantiated.
 	 */
@@ -102,6 +109,43 @@ public final class DSSASN1Utils {
 		return DERNull.INSTANCE.equals(asn1Null);
 	}
 
+	/**
+	 * This method checks if the given document starts like a CMS {@code ContentInfo} of type signed-data. Only the first bytes are read: it allows to discard
+	 * a (possibly huge) document without loading it.
+	 *
+	 * @param document the document to check
+	 * @return true if the document may be a CMS signed-data
+	 * @throws DSSException if the document cannot be read
+	 */
+	public static boolean isCMSSignedDataHeader(final DSSDocument document) throws DSSException {
+
+		final InputStream inputStream = document.openStream();
+		try {
+
+			final byte[] header = new byte[6 + SIGNED_DATA_OID.length];
+			final int length = IOUtils.read(inputStream, header);
+			// SEQUENCE tag, then the length (short, long or indefinite form)
+			if ((length < 2) || (header[0] != 0x30)) {
+				return false;
+			}
+			final int lengthOfLength = (header[1] & 0x80) == 0 ? 0 : header[1] & 0x7F;
+			final int oidOffset = 2 + lengthOfLength;
+			if ((lengthOfLength > 4) || (length < oidOffset + SIGNED_DATA_OID.length)) {
+				return false;
+			}
+			for (int ii = 0; ii < SIGNED_DATA_OID.length; ii++) {
+				if (header[oidOffset + ii] != SIGNED_DATA_OID[ii]) {
+					return false;
+				}
+			}
+			return true;
+		} catch (IOException e) {
+			throw new DSSException(e);
+		} finally {
+			IOUtils.closeQuietly(inputStream);
+		}
+	}
+
 	/**
 	 * This method return DER encoded ASN1 attribute. The {@code IOException} is transformed in {@code DSSException}.
 	 *
@@ -220,7 +264,7 @@ public final class DSSASN1Utils {
 	 * @return
 	 * @throws DSSException
 	 */
-	public static CMSSignedData generateCMSSignedData(final CMSSignedDataGenerator generator, final CMSProcessableByteArray content,
+	public static CMSSignedData generateCMSSignedData(final CMSSignedDataGenerator generator, final CMSTypedData content,
 			final boolean encapsulate) throws DSSException {
 
 		try {
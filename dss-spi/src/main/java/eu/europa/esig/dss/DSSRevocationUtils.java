@@ -148,7 +148,8 @@ public final class DSSRevocationUtils {
 			final CRLReason reason = CRLReason.getInstance(reasonCodeExtension);
 			int intValue = reason.getValue().intValue();
 			return CRLReasonEnum.fromInt(intValue).name();
-		} finally {
+		} catch (Exception e) {
+			// The entry has no (valid) reasonCode extension
 			return CRLReasonEnum.unspecified.name();
 		}
 	}
@@ -54,13 +54,18 @@ import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.StringTokenizer;
 import java.util.TimeZone;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import javax.security.auth.x500.X500Principal;
@@ -90,6 +95,7 @@ import org.bouncycastle.asn1.ocsp.BasicOCSPResponse;
 import org.bouncycastle.asn1.x500.X500Name;
 import org.bouncycastle.asn1.x509.AccessDescription;
 import org.bouncycastle.asn1.x509.AuthorityInformationAccess;
+import org.bouncycastle.asn1.x509.AuthorityKeyIdentifier;
 import org.bouncycastle.asn1.x509.Certificate;
 import org.bouncycastle.asn1.x509.Extension;
 import org.bouncycastle.asn1.x509.GeneralName;
@@ -114,6 +120,7 @@ import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import eu.europa.esig.dss.client.http.AsyncDataLoader;
 import eu.europa.esig.dss.client.http.DataLoader;
 import eu.europa.esig.dss.x509.CertificateToken;
 
@@ -137,6 +144,11 @@ public final class DSSUtils {
 	private static final CertificateFactory certificateFactory;
 	public static final byte[] EMPTY_BYTE_ARRAY = new byte[0];
 
+	/**
+	 * The size of the buffer used to digest an {@code InputStream}
+	 */
+	private static final int DIGEST_BUFFER_SIZE = 64 * 1024;
+
 	public static final String DEFAULT_DATE_TIME_FORMAT = "yyyy-MM-dd'T'HH:mm:ss'Z'";
 
 	/**
@@ -146,6 +158,10 @@ public final class DSSUtils {
 
 	private static JcaDigestCalculatorProviderBuilder jcaDigestCalculatorProviderBuilder;
 
+	private static final MessageDigestPool messageDigestPool = new MessageDigestPool();
+
+	private static final SignaturePool signaturePool = new SignaturePool();
+
 	static {
 
 		try {
@@ -559,31 +575,80 @@ public final class DSSUtils {
 			return null;
 		}
 
-		for (String url : urls) {
-			logger.debug("Loading certificate from {}", url);
+		// With several locations, an asynchronous loader which allows it downloads them at once: the first usable one (in the given order) is taken.
+		final List<Future<byte[]>> futures = startAsyncDownloads(urls, loader);
+		try {
+			for (int ii = 0; ii < urls.size(); ii++) {
 
-			byte[] bytes = loader.get(url);
-			if (ArrayUtils.isNotEmpty(bytes)) {
-				try {
-					logger.debug("Certificate : " + Base64.encodeBase64String(bytes));
+				final String url = urls.get(ii);
+				logger.debug("Loading certificate from {}", url);
 
-					CertificateToken issuerCert = loadCertificate(bytes);
-					if (issuerCert != null) {
-						if (!cert.getIssuerX500Principal().equals(issuerCert.getSubjectX500Principal())) {
-							logger.info("There is AIA extension, but the issuer subject name and subject name does not match.");
-							logger.info("CERT ISSUER    : " + cert.getIssuerX500Principal().toString());
-							logger.info("ISSUER SUBJECT : " + issuerCert.getSubjectX500Principal().toString());
-						}
-						return issuerCert;
-					}
-				} catch (Exception e) {
-					logger.warn("Unable to parse certficate from AIA (url:" + url + ") : " + e.getMessage(), e);
+				final byte[] bytes = futures == null ? loader.get(url) : getDownloadedBytes(futures.get(ii));
+				final CertificateToken issuerCert = loadIssuerCertificate(cert, url, bytes);
+				if (issuerCert != null) {
+					return issuerCert;
+				}
+			}
+		} finally {
+			if (futures != null) {
+				for (final Future<byte[]> future : futures) {
+					future.cancel(true);
 				}
-			} else {
-				logger.error("Unable to read data from {}.", url);
 			}
 		}
+		return null;
+	}
+
+	private static List<Future<byte[]>> startAsyncDownloads(final List<String> urls, final DataLoader loader) {
 
+		if ((urls.size() < 2) || !(loader instanceof AsyncDataLoader) || !((AsyncDataLoader) loader).isConcurrentDownloadEnabled()) {
+			return null;
+		}
+		final List<Future<byte[]>> futures = new ArrayList<Future<byte[]>>();
+		for (final String url : urls) {
+			futures.add(((AsyncDataLoader) loader).getAsync(url));
+		}
+		return futures;
+	}
+
+	private static byte[] getDownloadedBytes(final Future<byte[]> future) throws DSSException {
+
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+
+			Thread.currentThread().interrupt();
+			throw new DSSException(e);
+		} catch (ExecutionException e) {
+
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new DSSException(e.getCause());
+		}
+	}
+
+	private static CertificateToken loadIssuerCertificate(final CertificateToken cert, final String url, final byte[] bytes) {
+
+		if (ArrayUtils.isNotEmpty(bytes)) {
+			try {
+				logger.debug("Certificate : " + Base64.encodeBase64String(bytes));
+
+				CertificateToken issuerCert = loadCertificate(bytes);
+				if (issuerCert != null) {
+					if (!cert.getIssuerX500Principal().equals(issuerCert.getSubjectX500Principal())) {
+						logger.info("There is AIA extension, but the issuer subject name and subject name does not match.");
+						logger.info("CERT ISSUER    : " + cert.getIssuerX500Principal().toString());
+						logger.info("ISSUER SUBJECT : " + issuerCert.getSubjectX500Principal().toString());
+					}
+					return issuerCert;
+				}
+			} catch (Exception e) {
+				logger.warn("Unable to parse certficate from AIA (url:" + url + ") : " + e.getMessage(), e);
+			}
+		} else {
+			logger.error("Unable to read data from {}.", url);
+		}
 		return null;
 	}
 
@@ -607,6 +672,30 @@ public final class DSSUtils {
 		}
 	}
 
+	/**
+	 * This method returns the key identifier of the Authority Key Identifier extension of the certificate or null.
+	 *
+	 * @param certificateToken
+	 *            {@code CertificateToken}
+	 * @return the key identifier of the issuer's public key or null if the extension or the key identifier is missing
+	 */
+	public static byte[] getAki(final CertificateToken certificateToken) {
+
+		final byte[] akiExtensionValue = certificateToken.getCertificate().getExtensionValue(Extension.authorityKeyIdentifier.getId());
+		if (akiExtensionValue == null) {
+			return null;
+		}
+		try {
+
+			final ASN1Sequence asn1Sequence = DSSASN1Utils.getAsn1SequenceFromDerOctetString(akiExtensionValue);
+			final AuthorityKeyIdentifier authorityKeyIdentifier = AuthorityKeyIdentifier.getInstance(asn1Sequence);
+			return authorityKeyIdentifier.getKeyIdentifier();
+		} catch (Exception e) {
+			logger.warn("Unable to parse the authority key identifier of the certificate " + certificateToken.getAbbreviation() + ": " + e.getMessage());
+			return null;
+		}
+	}
+
 	private static List<String> getAccessLocations(final CertificateToken certificate) {
 		final byte[] authInfoAccessExtensionValue = certificate.getCertificate().getExtensionValue(Extension.authorityInfoAccess.getId());
 		if (null == authInfoAccessExtensionValue) {
@@ -744,7 +833,7 @@ public final class DSSUtils {
 	 */
 	public static String getSHA1Digest(final String stringToDigest) {
 
-		final byte[] digest = getMessageDigest(DigestAlgorithm.SHA1).digest(stringToDigest.getBytes());
+		final byte[] digest = digest(DigestAlgorithm.SHA1, stringToDigest.getBytes());
 		return Hex.encodeHexString(digest);
 	}
 
@@ -758,7 +847,7 @@ public final class DSSUtils {
 	public static String getSHA1Digest(final InputStream inputStream) throws IOException {
 
 		final byte[] bytes = IOUtils.toByteArray(inputStream);
-		final byte[] digest = getMessageDigest(DigestAlgorithm.SHA1).digest(bytes);
+		final byte[] digest = digest(DigestAlgorithm.SHA1, bytes);
 		return Hex.encodeHexString(digest);
 	}
 
@@ -807,24 +896,37 @@ public final class DSSUtils {
 	 * @return digested array of bytes
 	 */
 	public static byte[] digest(final DigestAlgorithm digestAlgorithm, final byte[] data) throws DSSException {
-		final MessageDigest messageDigest = getMessageDigest(digestAlgorithm);
+		final MessageDigest messageDigest = messageDigestPool.borrow(digestAlgorithm);
 		final byte[] digestValue = messageDigest.digest(data);
+		messageDigestPool.release(digestAlgorithm, messageDigest);
 		return digestValue;
 	}
 
 	/**
+	 * This method returns a new {@code MessageDigest} which belongs to the caller: it is not borrowed from the pool of the {@code MessageDigest}s and
+	 * must not be released. It is cloned from the prototype kept by the pool (see {@link MessageDigestPool#newInstance(DigestAlgorithm)}), so the
+	 * security providers are not looked up. To reuse the pooled objects, borrow and release them with {@link #getMessageDigestPool()}.
+	 *
 	 * @param digestAlgorithm
 	 * @return
-	 * @throws NoSuchAlgorithmException
+	 * @throws DSSException
 	 */
 	public static MessageDigest getMessageDigest(final DigestAlgorithm digestAlgorithm) {
-		try {
-			final String digestAlgorithmOid = digestAlgorithm.getOid().getId();
-			final MessageDigest messageDigest = MessageDigest.getInstance(digestAlgorithmOid);
-			return messageDigest;
-		} catch (NoSuchAlgorithmException e) {
-			throw new DSSException("Digest algorithm error: " + e.getMessage(), e);
-		}
+		return messageDigestPool.newInstance(digestAlgorithm);
+	}
+
+	/**
+	 * @return the pool of the {@code MessageDigest}s used by the digest methods
+	 */
+	public static MessageDigestPool getMessageDigestPool() {
+		return messageDigestPool;
+	}
+
+	/**
+	 * @return the pool of the {@code Signature}s used by the verification of the certificates
+	 */
+	public static SignaturePool getSignaturePool() {
+		return signaturePool;
 	}
 
 	/**
@@ -838,28 +940,112 @@ public final class DSSUtils {
 	 * @return digested array of bytes
 	 */
 	public static byte[] digest(final DigestAlgorithm digestAlgo, final InputStream inputStream) throws DSSException {
+
+		final Map<DigestAlgorithm, byte[]> digests = digest(Collections.singleton(digestAlgo), inputStream);
+		return digests.get(digestAlgo);
+	}
+
+	/**
+	 * This method digests the data in the {@code InputStream} with all given algorithms in one pass: the stream is read only once.
+	 *
+	 * @param digestAlgorithms
+	 *            the algorithms to use
+	 * @param inputStream
+	 *            the data to digest, the stream is not closed
+	 * @return the digest value of each algorithm
+	 * @throws DSSException
+	 */
+	public static Map<DigestAlgorithm, byte[]> digest(final Collection<DigestAlgorithm> digestAlgorithms, final InputStream inputStream) throws DSSException {
+
+		final List<MessageDigest> messageDigests = getMessageDigests(digestAlgorithms);
 		try {
 
-			final MessageDigest messageDigest = getMessageDigest(digestAlgo);
-			final byte[] buffer = new byte[4096];
+			final byte[] buffer = new byte[DIGEST_BUFFER_SIZE];
 			int count = 0;
-			while ((count = inputStream.read(buffer)) > 0) {
-				messageDigest.update(buffer, 0, count);
+			while ((count = inputStream.read(buffer)) != -1) {
+				for (final MessageDigest messageDigest : messageDigests) {
+					messageDigest.update(buffer, 0, count);
+				}
 			}
-			final byte[] digestValue = messageDigest.digest();
-			return digestValue;
+			return getDigestValues(digestAlgorithms, messageDigests);
+		} catch (IOException e) {
+			throw new DSSException(e);
+		}
+	}
+
+	/**
+	 * This method digests the given array of {@code byte} with all given algorithms.
+	 *
+	 * @param digestAlgorithms
+	 *            the algorithms to use
+	 * @param data
+	 *            the data to digest
+	 * @return the digest value of each algorithm
+	 * @throws DSSException
+	 */
+	public static Map<DigestAlgorithm, byte[]> digest(final Collection<DigestAlgorithm> digestAlgorithms, final byte[] data) throws DSSException {
+
+		final List<MessageDigest> messageDigests = getMessageDigests(digestAlgorithms);
+		for (final MessageDigest messageDigest : messageDigests) {
+			messageDigest.update(data);
+		}
+		return getDigestValues(digestAlgorithms, messageDigests);
+	}
+
+	/**
+	 * This method digests the contents of the file with all given algorithms in one pass: the file is read only once.
+	 *
+	 * @param digestAlgorithms
+	 *            the algorithms to use
+	 * @param file
+	 *            the file to digest
+	 * @return the digest value of each algorithm
+	 * @throws DSSException
+	 */
+	public static Map<DigestAlgorithm, byte[]> digest(final Collection<DigestAlgorithm> digestAlgorithms, final File file) throws DSSException {
+
+		FileInputStream fileInputStream = null;
+		try {
+
+			fileInputStream = openInputStream(file);
+			return digest(digestAlgorithms, fileInputStream);
 		} catch (IOException e) {
 			throw new DSSException(e);
+		} finally {
+			IOUtils.closeQuietly(fileInputStream);
+		}
+	}
+
+	private static List<MessageDigest> getMessageDigests(final Collection<DigestAlgorithm> digestAlgorithms) {
+
+		final List<MessageDigest> messageDigests = new ArrayList<MessageDigest>(digestAlgorithms.size());
+		for (final DigestAlgorithm digestAlgorithm : digestAlgorithms) {
+			messageDigests.add(messageDigestPool.borrow(digestAlgorithm));
+		}
+		return messageDigests;
+	}
+
+	private static Map<DigestAlgorithm, byte[]> getDigestValues(final Collection<DigestAlgorithm> digestAlgorithms, final List<MessageDigest> messageDigests) {
+
+		final Map<DigestAlgorithm, byte[]> digestValues = new EnumMap<DigestAlgorithm, byte[]>(DigestAlgorithm.class);
+		int ii = 0;
+		for (final DigestAlgorithm digestAlgorithm : digestAlgorithms) {
+
+			final MessageDigest messageDigest = messageDigests.get(ii++);
+			digestValues.put(digestAlgorithm, messageDigest.digest());
+			messageDigestPool.release(digestAlgorithm, messageDigest);
 		}
+		return digestValues;
 	}
 
 	public static byte[] digest(DigestAlgorithm digestAlgorithm, byte[]... data) {
-		final MessageDigest messageDigest = getMessageDigest(digestAlgorithm);
+		final MessageDigest messageDigest = messageDigestPool.borrow(digestAlgorithm);
 		for (final byte[] bytes : data) {
 
 			messageDigest.update(bytes);
 		}
 		final byte[] digestValue = messageDigest.digest();
+		messageDigestPool.release(digestAlgorithm, messageDigest);
 		return digestValue;
 	}
 
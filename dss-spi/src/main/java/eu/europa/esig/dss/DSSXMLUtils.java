@@ -41,6 +41,7 @@ import javax.xml.crypto.dsig.dom.DOMValidateContext;
 import javax.xml.datatype.DatatypeConfigurationException;
 import javax.xml.datatype.DatatypeFactory;
 import javax.xml.datatype.XMLGregorianCalendar;
+import javax.xml.namespace.QName;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.OutputKeys;
@@ -57,11 +58,8 @@ import javax.xml.transform.stream.StreamSource;
 import javax.xml.validation.Schema;
 import javax.xml.validation.SchemaFactory;
 import javax.xml.validation.Validator;
-import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
@@ -97,12 +95,15 @@ public final class DSSXMLUtils {
 	public static final String ID_ATTRIBUTE_NAME = "id";
 	public static final String XAD_ESV141_XSD = "/XAdESv141.xsd";
 
-	private static DocumentBuilderFactory dbFactory;
-
-	private static final XPathFactory factory = XPathFactory.newInstance();
+	private static volatile DocumentBuilderFactory dbFactory;
 
 	private static NamespaceContextMap namespacePrefixMapper;
 
+	/**
+	 * The compiled XPath expressions, it is cleared each time a namespace is registered.
+	 */
+	private static final XPathExpressionCache xPathCache;
+
 	private static final Map<String, String> namespaces;
 
 	private static final Set<String> transforms;
@@ -114,6 +115,7 @@ public final class DSSXMLUtils {
 		Init.init();
 
 		namespacePrefixMapper = new NamespaceContextMap();
+		xPathCache = new XPathExpressionCache(namespacePrefixMapper);
 		namespaces = new HashMap<String, String>();
 		registerDefaultNamespaces();
 
@@ -184,6 +186,7 @@ public final class DSSXMLUtils {
 
 		final String put = namespaces.put(prefix, namespace);
 		namespacePrefixMapper.registerNamespace(prefix, namespace);
+		xPathCache.clear();
 		return put == null;
 	}
 
@@ -212,20 +215,22 @@ public final class DSSXMLUtils {
 	}
 
 	/**
+	 * @return the cache of the compiled XPath expressions (gives access to the hit/miss counters)
+	 */
+	public static XPathExpressionCache getXPathExpressionCache() {
+		return xPathCache;
+	}
+
+	/**
+	 * @param xmlNode     The node where the search should be performed.
 	 * @param xpathString XPath query string
-	 * @return
+	 * @param returnType  the expected return type (see {@code XPathConstants})
+	 * @return the result of the evaluation of the compiled (and cached) expression
+	 * @throws XPathExpressionException
 	 */
-	private static XPathExpression createXPathExpression(final String xpathString) {
+	private static Object evaluate(final Node xmlNode, final String xpathString, final QName returnType) throws XPathExpressionException {
 
-		/* XPath */
-		final XPath xpath = factory.newXPath();
-		xpath.setNamespaceContext(namespacePrefixMapper);
-		try {
-			final XPathExpression expr = xpath.compile(xpathString);
-			return expr;
-		} catch (XPathExpressionException ex) {
-			throw new DSSException(ex);
-		}
+		return xPathCache.evaluate(xmlNode, xpathString, returnType);
 	}
 
 	/**
@@ -292,8 +297,7 @@ public final class DSSXMLUtils {
 
 		try {
 
-			final XPathExpression expr = createXPathExpression(xPathString);
-			final NodeList evaluated = (NodeList) expr.evaluate(xmlNode, XPathConstants.NODESET);
+			final NodeList evaluated = (NodeList) evaluate(xmlNode, xPathString, XPathConstants.NODESET);
 			return evaluated;
 		} catch (XPathExpressionException e) {
 
@@ -313,8 +317,7 @@ public final class DSSXMLUtils {
 
 		try {
 
-			final XPathExpression xPathExpression = createXPathExpression(xPathString);
-			final String string = (String) xPathExpression.evaluate(xmlNode, XPathConstants.STRING);
+			final String string = (String) evaluate(xmlNode, xPathString, XPathConstants.STRING);
 			return string.trim();
 		} catch (XPathExpressionException e) {
 
@@ -331,8 +334,7 @@ public final class DSSXMLUtils {
 	 */
 	public static int count(final Node xmlNode, final String xPathString) {
 		try {
-			final XPathExpression xPathExpression = createXPathExpression(xPathString);
-			final Double number = (Double) xPathExpression.evaluate(xmlNode, XPathConstants.NUMBER);
+			final Double number = (Double) evaluate(xmlNode, xPathString, XPathConstants.NUMBER);
 			return number.intValue();
 		} catch (XPathExpressionException e) {
 			throw new DSSException(e);
@@ -427,6 +429,30 @@ public final class DSSXMLUtils {
 		}
 	}
 
+	/**
+	 * The DOM implementation does not guarantee thread safety even for the read-only operations: the parser may defer the
+	 * creation of the nodes until their first access. This method walks the whole tree to force the materialisation of
+	 * every node and attribute, after this call the tree can be read (never modified) by concurrent threads.
+	 *
+	 * @param node the root {@code Node} of the tree to be expanded
+	 */
+	public static void expandAllNodes(final Node node) {
+
+		final NamedNodeMap attributes = node.getAttributes();
+		if (attributes != null) {
+
+			for (int ii = 0; ii < attributes.getLength(); ii++) {
+
+				attributes.item(ii).getNodeValue();
+			}
+		}
+		for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+
+			child.getNodeValue();
+			expandAllNodes(child);
+		}
+	}
+
 	/**
 	 * If this method finds an attribute with names ID (case-insensitive) then it is returned. If there is more than one ID attributes then the first one is returned.
 	 *
@@ -507,17 +533,19 @@ public final class DSSXMLUtils {
 		if (dbFactory != null) {
 			return;
 		}
-		dbFactory = DocumentBuilderFactory.newInstance();
-		dbFactory.setNamespaceAware(true);
+		// The factory is published only once fully configured: DOMs can be built from concurrent validation processes.
+		final DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
+		documentBuilderFactory.setNamespaceAware(true);
 		try {
 			// disable external entities
-			dbFactory.setFeature("http://xml.org/sax/features/external-general-entities", false);
-			dbFactory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
-			dbFactory.setXIncludeAware(false);
-			dbFactory.setExpandEntityReferences(false);
+			documentBuilderFactory.setFeature("http://xml.org/sax/features/external-general-entities", false);
+			documentBuilderFactory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+			documentBuilderFactory.setXIncludeAware(false);
+			documentBuilderFactory.setExpandEntityReferences(false);
 		} catch (ParserConfigurationException e) {
 			throw new DSSException(e);
 		}
+		dbFactory = documentBuilderFactory;
 	}
 
 	public static TransformerFactory getSecureTransformerFactory() {
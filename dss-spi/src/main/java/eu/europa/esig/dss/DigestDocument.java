@@ -22,7 +22,11 @@ package eu.europa.esig.dss;
 
 import java.io.File;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
@@ -83,13 +87,25 @@ public class DigestDocument extends FileDocument {
 	}
 
 	@Override
-	public String getDigest(final DigestAlgorithm digestAlgorithm) {
-		String base64EncodeDigest = base64EncodeDigestMap.get(digestAlgorithm);
-		if (base64EncodeDigest == null) {
-			logger.warn("Inefficient DigestDocument : " + digestAlgorithm + " is missing (use addDigest method)");
-			base64EncodeDigest = super.getDigest(digestAlgorithm);
+	public Map<DigestAlgorithm, String> getDigests(final DigestAlgorithm... digestAlgorithms) {
+
+		final Map<DigestAlgorithm, String> digestValues = new EnumMap<DigestAlgorithm, String>(DigestAlgorithm.class);
+		final List<DigestAlgorithm> missingDigestAlgorithms = new ArrayList<DigestAlgorithm>();
+		for (final DigestAlgorithm digestAlgorithm : digestAlgorithms) {
+
+			final String base64EncodeDigest = base64EncodeDigestMap.get(digestAlgorithm);
+			if (base64EncodeDigest == null) {
+				missingDigestAlgorithms.add(digestAlgorithm);
+			} else {
+				digestValues.put(digestAlgorithm, base64EncodeDigest);
+			}
+		}
+		if (!missingDigestAlgorithms.isEmpty()) {
+
+			logger.warn("Inefficient DigestDocument : " + missingDigestAlgorithms + " is missing (use addDigest method)");
+			digestValues.putAll(super.getDigests(missingDigestAlgorithms.toArray(new DigestAlgorithm[missingDigestAlgorithms.size()])));
 		}
-		return base64EncodeDigest;
+		return digestValues;
 	}
 
 	/**
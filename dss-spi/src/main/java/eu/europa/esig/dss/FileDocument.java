@@ -23,6 +23,8 @@ package eu.europa.esig.dss;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.io.IOUtils;
@@ -35,6 +37,12 @@ public class FileDocument extends CommonDocument {
 
 	private final File file;
 
+	/**
+	 * The last modification time and the length of the file when its digests were memorised
+	 */
+	private volatile long digestedLastModified;
+	private volatile long digestedLength;
+
 	/**
 	 * Create a FileDocument
 	 *
@@ -103,12 +111,22 @@ public class FileDocument extends CommonDocument {
 	}
 
 	@Override
-	public String getDigest(final DigestAlgorithm digestAlgorithm) {
-		final InputStream inputStream = openStream();
-		final byte[] digestBytes = DSSUtils.digest(digestAlgorithm, inputStream);
-		IOUtils.closeQuietly(inputStream);
-		final String base64Encode = Base64.encodeBase64String(digestBytes);
-		return base64Encode;
+	public Map<DigestAlgorithm, String> getDigests(final DigestAlgorithm... digestAlgorithms) {
+
+		final long lastModified = file.lastModified();
+		final long length = file.length();
+		if ((lastModified != digestedLastModified) || (length != digestedLength)) {
+
+			clearDigests();
+			digestedLastModified = lastModified;
+			digestedLength = length;
+		}
+		return super.getDigests(digestAlgorithms);
+	}
+
+	@Override
+	protected Map<DigestAlgorithm, byte[]> computeDigests(final Set<DigestAlgorithm> digestAlgorithms) throws DSSException {
+		return DSSUtils.digest(digestAlgorithms, file);
 	}
 
 	@Override
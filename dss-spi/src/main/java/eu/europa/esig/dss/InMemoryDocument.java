@@ -24,11 +24,14 @@ import java.io.ByteArrayInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.codec.binary.Base64;
 
 /**
- * In memory representation of a document
+ * In memory representation of a document. The array of bytes is not copied: it must not be modified once the document is created, as the digest
+ * values of the document are memorised.
  *
  *
  */
@@ -151,10 +154,8 @@ public class InMemoryDocument extends CommonDocument {
 	}
 
 	@Override
-	public String getDigest(final DigestAlgorithm digestAlgorithm) {
-		final byte[] digestBytes = DSSUtils.digest(digestAlgorithm, bytes);
-		final String base64Encode = Base64.encodeBase64String(digestBytes);
-		return base64Encode;
+	protected Map<DigestAlgorithm, byte[]> computeDigests(final Set<DigestAlgorithm> digestAlgorithms) throws DSSException {
+		return DSSUtils.digest(digestAlgorithms, bytes);
 	}
 
 	@Override
@@ -0,0 +1,171 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * <p/>
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * <p/>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p/>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss;
+
+import java.security.Provider;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class keeps the idle JCA engine objects ({@code MessageDigest}, {@code Signature}...) to avoid the lookup of the security providers at each
+ * cryptographic operation. An object is borrowed by a thread, used and released: it is then reset and can be borrowed by any other thread. The
+ * number of idle objects kept for a given pool key is bounded. An object which was not released (ex.: an exception occurred while it was used) is
+ * simply garbage collected.
+ *
+ * @param <T> the type of the pooled objects
+ */
+public abstract class JCAObjectPool<T> {
+
+	/**
+	 * The default maximum number of idle objects kept for each pool key.
+	 */
+	public static final int DEFAULT_MAX_IDLE = 32;
+
+	private final ConcurrentMap<String, BlockingQueue<T>> idleObjects = new ConcurrentHashMap<String, BlockingQueue<T>>();
+
+	private volatile int maxIdle = DEFAULT_MAX_IDLE;
+
+	private final AtomicLong createdCount = new AtomicLong();
+
+	private final AtomicLong reusedCount = new AtomicLong();
+
+	/**
+	 * This method returns an idle object or creates a new one.
+	 *
+	 * @param poolKey   the key of the pool: the objects with the same key are interchangeable
+	 * @param algorithm the algorithm used to create a new object
+	 * @param provider  the provider used to create a new object, or null to use the preferred provider
+	 * @return an object which can only be used by the current thread until it is released
+	 * @throws DSSException if the object cannot be created
+	 */
+	protected T borrowObject(final String poolKey, final String algorithm, final Provider provider) throws DSSException {
+
+		final BlockingQueue<T> queue = idleObjects.get(poolKey);
+		if (queue != null) {
+
+			final T object = queue.poll();
+			if (object != null) {
+
+				reusedCount.incrementAndGet();
+				return object;
+			}
+		}
+		createdCount.incrementAndGet();
+		return create(algorithm, provider);
+	}
+
+	/**
+	 * This method resets the given object and keeps it for the next borrower. The object must not be used after it is released.
+	 *
+	 * @param poolKey the key used to borrow the object
+	 * @param object  the object to release
+	 */
+	protected void releaseObject(final String poolKey, final T object) {
+
+		if (object == null) {
+			return;
+		}
+		reset(object);
+		BlockingQueue<T> queue = idleObjects.get(poolKey);
+		if (queue == null) {
+
+			final BlockingQueue<T> newQueue = new LinkedBlockingQueue<T>(maxIdle);
+			queue = idleObjects.putIfAbsent(poolKey, newQueue);
+			if (queue == null) {
+				queue = newQueue;
+			}
+		}
+		// the object is dropped if the queue is full
+		queue.offer(object);
+	}
+
+	/**
+	 * This method creates a new object for the given algorithm.
+	 *
+	 * @param algorithm the algorithm of the object
+	 * @param provider  the provider of the object, or null to use the preferred provider
+	 * @return the new object
+	 * @throws DSSException if the algorithm is not supported
+	 */
+	protected abstract T create(final String algorithm, final Provider provider) throws DSSException;
+
+	/**
+	 * This method resets the state of the object before it is kept in the pool.
+	 *
+	 * @param object the object to reset
+	 */
+	protected abstract void reset(final T object);
+
+	/**
+	 * This method discards all the idle objects.
+	 */
+	public void clear() {
+
+		idleObjects.clear();
+	}
+
+	/**
+	 * @return the maximum number of idle objects kept for each pool key
+	 */
+	public int getMaxIdle() {
+		return maxIdle;
+	}
+
+	/**
+	 * @param maxIdle the maximum number of idle objects kept for each pool key
+	 */
+	public void setMaxIdle(final int maxIdle) {
+
+		this.maxIdle = maxIdle;
+		clear();
+	}
+
+	/**
+	 * @return the number of objects which were created because there was no idle object
+	 */
+	public long getCreatedCount() {
+		return createdCount.get();
+	}
+
+	/**
+	 * @return the number of borrowed objects which were reused
+	 */
+	public long getReusedCount() {
+		return reusedCount.get();
+	}
+
+	/**
+	 * This method resets the created and reused counters.
+	 */
+	public void resetCounters() {
+
+		createdCount.set(0);
+		reusedCount.set(0);
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "[created=" + createdCount.get() + ", reused=" + reusedCount.get() + ", maxIdle=" + maxIdle + "]";
+	}
+}
@@ -0,0 +1,104 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * <p/>
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * <p/>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p/>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Provider;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The pool of the {@code MessageDigest} objects. A new object is cloned from a prototype kept for each algorithm: the security providers are only
+ * looked up the first time an algorithm is used. A released {@code MessageDigest} is reset.
+ */
+public class MessageDigestPool extends JCAObjectPool<MessageDigest> {
+
+	/**
+	 * The prototype of each algorithm: a prototype is never used, it is only cloned.
+	 */
+	private final ConcurrentMap<String, MessageDigest> prototypes = new ConcurrentHashMap<String, MessageDigest>();
+
+	/**
+	 * This method returns a {@code MessageDigest} for the given algorithm. It can be released with {@link #release(DigestAlgorithm, MessageDigest)}
+	 * when it is not used anymore.
+	 *
+	 * @param digestAlgorithm the {@code DigestAlgorithm} to use
+	 * @return a {@code MessageDigest} in its initial state
+	 * @throws DSSException if the algorithm is not supported
+	 */
+	public MessageDigest borrow(final DigestAlgorithm digestAlgorithm) throws DSSException {
+
+		final String digestAlgorithmOid = digestAlgorithm.getOid().getId();
+		return borrowObject(digestAlgorithmOid, digestAlgorithmOid, null);
+	}
+
+	/**
+	 * This method gives back the {@code MessageDigest} to the pool. It must not be used anymore by the caller.
+	 *
+	 * @param digestAlgorithm the {@code DigestAlgorithm} used to borrow the {@code MessageDigest}
+	 * @param messageDigest   the {@code MessageDigest} to release
+	 */
+	public void release(final DigestAlgorithm digestAlgorithm, final MessageDigest messageDigest) {
+
+		releaseObject(digestAlgorithm.getOid().getId(), messageDigest);
+	}
+
+	/**
+	 * This method returns a new {@code MessageDigest} for the given algorithm which is not part of the pool: it belongs to the caller and must not be
+	 * released. It is cloned from the prototype of the algorithm.
+	 *
+	 * @param digestAlgorithm the {@code DigestAlgorithm} to use
+	 * @return a new {@code MessageDigest} in its initial state
+	 * @throws DSSException if the algorithm is not supported
+	 */
+	public MessageDigest newInstance(final DigestAlgorithm digestAlgorithm) throws DSSException {
+
+		return create(digestAlgorithm.getOid().getId(), null);
+	}
+
+	@Override
+	protected MessageDigest create(final String algorithm, final Provider provider) throws DSSException {
+
+		try {
+
+			MessageDigest prototype = prototypes.get(algorithm);
+			if (prototype == null) {
+
+				prototype = MessageDigest.getInstance(algorithm);
+				prototypes.putIfAbsent(algorithm, prototype);
+			}
+			try {
+				return (MessageDigest) prototype.clone();
+			} catch (CloneNotSupportedException e) {
+				return MessageDigest.getInstance(algorithm);
+			}
+		} catch (NoSuchAlgorithmException e) {
+			throw new DSSException("Digest algorithm error: " + e.getMessage(), e);
+		}
+	}
+
+	@Override
+	protected void reset(final MessageDigest messageDigest) {
+
+		messageDigest.reset();
+	}
+}
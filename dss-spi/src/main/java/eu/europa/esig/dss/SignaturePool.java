@@ -0,0 +1,89 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * <p/>
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * <p/>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p/>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.Provider;
+import java.security.PublicKey;
+import java.security.Signature;
+
+/**
+ * The pool of the {@code Signature} objects used to verify signatures. A borrowed {@code Signature} must be initialised with {@code initVerify}
+ * before it is used: this resets its state.
+ * <p/>
+ * Only verification objects are pooled: a pooled {@code Signature} keeps a reference to the key it was initialised with and a signing object could
+ * be bound to the session of a token (PKCS#11, MSCAPI). The signing objects are created for each signature.
+ * <p/>
+ * When no provider is given, the provider of a {@code Signature} is chosen when it is initialised for the first time, depending on the key. That is
+ * why the class of the public key is part of the pool key: only the objects initialised with the same kind of key are interchangeable.
+ */
+public class SignaturePool extends JCAObjectPool<Signature> {
+
+	/**
+	 * This method returns a {@code Signature} for the given algorithm and the given kind of public key. It can be released with
+	 * {@link #release(String, Provider, PublicKey, Signature)} when it is not used anymore.
+	 *
+	 * @param javaSignatureAlgorithm the signature algorithm under JAVA form
+	 * @param provider               the provider to use or null to use the preferred provider
+	 * @param publicKey              the public key which will be used to initialise the {@code Signature}
+	 * @return a {@code Signature} which must be initialised with {@code initVerify}
+	 * @throws DSSException if the algorithm is not supported
+	 */
+	public Signature borrow(final String javaSignatureAlgorithm, final Provider provider, final PublicKey publicKey) throws DSSException {
+
+		return borrowObject(getPoolKey(javaSignatureAlgorithm, provider, publicKey), javaSignatureAlgorithm, provider);
+	}
+
+	/**
+	 * This method gives back the {@code Signature} to the pool. It must not be used anymore by the caller.
+	 *
+	 * @param javaSignatureAlgorithm the signature algorithm used to borrow the {@code Signature}
+	 * @param provider               the provider used to borrow the {@code Signature}
+	 * @param publicKey              the public key used to initialise the {@code Signature}
+	 * @param signature              the {@code Signature} to release
+	 */
+	public void release(final String javaSignatureAlgorithm, final Provider provider, final PublicKey publicKey, final Signature signature) {
+
+		releaseObject(getPoolKey(javaSignatureAlgorithm, provider, publicKey), signature);
+	}
+
+	private static String getPoolKey(final String javaSignatureAlgorithm, final Provider provider, final PublicKey publicKey) {
+
+		final String providerName = (provider == null) ? "" : provider.getName();
+		return javaSignatureAlgorithm + "/" + providerName + "/" + publicKey.getClass().getName();
+	}
+
+	@Override
+	protected Signature create(final String algorithm, final Provider provider) throws DSSException {
+
+		try {
+			return (provider == null) ? Signature.getInstance(algorithm) : Signature.getInstance(algorithm, provider);
+		} catch (NoSuchAlgorithmException e) {
+			throw new DSSException("Signature algorithm error: " + e.getMessage(), e);
+		}
+	}
+
+	@Override
+	protected void reset(final Signature signature) {
+
+		// the state of a Signature is reset when it is initialised by the next borrower
+	}
+}
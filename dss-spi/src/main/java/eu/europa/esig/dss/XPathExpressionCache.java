@@ -0,0 +1,290 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.namespace.QName;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import javax.xml.xpath.XPathVariableResolver;
+
+import org.w3c.dom.Node;
+
+/**
+ * This class keeps the compiled XPath expressions to avoid their compilation at each evaluation. The cache is shared by all threads and outlives the
+ * threads which use it. A compiled {@code XPathExpression} is not thread-safe: the cache keeps, for each expression, a pool of compiled instances. An
+ * instance is taken from the pool for the time of one evaluation, so an expression is compiled at most once per thread evaluating it at the same time.
+ * <p/>
+ * An expression can reference variables named {@code $p1}, {@code $p2}... which are bound, at evaluation time, to the values given to
+ * {@link #evaluate(Node, String, QName, Object...)}. This allows to compile only once the parameterised queries.
+ * <p/>
+ * When the maximum number of distinct expressions is reached, the least recently used expression is discarded. The expressions which contain values
+ * specific to a document (ex.: an identifier) should be evaluated with {@link #evaluateOnce(Node, String, QName)}: they are then not kept and do not
+ * evict the frequently used expressions.
+ */
+public class XPathExpressionCache {
+
+	/**
+	 * The default maximum number of distinct expressions kept by the cache.
+	 */
+	public static final int DEFAULT_MAX_SIZE = 1024;
+
+	/**
+	 * The prefix of the name of the variables: the first value is bound to {@code $p1}.
+	 */
+	public static final String VARIABLE_PREFIX = "p";
+
+	private final XPathFactory factory = XPathFactory.newInstance();
+
+	private final NamespaceContext namespaceContext;
+
+	private volatile int maxSize;
+
+	/**
+	 * The pools of compiled instances with the XPath expression as key, in access order. The map is replaced when the cached expressions must be
+	 * discarded (ex.: change of the namespace context): the instances in use are then released to the discarded map.
+	 */
+	private volatile Map<String, Queue<CompiledExpression>> expressions;
+
+	private final AtomicLong hitCount = new AtomicLong();
+
+	private final AtomicLong missCount = new AtomicLong();
+
+	/**
+	 * @param namespaceContext the {@code NamespaceContext} used to compile the expressions
+	 */
+	public XPathExpressionCache(final NamespaceContext namespaceContext) {
+
+		this(namespaceContext, DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * @param namespaceContext the {@code NamespaceContext} used to compile the expressions
+	 * @param maxSize          the maximum number of distinct expressions kept by the cache
+	 */
+	public XPathExpressionCache(final NamespaceContext namespaceContext, final int maxSize) {
+
+		this.namespaceContext = namespaceContext;
+		this.maxSize = maxSize;
+		this.expressions = newExpressionMap(maxSize);
+	}
+
+	/**
+	 * This method evaluates the XPath expression in the context of the given node.
+	 *
+	 * @param node        the context {@code Node}
+	 * @param xPathString the XPath expression, the variables {@code $p1}, {@code $p2}... are bound to the given values
+	 * @param returnType  the expected return type (see {@code XPathConstants})
+	 * @param values      the values of the variables
+	 * @return the result of the evaluation
+	 * @throws XPathExpressionException if the expression cannot be compiled or evaluated
+	 */
+	public Object evaluate(final Node node, final String xPathString, final QName returnType, final Object... values) throws XPathExpressionException {
+
+		final Map<String, Queue<CompiledExpression>> currentExpressions = expressions;
+		Queue<CompiledExpression> pool = currentExpressions.get(xPathString);
+		CompiledExpression compiledExpression = pool == null ? null : pool.poll();
+		if (compiledExpression == null) {
+
+			missCount.incrementAndGet();
+			compiledExpression = compile(xPathString);
+		} else {
+			hitCount.incrementAndGet();
+		}
+		compiledExpression.variables.bind(values);
+		try {
+			return compiledExpression.expression.evaluate(node, returnType);
+		} finally {
+
+			compiledExpression.variables.bind(null);
+			if (pool == null) {
+				pool = getPool(currentExpressions, xPathString);
+			}
+			pool.offer(compiledExpression);
+		}
+	}
+
+	/**
+	 * This method evaluates the XPath expression in the context of the given node without keeping the compiled expression. It must be used for the
+	 * expressions which contain values specific to a document and which are not evaluated again.
+	 *
+	 * @param node        the context {@code Node}
+	 * @param xPathString the XPath expression
+	 * @param returnType  the expected return type (see {@code XPathConstants})
+	 * @return the result of the evaluation
+	 * @throws XPathExpressionException if the expression cannot be compiled or evaluated
+	 */
+	public Object evaluateOnce(final Node node, final String xPathString, final QName returnType) throws XPathExpressionException {
+
+		missCount.incrementAndGet();
+		return compile(xPathString).expression.evaluate(node, returnType);
+	}
+
+	/**
+	 * @return the pool of the given expression, the least recently used expression is discarded if the maximum number of expressions is exceeded
+	 */
+	private Queue<CompiledExpression> getPool(final Map<String, Queue<CompiledExpression>> currentExpressions, final String xPathString) {
+
+		synchronized (currentExpressions) {
+
+			Queue<CompiledExpression> pool = currentExpressions.get(xPathString);
+			if (pool == null) {
+
+				pool = new ConcurrentLinkedQueue<CompiledExpression>();
+				currentExpressions.put(xPathString, pool);
+			}
+			return pool;
+		}
+	}
+
+	private static Map<String, Queue<CompiledExpression>> newExpressionMap(final int maxSize) {
+
+		return Collections.synchronizedMap(new LinkedHashMap<String, Queue<CompiledExpression>>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<String, Queue<CompiledExpression>> eldest) {
+				return size() > maxSize;
+			}
+		});
+	}
+
+	private CompiledExpression compile(final String xPathString) throws XPathExpressionException {
+
+		final XPath xPath;
+		synchronized (factory) {
+			xPath = factory.newXPath();
+		}
+		final VariableBinding variables = new VariableBinding();
+		xPath.setNamespaceContext(namespaceContext);
+		xPath.setXPathVariableResolver(variables);
+		return new CompiledExpression(xPath.compile(xPathString), variables);
+	}
+
+	/**
+	 * This method discards all compiled expressions. It must be called when the namespace context is modified.
+	 */
+	public void clear() {
+
+		expressions = newExpressionMap(maxSize);
+	}
+
+	/**
+	 * @return the maximum number of distinct expressions kept by the cache
+	 */
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * @param maxSize the maximum number of distinct expressions kept by the cache
+	 */
+	public void setMaxSize(final int maxSize) {
+
+		this.maxSize = maxSize;
+		clear();
+	}
+
+	/**
+	 * @return the number of evaluations which used an already compiled expression
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * @return the number of evaluations which needed the compilation of the expression
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * This method resets the hit and miss counters.
+	 */
+	public void resetCounters() {
+
+		hitCount.set(0);
+		missCount.set(0);
+	}
+
+	@Override
+	public String toString() {
+		return "XPathExpressionCache[hits=" + hitCount.get() + ", misses=" + missCount.get() + ", maxSize=" + maxSize + "]";
+	}
+
+	/**
+	 * A compiled expression with the variable resolver it was compiled with.
+	 */
+	private static class CompiledExpression {
+
+		private final XPathExpression expression;
+
+		private final VariableBinding variables;
+
+		private CompiledExpression(final XPathExpression expression, final VariableBinding variables) {
+
+			this.expression = expression;
+			this.variables = variables;
+		}
+	}
+
+	/**
+	 * This {@code XPathVariableResolver} resolves the variables {@code $p1}, {@code $p2}... against the values of the current evaluation.
+	 */
+	private static class VariableBinding implements XPathVariableResolver {
+
+		private Object[] values;
+
+		private void bind(final Object[] values) {
+			this.values = values;
+		}
+
+		@Override
+		public Object resolveVariable(final QName variableName) {
+
+			final String name = variableName.getLocalPart();
+			if (values == null || !name.startsWith(VARIABLE_PREFIX)) {
+				return null;
+			}
+			try {
+
+				final int index = Integer.parseInt(name.substring(VARIABLE_PREFIX.length())) - 1;
+				if (index < 0 || index >= values.length) {
+					return null;
+				}
+				return String.valueOf(values[index]);
+			} catch (NumberFormatException e) {
+				return null;
+			}
+		}
+	}
+}
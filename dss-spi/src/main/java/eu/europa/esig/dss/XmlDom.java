@@ -30,17 +30,16 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
-import javax.xml.xpath.XPath;
+import javax.xml.namespace.QName;
 import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
@@ -63,18 +62,42 @@ public class XmlDom {
 
 	private static final String NS_PREFIX = "dss";
 
-	private static final XPathFactory factory = XPathFactory.newInstance();
-
 	private static final NamespaceContextMap nsContext;
 
 	private static final Map<String, String> namespaces;
 
+	/**
+	 * The compiled XPath expressions.
+	 */
+	private static final XPathExpressionCache xPathCache;
+
+	/**
+	 * The maximum number of normalised XPath queries kept in {@code xPathExpressions} and {@code parameterisedXPathExpressions}.
+	 */
+	private static final int MAX_NORMALISED_QUERIES = 4096;
+
+	/**
+	 * This value indicates that the parameters of the query cannot be bound as XPath variables.
+	 */
+	private static final String NOT_PARAMETERISABLE = "";
+
+	/**
+	 * The XPath expressions (with the namespace prefix) for a given query without parameters.
+	 */
+	private static final Map<String, String> xPathExpressions = new ConcurrentHashMap<String, String>();
+
+	/**
+	 * The XPath expressions (with the namespace prefix and the variables) for a given query with parameters.
+	 */
+	private static final Map<String, String> parameterisedXPathExpressions = new ConcurrentHashMap<String, String>();
+
 	static {
 
 		namespaces = new HashMap<String, String>();
 		namespaces.put(NS_PREFIX, NAMESPACE);
 		nsContext = new NamespaceContextMap();
 		nsContext.registerNamespace(NS_PREFIX, NAMESPACE);
+		xPathCache = new XPathExpressionCache(nsContext);
 	}
 
 	public final Element rootElement;
@@ -92,30 +115,98 @@ public class XmlDom {
 		this.rootElement = element;
 	}
 
-	private static XPathExpression createXPathExpression(final String xpathString) {
+	/**
+	 * @return the cache of the compiled XPath expressions used by all {@code XmlDom} (gives access to the hit/miss counters)
+	 */
+	public static XPathExpressionCache getXPathExpressionCache() {
+		return xPathCache;
+	}
+
+	/**
+	 * This method evaluates the query. When possible, the parameters are bound as XPath variables, in this case the query is compiled only once whatever
+	 * the values of the parameters are. Otherwise the parameters are formatted into the query, which is then specific to the document and is not cached.
+	 *
+	 * @param xmlNode    the context {@code Node}
+	 * @param xPath      the query, the parameters are referenced with the {@code String.format} syntax
+	 * @param returnType the expected return type (see {@code XPathConstants})
+	 * @param params     the parameters of the query
+	 * @return the result of the evaluation
+	 */
+	private static Object evaluate(final Node xmlNode, final String xPath, final QName returnType, final Object... params) {
 
-		final XPath xpath = factory.newXPath();
-		xpath.setNamespaceContext(nsContext);
 		try {
 
-			final XPathExpression expr = xpath.compile(xpathString);
-			return expr;
-		} catch (XPathExpressionException ex) {
+			final String xPathExpression = getXPathExpression(xPath, params);
+			if (xPathExpression != null) {
+				return xPathCache.evaluate(xmlNode, xPathExpression, returnType, params);
+			}
+			return xPathCache.evaluateOnce(xmlNode, format(xPath, params), returnType);
+		} catch (XPathExpressionException e) {
 
-			throw new RuntimeException(ex);
+			throw new RuntimeException(e);
 		}
 	}
 
-	private static NodeList getNodeList(final Node xmlNode, final String xpathString) {
+	private static NodeList getNodeList(final Node xmlNode, final String xPath, final Object... params) {
 
-		try {
+		return (NodeList) evaluate(xmlNode, xPath, XPathConstants.NODESET, params);
+	}
 
-			final XPathExpression expr = createXPathExpression(xpathString);
-			return (NodeList) expr.evaluate(xmlNode, XPathConstants.NODESET);
-		} catch (XPathExpressionException e) {
+	/**
+	 * This method returns the XPath expression corresponding to the query where each quoted parameter ({@code '%s'}) is replaced by a variable ({@code $p1},
+	 * {@code $p2}...) and where the namespace prefix is added. The result is kept for the next calls.
+	 *
+	 * @param xPath  the query
+	 * @param params the parameters of the query
+	 * @return the XPath expression or {@code null} if the parameters cannot be bound as variables (they are then formatted into the query)
+	 */
+	private static String getXPathExpression(final String xPath, final Object... params) {
 
-			throw new RuntimeException(e);
+		final Map<String, String> expressions = params.length > 0 ? parameterisedXPathExpressions : xPathExpressions;
+		String xPathExpression = expressions.get(xPath);
+		if (xPathExpression == null) {
+
+			xPathExpression = params.length > 0 ? bindParameters(xPath, params.length) : addNamespacePrefix(xPath);
+			if (expressions.size() >= MAX_NORMALISED_QUERIES) {
+				expressions.clear();
+			}
+			expressions.put(xPath, xPathExpression);
+		}
+		return NOT_PARAMETERISABLE.equals(xPathExpression) ? null : xPathExpression;
+	}
+
+	/**
+	 * @param xPath      the query
+	 * @param paramCount the number of parameters
+	 * @return the XPath expression with variables and namespace prefix or {@code NOT_PARAMETERISABLE}
+	 */
+	private static String bindParameters(final String xPath, final int paramCount) {
+
+		final StringBuilder stringBuilder = new StringBuilder(xPath.length());
+		int variableIndex = 0;
+		int ii = 0;
+		while (ii < xPath.length()) {
+
+			final char currentChar = xPath.charAt(ii);
+			if (currentChar == '%') {
+
+				final boolean quotedParameter = xPath.startsWith("%s'", ii) && ii > 0 && xPath.charAt(ii - 1) == '\'';
+				if (!quotedParameter) {
+					return NOT_PARAMETERISABLE;
+				}
+				// The opening quote is replaced with the variable.
+				stringBuilder.setLength(stringBuilder.length() - 1);
+				stringBuilder.append('$').append(XPathExpressionCache.VARIABLE_PREFIX).append(++variableIndex);
+				ii += 3;
+				continue;
+			}
+			stringBuilder.append(currentChar);
+			ii++;
 		}
+		if (variableIndex != paramCount) {
+			return NOT_PARAMETERISABLE;
+		}
+		return addNamespacePrefix(stringBuilder.toString());
 	}
 
 	/**
@@ -129,9 +220,7 @@ public class XmlDom {
 
 		try {
 
-			String xPath_ = format(xPath, params);
-
-			NodeList nodeList = getNodeList(rootElement, xPath_);
+			NodeList nodeList = getNodeList(rootElement, xPath, params);
 			List<XmlDom> list = new ArrayList<XmlDom>();
 			for (int ii = 0; ii < nodeList.getLength(); ii++) {
 
@@ -153,9 +242,7 @@ public class XmlDom {
 
 		try {
 
-			String xPath_ = format(xPath, params);
-
-			NodeList nodeList = getNodeList(rootElement, xPath_);
+			NodeList nodeList = getNodeList(rootElement, xPath, params);
 			for (int ii = 0; ii < nodeList.getLength(); ii++) {
 
 				Node node = nodeList.item(ii);
@@ -244,9 +331,7 @@ public class XmlDom {
 	 */
 	public String getValue(final String xPath, final Object... params) {
 
-		String xPath_ = format(xPath, params);
-
-		NodeList nodeList = getNodeList(rootElement, xPath_);
+		NodeList nodeList = getNodeList(rootElement, xPath, params);
 		if (nodeList.getLength() == 1) {
 			Node node = nodeList.item(0);
 			if (node.getNodeType() != Node.ELEMENT_NODE) {
@@ -294,16 +379,8 @@ public class XmlDom {
 
 	public long getCountValue(final String xPath, final Object... params) {
 
-		String xpathString = format(xPath, params);
-		try {
-
-			XPathExpression xPathExpression = createXPathExpression(xpathString);
-			Double number = (Double) xPathExpression.evaluate(rootElement, XPathConstants.NUMBER);
-			return number.intValue();
-		} catch (XPathExpressionException e) {
-
-			throw new RuntimeException(e);
-		}
+		Double number = (Double) evaluate(rootElement, xPath, XPathConstants.NUMBER, params);
+		return number.intValue();
 	}
 
 	public boolean exists(final String xPath, final Object... params) {
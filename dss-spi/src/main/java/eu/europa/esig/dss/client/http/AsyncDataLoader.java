@@ -0,0 +1,66 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * <p/>
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * <p/>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p/>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.client.http;
+
+import java.util.List;
+import java.util.concurrent.Future;
+
+/**
+ * {@code DataLoader} which is also able to retrieve the data without blocking the calling thread. The operations are started at once; the result (or the
+ * {@code DSSException}, wrapped in an {@code ExecutionException}) is obtained through the returned {@code Future}. Cancelling the {@code Future} of a
+ * request which is not yet started removes it from the queue.
+ */
+public interface AsyncDataLoader extends DataLoader {
+
+	/**
+	 * This method indicates if the callers which need several resources (ex.: the AIA locations of a certificate) may request them at once with the
+	 * asynchronous operations. Otherwise they request them one after another, as with a {@code DataLoader}.
+	 *
+	 * @return {@code true} if several resources may be requested at once
+	 */
+	boolean isConcurrentDownloadEnabled();
+
+	/**
+	 * Execute a HTTP GET operation without blocking.
+	 *
+	 * @param url to access
+	 * @return the {@code Future} of the {@code byte} array of obtained data or null
+	 */
+	Future<byte[]> getAsync(final String url);
+
+	/**
+	 * Execute a HTTP GET operation without blocking. This method is used when many URls are available to access the same resource, see
+	 * {@link DataLoader#get(List)}.
+	 *
+	 * @param urlStrings {@code List} of {@code String}s representing the URLs to be used to obtain the data.
+	 * @return the {@code Future} of the {@code DataAndUrl} representing the array of obtained data and used url, or null
+	 */
+	Future<DataAndUrl> getAsync(final List<String> urlStrings);
+
+	/**
+	 * Executes a HTTP POST operation without blocking.
+	 *
+	 * @param url     to access
+	 * @param content
+	 * @return the {@code Future} of the {@code byte} array of obtained data
+	 */
+	Future<byte[]> postAsync(final String url, final byte[] content);
+}
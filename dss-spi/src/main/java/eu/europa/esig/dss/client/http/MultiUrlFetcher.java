@@ -0,0 +1,516 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.client.http;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Serializable;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.client.http.DataLoader.DataAndUrl;
+
+/**
+ * This class implements {@link DataLoader#get(List)}: the same resource is obtained from the first URL which answers.
+ * <p/>
+ * By default the URLs are tried one after another. In the hedged mode (see {@link #setHedgingDelay(long)}) the next URL is requested when the current requests
+ * did not answer within the hedging delay (or at once when they failed); the first successful answer is returned and the other requests are cancelled. With
+ * a delay of {@code 0} all URLs are requested at once. The interruption of a cancelled request does not stop a blocking HTTP exchange: the {@code DataLoader}
+ * registers its connection with {@link #setCurrentConnection(Closeable)} and the connection is closed when the request is cancelled.
+ * <p/>
+ * The latency and the failures of each host are recorded. When {@link #setPrioritizeByStatistics(boolean)} is enabled, the URLs are reordered: the hosts
+ * without recent failure first, then the fastest ones (a cancelled request counts as a latency of at least its duration). The hosts not yet contacted are tried
+ * first, in the given order.
+ */
+public class MultiUrlFetcher implements Serializable {
+
+	private static final Logger LOG = LoggerFactory.getLogger(MultiUrlFetcher.class);
+
+	/**
+	 * The hedging delay which disables the hedged mode: the URLs are tried one after another.
+	 */
+	public static final long SEQUENTIAL = -1;
+
+	/**
+	 * The weight of the last request in the average latency of a host.
+	 */
+	private static final double LATENCY_SMOOTHING_FACTOR = 0.3;
+
+	/**
+	 * The hedged download executed by the current thread.
+	 */
+	private static final ThreadLocal<Download> CURRENT_DOWNLOAD = new ThreadLocal<Download>();
+
+	private long hedgingDelay = SEQUENTIAL;
+
+	private boolean prioritizeByStatistics;
+
+	private transient ConcurrentMap<String, HostStatistics> statistics;
+
+	private transient ExecutorService executorService;
+
+	/**
+	 * @return the hedging delay in milliseconds, {@link #SEQUENTIAL} when the hedged mode is disabled
+	 */
+	public long getHedgingDelay() {
+		return hedgingDelay;
+	}
+
+	/**
+	 * This method sets the delay after which the next URL is requested while the current requests did not answer. {@code 0} requests all URLs at once,
+	 * {@link #SEQUENTIAL} (the default value) disables the hedged mode.
+	 *
+	 * @param hedgingDelay the delay in milliseconds
+	 */
+	public void setHedgingDelay(final long hedgingDelay) {
+		this.hedgingDelay = hedgingDelay;
+	}
+
+	public boolean isPrioritizeByStatistics() {
+		return prioritizeByStatistics;
+	}
+
+	/**
+	 * @param prioritizeByStatistics {@code true} to reorder the URLs according to the recorded failures and latencies of their host
+	 */
+	public void setPrioritizeByStatistics(final boolean prioritizeByStatistics) {
+		this.prioritizeByStatistics = prioritizeByStatistics;
+	}
+
+	/**
+	 * @param host the host name (with the port if it is not the default one)
+	 * @return the statistics of the given host or {@code null} if it was never contacted
+	 */
+	public HostStatistics getHostStatistics(final String host) {
+		return getStatistics().get(host);
+	}
+
+	/**
+	 * This method discards the recorded statistics.
+	 */
+	public void resetStatistics() {
+		getStatistics().clear();
+	}
+
+	/**
+	 * This method registers the connection of the request executed by the calling thread: if the request is a hedged request which is cancelled, the
+	 * connection is closed to stop the blocking I/O. It has no effect when the calling thread does not execute a hedged request.
+	 *
+	 * @param connection the connection to close on cancellation (ex.: an abort of the HTTP request), {@code null} when the exchange is over
+	 */
+	public static void setCurrentConnection(final Closeable connection) {
+
+		final Download download = CURRENT_DOWNLOAD.get();
+		if (download != null) {
+			download.setConnection(connection);
+		}
+	}
+
+	/**
+	 * This method obtains the data from the first URL which answers.
+	 *
+	 * @param dataLoader the {@code DataLoader} used to obtain the data from one URL
+	 * @param urlStrings the URLs of the resource
+	 * @return {@code DataAndUrl} representing the array of obtained data and used url, or null
+	 * @throws DSSException if the last tried URL (or all URLs in the hedged mode) failed
+	 */
+	public DataAndUrl get(final DataLoader dataLoader, final List<String> urlStrings) throws DSSException {
+
+		final List<String> orderedUrls = prioritize(urlStrings);
+		if ((hedgingDelay < 0) || (orderedUrls.size() < 2)) {
+			return getSequentially(dataLoader, orderedUrls);
+		}
+		return getHedged(dataLoader, orderedUrls);
+	}
+
+	/**
+	 * @param urlStrings the URLs of the resource
+	 * @return the URLs in the order they should be tried
+	 */
+	public List<String> prioritize(final List<String> urlStrings) {
+
+		if (!prioritizeByStatistics || (urlStrings.size() < 2)) {
+			return urlStrings;
+		}
+		final List<String> orderedUrls = new ArrayList<String>(urlStrings);
+		// The sort is stable: the hosts not yet contacted keep the given order.
+		Collections.sort(orderedUrls, new Comparator<String>() {
+
+			@Override
+			public int compare(final String url1, final String url2) {
+
+				final HostStatistics statistics1 = getStatistics().get(getHost(url1));
+				final HostStatistics statistics2 = getStatistics().get(getHost(url2));
+				final int failures1 = statistics1 == null ? 0 : statistics1.getConsecutiveFailures();
+				final int failures2 = statistics2 == null ? 0 : statistics2.getConsecutiveFailures();
+				if (failures1 != failures2) {
+					return failures1 < failures2 ? -1 : 1;
+				}
+				final long latency1 = statistics1 == null ? 0 : statistics1.getAverageLatency();
+				final long latency2 = statistics2 == null ? 0 : statistics2.getAverageLatency();
+				return latency1 < latency2 ? -1 : (latency1 == latency2 ? 0 : 1);
+			}
+		});
+		return orderedUrls;
+	}
+
+	private DataAndUrl getSequentially(final DataLoader dataLoader, final List<String> urlStrings) throws DSSException {
+
+		final int numberOfUrls = urlStrings.size();
+		int ii = 0;
+		for (final String urlString : urlStrings) {
+			try {
+
+				ii++;
+				final DataAndUrl dataAndUrl = new Download(dataLoader, urlString, null).call();
+				if (dataAndUrl == null) {
+					continue;
+				}
+				return dataAndUrl;
+			} catch (Exception e) {
+				if (ii == numberOfUrls) {
+					if (e instanceof DSSException) {
+						throw (DSSException) e;
+					}
+					throw new DSSException(e);
+				}
+				LOG.warn("Impossible to obtain data using {}", urlString, e);
+			}
+		}
+		return null;
+	}
+
+	private DataAndUrl getHedged(final DataLoader dataLoader, final List<String> urlStrings) throws DSSException {
+
+		final CompletionService<DataAndUrl> completionService = new ExecutorCompletionService<DataAndUrl>(getExecutorService());
+		final List<Future<DataAndUrl>> futures = new ArrayList<Future<DataAndUrl>>();
+		final List<Download> downloads = new ArrayList<Download>();
+		final AtomicBoolean finished = new AtomicBoolean();
+		final int numberOfUrls = urlStrings.size();
+		int next = 0;
+		int pending = 0;
+		Throwable lastException = null;
+		try {
+
+			do {
+
+				submit(completionService, new Download(dataLoader, urlStrings.get(next++), finished), futures, downloads);
+				pending++;
+			} while ((hedgingDelay == 0) && (next < numberOfUrls));
+			while (pending > 0) {
+
+				final Future<DataAndUrl> future = next < numberOfUrls ? completionService.poll(hedgingDelay, TimeUnit.MILLISECONDS) : completionService.take();
+				if (future == null) {
+
+					LOG.debug("No answer within {} ms, hedging with {}", hedgingDelay, urlStrings.get(next));
+					submit(completionService, new Download(dataLoader, urlStrings.get(next++), finished), futures, downloads);
+					pending++;
+					continue;
+				}
+				pending--;
+				try {
+
+					final DataAndUrl dataAndUrl = future.get();
+					if (dataAndUrl != null) {
+						return dataAndUrl;
+					}
+				} catch (ExecutionException e) {
+
+					lastException = e.getCause();
+					LOG.warn("Impossible to obtain data: {}", lastException.getMessage());
+				}
+				if ((pending == 0) && (next < numberOfUrls)) {
+
+					submit(completionService, new Download(dataLoader, urlStrings.get(next++), finished), futures, downloads);
+					pending++;
+				}
+			}
+		} catch (InterruptedException e) {
+
+			Thread.currentThread().interrupt();
+			throw new DSSException(e);
+		} finally {
+
+			finished.set(true);
+			for (final Download download : downloads) {
+				download.abort();
+			}
+			for (final Future<DataAndUrl> future : futures) {
+				future.cancel(true);
+			}
+		}
+		if (lastException instanceof DSSException) {
+			throw (DSSException) lastException;
+		} else if (lastException != null) {
+			throw new DSSException(lastException);
+		}
+		return null;
+	}
+
+	private static void submit(final CompletionService<DataAndUrl> completionService, final Download download, final List<Future<DataAndUrl>> futures,
+	                           final List<Download> downloads) {
+
+		downloads.add(download);
+		futures.add(completionService.submit(download));
+	}
+
+	private synchronized ExecutorService getExecutorService() {
+
+		if (executorService == null) {
+
+			executorService = Executors.newCachedThreadPool(new ThreadFactory() {
+
+				@Override
+				public Thread newThread(final Runnable runnable) {
+
+					final Thread thread = new Thread(runnable, "MultiUrlFetcher");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		return executorService;
+	}
+
+	private synchronized ConcurrentMap<String, HostStatistics> getStatistics() {
+
+		if (statistics == null) {
+			statistics = new ConcurrentHashMap<String, HostStatistics>();
+		}
+		return statistics;
+	}
+
+	private HostStatistics getOrCreateStatistics(final String host) {
+
+		final ConcurrentMap<String, HostStatistics> statistics = getStatistics();
+		HostStatistics hostStatistics = statistics.get(host);
+		if (hostStatistics == null) {
+
+			final HostStatistics newHostStatistics = new HostStatistics();
+			hostStatistics = statistics.putIfAbsent(host, newHostStatistics);
+			if (hostStatistics == null) {
+				hostStatistics = newHostStatistics;
+			}
+		}
+		return hostStatistics;
+	}
+
+	/**
+	 * @return the host (with the port) of the given URL, the URL itself if it cannot be parsed
+	 */
+	private static String getHost(final String urlString) {
+
+		try {
+
+			final String authority = new URI(urlString.trim()).getAuthority();
+			return authority == null ? urlString : authority.toLowerCase();
+		} catch (Exception e) {
+			return urlString;
+		}
+	}
+
+	/**
+	 * The download of one URL, it records the statistics of the host.
+	 */
+	private class Download implements Callable<DataAndUrl> {
+
+		private final DataLoader dataLoader;
+
+		private final String urlString;
+
+		/**
+		 * Set when the hedged request is over, {@code null} for a sequential request.
+		 */
+		private final AtomicBoolean finished;
+
+		/**
+		 * The connection registered by the {@code DataLoader}, see {@link MultiUrlFetcher#setCurrentConnection(Closeable)}.
+		 */
+		private Closeable connection;
+
+		private boolean aborted;
+
+		Download(final DataLoader dataLoader, final String urlString, final AtomicBoolean finished) {
+
+			this.dataLoader = dataLoader;
+			this.urlString = urlString;
+			this.finished = finished;
+		}
+
+		@Override
+		public DataAndUrl call() throws Exception {
+
+			final HostStatistics hostStatistics = getOrCreateStatistics(getHost(urlString));
+			final long startTime = System.currentTimeMillis();
+			boolean success = false;
+			if (finished != null) {
+				CURRENT_DOWNLOAD.set(this);
+			}
+			try {
+
+				final byte[] bytes = dataLoader.get(urlString);
+				if (bytes == null) {
+					return null;
+				}
+				success = true;
+				return new DataAndUrl(bytes, urlString);
+			} finally {
+
+				if (finished != null) {
+
+					CURRENT_DOWNLOAD.remove();
+					setConnection(null);
+				}
+				final long elapsedTime = System.currentTimeMillis() - startTime;
+				if (success) {
+					hostStatistics.recordSuccess(elapsedTime);
+				} else if ((finished == null) || !finished.get()) {
+					hostStatistics.recordFailure();
+				} else {
+					// Cancelled: the host is not failing but it is at least that slow.
+					hostStatistics.recordCancellation(elapsedTime);
+				}
+			}
+		}
+
+		void setConnection(final Closeable connection) {
+
+			final boolean close;
+			synchronized (this) {
+
+				close = aborted && (connection != null);
+				this.connection = close ? null : connection;
+			}
+			if (close) {
+				close(connection);
+			}
+		}
+
+		/**
+		 * This method closes the registered connection, the connection registered later is closed at once.
+		 */
+		void abort() {
+
+			final Closeable connection;
+			synchronized (this) {
+
+				aborted = true;
+				connection = this.connection;
+				this.connection = null;
+			}
+			if (connection != null) {
+				close(connection);
+			}
+		}
+
+		private void close(final Closeable connection) {
+
+			try {
+				connection.close();
+			} catch (IOException e) {
+				LOG.debug("Impossible to close the connection to {}: {}", urlString, e.getMessage());
+			} catch (RuntimeException e) {
+				LOG.debug("Impossible to close the connection to {}: {}", urlString, e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * The latency and failure statistics of one host.
+	 */
+	public static class HostStatistics {
+
+		private long averageLatency = -1;
+
+		private int consecutiveFailures;
+
+		private long successCount;
+
+		private long failureCount;
+
+		synchronized void recordSuccess(final long latency) {
+
+			averageLatency = averageLatency < 0 ? latency : Math.round(LATENCY_SMOOTHING_FACTOR * latency + (1 - LATENCY_SMOOTHING_FACTOR) * averageLatency);
+			consecutiveFailures = 0;
+			successCount++;
+		}
+
+		synchronized void recordCancellation(final long elapsedTime) {
+
+			if (elapsedTime > averageLatency) {
+				averageLatency = averageLatency < 0 ? elapsedTime : Math.round(LATENCY_SMOOTHING_FACTOR * elapsedTime + (1 - LATENCY_SMOOTHING_FACTOR) * averageLatency);
+			}
+		}
+
+		synchronized void recordFailure() {
+
+			consecutiveFailures++;
+			failureCount++;
+		}
+
+		/**
+		 * @return the exponentially weighted average latency of the successful requests in milliseconds, {@code 0} if none
+		 */
+		public synchronized long getAverageLatency() {
+			return averageLatency < 0 ? 0 : averageLatency;
+		}
+
+		/**
+		 * @return the number of failures since the last successful request
+		 */
+		public synchronized int getConsecutiveFailures() {
+			return consecutiveFailures;
+		}
+
+		public synchronized long getSuccessCount() {
+			return successCount;
+		}
+
+		public synchronized long getFailureCount() {
+			return failureCount;
+		}
+
+		@Override
+		public synchronized String toString() {
+			return "HostStatistics[averageLatency=" + getAverageLatency() + ", consecutiveFailures=" + consecutiveFailures + ", successCount=" + successCount
+					+ ", failureCount=" + failureCount + "]";
+		}
+	}
+}
@@ -20,17 +20,17 @@
  */
 package eu.europa.esig.dss.client.http;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLConnection;
 import java.util.List;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.NotImplementedException;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import eu.europa.esig.dss.DSSCannotFetchDataException;
 import eu.europa.esig.dss.DSSException;
@@ -42,10 +42,17 @@ import eu.europa.esig.dss.DSSCannotFetchDataException.MSG;
  */
 public class NativeHTTPDataLoader implements DataLoader {
 
-	private static Logger logger = LoggerFactory.getLogger(NativeHTTPDataLoader.class);
-
 	private static final long MAX_SIZE = 15000;
 
+	private final MultiUrlFetcher multiUrlFetcher = new MultiUrlFetcher();
+
+	/**
+	 * @return the {@code MultiUrlFetcher} used by {@link #get(List)}: hedged mode, prioritization and per-host statistics
+	 */
+	public MultiUrlFetcher getMultiUrlFetcher() {
+		return multiUrlFetcher;
+	}
+
 	/**
 	 * Used to limit the size of fetched data.
 	 */
@@ -86,11 +93,23 @@ public class NativeHTTPDataLoader implements DataLoader {
 		InputStream inputStream = null;
 		byte[] result = null;
 		try {
-			inputStream = new MaxSizeInputStream(new URL(url).openStream(), MAX_SIZE, url);
+			final URLConnection connection = new URL(url).openConnection();
+			if (connection instanceof HttpURLConnection) {
+				// A cancelled hedged request is stopped by closing the connection.
+				MultiUrlFetcher.setCurrentConnection(new Closeable() {
+
+					@Override
+					public void close() {
+						((HttpURLConnection) connection).disconnect();
+					}
+				});
+			}
+			inputStream = new MaxSizeInputStream(connection.getInputStream(), MAX_SIZE, url);
 			result = IOUtils.toByteArray(inputStream);
 		} catch (IOException e) {
 			throw new DSSException("An error occured while HTTP GET for url '" + url + "' : " + e.getMessage(), e);
 		} finally {
+			MultiUrlFetcher.setCurrentConnection(null);
 			IOUtils.closeQuietly(inputStream);
 		}
 		return result;
@@ -123,29 +142,7 @@ public class NativeHTTPDataLoader implements DataLoader {
 
 	@Override
 	public DataAndUrl get(List<String> urlStrings) {
-
-		final int numberOfUrls = urlStrings.size();
-		int ii = 0;
-		for (final String urlString : urlStrings) {
-			try {
-
-				ii++;
-				final byte[] bytes = get(urlString);
-				if (bytes == null) {
-					continue;
-				}
-				return new DataAndUrl(bytes, urlString);
-			} catch (Exception e) {
-				if (ii == numberOfUrls) {
-					if (e instanceof DSSException) {
-						throw (DSSException) e;
-					}
-					throw new DSSException(e);
-				}
-				logger.warn("Impossible to obtain data using {}", urlString, e);
-			}
-		}
-		return null;
+		return multiUrlFetcher.get(this, urlStrings);
 	}
 
 	@Override
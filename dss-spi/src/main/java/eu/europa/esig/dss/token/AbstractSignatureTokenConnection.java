@@ -23,6 +23,9 @@ package eu.europa.esig.dss.token;
 import java.security.KeyStore;
 import java.security.KeyStoreException;
 import java.security.Signature;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,7 +40,7 @@ import eu.europa.esig.dss.ToBeSigned;
 /**
  *
  */
-public abstract class AbstractSignatureTokenConnection implements SignatureTokenConnection {
+public abstract class AbstractSignatureTokenConnection implements BatchSignatureTokenConnection {
 
 	protected static final Logger LOG = LoggerFactory.getLogger(AbstractSignatureTokenConnection.class);
 
@@ -53,6 +56,12 @@ public abstract class AbstractSignatureTokenConnection implements SignatureToken
 	@Override
 	public SignatureValue sign(ToBeSigned toBeSigned, DigestAlgorithm digestAlgorithm, DSSPrivateKeyEntry keyEntry) throws DSSException {
 
+		return sign(Collections.singletonList(toBeSigned), digestAlgorithm, keyEntry).get(0);
+	}
+
+	@Override
+	public List<SignatureValue> sign(final List<ToBeSigned> toBeSigned, final DigestAlgorithm digestAlgorithm, final DSSPrivateKeyEntry keyEntry) throws DSSException {
+
 		if(!(keyEntry instanceof KSPrivateKeyEntry)) {
 			throw new IllegalArgumentException("Only KSPrivateKeyEntry are supported");
 		}
@@ -63,14 +72,20 @@ public abstract class AbstractSignatureTokenConnection implements SignatureToken
 		final String javaSignatureAlgorithm = signatureAlgorithm.getJCEId();
 
 		try {
+			// The signature is initialised once: it is reset after each signature value.
 			final Signature signature = Signature.getInstance(javaSignatureAlgorithm);
 			signature.initSign(((KSPrivateKeyEntry)keyEntry).getPrivateKey());
-			signature.update(toBeSigned.getBytes());
-			final byte[] signatureValue = signature.sign();
-			SignatureValue value = new SignatureValue();
-			value.setAlgorithm(signatureAlgorithm);
-			value.setValue(signatureValue);
-			return value;
+			final List<SignatureValue> signatureValues = new ArrayList<SignatureValue>(toBeSigned.size());
+			for (final ToBeSigned data : toBeSigned) {
+
+				signature.update(data.getBytes());
+				final byte[] signatureValue = signature.sign();
+				SignatureValue value = new SignatureValue();
+				value.setAlgorithm(signatureAlgorithm);
+				value.setValue(signatureValue);
+				signatureValues.add(value);
+			}
+			return signatureValues;
 		} catch(Exception e) {
 			throw new DSSException(e);
 		}
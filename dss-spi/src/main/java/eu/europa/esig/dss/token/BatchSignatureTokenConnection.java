@@ -0,0 +1,48 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ *
+ * This file is part of the "DSS - Digital Signature Services" project.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.token;
+
+import java.util.List;
+
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.DigestAlgorithm;
+import eu.europa.esig.dss.SignatureValue;
+import eu.europa.esig.dss.ToBeSigned;
+
+/**
+ * Connection to a SSCD which is able to sign several data in a single session. The tokens which do not implement this interface are used by calling
+ * {@link SignatureTokenConnection#sign(ToBeSigned, DigestAlgorithm, DSSPrivateKeyEntry)} for each data.
+ *
+ */
+public interface BatchSignatureTokenConnection extends SignatureTokenConnection {
+
+	/**
+	 * This method signs all the given data with the same key in a single session of the SSCD (the signature operation is initialised only once).
+	 *
+	 * @param toBeSigned      The list of data that need to be signed
+	 * @param digestAlgorithm The digest algorithm to be used before signing
+	 * @param keyEntry        The private key to be used
+	 * @return The list of signature values, in the same order as {@code toBeSigned}
+	 * @throws DSSException If there is any problem during the signature process
+	 */
+	List<SignatureValue> sign(final List<ToBeSigned> toBeSigned, final DigestAlgorithm digestAlgorithm, final DSSPrivateKeyEntry keyEntry) throws DSSException;
+
+}
@@ -20,10 +20,14 @@
  */
 package eu.europa.esig.dss.token;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import eu.europa.esig.dss.DSSException;
 import eu.europa.esig.dss.DigestAlgorithm;
+import eu.europa.esig.dss.SignatureAlgorithm;
+import eu.europa.esig.dss.SignatureValue;
+import eu.europa.esig.dss.ToBeSigned;
 
 /**
  * TODO
@@ -34,7 +38,7 @@ import eu.europa.esig.dss.DigestAlgorithm;
  *
  *
  */
-public abstract class RemoteSignatureToken implements SignatureTokenConnection {
+public abstract class RemoteSignatureToken implements BatchSignatureTokenConnection {
 	@Override
 	public void close() {
 
@@ -58,4 +62,38 @@ public abstract class RemoteSignatureToken implements SignatureTokenConnection {
 	 * @throws DSSException If there is any problem during the signature process
 	 */
 	public abstract byte[] sign(byte[] bytes, DigestAlgorithm digestAlgorithm) throws DSSException;
+
+	@Override
+	public List<SignatureValue> sign(final List<ToBeSigned> toBeSigned, final DigestAlgorithm digestAlgorithm, final DSSPrivateKeyEntry keyEntry) throws DSSException {
+
+		final List<byte[]> bytes = new ArrayList<byte[]>(toBeSigned.size());
+		for (final ToBeSigned data : toBeSigned) {
+			bytes.add(data.getBytes());
+		}
+		final List<byte[]> signatureValueBytes = sign(bytes, digestAlgorithm);
+		final SignatureAlgorithm signatureAlgorithm = (keyEntry == null) ? null : SignatureAlgorithm.getAlgorithm(keyEntry.getEncryptionAlgorithm(), digestAlgorithm);
+		final List<SignatureValue> signatureValues = new ArrayList<SignatureValue>(signatureValueBytes.size());
+		for (final byte[] signatureValueByteArray : signatureValueBytes) {
+			signatureValues.add(new SignatureValue(signatureAlgorithm, signatureValueByteArray));
+		}
+		return signatureValues;
+	}
+
+	/**
+	 * This method signs all the given arrays of bytes. By default each array is sent separately: it should be overridden to send all the data in one
+	 * request to the remote signature service.
+	 *
+	 * @param bytes           The list of arrays of bytes to be signed
+	 * @param digestAlgorithm The digest algorithm to use to create the hash to sign
+	 * @return The list of signature values, in the same order as {@code bytes}
+	 * @throws DSSException If there is any problem during the signature process
+	 */
+	public List<byte[]> sign(final List<byte[]> bytes, final DigestAlgorithm digestAlgorithm) throws DSSException {
+
+		final List<byte[]> signatureValues = new ArrayList<byte[]>(bytes.size());
+		for (final byte[] data : bytes) {
+			signatureValues.add(sign(data, digestAlgorithm));
+		}
+		return signatureValues;
+	}
 }
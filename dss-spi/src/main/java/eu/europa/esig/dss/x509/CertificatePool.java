@@ -22,19 +22,28 @@ package eu.europa.esig.dss.x509;
 
 import java.io.Serializable;
 import java.security.cert.X509Certificate;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import javax.security.auth.x500.X500Principal;
 
+import org.apache.commons.codec.binary.Base64;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.DSSUtils;
+import eu.europa.esig.dss.DigestAlgorithm;
 import eu.europa.esig.dss.TokenIdentifier;
 import eu.europa.esig.dss.tsl.ServiceInfo;
 
@@ -43,21 +52,90 @@ import eu.europa.esig.dss.tsl.ServiceInfo;
  * different sources: trusted list, signature, OCSP response... but each certificate is unambiguously identified by its
  * issuer DN and serial number. This class allows to keep only one occurrence of the certificate regardless its
  * provenance. Two pools of certificates can be merged using the {@link #merge(CertificatePool)} method.
+ * <p/>
+ * The certificates are also indexed by subject key identifier and by digest. The issuer candidates of a token are
+ * pre-filtered with the authority key identifier and the result of each child/issuer signature check is kept by the
+ * root pool (the pool without base), so a given signature is verified only once for all the pools created on top of
+ * the same base pool (see {@link #getIssuerCandidates(Token)} and {@link #isSignedBy(Token, CertificateToken)}).
+ * <p/>
+ * A pool can be created on top of a base pool (ex.: the pool of the trusted certificate source) with
+ * {@link #CertificatePool(CertificatePool)}: the certificates of the base pool are visible through the new pool without
+ * being copied and the certificates added to the new pool are never added to the base pool. The pool can be shared
+ * between threads: the read methods do not lock, the additions of certificates are serialized.
  */
 public class CertificatePool implements Serializable {
 
 	private static final Logger LOG = LoggerFactory.getLogger(CertificatePool.class);
 
+	/**
+	 * The pool whose certificates are visible through this pool, or null.
+	 */
+	private final CertificatePool base;
+
 	/**
 	 * Map of encapsulated certificates with unique DSS identifier as key (hash code calculated on issuer distinguished name and serial
 	 * number)
 	 */
-	private Map<TokenIdentifier, CertificateToken> certById = new HashMap<TokenIdentifier, CertificateToken>();
+	private final Map<TokenIdentifier, CertificateToken> certById = new ConcurrentHashMap<TokenIdentifier, CertificateToken>();
 
 	/**
 	 * Map f encapsulated certificates with subject distinguished name as key.
 	 */
-	private Map<String, List<CertificateToken>> certBySubject = new HashMap<String, List<CertificateToken>>();
+	private final Map<String, List<CertificateToken>> certBySubject = new ConcurrentHashMap<String, List<CertificateToken>>();
+
+	/**
+	 * Map of encapsulated certificates with the hexadecimal subject key identifier as key.
+	 */
+	private final Map<String, List<CertificateToken>> certBySki = new ConcurrentHashMap<String, List<CertificateToken>>();
+
+	/**
+	 * Map of the hexadecimal subject key identifier of each encapsulated certificate with the base64 encoded SHA-256
+	 * digest of the certificate as key (only certificates with a subject key identifier are present).
+	 */
+	private final Map<String, String> skiByDigest = new ConcurrentHashMap<String, String>();
+
+	/**
+	 * Maps of encapsulated certificates with the base64 encoded digest as key, created on demand for each digest
+	 * algorithm.
+	 */
+	private final Map<DigestAlgorithm, Map<String, CertificateToken>> certByDigest = new ConcurrentHashMap<DigestAlgorithm, Map<String, CertificateToken>>();
+
+	/**
+	 * The maximum number of signature checks kept by the root pool, the least recently used ones are removed.
+	 */
+	private static final int MAX_VERIFIED_EDGES = 10000;
+
+	/**
+	 * Results of the signature checks already done, with the concatenation of the SHA-256 digests of the child and of
+	 * the issuer certificates as key. Only the root pool uses its map: the key only depends on the encoded
+	 * certificates, so the results are shared by all the pools created on top of it (ex.: one pool per validation).
+	 */
+	private final Map<String, VerifiedEdge> verifiedEdges = Collections.synchronizedMap(new VerifiedEdgeCache());
+
+	/**
+	 * Unmodifiable list of the encapsulated certificates, reset each time a certificate is added.
+	 */
+	private transient volatile List<CertificateToken> certificateTokens;
+
+	/**
+	 * The default constructor creates an empty pool.
+	 */
+	public CertificatePool() {
+
+		this(null);
+	}
+
+	/**
+	 * This constructor creates an empty pool on top of the given pool. The certificates of the base pool are returned by
+	 * this pool but they are not copied: the creation of the pool does not depend on the size of the base pool. The base
+	 * pool is never modified through this pool, it should not be modified while this pool is used.
+	 *
+	 * @param base the pool whose certificates are visible through this pool, can be null
+	 */
+	public CertificatePool(final CertificatePool base) {
+
+		this.base = base;
+	}
 
 	/**
 	 * Returns the instance of a certificate token. If the certificate is not referenced yet a new instance of
@@ -99,7 +177,8 @@ public class CertificatePool implements Serializable {
 	/**
 	 * This method returns the instance of a {@link CertificateToken} corresponding to the given {@link X509Certificate}.
 	 * If the given certificate is not yet present in the pool it will added. If the {@link CertificateToken} exists
-	 * already in the pool but has no {@link ServiceInfo} this reference will be added.
+	 * already in the pool but has no {@link ServiceInfo} this reference will be added. A certificate present in the base
+	 * pool is not added to this pool: the instance of the base pool is returned.
 	 *
 	 * @param certificateToAdd
 	 * @param sources
@@ -123,20 +202,20 @@ public class CertificatePool implements Serializable {
 		final TokenIdentifier id = certificateToAdd.getDSSId();
 		synchronized (certById) {
 
-			CertificateToken certToken = certById.get(id);
+			CertificateToken certToken = getById(id);
 			if (certToken == null) {
 
 				LOG.debug("Certificate " + certificateToAdd.getDSSId() + " is not in the pool");
 				certToken = certificateToAdd;
 				certById.put(id, certToken);
 				final String subjectName = certificateToAdd.getSubjectX500Principal().getName(X500Principal.CANONICAL);
-				List<CertificateToken> list = certBySubject.get(subjectName);
-				if (list == null) {
+				addToIndex(certBySubject, subjectName, certToken);
+				indexBySki(certToken);
+				for (final Map.Entry<DigestAlgorithm, Map<String, CertificateToken>> entry : certByDigest.entrySet()) {
 
-					list = new ArrayList<CertificateToken>();
-					certBySubject.put(subjectName, list);
+					entry.getValue().put(certToken.getDigestValue(entry.getKey()), certToken);
 				}
-				list.add(certToken);
+				certificateTokens = null;
 			} else {
 
 				LOG.debug("Certificate " + certificateToAdd.getDSSId() + " is already in the pool");
@@ -165,24 +244,44 @@ public class CertificatePool implements Serializable {
 	}
 
 	/**
-	 * This method returns an unmodifiable list containing all encapsulated certificate tokens {@link CertificateToken}.
+	 * This method returns an unmodifiable list containing all encapsulated certificate tokens {@link CertificateToken},
+	 * including the certificates of the base pool. The list is not copied as long as no certificate is added to the
+	 * pool, the certificates of the base pool are never copied: the list is a view on both lists.
 	 *
 	 * @return
 	 */
 	public List<CertificateToken> getCertificateTokens() {
 
-		ArrayList<CertificateToken> certificateTokenArrayList = new ArrayList<CertificateToken>(certById.values());
-		return Collections.unmodifiableList(certificateTokenArrayList);
+		List<CertificateToken> certificateTokenList = certificateTokens;
+		if (certificateTokenList == null) {
+
+			synchronized (certById) {
+
+				if (certificateTokens == null) {
+					certificateTokens = Collections.unmodifiableList(new ArrayList<CertificateToken>(certById.values()));
+				}
+				certificateTokenList = certificateTokens;
+			}
+		}
+		if (base == null) {
+			return certificateTokenList;
+		}
+		final List<CertificateToken> baseCertificateTokenList = base.getCertificateTokens();
+		if (certificateTokenList.isEmpty()) {
+			return baseCertificateTokenList;
+		}
+		return new CompositeCertificateTokenList(baseCertificateTokenList, certificateTokenList);
 	}
 
 	/**
-	 * This method return the number  of certificates contained by this pool.
+	 * This method return the number  of certificates contained by this pool, including the certificates of the base pool.
 	 *
 	 * @return the number of certificates
 	 */
 	public int getNumberOfCertificates() {
 
-		return certById.size();
+		final int numberOfCertificates = certById.size();
+		return base == null ? numberOfCertificates : base.getNumberOfCertificates() + numberOfCertificates;
 	}
 
 	/**
@@ -212,7 +311,7 @@ public class CertificatePool implements Serializable {
 	 */
 	public List<CertificateToken> get(final X500Principal x500Principal) {
 
-		List<CertificateToken> certificateTokenList = null;
+		final List<CertificateToken> certificateTokenList = new ArrayList<CertificateToken>();
 		if (x500Principal != null) {
 
 			/**
@@ -221,12 +320,277 @@ public class CertificatePool implements Serializable {
 			 * The returned list can be maybe enriched by RFC2253 form?
 			 */
 			final String x500PrincipalCanonicalized = x500Principal.getName(X500Principal.CANONICAL);
-			certificateTokenList = certBySubject.get(x500PrincipalCanonicalized);
+			// A copy is returned: the pool can be enriched (ex.: AIA) while the list is read by another thread.
+			collectBySubject(x500PrincipalCanonicalized, certificateTokenList);
 		}
-		if (certificateTokenList == null) {
+		return Collections.unmodifiableList(certificateTokenList);
+	}
+
+	/**
+	 * This method returns the list of certificates with the given subject key identifier.
+	 *
+	 * @param ski the subject key identifier to match
+	 * @return If no match is found then an empty list is returned.
+	 */
+	public List<CertificateToken> getBySki(final byte[] ski) {
 
-			certificateTokenList = new ArrayList<CertificateToken>();
+		final List<CertificateToken> certificateTokenList = new ArrayList<CertificateToken>();
+		if (ski != null) {
+
+			collectBySki(DSSUtils.toHex(ski), certificateTokenList);
 		}
 		return Collections.unmodifiableList(certificateTokenList);
 	}
+
+	/**
+	 * This method returns the certificate with the given digest. The index for a given digest algorithm is built with the
+	 * first call and kept up to date afterwards.
+	 *
+	 * @param digestAlgorithm the algorithm used to compute the digest
+	 * @param digestValue     the digest of the encoded certificate
+	 * @return the corresponding {@code CertificateToken} or null if not found
+	 */
+	public CertificateToken getByDigest(final DigestAlgorithm digestAlgorithm, final byte[] digestValue) {
+
+		if (digestAlgorithm == null || digestValue == null) {
+			return null;
+		}
+		return getByDigest(digestAlgorithm, Base64.encodeBase64String(digestValue));
+	}
+
+	/**
+	 * This method returns the certificates which can be the issuer of the given token. The certificates are the ones
+	 * returned by {@link #get(X500Principal)} for the issuer distinguished name of the token. When the token is a
+	 * certificate:
+	 * <ul>
+	 * <li>the certificates with a subject key identifier different from the authority key identifier of the token are
+	 * removed;</li>
+	 * <li>the certificates valid at the beginning of the validity period of the token are returned first, the others are
+	 * kept at the end of the list.</li>
+	 * </ul>
+	 * No signature is checked by this method.
+	 *
+	 * @param token the token for which the issuer is sought
+	 * @return If no candidate is found then an empty list is returned.
+	 */
+	public List<CertificateToken> getIssuerCandidates(final Token token) {
+
+		final List<CertificateToken> certificateTokenList = get(token.getIssuerX500Principal());
+		if (!(token instanceof CertificateToken) || certificateTokenList.isEmpty()) {
+			return certificateTokenList;
+		}
+		final CertificateToken certificateToken = (CertificateToken) token;
+		final String aki = DSSUtils.toHex(DSSUtils.getAki(certificateToken));
+		final Date notBefore = certificateToken.getNotBefore();
+		final List<CertificateToken> candidates = new ArrayList<CertificateToken>();
+		final List<CertificateToken> outOfPeriodCandidates = new ArrayList<CertificateToken>();
+		for (final CertificateToken issuerCertificateToken : certificateTokenList) {
+
+			if (aki != null) {
+
+				final String ski = getSki(issuerCertificateToken.getDigestValue(DigestAlgorithm.SHA256));
+				if (ski != null && !ski.equals(aki)) {
+					continue;
+				}
+			}
+			if (issuerCertificateToken.isValidOn(notBefore)) {
+				candidates.add(issuerCertificateToken);
+			} else {
+				outOfPeriodCandidates.add(issuerCertificateToken);
+			}
+		}
+		candidates.addAll(outOfPeriodCandidates);
+		return Collections.unmodifiableList(candidates);
+	}
+
+	/**
+	 * This method checks if the given token is signed by the given issuer certificate. For a certificate the result of
+	 * the check is kept by the root pool and the signature is not verified again with the same couple of certificates,
+	 * whatever the pool created on top of the root pool: the state of the token is set as if
+	 * {@link Token#isSignedBy(CertificateToken)} was called.
+	 *
+	 * @param token       the token to check
+	 * @param issuerToken the potential issuer certificate
+	 * @return true if the token is signed by the given certificate
+	 */
+	public boolean isSignedBy(final Token token, final CertificateToken issuerToken) {
+
+		if (!(token instanceof CertificateToken)) {
+			return token.isSignedBy(issuerToken);
+		}
+		final CertificateToken certificateToken = (CertificateToken) token;
+		final String edgeKey = certificateToken.getDigestValue(DigestAlgorithm.SHA256) + issuerToken.getDigestValue(DigestAlgorithm.SHA256);
+		final Map<String, VerifiedEdge> verifiedEdges = getVerifiedEdges();
+		final VerifiedEdge verifiedEdge = verifiedEdges.get(edgeKey);
+		if (verifiedEdge != null) {
+
+			certificateToken.setSignatureVerification(issuerToken, verifiedEdge.signed, verifiedEdge.signatureInvalidityReason);
+			return verifiedEdge.signed;
+		}
+		final boolean signed = certificateToken.isSignedBy(issuerToken);
+		verifiedEdges.put(edgeKey, new VerifiedEdge(signed, certificateToken.signatureInvalidityReason));
+		return signed;
+	}
+
+	private Map<String, VerifiedEdge> getVerifiedEdges() {
+		return base == null ? verifiedEdges : base.getVerifiedEdges();
+	}
+
+	private CertificateToken getById(final TokenIdentifier id) {
+
+		final CertificateToken certToken = base == null ? null : base.getById(id);
+		return certToken != null ? certToken : certById.get(id);
+	}
+
+	private void collectBySubject(final String subjectName, final List<CertificateToken> certificateTokenList) {
+
+		if (base != null) {
+			base.collectBySubject(subjectName, certificateTokenList);
+		}
+		final List<CertificateToken> list = certBySubject.get(subjectName);
+		if (list != null) {
+			certificateTokenList.addAll(list);
+		}
+	}
+
+	private void collectBySki(final String ski, final List<CertificateToken> certificateTokenList) {
+
+		if (base != null) {
+			base.collectBySki(ski, certificateTokenList);
+		}
+		final List<CertificateToken> list = certBySki.get(ski);
+		if (list != null) {
+			certificateTokenList.addAll(list);
+		}
+	}
+
+	private String getSki(final String sha256Digest) {
+
+		final String ski = base == null ? null : base.getSki(sha256Digest);
+		return ski != null ? ski : skiByDigest.get(sha256Digest);
+	}
+
+	private CertificateToken getByDigest(final DigestAlgorithm digestAlgorithm, final String base64Digest) {
+
+		if (base != null) {
+
+			final CertificateToken certToken = base.getByDigest(digestAlgorithm, base64Digest);
+			if (certToken != null) {
+				return certToken;
+			}
+		}
+		Map<String, CertificateToken> certificateTokenMap = certByDigest.get(digestAlgorithm);
+		if (certificateTokenMap == null) {
+
+			synchronized (certById) {
+
+				certificateTokenMap = certByDigest.get(digestAlgorithm);
+				if (certificateTokenMap == null) {
+
+					certificateTokenMap = new ConcurrentHashMap<String, CertificateToken>();
+					for (final CertificateToken certificateToken : certById.values()) {
+
+						certificateTokenMap.put(certificateToken.getDigestValue(digestAlgorithm), certificateToken);
+					}
+					certByDigest.put(digestAlgorithm, certificateTokenMap);
+				}
+			}
+		}
+		return certificateTokenMap.get(base64Digest);
+	}
+
+	private void indexBySki(final CertificateToken certToken) {
+
+		final byte[] skiBytes;
+		try {
+			skiBytes = DSSUtils.getSki(certToken);
+		} catch (DSSException e) {
+
+			LOG.warn("Unable to retrieve the subject key identifier of the certificate " + certToken.getAbbreviation() + ": " + e.getMessage());
+			return;
+		}
+		if (skiBytes == null) {
+			return;
+		}
+		final String ski = DSSUtils.toHex(skiBytes);
+		skiByDigest.put(certToken.getDigestValue(DigestAlgorithm.SHA256), ski);
+		addToIndex(certBySki, ski, certToken);
+	}
+
+	/**
+	 * The lists of the indexes are copied on write: they can be read without lock while a certificate is added.
+	 */
+	private static void addToIndex(final Map<String, List<CertificateToken>> index, final String key, final CertificateToken certToken) {
+
+		List<CertificateToken> list = index.get(key);
+		if (list == null) {
+
+			list = new CopyOnWriteArrayList<CertificateToken>();
+			index.put(key, list);
+		}
+		list.add(certToken);
+	}
+
+	/**
+	 * Unmodifiable view on the certificates of the base pool followed by the certificates of the pool. Both lists are
+	 * unmodifiable snapshots.
+	 */
+	private static class CompositeCertificateTokenList extends AbstractList<CertificateToken> implements RandomAccess {
+
+		private final List<CertificateToken> first;
+
+		private final List<CertificateToken> second;
+
+		CompositeCertificateTokenList(final List<CertificateToken> first, final List<CertificateToken> second) {
+
+			this.first = first;
+			this.second = second;
+		}
+
+		@Override
+		public CertificateToken get(final int index) {
+
+			final int firstSize = first.size();
+			return index < firstSize ? first.get(index) : second.get(index - firstSize);
+		}
+
+		@Override
+		public int size() {
+			return first.size() + second.size();
+		}
+	}
+
+	/**
+	 * The results of the signature checks in access order, the least recently used ones are removed when the cache is
+	 * full.
+	 */
+	private static class VerifiedEdgeCache extends LinkedHashMap<String, VerifiedEdge> {
+
+		private static final long serialVersionUID = 1L;
+
+		VerifiedEdgeCache() {
+			super(16, 0.75f, true);
+		}
+
+		@Override
+		protected boolean removeEldestEntry(final Map.Entry<String, VerifiedEdge> eldest) {
+			return size() > MAX_VERIFIED_EDGES;
+		}
+	}
+
+	/**
+	 * Result of the check of the signature of a certificate by a potential issuer.
+	 */
+	private static class VerifiedEdge implements Serializable {
+
+		private final boolean signed;
+
+		private final String signatureInvalidityReason;
+
+		VerifiedEdge(final boolean signed, final String signatureInvalidityReason) {
+
+			this.signed = signed;
+			this.signatureInvalidityReason = signatureInvalidityReason;
+		}
+	}
 }
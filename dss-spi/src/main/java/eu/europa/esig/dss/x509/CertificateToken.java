@@ -26,7 +26,10 @@ import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.NoSuchProviderException;
 import java.security.Principal;
+import java.security.Provider;
 import java.security.PublicKey;
+import java.security.Security;
+import java.security.Signature;
 import java.security.SignatureException;
 import java.security.cert.CertificateEncodingException;
 import java.security.cert.CertificateException;
@@ -35,18 +38,24 @@ import java.security.cert.CertificateNotYetValidException;
 import java.security.cert.CertificateParsingException;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.security.auth.x500.X500Principal;
 
 import org.apache.commons.codec.binary.Base64;
+import org.bouncycastle.asn1.ASN1Encodable;
 import org.bouncycastle.asn1.ASN1Primitive;
+import org.bouncycastle.asn1.DERNull;
 import org.bouncycastle.asn1.DEROctetString;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
 import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.TBSCertificate;
 import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -57,6 +66,7 @@ import eu.europa.esig.dss.DSSUtils;
 import eu.europa.esig.dss.DigestAlgorithm;
 import eu.europa.esig.dss.OID;
 import eu.europa.esig.dss.SignatureAlgorithm;
+import eu.europa.esig.dss.SignaturePool;
 import eu.europa.esig.dss.tsl.ServiceInfo;
 
 /**
@@ -71,6 +81,16 @@ public class CertificateToken extends Token {
 
 	private static final Logger LOG = LoggerFactory.getLogger(CertificateToken.class);
 
+	/**
+	 * The DER encoding of the NULL parameters of a signature algorithm
+	 */
+	private static final byte[] DER_NULL = new byte[]{0x05, 0x00};
+
+	/**
+	 * The package of the BouncyCastle implementations of {@code X509Certificate}
+	 */
+	private static final String BOUNCY_CASTLE_PACKAGE = "org.bouncycastle.";
+
 	public static final String DIGITAL_SIGNATURE = "digitalSignature";
 	public static final String NON_REPUDIATION = "nonRepudiation";
 	public static final String KEY_ENCIPHERMENT = "keyEncipherment";
@@ -103,9 +123,10 @@ public class CertificateToken extends Token {
 	private DigestAlgorithm digestAlgorithm = DigestAlgorithm.SHA1;
 
 	/**
-	 * Base 64 encoded digest value of this certificate computed for a given digest algorithm.
+	 * Base 64 encoded digest value of this certificate computed for a given digest algorithm. The same instance can be
+	 * shared by several validations (see {@link CertificatePool#CertificatePool(CertificatePool)}).
 	 */
-	private Map<DigestAlgorithm, String> digests;
+	private final Map<DigestAlgorithm, String> digests = new ConcurrentHashMap<DigestAlgorithm, String>();
 
 	/**
 	 * OCSP or CRL revocation data for this token.
@@ -446,7 +467,7 @@ public class CertificateToken extends Token {
 		try {
 
 			final PublicKey publicKey = issuerToken.getCertificate().getPublicKey();
-			x509Certificate.verify(publicKey);
+			verify(publicKey);
 			signatureValid = true;
 			if (!isSelfSigned()) {
 				this.issuerToken = issuerToken;
@@ -472,6 +493,91 @@ public class CertificateToken extends Token {
 		return signatureValid;
 	}
 
+	/**
+	 * This method sets the result of a signature verification which was already done with an identical certificate (see
+	 * {@link CertificatePool#isSignedBy(Token, CertificateToken)}). The state of the token is the same as after {@link #isSignedBy(CertificateToken)}.
+	 *
+	 * @param issuerToken               the certificate which was checked as issuer
+	 * @param signatureValid            the result of the verification
+	 * @param signatureInvalidityReason the reason of the failure or an empty string
+	 */
+	void setSignatureVerification(final CertificateToken issuerToken, final boolean signatureValid, final String signatureInvalidityReason) {
+
+		this.signatureValid = signatureValid;
+		this.signatureInvalidityReason = signatureInvalidityReason;
+		if (signatureValid && !isSelfSigned()) {
+			this.issuerToken = issuerToken;
+		}
+	}
+
+	/**
+	 * This method verifies the signature of the certificate in the same way as the BouncyCastle {@code X509Certificate#verify(PublicKey)}, but with a pooled
+	 * {@code Signature}: the security providers are not looked up at each verification. The certificates which are not decoded by BouncyCastle or
+	 * which have signature parameters (ex.: RSASSA-PSS) are verified by the {@code X509Certificate} itself, as well as all the certificates when the
+	 * BouncyCastle provider is not registered. The pooled {@code Signature} is only released after a complete verification: if an exception occurs
+	 * its state is unknown and it is dropped.
+	 *
+	 * @param publicKey the public key of the issuer
+	 * @throws SignatureException if the signature does not match
+	 */
+	private void verify(final PublicKey publicKey) throws CertificateException, NoSuchAlgorithmException, InvalidKeyException, NoSuchProviderException,
+			SignatureException {
+
+		final boolean decodedByBouncyCastle = x509Certificate.getClass().getName().startsWith(BOUNCY_CASTLE_PACKAGE);
+		if (!decodedByBouncyCastle || !isAbsentOrNull(x509Certificate.getSigAlgParams())) {
+
+			x509Certificate.verify(publicKey);
+			return;
+		}
+		final byte[] tbsCertificate = x509Certificate.getTBSCertificate();
+		final AlgorithmIdentifier tbsSignatureAlgorithm = TBSCertificate.getInstance(tbsCertificate).getSignature();
+		if (!tbsSignatureAlgorithm.getAlgorithm().getId().equals(x509Certificate.getSigAlgOID()) || !isAbsentOrNull(tbsSignatureAlgorithm.getParameters())) {
+			throw new CertificateException("signature algorithm in TBS cert not same as outer cert");
+		}
+		final String signatureAlgorithm = x509Certificate.getSigAlgName();
+		final Provider provider = Security.getProvider(BouncyCastleProvider.PROVIDER_NAME);
+		if (provider == null) {
+
+			x509Certificate.verify(publicKey);
+			return;
+		}
+		final SignaturePool signaturePool = DSSUtils.getSignaturePool();
+		final Signature signature;
+		try {
+			signature = signaturePool.borrow(signatureAlgorithm, provider, publicKey);
+		} catch (DSSException e) {
+
+			x509Certificate.verify(publicKey);
+			return;
+		}
+		boolean completed = false;
+		final boolean verified;
+		try {
+
+			signature.initVerify(publicKey);
+			signature.update(tbsCertificate);
+			verified = signature.verify(x509Certificate.getSignature());
+			completed = true;
+		} finally {
+			if (completed) {
+				signaturePool.release(signatureAlgorithm, provider, publicKey, signature);
+			}
+		}
+		if (!verified) {
+			throw new SignatureException("certificate does not verify with supplied key");
+		}
+	}
+
+	private static boolean isAbsentOrNull(final byte[] encodedParameters) {
+
+		return (encodedParameters == null) || Arrays.equals(encodedParameters, DER_NULL);
+	}
+
+	private static boolean isAbsentOrNull(final ASN1Encodable parameters) {
+
+		return (parameters == null) || DERNull.INSTANCE.equals(parameters);
+	}
+
 	/**
 	 * Indicates that a X509Certificates corresponding private key is used by an authority to sign OCSP-Responses.<br>
 	 * http://www.ietf.org/rfc/rfc3280.txt <br>
@@ -576,9 +682,6 @@ public class CertificateToken extends Token {
 	 * @return
 	 */
 	public String getDigestValue(final DigestAlgorithm digestAlgorithm) {
-		if (digests == null) {
-			digests = new HashMap<DigestAlgorithm, String>();
-		}
 		String encodedDigest = digests.get(digestAlgorithm);
 		if (encodedDigest == null) {
 			try {
@@ -29,7 +29,7 @@ public class CertificateTokenValidationExtraInfo extends TokenValidationExtraInf
     /**
      *
      */
-    public void infoOCSPSourceIsNull() {
+    public synchronized void infoOCSPSourceIsNull() {
 
         validationInfo.add("The OCSP source is null!");
     }
@@ -37,7 +37,7 @@ public class CertificateTokenValidationExtraInfo extends TokenValidationExtraInf
     /**
      *
      */
-    public void infoNoOCSPResponse(final String uri) {
+    public synchronized void infoNoOCSPResponse(final String uri) {
 
         validationInfo.add("There is no OCSP response! (uri: " + uri + ")");
     }
@@ -45,7 +45,7 @@ public class CertificateTokenValidationExtraInfo extends TokenValidationExtraInf
     /**
      *
      */
-    public void infoOCSPException(final Exception e) {
+    public synchronized void infoOCSPException(final Exception e) {
 
         validationInfo.add("An exception occurred during the OCSP retrieval process: " + e.getMessage());
     }
@@ -53,7 +53,7 @@ public class CertificateTokenValidationExtraInfo extends TokenValidationExtraInf
     /**
      *
      */
-    public void infoCRLSourceIsNull() {
+    public synchronized void infoCRLSourceIsNull() {
 
         validationInfo.add("The CRL source is null!");
     }
@@ -61,7 +61,7 @@ public class CertificateTokenValidationExtraInfo extends TokenValidationExtraInf
     /**
      *
      */
-    public void infoNoCRLInfoFound(final String uri) {
+    public synchronized void infoNoCRLInfoFound(final String uri) {
 
         validationInfo.add("No CRL info found! (" + uri + ")");
     }
@@ -69,7 +69,7 @@ public class CertificateTokenValidationExtraInfo extends TokenValidationExtraInf
     /**
      *
      */
-    public void infoCRLSignatureIsNotValid(final String message) {
+    public synchronized void infoCRLSignatureIsNotValid(final String message) {
 
         validationInfo.add("The CRL signature is not valid: " + message);
     }
@@ -77,7 +77,7 @@ public class CertificateTokenValidationExtraInfo extends TokenValidationExtraInf
     /**
      *
      */
-    public void infoCRLIsNotValid() {
+    public synchronized void infoCRLIsNotValid() {
 
         validationInfo.add("The CRL is not valid!");
     }
@@ -85,12 +85,12 @@ public class CertificateTokenValidationExtraInfo extends TokenValidationExtraInf
     /**
      *
      */
-    public void infoCRLException(final Exception e) {
+    public synchronized void infoCRLException(final Exception e) {
 
         validationInfo.add("An exception occurred during the CRL retrieval process: " + e.getMessage());
     }
 
-    public void infoTheCertNotValidYet(final Date validationDate, final Date notAfter, final Date notBefore) {
+    public synchronized void infoTheCertNotValidYet(final Date validationDate, final Date notAfter, final Date notBefore) {
 
         final String endDate = DSSUtils.formatInternal(notAfter);
         final String startDate = DSSUtils.formatInternal(notBefore);
@@ -98,7 +98,7 @@ public class CertificateTokenValidationExtraInfo extends TokenValidationExtraInf
         validationInfo.add("The certificate is not valid yet! [" + startDate + "-" + endDate + "] on " + valDate);
     }
 
-    public void infoTheCertIsExpired(final Date validationDate, final Date notAfter, final Date notBefore) {
+    public synchronized void infoTheCertIsExpired(final Date validationDate, final Date notAfter, final Date notBefore) {
 
         final String endDate = DSSUtils.formatInternal(notAfter);
         final String startDate = DSSUtils.formatInternal(notBefore);
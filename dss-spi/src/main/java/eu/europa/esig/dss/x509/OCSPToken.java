@@ -134,6 +134,13 @@ public class OCSPToken extends RevocationToken {
 		return basicOCSPResp;
 	}
 
+	/**
+	 * @return the {@code SingleResp} which concerns the certificate
+	 */
+	public SingleResp getSingleResp() {
+		return singleResp;
+	}
+
 	@Override
 	public boolean isSignedBy(final CertificateToken issuerToken) {
 		if (this.issuerToken != null) {
@@ -33,12 +33,12 @@ public class TokenValidationExtraInfo implements Serializable{
     */
    protected ArrayList<String> validationInfo = new ArrayList<String>();
 
-   public void infoTheSigningCertNotFound() {
+   public synchronized void infoTheSigningCertNotFound() {
 
       validationInfo.add("The certificate used to sign this token is not found or not valid!");
    }
 
-   public void add(String message) {
+   public synchronized void add(String message) {
 
       validationInfo.add(message);
    }
@@ -0,0 +1,401 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * <p/>
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * <p/>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p/>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.x509.crl;
+
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.math.BigInteger;
+import java.security.cert.X509CRL;
+import java.util.Arrays;
+import java.util.Date;
+
+import javax.security.auth.x500.X500Principal;
+
+import org.bouncycastle.asn1.ASN1Encodable;
+import org.bouncycastle.asn1.ASN1Enumerated;
+import org.bouncycastle.asn1.ASN1GeneralizedTime;
+import org.bouncycastle.asn1.ASN1Integer;
+import org.bouncycastle.asn1.ASN1Sequence;
+import org.bouncycastle.asn1.ASN1SequenceParser;
+import org.bouncycastle.asn1.ASN1StreamParser;
+import org.bouncycastle.asn1.ASN1UTCTime;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.Extensions;
+import org.bouncycastle.asn1.x509.Time;
+
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.DSSUtils;
+
+/**
+ * This class is a compact representation of a CRL. The DER encoding is read once, entry by entry, and the revoked serial numbers are kept in a sorted
+ * index of primitive arrays with their revocation dates and reasons. The status of a certificate is then obtained by a binary search, without keeping
+ * the object graph of the parsed {@code X509CRL} (one object per entry).
+ * <p/>
+ * The encoded CRL is kept: it is needed to include the CRL in a signature. The {@code X509CRL} is parsed from it once, when it is first requested (see
+ * {@link #toX509CRL()}), and kept as long as the memory allows it. The instances can be shared by concurrent validations.
+ */
+public class CRLIndex {
+
+	/**
+	 * The value of the reason when the entry has no reasonCode extension.
+	 */
+	private static final byte NO_REASON = -1;
+
+	private final byte[] encoded;
+
+	private final String signatureAlgorithmOID;
+
+	private final X500Principal issuerX500Principal;
+
+	private final Date thisUpdate;
+
+	private final Date nextUpdate;
+
+	/**
+	 * The sorted serial numbers: the serial number {@code i} is {@code serialNumbers[serialOffsets[i]..serialOffsets[i + 1]]} (two's-complement
+	 * representation of {@code BigInteger}).
+	 */
+	private final byte[] serialNumbers;
+
+	private final int[] serialOffsets;
+
+	private final long[] revocationDates;
+
+	private final byte[] reasons;
+
+	/**
+	 * The {@code X509CRL} parsed by {@link #toX509CRL()}: it is softly reachable to be reclaimed, rather than the index, when the memory is low.
+	 */
+	private volatile SoftReference<X509CRL> x509CRLReference;
+
+	private CRLIndex(final byte[] encoded, final String signatureAlgorithmOID, final X500Principal issuerX500Principal, final Date thisUpdate,
+	                 final Date nextUpdate, final EntryBuffer entries) {
+
+		this.encoded = encoded;
+		this.signatureAlgorithmOID = signatureAlgorithmOID;
+		this.issuerX500Principal = issuerX500Principal;
+		this.thisUpdate = thisUpdate;
+		this.nextUpdate = nextUpdate;
+
+		final int[] order = entries.sort();
+		serialOffsets = new int[order.length + 1];
+		serialNumbers = new byte[entries.serialLength];
+		revocationDates = new long[order.length];
+		reasons = new byte[order.length];
+		int offset = 0;
+		for (int ii = 0; ii < order.length; ii++) {
+
+			final int entry = order[ii];
+			final int length = entries.serialOffsets[entry + 1] - entries.serialOffsets[entry];
+			System.arraycopy(entries.serialNumbers, entries.serialOffsets[entry], serialNumbers, offset, length);
+			serialOffsets[ii] = offset;
+			offset += length;
+			revocationDates[ii] = entries.revocationDates[entry];
+			reasons[ii] = entries.reasons[entry];
+		}
+		serialOffsets[order.length] = offset;
+	}
+
+	/**
+	 * This method builds the index of the given DER encoded CRL. The signature of the CRL is not verified.
+	 *
+	 * @param encoded the DER encoded CRL (CertificateList)
+	 * @return the {@code CRLIndex}
+	 * @throws DSSException if the CRL cannot be parsed
+	 */
+	public static CRLIndex build(final byte[] encoded) throws DSSException {
+
+		try {
+
+			final ASN1StreamParser parser = new ASN1StreamParser(encoded);
+			final ASN1SequenceParser certificateList = (ASN1SequenceParser) parser.readObject();
+			final ASN1SequenceParser tbsCertList = (ASN1SequenceParser) certificateList.readObject();
+
+			ASN1Encodable object = tbsCertList.readObject();
+			if (object instanceof ASN1Integer) {
+				// version
+				object = tbsCertList.readObject();
+			}
+			final String signatureAlgorithmOID = AlgorithmIdentifier.getInstance(object.toASN1Primitive()).getAlgorithm().getId();
+			final X500Name issuer = X500Name.getInstance(tbsCertList.readObject().toASN1Primitive());
+			final X500Principal issuerX500Principal = new X500Principal(issuer.getEncoded());
+			final Date thisUpdate = Time.getInstance(tbsCertList.readObject().toASN1Primitive()).getDate();
+			Date nextUpdate = null;
+			object = tbsCertList.readObject();
+			if ((object instanceof ASN1UTCTime) || (object instanceof ASN1GeneralizedTime)) {
+
+				nextUpdate = Time.getInstance(object.toASN1Primitive()).getDate();
+				object = tbsCertList.readObject();
+			}
+			final EntryBuffer entries = new EntryBuffer();
+			if (object instanceof ASN1SequenceParser) {
+
+				final ASN1SequenceParser revokedCertificates = (ASN1SequenceParser) object;
+				ASN1Encodable revokedCertificate;
+				while ((revokedCertificate = revokedCertificates.readObject()) != null) {
+					entries.add(ASN1Sequence.getInstance(revokedCertificate.toASN1Primitive()));
+				}
+			}
+			return new CRLIndex(encoded, signatureAlgorithmOID, issuerX500Principal, thisUpdate, nextUpdate, entries);
+		} catch (IOException e) {
+			throw new DSSException(e);
+		} catch (RuntimeException e) {
+			throw new DSSException("Unable to index the CRL: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * @param serialNumber the serial number of the certificate
+	 * @return the position of the entry of the given serial number or -1 if the certificate is not revoked
+	 */
+	public int indexOf(final BigInteger serialNumber) {
+
+		final byte[] key = serialNumber.toByteArray();
+		int low = 0;
+		int high = revocationDates.length - 1;
+		while (low <= high) {
+
+			final int middle = (low + high) >>> 1;
+			final int comparison = compare(serialNumbers, serialOffsets[middle], serialOffsets[middle + 1], key, 0, key.length);
+			if (comparison < 0) {
+				low = middle + 1;
+			} else if (comparison > 0) {
+				high = middle - 1;
+			} else {
+				return middle;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @param index the position of the entry (see {@link #indexOf(BigInteger)})
+	 * @return the revocation date of the entry
+	 */
+	public Date getRevocationDate(final int index) {
+		return new Date(revocationDates[index]);
+	}
+
+	/**
+	 * @param index the position of the entry (see {@link #indexOf(BigInteger)})
+	 * @return the name of the reason of the revocation ({@code CRLReasonEnum}), {@code unspecified} if the entry has no reasonCode extension
+	 */
+	public String getRevocationReason(final int index) {
+
+		final byte reason = reasons[index];
+		if (reason == NO_REASON) {
+			return CRLReasonEnum.unspecified.name();
+		}
+		return CRLReasonEnum.fromInt(reason).name();
+	}
+
+	/**
+	 * @return the number of revoked certificates
+	 */
+	public int size() {
+		return revocationDates.length;
+	}
+
+	/**
+	 * @return the OID of the algorithm used to sign the CRL
+	 */
+	public String getSignatureAlgorithmOID() {
+		return signatureAlgorithmOID;
+	}
+
+	/**
+	 * @return the issuer of the CRL
+	 */
+	public X500Principal getIssuerX500Principal() {
+		return issuerX500Principal;
+	}
+
+	/**
+	 * @return the thisUpdate date of the CRL
+	 */
+	public Date getThisUpdate() {
+		return thisUpdate;
+	}
+
+	/**
+	 * @return the nextUpdate date of the CRL or null
+	 */
+	public Date getNextUpdate() {
+		return nextUpdate;
+	}
+
+	/**
+	 * @return a copy of the DER encoded CRL
+	 */
+	public byte[] getEncoded() {
+		return encoded.clone();
+	}
+
+	/**
+	 * @return the DER encoded CRL itself, it must not be modified
+	 */
+	byte[] getEncodedInternal() {
+		return encoded;
+	}
+
+	/**
+	 * @return an estimation of the memory used by this index in bytes (encoded CRL included)
+	 */
+	public long getMemorySize() {
+		return (long) encoded.length + serialNumbers.length + (4L * serialOffsets.length) + (8L * revocationDates.length) + reasons.length;
+	}
+
+	/**
+	 * This method returns the {@code X509CRL} of the encoded CRL. It is parsed at the first call and parsed again only if it has been reclaimed by the
+	 * garbage collector. Two threads may parse it at the same time, both results are equal.
+	 *
+	 * @return the {@code X509CRL}
+	 */
+	public X509CRL toX509CRL() {
+
+		final SoftReference<X509CRL> reference = x509CRLReference;
+		X509CRL x509CRL = reference == null ? null : reference.get();
+		if (x509CRL == null) {
+
+			x509CRL = DSSUtils.loadCRL(encoded);
+			x509CRLReference = new SoftReference<X509CRL>(x509CRL);
+		}
+		return x509CRL;
+	}
+
+	/**
+	 * This method compares two serial numbers: the shorter one first, then byte by byte. It is not the numerical order, but it is a total order in
+	 * which the equal serial numbers are equal.
+	 */
+	private static int compare(final byte[] array1, final int from1, final int to1, final byte[] array2, final int from2, final int to2) {
+
+		final int length1 = to1 - from1;
+		final int length2 = to2 - from2;
+		if (length1 != length2) {
+			return length1 < length2 ? -1 : 1;
+		}
+		for (int ii = 0; ii < length1; ii++) {
+
+			final int byte1 = array1[from1 + ii] & 0xFF;
+			final int byte2 = array2[from2 + ii] & 0xFF;
+			if (byte1 != byte2) {
+				return byte1 < byte2 ? -1 : 1;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * The entries in the order of the CRL, before sorting.
+	 */
+	private static class EntryBuffer {
+
+		private byte[] serialNumbers = new byte[1024];
+
+		private int serialLength;
+
+		private int[] serialOffsets = new int[129];
+
+		private long[] revocationDates = new long[128];
+
+		private byte[] reasons = new byte[128];
+
+		private int size;
+
+		void add(final ASN1Sequence revokedCertificate) {
+
+			final byte[] serialNumber = ASN1Integer.getInstance(revokedCertificate.getObjectAt(0)).getValue().toByteArray();
+			final Date revocationDate = Time.getInstance(revokedCertificate.getObjectAt(1)).getDate();
+			byte reason = NO_REASON;
+			if (revokedCertificate.size() > 2) {
+
+				final Extensions extensions = Extensions.getInstance(revokedCertificate.getObjectAt(2));
+				final Extension reasonCode = extensions.getExtension(Extension.reasonCode);
+				if (reasonCode != null) {
+					reason = ASN1Enumerated.getInstance(reasonCode.getParsedValue()).getValue().byteValue();
+				}
+			}
+			if (size == revocationDates.length) {
+
+				final int capacity = size * 2;
+				serialOffsets = Arrays.copyOf(serialOffsets, capacity + 1);
+				revocationDates = Arrays.copyOf(revocationDates, capacity);
+				reasons = Arrays.copyOf(reasons, capacity);
+			}
+			if (serialLength + serialNumber.length > serialNumbers.length) {
+				serialNumbers = Arrays.copyOf(serialNumbers, Math.max(serialNumbers.length * 2, serialLength + serialNumber.length));
+			}
+			System.arraycopy(serialNumber, 0, serialNumbers, serialLength, serialNumber.length);
+			serialOffsets[size] = serialLength;
+			serialLength += serialNumber.length;
+			serialOffsets[size + 1] = serialLength;
+			revocationDates[size] = revocationDate.getTime();
+			reasons[size] = reason;
+			size++;
+		}
+
+		/**
+		 * @return the positions of the entries sorted by serial number (merge sort, the entries are often already sorted)
+		 */
+		int[] sort() {
+
+			int[] order = new int[size];
+			for (int ii = 0; ii < size; ii++) {
+				order[ii] = ii;
+			}
+			int[] buffer = new int[size];
+			for (int width = 1; width < size; width *= 2) {
+
+				for (int low = 0; low < size; low += 2 * width) {
+
+					final int middle = Math.min(low + width, size);
+					final int high = Math.min(low + 2 * width, size);
+					merge(order, buffer, low, middle, high);
+				}
+				final int[] swap = order;
+				order = buffer;
+				buffer = swap;
+			}
+			return order;
+		}
+
+		private void merge(final int[] source, final int[] target, final int low, final int middle, final int high) {
+
+			int left = low;
+			int right = middle;
+			for (int ii = low; ii < high; ii++) {
+
+				if ((left < middle) && ((right >= high) || (compare(source[left], source[right]) <= 0))) {
+					target[ii] = source[left++];
+				} else {
+					target[ii] = source[right++];
+				}
+			}
+		}
+
+		private int compare(final int entry1, final int entry2) {
+			return CRLIndex.compare(serialNumbers, serialOffsets[entry1], serialOffsets[entry1 + 1], serialNumbers, serialOffsets[entry2],
+				serialOffsets[entry2 + 1]);
+		}
+	}
+}
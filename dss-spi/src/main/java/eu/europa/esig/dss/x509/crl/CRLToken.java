@@ -20,6 +20,7 @@
  */
 package eu.europa.esig.dss.x509.crl;
 
+import java.io.IOException;
 import java.math.BigInteger;
 import java.security.cert.CRLException;
 import java.security.cert.X509CRL;
@@ -88,20 +89,31 @@ public class CRLToken extends RevocationToken {
 		if (crlValidity == null) {
 			throw new NullPointerException();
 		}
-		if (crlValidity.getX509CRL() == null) {
+		if ((crlValidity.getCrlIndex() == null) && (crlValidity.getX509CRL() == null)) {
 			throw new NullPointerException();
 		}
 	}
 
 	private void setDefaultValues() {
 
-		final X509CRL x509crl = crlValidity.getX509CRL();
-		final String sigAlgOID = x509crl.getSigAlgOID();
+		final CRLIndex crlIndex = crlValidity.getCrlIndex();
+		final String sigAlgOID;
+		if (crlIndex != null) {
+
+			sigAlgOID = crlIndex.getSignatureAlgorithmOID();
+			this.issuingTime = crlIndex.getThisUpdate();
+			this.nextUpdate = crlIndex.getNextUpdate();
+			issuerX500Principal = crlIndex.getIssuerX500Principal();
+		} else {
+
+			final X509CRL x509crl = crlValidity.getX509CRL();
+			sigAlgOID = x509crl.getSigAlgOID();
+			this.issuingTime = x509crl.getThisUpdate();
+			this.nextUpdate = x509crl.getNextUpdate();
+			issuerX500Principal = x509crl.getIssuerX500Principal();
+		}
 		final SignatureAlgorithm signatureAlgorithm = SignatureAlgorithm.forOID(sigAlgOID);
 		this.algorithmUsedToSignToken = signatureAlgorithm;
-		this.issuingTime = x509crl.getThisUpdate();
-		this.nextUpdate = x509crl.getNextUpdate();
-		issuerX500Principal = x509crl.getIssuerX500Principal();
 		this.extraInfo = new TokenValidationExtraInfo();
 
 		issuerToken = crlValidity.getIssuerToken();
@@ -126,6 +138,18 @@ public class CRLToken extends RevocationToken {
 		}
 
 		final BigInteger serialNumber = certificateToken.getSerialNumber();
+		final CRLIndex crlIndex = crlValidity.getCrlIndex();
+		if (crlIndex != null) {
+
+			final int index = crlIndex.indexOf(serialNumber);
+			status = index < 0;
+			if (!status) {
+
+				revocationDate = crlIndex.getRevocationDate(index);
+				reason = crlIndex.getRevocationReason(index);
+			}
+			return;
+		}
 		final X509CRL x509crl = crlValidity.getX509CRL();
 		final X509CRLEntry crlEntry = x509crl.getRevokedCertificate(serialNumber);
 		status = null == crlEntry;
@@ -139,6 +163,15 @@ public class CRLToken extends RevocationToken {
 	}
 
 	/**
+	 * @return the {@code CRLValidity} containing the information about the validity of the CRL
+	 */
+	public CRLValidity getCrlValidity() {
+		return crlValidity;
+	}
+
+	/**
+	 * When the CRL is kept in its compact form ({@code CRLIndex}), the {@code X509CRL} is parsed once and cached by the index.
+	 *
 	 * @return the x509crl
 	 */
 	public X509CRL getX509crl() {
@@ -150,6 +183,15 @@ public class CRLToken extends RevocationToken {
 	 */
 	public X509CRLHolder getX509CrlHolder() {
 
+		final CRLIndex crlIndex = crlValidity.getCrlIndex();
+		if (crlIndex != null) {
+
+			try {
+				return new X509CRLHolder(crlIndex.getEncodedInternal());
+			} catch (IOException e) {
+				throw new DSSException(e);
+			}
+		}
 		try {
 
 			final X509CRL x509crl = getX509crl();
@@ -205,6 +247,11 @@ public class CRLToken extends RevocationToken {
 
 	@Override
 	public byte[] getEncoded() {
+
+		final CRLIndex crlIndex = crlValidity.getCrlIndex();
+		if (crlIndex != null) {
+			return crlIndex.getEncoded();
+		}
 		try {
 			return crlValidity.getX509CRL().getEncoded();
 		} catch (CRLException e) {
@@ -229,7 +276,7 @@ public class CRLToken extends RevocationToken {
 	 * @return the thisUpdate date from the CRL.
 	 */
 	public Date getThisUpdate() {
-		return crlValidity.getX509CRL().getThisUpdate();
+		return issuingTime;
 	}
 
 	@Override
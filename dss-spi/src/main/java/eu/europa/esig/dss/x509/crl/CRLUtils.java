@@ -81,6 +81,29 @@ public class CRLUtils {
 		return crlValidity;
 	}
 
+	/**
+	 * This method returns a copy of the given {@code CRLValidity} which keeps the compact representation of the CRL ({@code CRLIndex}) instead of the
+	 * {@code X509CRL}. It is meant for the CRLs kept in memory for a long time, the {@code X509CRL} of a large CRL keeps an object per entry.
+	 *
+	 * @param crlValidity the {@code CRLValidity} of a verified CRL
+	 * @return the compact {@code CRLValidity}
+	 */
+	public static CRLValidity toCompactCRLValidity(final CRLValidity crlValidity) {
+
+		if (crlValidity.getCrlIndex() != null) {
+			return crlValidity;
+		}
+		final X509CRL x509CRL = crlValidity.getX509CRL();
+		final CRLValidity compactCRLValidity = new CRLValidity(crlValidity);
+		try {
+			compactCRLValidity.setCrlIndex(CRLIndex.build(x509CRL.getEncoded()));
+		} catch (CRLException e) {
+			throw new DSSException(e);
+		}
+		compactCRLValidity.setX509CRL(null);
+		return compactCRLValidity;
+	}
+
 	private static void checkSignatureValue(final X509CRL x509CRL, final CertificateToken issuerToken, final CRLValidity crlValidity) {
 
 		try {
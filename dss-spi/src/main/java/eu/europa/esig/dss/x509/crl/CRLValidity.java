@@ -31,6 +31,7 @@ import eu.europa.esig.dss.x509.CertificateToken;
 public class CRLValidity {
 
 	private X509CRL x509CRL = null;
+	private CRLIndex crlIndex = null;
 	private boolean issuerX509PrincipalMatches = false;
 	private boolean signatureIntact = false;
 	private boolean crlSignKeyUsage = false;
@@ -38,7 +39,37 @@ public class CRLValidity {
 	private CertificateToken issuerToken = null;
 	private String signatureInvalidityReason = "";
 
+	public CRLValidity() {
+	}
+
+	/**
+	 * The copy constructor: the result of the verification of the given {@code CRLValidity} is copied.
+	 *
+	 * @param crlValidity the {@code CRLValidity} to copy
+	 */
+	public CRLValidity(final CRLValidity crlValidity) {
+
+		x509CRL = crlValidity.x509CRL;
+		crlIndex = crlValidity.crlIndex;
+		issuerX509PrincipalMatches = crlValidity.issuerX509PrincipalMatches;
+		signatureIntact = crlValidity.signatureIntact;
+		crlSignKeyUsage = crlValidity.crlSignKeyUsage;
+		unknownCriticalExtension = crlValidity.unknownCriticalExtension;
+		issuerToken = crlValidity.issuerToken;
+		signatureInvalidityReason = crlValidity.signatureInvalidityReason;
+	}
+
+	/**
+	 * When only the {@code CRLIndex} is kept, the {@code X509CRL} is parsed at the first call and cached by the index (see
+	 * {@link CRLIndex#toX509CRL()}).
+	 *
+	 * @return the {@code X509CRL}
+	 */
 	public X509CRL getX509CRL() {
+
+		if ((x509CRL == null) && (crlIndex != null)) {
+			return crlIndex.toX509CRL();
+		}
 		return x509CRL;
 	}
 
@@ -46,6 +77,17 @@ public class CRLValidity {
 		x509CRL = x509crl;
 	}
 
+	/**
+	 * @return the compact representation of the CRL or null if the {@code X509CRL} is kept
+	 */
+	public CRLIndex getCrlIndex() {
+		return crlIndex;
+	}
+
+	public void setCrlIndex(CRLIndex crlIndex) {
+		this.crlIndex = crlIndex;
+	}
+
 	public boolean isIssuerX509PrincipalMatches() {
 		return issuerX509PrincipalMatches;
 	}
@@ -61,10 +61,13 @@ public abstract class OfflineCRLSource implements CRLSource {
 
 			throw new NullPointerException();
 		}
-		final CRLToken validCRLToken = validCRLTokenList.get(certificateToken);
-		if (validCRLToken != null) {
+		synchronized (validCRLTokenList) {
 
-			return validCRLToken;
+			final CRLToken validCRLToken = validCRLTokenList.get(certificateToken);
+			if (validCRLToken != null) {
+
+				return validCRLToken;
+			}
 		}
 		final CertificateToken issuerToken = certificateToken.getIssuerToken();
 		if (issuerToken == null) {
@@ -76,7 +79,9 @@ public abstract class OfflineCRLSource implements CRLSource {
 			return null;
 		}
 		final CRLToken crlToken = new CRLToken(certificateToken, bestCRLValidity);
-		validCRLTokenList.put(certificateToken, crlToken);
+		synchronized (validCRLTokenList) {
+			validCRLTokenList.put(certificateToken, crlToken);
+		}
 		return crlToken;
 	}
 
@@ -0,0 +1,100 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * <p/>
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * <p/>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p/>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.validation.policy;
+
+import java.util.Date;
+import java.util.List;
+
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.XmlDom;
+
+/**
+ * This {@code DiagnosticDataAccessor} checks that two accessors give the same values: each value returned by the checked accessor is compared with
+ * the value returned by the reference accessor and a {@code DSSException} is thrown when they differ. It is used to check that the values read from
+ * the JAXB diagnostic data are the same as those read from its DOM (see {@link JaxbProcessExecutor#setCrossCheck(boolean)}).
+ */
+public class CrossCheckDiagnosticDataAccessor implements DiagnosticDataAccessor {
+
+	private final DiagnosticDataAccessor reference;
+
+	private final DiagnosticDataAccessor checked;
+
+	/**
+	 * @param reference the accessor giving the expected values
+	 * @param checked   the accessor whose values are checked and returned
+	 */
+	public CrossCheckDiagnosticDataAccessor(final DiagnosticDataAccessor reference, final DiagnosticDataAccessor checked) {
+
+		this.reference = reference;
+		this.checked = checked;
+	}
+
+	@Override
+	public Date getSigningTime(final XmlDom signature) {
+
+		final Date signingTime = checked.getSigningTime(signature);
+		check("SigningTime", reference.getSigningTime(signature), signingTime);
+		return signingTime;
+	}
+
+	@Override
+	public List<TimestampData> getTimestamps(final XmlDom signature) {
+
+		final List<TimestampData> timestamps = checked.getTimestamps(signature);
+		final List<TimestampData> expectedTimestamps = reference.getTimestamps(signature);
+		check("Timestamps/size", expectedTimestamps.size(), timestamps.size());
+		for (int ii = 0; ii < timestamps.size(); ii++) {
+			check(expectedTimestamps.get(ii), timestamps.get(ii));
+		}
+		return timestamps;
+	}
+
+	@Override
+	public TimestampData getTimestamp(final XmlDom signature, final XmlDom timestamp) {
+
+		final TimestampData timestampData = checked.getTimestamp(signature, timestamp);
+		check(reference.getTimestamp(signature, timestamp), timestampData);
+		return timestampData;
+	}
+
+	private static void check(final TimestampData expected, final TimestampData actual) {
+
+		check("Timestamp/Id", expected.getId(), actual.getId());
+		final String id = expected.getId();
+		check("Timestamp[" + id + "]/Type", expected.getType(), actual.getType());
+		check("Timestamp[" + id + "]/ProductionTime", expected.getProductionTime(), actual.getProductionTime());
+		check("Timestamp[" + id + "]/MessageImprintDataFound", expected.isMessageImprintDataFound(), actual.isMessageImprintDataFound());
+		check("Timestamp[" + id + "]/MessageImprintDataIntact", expected.isMessageImprintDataIntact(), actual.isMessageImprintDataIntact());
+		check("Timestamp[" + id + "]/SignedDataDigestAlgo", expected.getSignedDataDigestAlgo(), actual.getSignedDataDigestAlgo());
+		check("Timestamp[" + id + "]/EncryptionAlgoUsedToSignThisToken", expected.getEncryptionAlgoUsedToSignThisToken(),
+			  actual.getEncryptionAlgoUsedToSignThisToken());
+		check("Timestamp[" + id + "]/DigestAlgoUsedToSignThisToken", expected.getDigestAlgoUsedToSignThisToken(), actual.getDigestAlgoUsedToSignThisToken());
+		check("Timestamp[" + id + "]/KeyLengthUsedToSignThisToken", expected.getKeyLengthUsedToSignThisToken(), actual.getKeyLengthUsedToSignThisToken());
+	}
+
+	private static void check(final String name, final Object expected, final Object actual) {
+
+		final boolean equal = expected == null ? actual == null : expected.equals(actual);
+		if (!equal) {
+			throw new DSSException(String.format("The diagnostic data accessors differ for %s: expected '%s' but was '%s'!", name, expected, actual));
+		}
+	}
+}
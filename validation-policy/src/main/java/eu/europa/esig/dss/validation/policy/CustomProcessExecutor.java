@@ -20,12 +20,23 @@
  */
 package eu.europa.esig.dss.validation.policy;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.Document;
 
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.DSSXMLUtils;
 import eu.europa.esig.dss.XmlDom;
 import eu.europa.esig.dss.validation.policy.rules.NodeName;
 import eu.europa.esig.dss.validation.process.LongTermValidation;
@@ -78,9 +89,22 @@ public class CustomProcessExecutor implements ProcessExecutor {
 	protected Date currentTime = new Date();
 
 	/**
-	 * This variable indicates the number of concurrent threads to use during the validation. {@code 0} means that there is no limit.
+	 * This variable indicates the number of concurrent threads to use during the validation. {@code 1} (default) means that the signatures are validated
+	 * sequentially. {@code 0} means that there is no limit: the number of threads is then bounded by the number of available processors.
+	 * <p/>
+	 * In the concurrent mode each signature is validated with its own set of POEs: the POEs extracted from the timestamps of a signature are not used
+	 * for the validation of the other signatures of the document. In the sequential mode the set of POEs is shared and the POEs extracted during the
+	 * validation of a signature are also available for the signatures which follow. Both modes give the same reports unless the validation of a
+	 * signature relies on the POEs of another signature.
 	 */
-	protected int concurrentThreadNumber = 0;
+	protected int concurrentThreadNumber = 1;
+
+	/**
+	 * The pool of threads used to validate the signatures concurrently. When not set, a pool shared by all the instances is used.
+	 */
+	private ExecutorService executorService;
+
+	private static ExecutorService sharedExecutorService;
 
 	/**
 	 * This is the default constructor. The process parameters must be initialised wih setters: {@code setDiagnosticDataDom} and {@code setValidationPolicyDom}
@@ -99,6 +123,17 @@ public class CustomProcessExecutor implements ProcessExecutor {
 		this.concurrentThreadNumber = concurrentThreadNumber;
 	}
 
+	/**
+	 * This method allows to set the pool of threads used to validate the signatures concurrently (see {@link #setConcurrentThreadNumber(int)}). The
+	 * pool is not shut down by this class. Whatever the size of the pool, no more than {@code concurrentThreadNumber} signatures are validated at the
+	 * same time.
+	 *
+	 * @param executorService the {@code ExecutorService} to use
+	 */
+	public void setExecutorService(final ExecutorService executorService) {
+		this.executorService = executorService;
+	}
+
 	@Override
 	public void setDiagnosticDataDom(final Document diagnosticDataDom) {
 		this.diagnosticDataDom = diagnosticDataDom;
@@ -134,6 +169,7 @@ public class CustomProcessExecutor implements ProcessExecutor {
 		context = new ProcessParameters();
 		diagnosticData = new DiagnosticData(diagnosticDataDom);
 		context.setDiagnosticData(diagnosticData);
+		context.setDiagnosticDataAccessor(getDiagnosticDataAccessor());
 		context.setValidationPolicy(validationPolicy);
 		context.setCountersignatureValidationPolicy(countersignatureValidationPolicy);
 		context.setCurrentTime(currentTime);
@@ -141,8 +177,16 @@ public class CustomProcessExecutor implements ProcessExecutor {
 		final XmlNode mainNode = new XmlNode(NodeName.VALIDATION_DATA);
 		mainNode.setNameSpace(XmlDom.NAMESPACE);
 
-		final LongTermValidation ltv = new LongTermValidation();
-		ltv.run(mainNode, context);
+		final List<XmlDom> signatures = context.getSignatures();
+		final int threadNumber = getThreadNumber(signatures.size());
+		if (threadNumber > 1) {
+
+			executeConcurrently(mainNode, signatures, threadNumber);
+		} else {
+
+			final LongTermValidation ltv = new LongTermValidation();
+			ltv.run(mainNode, context);
+		}
 
 		final Document validationReportDocument = mainNode.toDocument(null);
 		detailedReport = new DetailedReport(validationReportDocument);
@@ -154,6 +198,211 @@ public class CustomProcessExecutor implements ProcessExecutor {
 		return reports;
 	}
 
+	/**
+	 * This method returns the {@code DiagnosticDataAccessor} used by the validation processes to read the diagnostic data. By default the values are read
+	 * from the DOM of the diagnostic data.
+	 *
+	 * @return the {@code DiagnosticDataAccessor} to use
+	 */
+	protected DiagnosticDataAccessor getDiagnosticDataAccessor() {
+		return new XmlDomDiagnosticDataAccessor();
+	}
+
+	/**
+	 * @param signatureNumber the number of signatures to validate
+	 * @return the number of threads to be used to validate the given number of signatures
+	 */
+	private int getThreadNumber(final int signatureNumber) {
+
+		int threadNumber = concurrentThreadNumber;
+		if (threadNumber <= 0) {
+			threadNumber = Runtime.getRuntime().availableProcessors();
+		}
+		return Math.min(threadNumber, signatureNumber);
+	}
+
+	/**
+	 * This method executes the long term validation process of each signature in its own context, with at most {@code threadNumber} signatures validated
+	 * at the same time. The partial detailed reports are then merged, in the order of the signatures within the diagnostic data, into the
+	 * {@code mainNode}. The result is therefore independent of the order in which the signatures are processed.
+	 *
+	 * @param mainNode     {@code XmlNode} container for the detailed report
+	 * @param signatures   the {@code List} of signatures to validate
+	 * @param threadNumber the size of the pool of threads
+	 */
+	private void executeConcurrently(final XmlNode mainNode, final List<XmlDom> signatures, final int threadNumber) {
+
+		// The diagnostic data and the policies are shared (read-only) by all threads.
+		DSSXMLUtils.expandAllNodes(diagnosticData.rootElement);
+		DSSXMLUtils.expandAllNodes(validationPolicy.rootElement);
+		if (countersignatureValidationPolicy != null) {
+			DSSXMLUtils.expandAllNodes(countersignatureValidationPolicy.rootElement);
+		}
+		LOG.debug("Validation of {} signatures with {} threads.", signatures.size(), threadNumber);
+
+		final List<ProcessParameters> signatureParamsList = new ArrayList<ProcessParameters>();
+		for (final XmlDom signature : signatures) {
+			signatureParamsList.add(context.forSignature(signature));
+		}
+		final SignatureValidationResult[] results = new SignatureValidationResult[signatureParamsList.size()];
+		final AtomicInteger nextSignatureIndex = new AtomicInteger();
+		final ExecutorService executorService = getExecutorService();
+		final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+		try {
+
+			for (int ii = 0; ii < threadNumber; ii++) {
+				futures.add(executorService.submit(new SignatureValidationTask(signatureParamsList, nextSignatureIndex, results)));
+			}
+			for (final Future<Void> future : futures) {
+				getResult(future);
+			}
+		} finally {
+
+			for (final Future<Void> future : futures) {
+				future.cancel(true);
+			}
+		}
+		for (final SignatureValidationResult result : results) {
+
+			if (context.getGeneralStructureConclusion() == null) {
+				context.setGeneralStructureConclusion(result.params.getGeneralStructureConclusion());
+			}
+			mergeValidationData(mainNode, result.validationDataXmlNode);
+		}
+		context.setBasicBuildingBlocksReport(getValidationData(mainNode, NodeName.BASIC_BUILDING_BLOCKS));
+		context.setBvXmlDom(getValidationData(mainNode, NodeName.BASIC_VALIDATION_DATA));
+		context.setTsXmlDom(getValidationData(mainNode, NodeName.TIMESTAMP_VALIDATION_DATA));
+		context.setAdestXmlDom(getValidationData(mainNode, NodeName.ADEST_VALIDATION_DATA));
+		context.setLtvXmlDom(getValidationData(mainNode, NodeName.LONG_TERM_VALIDATION_DATA));
+	}
+
+	private ExecutorService getExecutorService() {
+
+		if (executorService != null) {
+			return executorService;
+		}
+		synchronized (CustomProcessExecutor.class) {
+
+			if (sharedExecutorService == null) {
+
+				sharedExecutorService = Executors.newCachedThreadPool(new ThreadFactory() {
+
+					@Override
+					public Thread newThread(final Runnable runnable) {
+
+						final Thread thread = new Thread(runnable, "CustomProcessExecutor");
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+			}
+			return sharedExecutorService;
+		}
+	}
+
+	private static void getResult(final Future<Void> future) {
+
+		try {
+			future.get();
+		} catch (InterruptedException e) {
+
+			Thread.currentThread().interrupt();
+			throw new DSSException(e);
+		} catch (ExecutionException e) {
+
+			final Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new DSSException(cause);
+		}
+	}
+
+	/**
+	 * This method appends the content of each validation data section (BasicBuildingBlocks, BasicValidationData...) of the partial detailed report to the
+	 * corresponding section of the {@code mainNode}. The general structure data does not depend on the signature and is kept only once.
+	 *
+	 * @param mainNode              {@code XmlNode} container for the detailed report
+	 * @param validationDataXmlNode {@code XmlNode} partial detailed report related to one signature
+	 */
+	private static void mergeValidationData(final XmlNode mainNode, final XmlNode validationDataXmlNode) {
+
+		for (final XmlNode section : validationDataXmlNode.getChildren()) {
+
+			final XmlNode mainSection = getChild(mainNode, section.getName());
+			if (mainSection == null) {
+
+				section.setParent(mainNode);
+			} else if (!NodeName.GENERAL_STRUCTURE_DATA.equals(section.getName())) {
+
+				for (final XmlNode child : section.getChildren()) {
+					child.setParent(mainSection);
+				}
+			}
+		}
+	}
+
+	private static XmlNode getChild(final XmlNode xmlNode, final String name) {
+
+		for (final XmlNode child : xmlNode.getChildren()) {
+
+			if (child.getName().equals(name)) {
+				return child;
+			}
+		}
+		return null;
+	}
+
+	private static XmlDom getValidationData(final XmlNode mainNode, final String name) {
+
+		final XmlNode section = getChild(mainNode, name);
+		return section == null ? null : section.toXmlDom();
+	}
+
+	/**
+	 * This class executes the long term validation process for the signatures which are not yet taken by another task. The result for each signature is
+	 * stored at the index of the signature.
+	 */
+	private static class SignatureValidationTask implements Callable<Void> {
+
+		private final List<ProcessParameters> signatureParamsList;
+		private final AtomicInteger nextSignatureIndex;
+		private final SignatureValidationResult[] results;
+
+		SignatureValidationTask(final List<ProcessParameters> signatureParamsList, final AtomicInteger nextSignatureIndex, final SignatureValidationResult[] results) {
+			this.signatureParamsList = signatureParamsList;
+			this.nextSignatureIndex = nextSignatureIndex;
+			this.results = results;
+		}
+
+		@Override
+		public Void call() throws Exception {
+
+			int signatureIndex;
+			while ((signatureIndex = nextSignatureIndex.getAndIncrement()) < signatureParamsList.size()) {
+
+				final ProcessParameters params = signatureParamsList.get(signatureIndex);
+				final XmlNode validationDataXmlNode = new XmlNode(NodeName.VALIDATION_DATA);
+				validationDataXmlNode.setNameSpace(XmlDom.NAMESPACE);
+				final LongTermValidation ltv = new LongTermValidation();
+				ltv.run(validationDataXmlNode, params);
+				results[signatureIndex] = new SignatureValidationResult(params, validationDataXmlNode);
+			}
+			return null;
+		}
+	}
+
+	private static class SignatureValidationResult {
+
+		private final ProcessParameters params;
+		private final XmlNode validationDataXmlNode;
+
+		SignatureValidationResult(final ProcessParameters params, final XmlNode validationDataXmlNode) {
+			this.params = params;
+			this.validationDataXmlNode = validationDataXmlNode;
+		}
+	}
+
 	/**
 	 * Returns the time of the validation.
 	 *
@@ -0,0 +1,56 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * <p/>
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * <p/>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p/>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.validation.policy;
+
+import java.util.Date;
+import java.util.List;
+
+import eu.europa.esig.dss.XmlDom;
+
+/**
+ * This interface gives a typed access to the diagnostic data read by the building blocks of the validation process (signing time, timestamps...). It
+ * allows these values to be read from another representation of the diagnostic data than its DOM, the {@code XmlDom} representing the signatures and
+ * the timestamps is still used to identify them.
+ * <p/>
+ * Only the values read by TimestampValidation, AdESTValidation and LongTermValidation are covered. The sub-processes and the report builders do not
+ * use this interface and read the DOM of the diagnostic data, which therefore remains mandatory whatever the implementation.
+ */
+public interface DiagnosticDataAccessor {
+
+	/**
+	 * @param signature the {@code XmlDom} representing the signature element from the diagnostic data
+	 * @return the claimed signing time of the signature or null if the signature does not contain the signing-time property/attribute
+	 */
+	Date getSigningTime(final XmlDom signature);
+
+	/**
+	 * @param signature the {@code XmlDom} representing the signature element from the diagnostic data
+	 * @return the {@code List} of all timestamps of the signature in the order of the diagnostic data
+	 */
+	List<TimestampData> getTimestamps(final XmlDom signature);
+
+	/**
+	 * @param signature the {@code XmlDom} representing the signature element from the diagnostic data
+	 * @param timestamp the {@code XmlDom} representing the timestamp element from the diagnostic data
+	 * @return the {@code TimestampData} corresponding to the given timestamp
+	 */
+	TimestampData getTimestamp(final XmlDom signature, final XmlDom timestamp);
+}
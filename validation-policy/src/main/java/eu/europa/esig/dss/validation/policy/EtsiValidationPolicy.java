@@ -22,9 +22,9 @@ package eu.europa.esig.dss.validation.policy;
 
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang.StringUtils;
 import org.w3c.dom.Document;
@@ -43,14 +43,14 @@ public class EtsiValidationPolicy extends ValidationPolicy implements AttributeN
 
 	protected static final String XP_ROOT = "/ConstraintsParameters";
 
-	private long maxRevocationFreshnessString;
+	private volatile long maxRevocationFreshnessString;
 
-	private String maxRevocationFreshnessUnit;
+	private volatile String maxRevocationFreshnessUnit;
 
-	private Long maxRevocationFreshness;
+	private volatile Long maxRevocationFreshness;
 
-	private Long timestampDelayTime;
-	private Map<String, Date> algorithmExpirationDate = new HashMap<String, Date>();
+	private volatile Long timestampDelayTime;
+	private Map<String, Date> algorithmExpirationDate = new ConcurrentHashMap<String, Date>();
 
 	public EtsiValidationPolicy(Document document) {
 
@@ -78,19 +78,21 @@ public class EtsiValidationPolicy extends ValidationPolicy implements AttributeN
 
 		if (maxRevocationFreshness == null) {
 
-			maxRevocationFreshness = Long.MAX_VALUE;
+			// The value is computed locally and published at the end: the policy can be shared by concurrent validation processes.
+			Long freshness = Long.MAX_VALUE;
 
 			final XmlDom revocationFreshness = getElement(XP_ROOT + "/Revocation/RevocationFreshness");
 			if (revocationFreshness != null) {
 
 				maxRevocationFreshnessString = getLongValue(XP_ROOT + "/Revocation/RevocationFreshness/text()");
 				maxRevocationFreshnessUnit = getValue(XP_ROOT + "/Revocation/RevocationFreshness/@Unit");
-				maxRevocationFreshness = RuleUtils.convertDuration(maxRevocationFreshnessUnit, "MILLISECONDS", maxRevocationFreshnessString);
-				if (maxRevocationFreshness == 0) {
+				freshness = RuleUtils.convertDuration(maxRevocationFreshnessUnit, "MILLISECONDS", maxRevocationFreshnessString);
+				if (freshness == 0) {
 
-					maxRevocationFreshness = Long.MAX_VALUE;
+					freshness = Long.MAX_VALUE;
 				}
 			}
+			maxRevocationFreshness = freshness;
 		}
 		return maxRevocationFreshness;
 	}
@@ -98,7 +100,8 @@ public class EtsiValidationPolicy extends ValidationPolicy implements AttributeN
 	@Override
 	public Date getAlgorithmExpirationDate(final String algorithm) {
 
-		Date date = algorithmExpirationDate.get(algorithm);
+		// ConcurrentHashMap does not accept null keys nor null values: such values are not cached.
+		Date date = algorithm == null ? null : algorithmExpirationDate.get(algorithm);
 		if (date == null) {
 
 			final XmlDom algoExpirationDateDom = getElement(XP_ROOT + "/Timestamp/Cryptographic/AlgoExpirationDate");
@@ -118,7 +121,9 @@ public class EtsiValidationPolicy extends ValidationPolicy implements AttributeN
 				throw new DSSException(String.format("The the expiration date is not defined for '%s' algorithm!", algorithm));
 			}
 			date = DSSUtils.parseDate(expirationDateFormat, expirationDateString);
-			algorithmExpirationDate.put(algorithm, date);
+			if (algorithm != null && date != null) {
+				algorithmExpirationDate.put(algorithm, date);
+			}
 		}
 		return date;
 	}
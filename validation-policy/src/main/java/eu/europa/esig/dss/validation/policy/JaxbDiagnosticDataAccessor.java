@@ -0,0 +1,204 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * <p/>
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * <p/>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p/>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.validation.policy;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.datatype.XMLGregorianCalendar;
+
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.XmlDom;
+import eu.europa.esig.dss.jaxb.diagnostic.DiagnosticData;
+import eu.europa.esig.dss.jaxb.diagnostic.XmlBasicSignatureType;
+import eu.europa.esig.dss.jaxb.diagnostic.XmlSignature;
+import eu.europa.esig.dss.jaxb.diagnostic.XmlTimestampType;
+import eu.europa.esig.dss.jaxb.diagnostic.XmlTimestamps;
+import eu.europa.esig.dss.validation.policy.rules.AttributeName;
+
+/**
+ * This implementation of the {@code DiagnosticDataAccessor} reads the values directly from the JAXB object model of the diagnostic data, from which
+ * the DOM of the diagnostic data was marshalled. The signatures and the timestamps are indexed by their id when the instance is created, the instance
+ * is then read-only and can be shared by several threads.
+ */
+public class JaxbDiagnosticDataAccessor implements DiagnosticDataAccessor {
+
+	private final Map<String, SignatureData> signatures = new HashMap<String, SignatureData>();
+
+	/**
+	 * @param diagnosticData the JAXB representation of the diagnostic data
+	 */
+	public JaxbDiagnosticDataAccessor(final DiagnosticData diagnosticData) {
+
+		for (final XmlSignature xmlSignature : diagnosticData.getSignature()) {
+			signatures.put(xmlSignature.getId(), new SignatureData(xmlSignature));
+		}
+	}
+
+	@Override
+	public Date getSigningTime(final XmlDom signature) {
+		return getSignatureData(signature).signingTime;
+	}
+
+	@Override
+	public List<TimestampData> getTimestamps(final XmlDom signature) {
+		return getSignatureData(signature).timestampList;
+	}
+
+	@Override
+	public TimestampData getTimestamp(final XmlDom signature, final XmlDom timestamp) {
+
+		final String timestampId = timestamp.getAttribute(AttributeName.ID);
+		final TimestampData timestampData = getSignatureData(signature).timestamps.get(timestampId);
+		if (timestampData == null) {
+			throw new DSSException("The timestamp is not present in the diagnostic data: " + timestampId);
+		}
+		return timestampData;
+	}
+
+	private SignatureData getSignatureData(final XmlDom signature) {
+
+		final String signatureId = signature.getAttribute(AttributeName.ID);
+		final SignatureData signatureData = signatures.get(signatureId);
+		if (signatureData == null) {
+			throw new DSSException("The signature is not present in the diagnostic data: " + signatureId);
+		}
+		return signatureData;
+	}
+
+	/**
+	 * This method converts the given {@code XMLGregorianCalendar} to the {@code Date} obtained by {@code XmlDom#getTimeValue} from its XML
+	 * representation: the fields of the calendar are interpreted in the default time zone.
+	 *
+	 * @param xmlGregorianCalendar the {@code XMLGregorianCalendar} to convert
+	 * @return the {@code Date} or null if the calendar is null
+	 */
+	private static Date toDate(final XMLGregorianCalendar xmlGregorianCalendar) {
+
+		if (xmlGregorianCalendar == null) {
+			return null;
+		}
+		final Calendar calendar = Calendar.getInstance();
+		calendar.clear();
+		calendar.set(xmlGregorianCalendar.getYear(), xmlGregorianCalendar.getMonth() - 1, xmlGregorianCalendar.getDay(), xmlGregorianCalendar.getHour(),
+			  xmlGregorianCalendar.getMinute(), xmlGregorianCalendar.getSecond());
+		return calendar.getTime();
+	}
+
+	private static String toValue(final String value) {
+		return value == null ? "" : value.trim();
+	}
+
+	private static class SignatureData {
+
+		private final Date signingTime;
+
+		private final List<TimestampData> timestampList;
+
+		private final Map<String, TimestampData> timestamps = new HashMap<String, TimestampData>();
+
+		SignatureData(final XmlSignature xmlSignature) {
+
+			signingTime = toDate(xmlSignature.getDateTime());
+			final List<TimestampData> timestampDataList = new ArrayList<TimestampData>();
+			final XmlTimestamps xmlTimestamps = xmlSignature.getTimestamps();
+			if (xmlTimestamps != null) {
+
+				for (final XmlTimestampType xmlTimestamp : xmlTimestamps.getTimestamp()) {
+
+					final JaxbTimestampData timestampData = new JaxbTimestampData(xmlTimestamp);
+					timestampDataList.add(timestampData);
+					timestamps.put(xmlTimestamp.getId(), timestampData);
+				}
+			}
+			timestampList = Collections.unmodifiableList(timestampDataList);
+		}
+	}
+
+	private static class JaxbTimestampData implements TimestampData {
+
+		private final XmlTimestampType timestamp;
+
+		private final Date productionTime;
+
+		JaxbTimestampData(final XmlTimestampType timestamp) {
+
+			this.timestamp = timestamp;
+			productionTime = toDate(timestamp.getProductionTime());
+		}
+
+		@Override
+		public String getId() {
+			return timestamp.getId();
+		}
+
+		@Override
+		public String getType() {
+			return timestamp.getType();
+		}
+
+		@Override
+		public Date getProductionTime() {
+			return productionTime;
+		}
+
+		@Override
+		public boolean isMessageImprintDataFound() {
+			return timestamp.isMessageImprintDataFound();
+		}
+
+		@Override
+		public boolean isMessageImprintDataIntact() {
+			return timestamp.isMessageImprintDataIntact();
+		}
+
+		@Override
+		public String getSignedDataDigestAlgo() {
+			return toValue(timestamp.getSignedDataDigestAlgo());
+		}
+
+		@Override
+		public String getEncryptionAlgoUsedToSignThisToken() {
+
+			final XmlBasicSignatureType basicSignature = timestamp.getBasicSignature();
+			return basicSignature == null ? "" : toValue(basicSignature.getEncryptionAlgoUsedToSignThisToken());
+		}
+
+		@Override
+		public String getDigestAlgoUsedToSignThisToken() {
+
+			final XmlBasicSignatureType basicSignature = timestamp.getBasicSignature();
+			return basicSignature == null ? "" : toValue(basicSignature.getDigestAlgoUsedToSignThisToken());
+		}
+
+		@Override
+		public String getKeyLengthUsedToSignThisToken() {
+
+			final XmlBasicSignatureType basicSignature = timestamp.getBasicSignature();
+			return basicSignature == null ? "" : toValue(basicSignature.getKeyLengthUsedToSignThisToken());
+		}
+	}
+}
@@ -0,0 +1,96 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * <p/>
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * <p/>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p/>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.validation.policy;
+
+import java.util.Date;
+
+import eu.europa.esig.dss.DSSException;
+import eu.europa.esig.dss.jaxb.diagnostic.DiagnosticData;
+
+/**
+ * This process executor reads some of the data used by the validation processes directly from the JAXB object model of the diagnostic data instead of
+ * evaluating XPath queries on its DOM: the signing time of the signatures and the data of their timestamps (id, type, production time, message imprint
+ * and cryptographic data), see {@link DiagnosticDataAccessor}. These values are read by TimestampValidation, AdESTValidation and LongTermValidation.
+ * <p/>
+ * All the other values are still read from the DOM: the sub-processes (ISC, VCI, CV, SAV, XCV, PSV, PCV, POE extraction) and the report builders
+ * evaluate XPath queries. The DOM of the diagnostic data must therefore still be provided and the marshalling of the JAXB diagnostic data is not
+ * avoided.
+ * <p/>
+ * The {@code CustomProcessExecutor} remains the reference implementation: both executors must produce the same reports. The values read from the
+ * JAXB model can be compared with the values read from the DOM at each access with {@link #setCrossCheck(boolean)}.
+ */
+public class JaxbProcessExecutor extends CustomProcessExecutor {
+
+	private DiagnosticData jaxbDiagnosticData;
+
+	private boolean crossCheck;
+
+	/**
+	 * This is the default constructor. The process parameters must be initialised wih setters: {@code setDiagnosticDataDom},
+	 * {@code setJaxbDiagnosticData} and {@code setValidationPolicy}
+	 */
+	public JaxbProcessExecutor() {
+
+	}
+
+	/**
+	 * This constructor allows to instantiate the validation context with the given date.
+	 *
+	 * @param validationDate specific validation date
+	 */
+	public JaxbProcessExecutor(final Date validationDate) {
+
+		currentTime = validationDate;
+	}
+
+	/**
+	 * This method allows to set the JAXB representation of the diagnostic data. It must correspond to the DOM of the diagnostic data (see
+	 * {@link #setDiagnosticDataDom(org.w3c.dom.Document)}).
+	 *
+	 * @param jaxbDiagnosticData the JAXB representation of the diagnostic data
+	 */
+	public void setJaxbDiagnosticData(final DiagnosticData jaxbDiagnosticData) {
+		this.jaxbDiagnosticData = jaxbDiagnosticData;
+	}
+
+	/**
+	 * This method allows to compare each value read from the JAXB diagnostic data with the value read from its DOM by the
+	 * {@code CustomProcessExecutor}. A {@code DSSException} is thrown by the validation when the values differ. The check is disabled by default.
+	 *
+	 * @param crossCheck true to compare the values read from the JAXB diagnostic data with the values read from the DOM
+	 */
+	public void setCrossCheck(final boolean crossCheck) {
+		this.crossCheck = crossCheck;
+	}
+
+	@Override
+	protected DiagnosticDataAccessor getDiagnosticDataAccessor() {
+
+		if (jaxbDiagnosticData == null) {
+			throw new DSSException("The JAXB diagnostic data must be set!");
+		}
+		final JaxbDiagnosticDataAccessor jaxbDiagnosticDataAccessor = new JaxbDiagnosticDataAccessor(jaxbDiagnosticData);
+		if (crossCheck) {
+			return new CrossCheckDiagnosticDataAccessor(super.getDiagnosticDataAccessor(), jaxbDiagnosticDataAccessor);
+		}
+		return jaxbDiagnosticDataAccessor;
+	}
+}
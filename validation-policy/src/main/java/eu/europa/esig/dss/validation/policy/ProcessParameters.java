@@ -20,6 +20,7 @@
  */
 package eu.europa.esig.dss.validation.policy;
 
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 
@@ -43,6 +44,13 @@ public class ProcessParameters implements AttributeName, ExceptionMessage {
 	 */
 	protected DiagnosticData diagnosticData;
 
+	/**
+	 * This variable gives a typed access to the data of the {@link #diagnosticData} read by the building blocks of the validation process. By
+	 * default the values are read from the DOM of the diagnostic data. It does not replace the {@link #diagnosticData}: the sub-processes still
+	 * read it.
+	 */
+	protected DiagnosticDataAccessor diagnosticDataAccessor;
+
 	/**
 	 * This is the policy data to be used by the validation process. This data are not mandatory but in this case the
 	 * ValidationContextInitialisation sub process will fail.
@@ -131,6 +139,48 @@ public class ProcessParameters implements AttributeName, ExceptionMessage {
 
 	private List<String> contentTimestampIdList;
 
+	/**
+	 * When not null, this variable restricts the set of signatures processed by the validation processes to the given
+	 * list. It is used when each signature is validated in its own execution context (see {@link #forSignature(XmlDom)}).
+	 */
+	private List<XmlDom> signatureScope;
+
+	/**
+	 * This method creates a new {@code ProcessParameters} dedicated to the validation of the given signature. The
+	 * diagnostic data, the validation policies, the current time and the certificate pool are shared with the current
+	 * instance, all the other (per-signature) data are left uninitialised. The returned instance can be used
+	 * independently of the current one, in particular from another thread.
+	 *
+	 * @param signature the {@code XmlDom} representing the signature element from the diagnostic data
+	 * @return the new {@code ProcessParameters} restricted to the given signature
+	 */
+	public ProcessParameters forSignature(final XmlDom signature) {
+
+		final ProcessParameters signatureParams = new ProcessParameters();
+		signatureParams.diagnosticData = diagnosticData;
+		signatureParams.diagnosticDataAccessor = diagnosticDataAccessor;
+		signatureParams.certPool = certPool;
+		signatureParams.validationPolicy = validationPolicy;
+		signatureParams.countersignatureValidationPolicy = countersignatureValidationPolicy;
+		signatureParams.currentTime = currentTime;
+		signatureParams.signatureScope = Collections.singletonList(signature);
+		return signatureParams;
+	}
+
+	/**
+	 * This method returns the list of the signatures to be processed by the validation processes: all the signatures
+	 * from the diagnostic data or only the signature this instance was created for (see {@link #forSignature(XmlDom)}).
+	 *
+	 * @return the {@code List} of {@code XmlDom} representing the signatures to process
+	 */
+	public List<XmlDom> getSignatures() {
+
+		if (signatureScope != null) {
+			return signatureScope;
+		}
+		return diagnosticData.getElements("/DiagnosticData/Signature");
+	}
+
 	/**
 	 * See {@link #diagnosticData}
 	 *
@@ -152,6 +202,28 @@ public class ProcessParameters implements AttributeName, ExceptionMessage {
 		setCertPool(usedCertificates);
 	}
 
+	/**
+	 * See {@link #diagnosticDataAccessor}
+	 *
+	 * @return the {@code DiagnosticDataAccessor} to use to read the diagnostic data
+	 */
+	public DiagnosticDataAccessor getDiagnosticDataAccessor() {
+
+		if (diagnosticDataAccessor == null) {
+			diagnosticDataAccessor = new XmlDomDiagnosticDataAccessor();
+		}
+		return diagnosticDataAccessor;
+	}
+
+	/**
+	 * See {@link #diagnosticDataAccessor}
+	 *
+	 * @param diagnosticDataAccessor the {@code DiagnosticDataAccessor} to use to read the diagnostic data
+	 */
+	public void setDiagnosticDataAccessor(final DiagnosticDataAccessor diagnosticDataAccessor) {
+		this.diagnosticDataAccessor = diagnosticDataAccessor;
+	}
+
 	/**
 	 * See {@link #validationPolicy}
 	 *
@@ -0,0 +1,69 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * <p/>
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * <p/>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p/>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.validation.policy;
+
+import java.util.Date;
+
+/**
+ * This interface gives a typed access to the data of a timestamp from the diagnostic data. The values are those which would be obtained through the
+ * corresponding XPath query on the DOM of the diagnostic data.
+ */
+public interface TimestampData {
+
+	/**
+	 * @return the timestamp id
+	 */
+	String getId();
+
+	/**
+	 * @return the type of the timestamp (see {@code eu.europa.esig.dss.x509.TimestampType})
+	 */
+	String getType();
+
+	/**
+	 * @return the production time of the timestamp
+	 */
+	Date getProductionTime();
+
+	boolean isMessageImprintDataFound();
+
+	boolean isMessageImprintDataIntact();
+
+	/**
+	 * @return the name of the digest algorithm used to compute the message imprint or an empty string
+	 */
+	String getSignedDataDigestAlgo();
+
+	/**
+	 * @return the name of the encryption algorithm used to sign the timestamp or an empty string
+	 */
+	String getEncryptionAlgoUsedToSignThisToken();
+
+	/**
+	 * @return the name of the digest algorithm used to sign the timestamp or an empty string
+	 */
+	String getDigestAlgoUsedToSignThisToken();
+
+	/**
+	 * @return the length of the key used to sign the timestamp or an empty string
+	 */
+	String getKeyLengthUsedToSignThisToken();
+}
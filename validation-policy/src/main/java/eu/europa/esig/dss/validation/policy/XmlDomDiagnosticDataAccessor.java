@@ -0,0 +1,122 @@
+/**
+ * DSS - Digital Signature Services
+ * Copyright (C) 2015 European Commission, provided under the CEF programme
+ * <p/>
+ * This file is part of the "DSS - Digital Signature Services" project.
+ * <p/>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p/>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p/>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package eu.europa.esig.dss.validation.policy;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.commons.lang.StringUtils;
+
+import eu.europa.esig.dss.DSSUtils;
+import eu.europa.esig.dss.XmlDom;
+import eu.europa.esig.dss.validation.policy.rules.AttributeName;
+import eu.europa.esig.dss.validation.process.ValidationXPathQueryHolder;
+
+/**
+ * This is the reference implementation of the {@code DiagnosticDataAccessor}: the values are read through XPath queries on the DOM of the diagnostic
+ * data.
+ */
+public class XmlDomDiagnosticDataAccessor implements DiagnosticDataAccessor, ValidationXPathQueryHolder {
+
+	@Override
+	public Date getSigningTime(final XmlDom signature) {
+
+		final String signingTime = signature.getValue("./DateTime/text()");
+		if (StringUtils.isBlank(signingTime)) {
+			return null;
+		}
+		return DSSUtils.quietlyParseDate(signingTime);
+	}
+
+	@Override
+	public List<TimestampData> getTimestamps(final XmlDom signature) {
+
+		final List<XmlDom> timestamps = signature.getElements("./Timestamps/Timestamp");
+		final List<TimestampData> timestampDataList = new ArrayList<TimestampData>(timestamps.size());
+		for (final XmlDom timestamp : timestamps) {
+			timestampDataList.add(new XmlDomTimestampData(timestamp));
+		}
+		return timestampDataList;
+	}
+
+	@Override
+	public TimestampData getTimestamp(final XmlDom signature, final XmlDom timestamp) {
+		return new XmlDomTimestampData(timestamp);
+	}
+
+	/**
+	 * Each value is read from the DOM only when requested.
+	 */
+	private static class XmlDomTimestampData implements TimestampData {
+
+		private final XmlDom timestamp;
+
+		XmlDomTimestampData(final XmlDom timestamp) {
+			this.timestamp = timestamp;
+		}
+
+		@Override
+		public String getId() {
+			return timestamp.getAttribute(AttributeName.ID);
+		}
+
+		@Override
+		public String getType() {
+			return timestamp.getAttribute(AttributeName.TYPE);
+		}
+
+		@Override
+		public Date getProductionTime() {
+			return timestamp.getTimeValue(XP_PRODUCTION_TIME);
+		}
+
+		@Override
+		public boolean isMessageImprintDataFound() {
+			return timestamp.getBoolValue(XP_MESSAGE_IMPRINT_DATA_FOUND);
+		}
+
+		@Override
+		public boolean isMessageImprintDataIntact() {
+			return timestamp.getBoolValue(XP_MESSAGE_IMPRINT_DATA_INTACT);
+		}
+
+		@Override
+		public String getSignedDataDigestAlgo() {
+			return timestamp.getValue(XP_SIGNED_DATA_DIGEST_ALGO);
+		}
+
+		@Override
+		public String getEncryptionAlgoUsedToSignThisToken() {
+			return timestamp.getValue(XP_ENCRYPTION_ALGO_USED_TO_SIGN_THIS_TOKEN);
+		}
+
+		@Override
+		public String getDigestAlgoUsedToSignThisToken() {
+			return timestamp.getValue(XP_DIGEST_ALGO_USED_TO_SIGN_THIS_TOKEN);
+		}
+
+		@Override
+		public String getKeyLengthUsedToSignThisToken() {
+			return timestamp.getValue(XP_KEY_LENGTH_USED_TO_SIGN_THIS_TOKEN);
+		}
+	}
+}
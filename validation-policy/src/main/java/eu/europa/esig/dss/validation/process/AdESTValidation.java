@@ -35,6 +35,7 @@ import eu.europa.esig.dss.validation.policy.Constraint;
 import eu.europa.esig.dss.validation.policy.ElementNumberConstraint;
 import eu.europa.esig.dss.validation.policy.ProcessParameters;
 import eu.europa.esig.dss.validation.policy.RuleUtils;
+import eu.europa.esig.dss.validation.policy.TimestampData;
 import eu.europa.esig.dss.validation.policy.ValidationPolicy;
 import eu.europa.esig.dss.validation.policy.XmlNode;
 import eu.europa.esig.dss.validation.policy.rules.AttributeName;
@@ -248,7 +249,7 @@ public class AdESTValidation extends BasicValidationProcess implements Indicatio
 		 * NOTE 1: Best-signature-time is an internal variable for the algorithm denoting the earliest time when it can be
 		 * proven that a signature has existed.
 		 */
-		final List<XmlDom> signatureXmlDomList = context.getDiagnosticData().getElements(XP_DIAGNOSTIC_DATA_SIGNATURE);
+		final List<XmlDom> signatureXmlDomList = context.getSignatures();
 		for (final XmlDom signatureXmlDom_ : signatureXmlDomList) {
 
 			// Initialisation of local cache variables.
@@ -298,14 +299,14 @@ public class AdESTValidation extends BasicValidationProcess implements Indicatio
 			return signatureConclusion;
 		}
 		// The search of all timestamps to be analysed.
-		final List<XmlDom> timestampXmlDomList = signatureXmlDom.getElements("./Timestamps/Timestamp");
+		final List<TimestampData> timestampDataList = context.getDiagnosticDataAccessor().getTimestamps(signatureXmlDom);
 
-		for (final XmlDom timestampXmlDom : timestampXmlDomList) {
+		for (final TimestampData timestampData : timestampDataList) {
 
-			final String timestampId = timestampXmlDom.getAttribute(ID);
-			final String timestampTypeString = timestampXmlDom.getAttribute(TYPE);
+			final String timestampId = timestampData.getId();
+			final String timestampTypeString = timestampData.getType();
 			final TimestampType timestampType = valueOf(timestampTypeString);
-			final Date timestampProductionTime = timestampXmlDom.getTimeValue(XP_PRODUCTION_TIME);
+			final Date timestampProductionTime = timestampData.getProductionTime();
 
 			final XmlNode timestampXmlNode = signatureXmlNode.addChild(TIMESTAMP);
 			timestampXmlNode.setAttribute(ID, timestampId);
@@ -314,8 +315,8 @@ public class AdESTValidation extends BasicValidationProcess implements Indicatio
 
 			final Conclusion timestampConclusion = new Conclusion();
 
-			if (checkMessageImprintDataFoundConstraint(timestampXmlNode, timestampConclusion, timestampId, timestampXmlDom)) {
-				if (checkMessageImprintDataIntactConstraint(timestampXmlNode, timestampConclusion, timestampId, timestampXmlDom)) {
+			if (checkMessageImprintDataFoundConstraint(timestampXmlNode, timestampConclusion, timestampId, timestampData)) {
+				if (checkMessageImprintDataIntactConstraint(timestampXmlNode, timestampConclusion, timestampId, timestampData)) {
 					checkSignatureTimestampValidationProcessConstraint(timestampXmlNode, timestampConclusion, timestampId, timestampType, timestampProductionTime);
 			}
 			}
@@ -519,16 +520,16 @@ public class AdESTValidation extends BasicValidationProcess implements Indicatio
 	 * @param timestampXmlNode
 	 * @param conclusion       the conclusion to use to add the result of the check
 	 * @param timestampId
-	 * @param timestampXmlDom  @return false if the check failed and the process should stop, true otherwise
+	 * @param timestampData    @return false if the check failed and the process should stop, true otherwise
 	 */
-	private boolean checkMessageImprintDataFoundConstraint(final XmlNode timestampXmlNode, final Conclusion conclusion, final String timestampId, final XmlDom timestampXmlDom) {
+	private boolean checkMessageImprintDataFoundConstraint(final XmlNode timestampXmlNode, final Conclusion conclusion, final String timestampId, final TimestampData timestampData) {
 
 		final Constraint constraint = validationPolicy.getMessageImprintDataFoundConstraint();
 		if (constraint == null) {
 			return true;
 		}
 		constraint.create(timestampXmlNode, ADEST_IMIDF);
-		final boolean messageImprintDataIntact = timestampXmlDom.getBoolValue(XP_MESSAGE_IMPRINT_DATA_FOUND);
+		final boolean messageImprintDataIntact = timestampData.isMessageImprintDataFound();
 		constraint.setValue(messageImprintDataIntact);
 		constraint.setIndications(INDETERMINATE, SIGNED_DATA_NOT_FOUND, ADEST_IMIDF_ANS);
 		constraint.setAttribute(TIMESTAMP_ID, timestampId);
@@ -543,16 +544,16 @@ public class AdESTValidation extends BasicValidationProcess implements Indicatio
 	 * @param timestampXmlNode
 	 * @param conclusion       the conclusion to use to add the result of the check
 	 * @param timestampId
-	 * @param timestampXmlDom  @return false if the check failed and the process should stop, true otherwise
+	 * @param timestampData    @return false if the check failed and the process should stop, true otherwise
 	 */
-	private boolean checkMessageImprintDataIntactConstraint(final XmlNode timestampXmlNode, final Conclusion conclusion, final String timestampId, final XmlDom timestampXmlDom) {
+	private boolean checkMessageImprintDataIntactConstraint(final XmlNode timestampXmlNode, final Conclusion conclusion, final String timestampId, final TimestampData timestampData) {
 
 		final Constraint constraint = validationPolicy.getMessageImprintDataIntactConstraint();
 		if (constraint == null) {
 			return true;
 		}
 		constraint.create(timestampXmlNode, ADEST_IMIVC);
-		final boolean messageImprintDataIntact = timestampXmlDom.getBoolValue(XP_MESSAGE_IMPRINT_DATA_INTACT);
+		final boolean messageImprintDataIntact = timestampData.isMessageImprintDataIntact();
 		constraint.setValue(messageImprintDataIntact);
 		constraint.setIndications(INVALID, HASH_FAILURE, ADEST_IMIVC_ANS);
 		constraint.setAttribute(TIMESTAMP_ID, timestampId);
@@ -923,8 +924,8 @@ public class AdESTValidation extends BasicValidationProcess implements Indicatio
 		}
 		constraint.create(signatureXmlNode, BBB_SAV_ISQPSTP);
 		constraint.setIndications(INDETERMINATE, CLAIMED_SIGNING_TIME_ABSENT, ADEST_VFDTAOCST_ANS);
-		final String signingTime = signatureXmlDom.getValue("./DateTime/text()");
-		constraint.setValue(StringUtils.isNotBlank(signingTime));
+		final Date signingTime = context.getDiagnosticDataAccessor().getSigningTime(signatureXmlDom);
+		constraint.setValue(signingTime != null);
 		constraint.setConclusionReceiver(conclusion);
 
 		return constraint.check();
@@ -950,8 +951,7 @@ public class AdESTValidation extends BasicValidationProcess implements Indicatio
 		constraint.create(signatureXmlNode, ADEST_ISTPTDABST);
 		constraint.setIndications(INVALID, SIG_CONSTRAINTS_FAILURE, ADEST_ISTPTDABST_ANS);
 		final Long timestampDelay = validationPolicy.getTimestampDelayTime();
-		final String signingTime = signatureXmlDom.getValue("./DateTime/text()");
-		final Date date = DSSUtils.quietlyParseDate(signingTime);
+		final Date date = context.getDiagnosticDataAccessor().getSigningTime(signatureXmlDom);
 		constraint.setValue((date.getTime() + timestampDelay) > bestSignatureTime.getTime());
 		constraint.setConclusionReceiver(conclusion);
 
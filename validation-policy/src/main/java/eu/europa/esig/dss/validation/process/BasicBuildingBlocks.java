@@ -72,7 +72,7 @@ public class BasicBuildingBlocks extends BasicValidationProcess implements NodeN
 
 		final XmlNode basicBuildingBlocksXmlNode = mainXmlNode.addChild(BASIC_BUILDING_BLOCKS);
 
-		final List<XmlDom> signatureXmlDomList = params.getDiagnosticData().getElements("/DiagnosticData/Signature");
+		final List<XmlDom> signatureXmlDomList = params.getSignatures();
 		for (final XmlDom signatureXmlDom : signatureXmlDomList) {
 
 			final String signatureType = signatureXmlDom.getAttribute(TYPE);
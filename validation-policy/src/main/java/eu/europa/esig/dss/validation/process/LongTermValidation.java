@@ -31,6 +31,7 @@ import eu.europa.esig.dss.DSSException;
 import eu.europa.esig.dss.XmlDom;
 import eu.europa.esig.dss.validation.policy.ProcessParameters;
 import eu.europa.esig.dss.validation.policy.RuleUtils;
+import eu.europa.esig.dss.validation.policy.TimestampData;
 import eu.europa.esig.dss.validation.policy.XmlNode;
 import eu.europa.esig.dss.validation.policy.rules.ExceptionMessage;
 import eu.europa.esig.dss.validation.policy.rules.Indication;
@@ -159,7 +160,7 @@ public class LongTermValidation extends BasicValidationProcess implements Indica
 
 		XmlNode longTermValidationData = mainNode.addChild(LONG_TERM_VALIDATION_DATA);
 
-		final List<XmlDom> signatureXmlDomList = context.getDiagnosticData().getElements(XP_DIAGNOSTIC_DATA_SIGNATURE);
+		final List<XmlDom> signatureXmlDomList = context.getSignatures();
 
 		for (final XmlDom signatureXmlDom : signatureXmlDomList) {
 
@@ -302,7 +303,7 @@ public class LongTermValidation extends BasicValidationProcess implements Indica
 		final List<XmlDom> archiveTimestamps = signature.getElements(XP_TIMESTAMPS, TimestampType.ARCHIVE_TIMESTAMP);
 		if (archiveTimestamps.size() > 0) {
 
-			dealWithTimestamp(archiveTimestampsNode, signatureTimestampValidationData, archiveTimestamps);
+			dealWithTimestamp(archiveTimestampsNode, signature, signatureTimestampValidationData, archiveTimestamps);
 		}
 
 		/**
@@ -314,7 +315,7 @@ public class LongTermValidation extends BasicValidationProcess implements Indica
 		final List<XmlDom> refsOnlyTimestamps = signature.getElements(XP_TIMESTAMPS, TimestampType.VALIDATION_DATA_REFSONLY_TIMESTAMP);
 		if (refsOnlyTimestamps.size() > 0) {
 
-			dealWithTimestamp(refsOnlyTimestampsNode, signatureTimestampValidationData, refsOnlyTimestamps);
+			dealWithTimestamp(refsOnlyTimestampsNode, signature, signatureTimestampValidationData, refsOnlyTimestamps);
 		}
 
 		/**
@@ -326,7 +327,7 @@ public class LongTermValidation extends BasicValidationProcess implements Indica
 		final List<XmlDom> sigAndRefsTimestamps = signature.getElements(XP_TIMESTAMPS, TimestampType.VALIDATION_DATA_TIMESTAMP);
 		if (sigAndRefsTimestamps.size() > 0) {
 
-			dealWithTimestamp(sigAndRefsTimestampsNode, signatureTimestampValidationData, sigAndRefsTimestamps);
+			dealWithTimestamp(sigAndRefsTimestampsNode, signature, signatureTimestampValidationData, sigAndRefsTimestamps);
 		}
 		/**
 		 * 7) If there is at least one signature-time-stamp attribute, process them, in the order of their appearance
@@ -337,7 +338,7 @@ public class LongTermValidation extends BasicValidationProcess implements Indica
 		final List<XmlDom> timestamps = signature.getElements(XP_TIMESTAMPS, TimestampType.SIGNATURE_TIMESTAMP);
 		if (timestamps.size() > 0) {
 
-			dealWithTimestamp(timestampsNode, signatureTimestampValidationData, timestamps);
+			dealWithTimestamp(timestampsNode, signature, signatureTimestampValidationData, timestamps);
 		}
 		if (!poe.isThereAnyPOE()) {
 
@@ -385,11 +386,13 @@ public class LongTermValidation extends BasicValidationProcess implements Indica
 
 	/**
 	 * @param parentXmlNode
+	 * @param signature
 	 * @param signatureTimestampValidationData
 	 * @param timestampXmlDomList
 	 * @throws eu.europa.ec.markt.dss.exception.DSSException
 	 */
-	private void dealWithTimestamp(final XmlNode parentXmlNode, final XmlDom signatureTimestampValidationData, final List<XmlDom> timestampXmlDomList) throws DSSException {
+	private void dealWithTimestamp(final XmlNode parentXmlNode, final XmlDom signature, final XmlDom signatureTimestampValidationData,
+	                               final List<XmlDom> timestampXmlDomList) throws DSSException {
 
 		Collections.sort(timestampXmlDomList, new TimestampComparator());
 		for (final XmlDom timestampXmlDom : timestampXmlDomList) {
@@ -410,7 +413,8 @@ public class LongTermValidation extends BasicValidationProcess implements Indica
 
 				XmlNode constraintXmlNode = addConstraint(timestampXmlNode, ADEST_IMIVC);
 
-				final boolean messageImprintDataIntact = timestampXmlDom.getBoolValue(XP_MESSAGE_IMPRINT_DATA_INTACT);
+				final TimestampData timestampData = context.getDiagnosticDataAccessor().getTimestamp(signature, timestampXmlDom);
+				final boolean messageImprintDataIntact = timestampData.isMessageImprintDataIntact();
 				if (!messageImprintDataIntact) {
 
 					constraintXmlNode.addChild(STATUS, KO);
@@ -435,7 +439,7 @@ public class LongTermValidation extends BasicValidationProcess implements Indica
 				if (VALID.equals(timestampIndication)) {
 
 					timestampXmlNode.addChild(POE_EXTRACTION, OK);
-					extractPOEs(timestampXmlDom);
+					extractPOEs(timestampXmlDom, timestampData);
 				} else {
 
 					constraintXmlNode = addConstraint(timestampXmlNode, LTV_ITAPOE);
@@ -471,7 +475,7 @@ public class LongTermValidation extends BasicValidationProcess implements Indica
 					 */
 					if (VALID.equals(psvConclusion.getIndication())) {
 
-						final boolean couldExtract = extractPOEs(timestampXmlDom);
+						final boolean couldExtract = extractPOEs(timestampXmlDom, timestampData);
 						if (couldExtract) {
 							continue;
 						}
@@ -500,14 +504,15 @@ public class LongTermValidation extends BasicValidationProcess implements Indica
 
 	/**
 	 * @param timestamp
+	 * @param timestampData
 	 * @return
 	 * @throws eu.europa.ec.markt.dss.exception.DSSException
 	 */
-	private boolean extractPOEs(final XmlDom timestamp) throws DSSException {
+	private boolean extractPOEs(final XmlDom timestamp, final TimestampData timestampData) throws DSSException {
 
-		final String digestAlgorithm = RuleUtils.canonicalizeDigestAlgo(timestamp.getValue(XP_SIGNED_DATA_DIGEST_ALGO));
+		final String digestAlgorithm = RuleUtils.canonicalizeDigestAlgo(timestampData.getSignedDataDigestAlgo());
 		final Date algorithmExpirationDate = context.getCurrentValidationPolicy().getAlgorithmExpirationDate(digestAlgorithm);
-		final Date timestampProductionTime = timestamp.getTimeValue(XP_PRODUCTION_TIME);
+		final Date timestampProductionTime = timestampData.getProductionTime();
 		if (algorithmExpirationDate == null || timestampProductionTime.before(algorithmExpirationDate)) {
 
 			poe.addPOE(timestamp, context.getCertPool());
@@ -31,6 +31,7 @@ import eu.europa.esig.dss.DSSException;
 import eu.europa.esig.dss.XmlDom;
 import eu.europa.esig.dss.validation.policy.ProcessParameters;
 import eu.europa.esig.dss.validation.policy.SignatureCryptographicConstraint;
+import eu.europa.esig.dss.validation.policy.TimestampData;
 import eu.europa.esig.dss.validation.policy.ValidationPolicy;
 import eu.europa.esig.dss.validation.policy.XmlNode;
 import eu.europa.esig.dss.validation.policy.rules.ExceptionMessage;
@@ -109,7 +110,7 @@ public class TimestampValidation extends BasicValidationProcess implements Indic
 		prepareParameters(params);
 		LOG.debug(this.getClass().getSimpleName() + ": start.");
 
-		final List<XmlDom> signatureXmlNodeList = diagnosticData.getElements("/DiagnosticData/Signature");
+		final List<XmlDom> signatureXmlNodeList = params.getSignatures();
 
 		final XmlNode timestampValidationDataXmlNode = mainXmlNode.addChild(TIMESTAMP_VALIDATION_DATA);
 
@@ -198,7 +199,8 @@ public class TimestampValidation extends BasicValidationProcess implements Indic
 				 * 5.5 Signature Acceptance Validation (SAV)
 				 */
 
-				final Conclusion savConclusion = runSAV(timestamp, basicBuildingBlocksXmlNode);
+				final TimestampData timestampData = params.getDiagnosticDataAccessor().getTimestamp(signatureXmlNode, timestamp);
+				final Conclusion savConclusion = runSAV(timestampData, basicBuildingBlocksXmlNode);
 				if (!savConclusion.isValid()) {
 
 					basicBuildingBlocksXmlNode.addChild(savConclusion.toXmlNode());
@@ -247,11 +249,11 @@ public class TimestampValidation extends BasicValidationProcess implements Indic
 	 * The SAV process for a timestamp is far simpler than that of the principal signature. This is why a specific method
 	 * is dedicated to its treatment.
 	 *
-	 * @param timestampXmlDom
+	 * @param timestampData  {@code TimestampData} of the timestamp being validated
 	 * @param parentXmlNode  the parent process {@code XmlNode} to use to include the validation information
 	 * @return the {@code Conclusion} which indicates the result of the process
 	 */
-	private Conclusion runSAV(final XmlDom timestampXmlDom, final XmlNode parentXmlNode) {
+	private Conclusion runSAV(final TimestampData timestampData, final XmlNode parentXmlNode) {
 
 		/**
 		 * 5.5 Signature Acceptance Validation (SAV)
@@ -259,7 +261,7 @@ public class TimestampValidation extends BasicValidationProcess implements Indic
 
 		final XmlNode subProcessXmlNode = parentXmlNode.addChild(SAV);
 
-		final Conclusion conclusion = processSAV(timestampXmlDom, subProcessXmlNode);
+		final Conclusion conclusion = processSAV(timestampData, subProcessXmlNode);
 
 		final XmlNode conclusionXmlNode = conclusion.toXmlNode();
 		subProcessXmlNode.addChild(conclusionXmlNode);
@@ -281,11 +283,11 @@ public class TimestampValidation extends BasicValidationProcess implements Indic
 	 * INDETERMINATE/CRYPTO_CONSTRAINTS_FAILURE_NO_POE together with the list of algorithms and key sizes, if applicable,
 	 * that are concerned and the time for each of the algorithms up to which the resp. algorithm was considered secure.
 	 *
-	 * @param timestampXmlDom
+	 * @param timestampData
 	 * @param parentXmlNode
 	 * @return the {@code Conclusion} which indicates the result of the process.
 	 */
-	private Conclusion processSAV(final XmlDom timestampXmlDom, final XmlNode parentXmlNode) {
+	private Conclusion processSAV(final TimestampData timestampData, final XmlNode parentXmlNode) {
 
 		final Conclusion conclusion = new Conclusion();
 		conclusion.setLocation(parentXmlNode.getLocation());
@@ -295,9 +297,9 @@ public class TimestampValidation extends BasicValidationProcess implements Indic
 
 			signatureConstraint.create(parentXmlNode, ASCCM);
 			signatureConstraint.setCurrentTime(currentTime);
-			signatureConstraint.setEncryptionAlgorithm(timestampXmlDom.getValue(XP_ENCRYPTION_ALGO_USED_TO_SIGN_THIS_TOKEN));
-			signatureConstraint.setDigestAlgorithm(timestampXmlDom.getValue(XP_DIGEST_ALGO_USED_TO_SIGN_THIS_TOKEN));
-			signatureConstraint.setKeyLength(timestampXmlDom.getValue(XP_KEY_LENGTH_USED_TO_SIGN_THIS_TOKEN));
+			signatureConstraint.setEncryptionAlgorithm(timestampData.getEncryptionAlgoUsedToSignThisToken());
+			signatureConstraint.setDigestAlgorithm(timestampData.getDigestAlgoUsedToSignThisToken());
+			signatureConstraint.setKeyLength(timestampData.getKeyLengthUsedToSignThisToken());
 			signatureConstraint.setIndications(INDETERMINATE, CRYPTO_CONSTRAINTS_FAILURE_NO_POE, EMPTY);
 			signatureConstraint.setConclusionReceiver(conclusion);
 
@@ -312,9 +314,9 @@ public class TimestampValidation extends BasicValidationProcess implements Indic
 
 			signingCertificateConstraint.create(parentXmlNode, ASCCM);
 			signingCertificateConstraint.setCurrentTime(currentTime);
-			signingCertificateConstraint.setEncryptionAlgorithm(timestampXmlDom.getValue(XP_ENCRYPTION_ALGO_USED_TO_SIGN_THIS_TOKEN));
-			signingCertificateConstraint.setDigestAlgorithm(timestampXmlDom.getValue(XP_DIGEST_ALGO_USED_TO_SIGN_THIS_TOKEN));
-			signingCertificateConstraint.setKeyLength(timestampXmlDom.getValue(XP_KEY_LENGTH_USED_TO_SIGN_THIS_TOKEN));
+			signingCertificateConstraint.setEncryptionAlgorithm(timestampData.getEncryptionAlgoUsedToSignThisToken());
+			signingCertificateConstraint.setDigestAlgorithm(timestampData.getDigestAlgoUsedToSignThisToken());
+			signingCertificateConstraint.setKeyLength(timestampData.getKeyLengthUsedToSignThisToken());
 			signingCertificateConstraint.setIndications(INDETERMINATE, CRYPTO_CONSTRAINTS_FAILURE_NO_POE, EMPTY);
 			signingCertificateConstraint.setConclusionReceiver(conclusion);
 